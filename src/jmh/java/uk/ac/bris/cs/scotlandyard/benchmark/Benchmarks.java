@@ -0,0 +1,48 @@
+package uk.ac.bris.cs.scotlandyard.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code target/benchmarks.jar}, takes the usual JMH options.
+ * Unless other profilers are asked for, every run also reports allocation
+ * rates and GC counts ({@code -prof gc}). Unless told otherwise, results are
+ * written to {@code jmh-result.json} so that runs before and after a change
+ * can be compared.
+ */
+public final class Benchmarks {
+
+	private Benchmarks() {}
+
+	public static void main(String[] args) throws RunnerException {
+		CommandLineOptions options;
+		try {
+			options = new CommandLineOptions(args);
+		} catch (CommandLineOptionException e) {
+			System.err.println("Error parsing command line: " + e.getMessage());
+			System.exit(1);
+			return;
+		}
+		if (options.shouldHelp() || options.shouldList() || options.shouldListProfilers()
+				|| options.shouldListResultFormats()) {
+			// listing and help are handled by the stock main
+			try {
+				org.openjdk.jmh.Main.main(args);
+			} catch (Exception e) {
+				throw new RunnerException(e);
+			}
+			return;
+		}
+		ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+		if (options.getProfilers().isEmpty()) builder.addProfiler(GCProfiler.class);
+		if (!options.getResultFormat().hasValue()) builder.resultFormat(ResultFormatType.JSON);
+		new Runner(builder.build()).run();
+	}
+
+}
@@ -0,0 +1,73 @@
+package uk.ac.bris.cs.scotlandyard.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Boards of different sizes in the graph.txt format. A board of scale
+ * {@code n} is {@code n} copies of the standard board, node {@code i} of copy
+ * {@code k} being {@code i + k * 199}; every tenth node of a copy has a taxi
+ * edge to the same node of the next copy so the board stays connected. Scale
+ * 1 is the standard board itself.
+ */
+final class Boards {
+
+	private static final int BRIDGE_EVERY = 10;
+
+	private Boards() {}
+
+	static List<String> lines(int scale) {
+		if (scale < 1) throw new IllegalArgumentException("scale < 1");
+		List<String> standard = standardLines();
+		String[] header = standard.get(0).split(" ");
+		int nodes = Integer.parseInt(header[0]);
+		int edges = Integer.parseInt(header[1]);
+		int bridges = (scale - 1) * (nodes / BRIDGE_EVERY);
+
+		List<String> lines = new ArrayList<>(1 + scale * (nodes + edges) + bridges);
+		lines.add((scale * nodes) + " " + (scale * edges + bridges));
+		for (int k = 0; k < scale; k++)
+			for (int i = 1; i <= nodes; i++)
+				lines.add(Integer.toString(i + k * nodes));
+		for (int k = 0; k < scale; k++) {
+			for (int i = nodes + 1; i <= nodes + edges; i++) {
+				String[] edge = standard.get(i).split(" ");
+				lines.add((Integer.parseInt(edge[0]) + k * nodes) + " "
+						+ (Integer.parseInt(edge[1]) + k * nodes) + " " + edge[2]);
+			}
+		}
+		for (int k = 1; k < scale; k++)
+			for (int i = BRIDGE_EVERY; i <= nodes; i += BRIDGE_EVERY)
+				lines.add((i + (k - 1) * nodes) + " " + (i + k * nodes) + " Taxi");
+		return lines;
+	}
+
+	static ImmutableGraph<Integer, Transport> graph(int scale) {
+		return ScotlandYardGraphReader.fromLines(lines(scale));
+	}
+
+	private static List<String> standardLines() {
+		try (InputStream stream = Boards.class.getClassLoader().getResourceAsStream("graph.txt")) {
+			if (stream == null) throw new IOException("Resource graph.txt not found");
+			BufferedReader reader = new BufferedReader(
+					new InputStreamReader(stream, StandardCharsets.UTF_8));
+			List<String> lines = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null) lines.add(line);
+			return lines;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+}
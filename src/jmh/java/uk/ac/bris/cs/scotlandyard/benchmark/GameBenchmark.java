@@ -0,0 +1,56 @@
+package uk.ac.bris.cs.scotlandyard.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Whole games played by random players, from creating the model to the game
+ * being over. Every invocation plays a different game so the average covers
+ * short and long games alike.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+	@Param({ "1", "4", "16" })
+	public int scale;
+
+	@Param({ "1", "3", "5" })
+	public int detectives;
+
+	private ImmutableGraph<Integer, Transport> graph;
+	private long seed;
+
+	@Setup
+	public void setup() {
+		Games.quiet();
+		graph = Boards.graph(scale);
+	}
+
+	@Benchmark
+	public int fullGame() {
+		ScotlandYardModel model = Games.model(graph, detectives, true, seed++);
+		return Games.play(model, StandardGame.ROUNDS.size() + 1);
+	}
+
+}
@@ -0,0 +1,102 @@
+package uk.ac.bris.cs.scotlandyard.benchmark;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.google.common.io.ByteStreams;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Sets up games for the benchmarks, every player picking a random valid move
+ * from a seeded {@link Random} so runs are repeatable.
+ */
+final class Games {
+
+	private Games() {}
+
+	/**
+	 * The model logs every move to {@link System#out}, without this the
+	 * forked VM's output drowns the benchmark results.
+	 */
+	static void quiet() {
+		System.setOut(new PrintStream(ByteStreams.nullOutputStream()));
+	}
+
+	static ScotlandYardModel model(Graph<Integer, Transport> graph, int detectives,
+			boolean doubles, long seed) {
+		Random random = new Random(seed);
+		Player player = new RandomPlayer(random);
+		Map<Ticket, Integer> mrXTickets = StandardGame.generateMrXTickets();
+		if (!doubles) mrXTickets.put(Ticket.DOUBLE, 0);
+		PlayerConfiguration mrX = new PlayerConfiguration.Builder(Colour.BLACK)
+				.using(player)
+				.with(mrXTickets)
+				.at(StandardGame.generateMrXLocation(random.nextInt()))
+				.build();
+		List<Colour> colours = Arrays.stream(Colour.values())
+				.filter(Colour::isDetective).limit(detectives).collect(toList());
+		List<Integer> locations = StandardGame.generateDetectiveLocations(random.nextInt(),
+				detectives);
+		List<PlayerConfiguration> others = new ArrayList<>();
+		for (int i = 0; i < colours.size(); i++) {
+			others.add(new PlayerConfiguration.Builder(colours.get(i))
+					.using(player)
+					.with(StandardGame.generateDetectiveTickets())
+					.at(locations.get(i))
+					.build());
+		}
+		return new ScotlandYardModel(StandardGame.ROUNDS, graph, mrX, others.get(0),
+				others.stream().skip(1).toArray(PlayerConfiguration[]::new));
+	}
+
+	/**
+	 * Plays rotations until the game is over or the limit is reached
+	 *
+	 * @return the number of rotations played
+	 */
+	static int play(ScotlandYardModel model, int rotations) {
+		int played = 0;
+		while (played < rotations && !model.isGameOver()) {
+			model.startRotate();
+			played++;
+		}
+		return played;
+	}
+
+	static final class RandomPlayer implements Player {
+
+		private final Random random;
+
+		RandomPlayer(Random random) {
+			this.random = random;
+		}
+
+		@Override
+		public void makeMove(ScotlandYardView view, int location, Set<Move> moves,
+				Consumer<Move> callback) {
+			Iterator<Move> iterator = moves.iterator();
+			for (int i = random.nextInt(moves.size()); i > 0; i--) iterator.next();
+			callback.accept(iterator.next());
+		}
+	}
+
+}
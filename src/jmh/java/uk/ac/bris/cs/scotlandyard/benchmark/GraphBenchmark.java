@@ -0,0 +1,57 @@
+package uk.ac.bris.cs.scotlandyard.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.gamekit.graph.UndirectedGraph;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Reading graph.txt and copying the resulting graph, scale 1 being the
+ * standard board.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+	@Param({ "1", "4", "16" })
+	public int scale;
+
+	private List<String> lines;
+	private ImmutableGraph<Integer, Transport> graph;
+
+	@Setup
+	public void setup() {
+		lines = Boards.lines(scale);
+		graph = ScotlandYardGraphReader.fromLines(lines);
+	}
+
+	@Benchmark
+	public ImmutableGraph<Integer, Transport> fromLines() {
+		return ScotlandYardGraphReader.fromLines(lines);
+	}
+
+	@Benchmark
+	public UndirectedGraph<Integer, Transport> copy() {
+		return new UndirectedGraph<>(graph);
+	}
+
+}
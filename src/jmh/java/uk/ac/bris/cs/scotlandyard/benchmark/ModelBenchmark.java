@@ -0,0 +1,99 @@
+package uk.ac.bris.cs.scotlandyard.benchmark;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.bris.cs.scotlandyard.harness.ImmutableScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+
+/**
+ * Queries against a model a few rotations into a game.
+ * {@code ScotlandYardModel.possibleMoves} is private so it is called through
+ * a method handle, the handle call itself is a few nanoseconds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+	// rotations played before measuring, early enough that no game is over
+	private static final int ROTATIONS = 3;
+
+	@Param({ "1", "4", "16" })
+	public int scale;
+
+	@Param({ "1", "3", "5" })
+	public int detectives;
+
+	@Param({ "true", "false" })
+	public boolean doubles;
+
+	private ScotlandYardModel model;
+	private int mrX;
+	private int detective;
+	private MethodHandle possibleMoves;
+
+	@Setup
+	public void setup() throws ReflectiveOperationException {
+		Games.quiet();
+		model = Games.model(Boards.graph(scale), detectives, doubles, 42);
+		Games.play(model, ROTATIONS);
+		if (model.isGameOver()) throw new IllegalStateException("Game over during setup");
+		if (model.getCurrentPlayer() != Colour.BLACK) throw new AssertionError();
+
+		// the model indexes its players by colour ordinal
+		mrX = Colour.BLACK.ordinal();
+		detective = model.getPlayers().get(1).ordinal();
+		Method method = ScotlandYardModel.class.getDeclaredMethod("possibleMoves", int.class);
+		method.setAccessible(true);
+		possibleMoves = MethodHandles.lookup().unreflect(method);
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public Set<Move> mrXPossibleMoves() throws Throwable {
+		return (Set<Move>) possibleMoves.invoke(model, mrX);
+	}
+
+	@Benchmark
+	@SuppressWarnings("unchecked")
+	public Set<Move> detectivePossibleMoves() throws Throwable {
+		return (Set<Move>) possibleMoves.invoke(model, detective);
+	}
+
+	@Benchmark
+	public Set<Colour> getWinningPlayers() {
+		return model.getWinningPlayers();
+	}
+
+	@Benchmark
+	public boolean isGameOver() {
+		return model.isGameOver();
+	}
+
+	@Benchmark
+	public ImmutableScotlandYardView snapshot() {
+		return ImmutableScotlandYardView.snapshot(model);
+	}
+
+}
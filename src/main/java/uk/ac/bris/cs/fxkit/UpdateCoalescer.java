@@ -0,0 +1,99 @@
+package uk.ac.bris.cs.fxkit;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.application.Platform;
+
+/**
+ * Collects scene graph updates from any thread and applies them on the FX
+ * thread in batches, so that a burst of updates costs one
+ * {@link Platform#runLater(Runnable)} and one pulse instead of one each.
+ * <br>
+ * Plain updates are applied in submission order. Keyed updates replace any
+ * update with the same key that has not been applied yet, so a view that
+ * simply renders the latest state skips the states it could not keep up
+ * with; a keyed update is applied in the position its key was first
+ * submitted.
+ * <br>
+ * Updates submitted while a batch is being applied go into the next batch.
+ */
+public final class UpdateCoalescer {
+
+	private final Object lock = new Object();
+	private Map<Object, Runnable> pending = new LinkedHashMap<>();
+	private boolean scheduled;
+	private long submitted;
+	private long applied;
+
+	/**
+	 * Queues an update that must not be skipped
+	 *
+	 * @param update the update; not null
+	 */
+	public void submit(Runnable update) {
+		// every plain update gets a unique key
+		submit(new Object(), update);
+	}
+
+	/**
+	 * Queues an update, replacing the pending update for the same key
+	 *
+	 * @param key the key, compared with equals; not null
+	 * @param update the update; not null
+	 */
+	public void submit(Object key, Runnable update) {
+		requireNonNull(key);
+		requireNonNull(update);
+		boolean schedule;
+		synchronized (lock) {
+			pending.put(key, update);
+			submitted++;
+			schedule = !scheduled;
+			scheduled = true;
+		}
+		if (schedule) Platform.runLater(this::drain);
+	}
+
+	private void drain() {
+		Map<Object, Runnable> batch;
+		synchronized (lock) {
+			batch = pending;
+			pending = new LinkedHashMap<>();
+			scheduled = false;
+			applied += batch.size();
+		}
+		for (Runnable update : batch.values()) {
+			// one broken update should not take the rest of the batch with it
+			try {
+				update.run();
+			} catch (RuntimeException e) {
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+		}
+	}
+
+	/**
+	 * @return number of updates submitted so far
+	 */
+	public long submitted() {
+		synchronized (lock) {
+			return submitted;
+		}
+	}
+
+	/**
+	 * @return number of updates applied or about to be applied, the
+	 *         difference to {@link #submitted()} being the skipped and pending
+	 *         ones
+	 */
+	public long applied() {
+		synchronized (lock) {
+			return applied;
+		}
+	}
+
+}
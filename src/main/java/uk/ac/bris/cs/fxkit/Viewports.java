@@ -0,0 +1,76 @@
+package uk.ac.bris.cs.fxkit;
+
+import javafx.beans.InvalidationListener;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+/**
+ * Helpers for working out which part of a node actually ends up on screen
+ */
+public final class Viewports {
+
+	private Viewports() {}
+
+	/**
+	 * Calls the listener whenever what {@link #visibleBounds(Node)} returns
+	 * might have changed because the node moved, got scaled or the window was
+	 * resized
+	 *
+	 * @param node the node
+	 * @param listener the listener, typically requests a layout
+	 */
+	public static void watch(Node node, InvalidationListener listener) {
+		node.localToSceneTransformProperty().addListener(listener);
+		node.sceneProperty().addListener((o, previous, current) -> {
+			if (previous != null) {
+				previous.widthProperty().removeListener(listener);
+				previous.heightProperty().removeListener(listener);
+			}
+			if (current != null) {
+				current.widthProperty().addListener(listener);
+				current.heightProperty().addListener(listener);
+			}
+			listener.invalidated(o);
+		});
+	}
+
+	/**
+	 * @param node the node
+	 * @return the part of the node's layout bounds that is not clipped away by
+	 *         the scene or an ancestor's clip, in the node's local
+	 *         coordinates; null if none of it is visible or the node is not in
+	 *         a scene
+	 */
+	public static Bounds visibleBounds(Node node) {
+		Scene scene = node.getScene();
+		if (scene == null) return null;
+		Bounds visible = new BoundingBox(0, 0, scene.getWidth(), scene.getHeight());
+		for (Parent parent = node.getParent(); parent != null; parent = parent.getParent()) {
+			Node clip = parent.getClip();
+			if (clip == null) continue;
+			visible = intersect(visible, parent.localToScene(clip.getBoundsInParent()));
+			if (visible == null) return null;
+		}
+		// reading the transform also re-arms invalidation listeners on it
+		node.getLocalToSceneTransform();
+		Bounds local = node.sceneToLocal(visible);
+		if (local == null) return null;
+		return intersect(local, node.getLayoutBounds());
+	}
+
+	/**
+	 * @return the overlap of both rectangles or null if they do not overlap
+	 */
+	public static Bounds intersect(Bounds a, Bounds b) {
+		double minX = Math.max(a.getMinX(), b.getMinX());
+		double minY = Math.max(a.getMinY(), b.getMinY());
+		double maxX = Math.min(a.getMaxX(), b.getMaxX());
+		double maxY = Math.min(a.getMaxY(), b.getMaxY());
+		if (maxX <= minX || maxY <= minY) return null;
+		return new BoundingBox(minX, minY, maxX - minX, maxY - minY);
+	}
+
+}
@@ -0,0 +1,109 @@
+package uk.ac.bris.cs.fxkit.tile;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+
+/**
+ * Least recently used cache of decoded tiles, bounded by the number of bytes
+ * the decoded pixels take up. Tiles decode on background threads, the most
+ * recently requested first so that the tiles on screen win over the ones
+ * panned past. Must only be used on the FX thread.
+ */
+public final class TileCache {
+
+	private static final TileCache SHARED = new TileCache(64L << 20);
+
+	private final long maxBytes;
+	private long bytes;
+	private final LinkedHashMap<Path, Image> images = new LinkedHashMap<>(64, 0.75f, true);
+	private final Map<Path, CompletableFuture<Image>> loading = new HashMap<>();
+	private final ThreadPoolExecutor decoder;
+
+	/**
+	 * @param maxBytes the budget for decoded pixels
+	 */
+	public TileCache(long maxBytes) {
+		this.maxBytes = maxBytes;
+		this.decoder = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+				new LinkedBlockingDeque<Runnable>() {
+					private static final long serialVersionUID = 1L;
+
+					@Override
+					public boolean offer(Runnable runnable) {
+						return offerFirst(runnable);
+					}
+				},
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("tile-decoder-%d")
+						.build());
+		this.decoder.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * @return a cache shared by all views that do not need their own
+	 */
+	public static TileCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * @param tile the tile file
+	 * @return the decoded tile or null if it is not cached
+	 */
+	public Image get(Path tile) {
+		return images.get(tile);
+	}
+
+	/**
+	 * @param tile the tile file
+	 * @return the decoded tile, completed on the FX thread; never null
+	 */
+	public CompletableFuture<Image> load(Path tile) {
+		Image cached = images.get(tile);
+		if (cached != null) return CompletableFuture.completedFuture(cached);
+		return loading.computeIfAbsent(tile, t -> CompletableFuture
+				.supplyAsync(() -> new Image(t.toUri().toString(), false), decoder)
+				.thenApplyAsync(image -> {
+					loading.remove(t);
+					if (!image.isError()) put(t, image);
+					return image;
+				}, Platform::runLater));
+	}
+
+	private void put(Path tile, Image image) {
+		Image previous = images.put(tile, image);
+		if (previous != null) bytes -= sizeOf(previous);
+		bytes += sizeOf(image);
+		Iterator<Entry<Path, Image>> eldest = images.entrySet().iterator();
+		while (bytes > maxBytes && images.size() > 1 && eldest.hasNext()) {
+			Entry<Path, Image> entry = eldest.next();
+			if (entry.getKey().equals(tile)) continue;
+			bytes -= sizeOf(entry.getValue());
+			eldest.remove();
+		}
+	}
+
+	private static long sizeOf(Image image) {
+		return (long) image.getWidth() * (long) image.getHeight() * 4;
+	}
+
+	/**
+	 * @return bytes taken up by the decoded tiles currently cached
+	 */
+	public long bytes() {
+		return bytes;
+	}
+
+}
@@ -0,0 +1,228 @@
+package uk.ac.bris.cs.fxkit.tile;
+
+import static java.util.Objects.requireNonNull;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Properties;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * An image split into square tiles at successively halved resolutions and
+ * stored on disk, so that only the tiles that are on screen at the current
+ * zoom level ever need decoding. Level 0 is full resolution, the last level
+ * fits in a single tile.
+ * <br>
+ * A pyramid is generated on first use and reused for as long as the source
+ * image does not change.
+ */
+public final class TilePyramid {
+
+	public static final int DEFAULT_TILE_SIZE = 512;
+
+	private static final String MANIFEST = "pyramid.properties";
+
+	private final Path directory;
+	private final int width;
+	private final int height;
+	private final int tileSize;
+	private final int levels;
+
+	private TilePyramid(Path directory, int width, int height, int tileSize) {
+		this.directory = directory;
+		this.width = width;
+		this.height = height;
+		this.tileSize = tileSize;
+		this.levels = levelsFor(width, height, tileSize);
+	}
+
+	/**
+	 * @return the default cache directory, {@code .scotlandyard/tiles} in the
+	 *         user's home directory
+	 */
+	public static Path defaultCacheDirectory() {
+		return Paths.get(System.getProperty("user.home"), ".scotlandyard", "tiles");
+	}
+
+	/**
+	 * Opens the pyramid for an image, generating it if the cache does not
+	 * hold one for the exact same image
+	 *
+	 * @param source the source image; not null
+	 * @param cache the directory to keep pyramids in; not null
+	 * @param tileSize the tile size in pixels
+	 * @return the pyramid; never null
+	 * @throws IOException if the image cannot be read or the tiles cannot be
+	 *         written
+	 */
+	public static TilePyramid open(URL source, Path cache, int tileSize) throws IOException {
+		requireNonNull(source);
+		requireNonNull(cache);
+		byte[] bytes;
+		try (InputStream stream = source.openStream()) {
+			bytes = ByteStreams.toByteArray(stream);
+		}
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		String id = String.format("%08x-%d-%d", crc.getValue(), bytes.length, tileSize);
+		Path directory = cache.resolve(id);
+
+		Path manifest = directory.resolve(MANIFEST);
+		if (Files.isRegularFile(manifest)) {
+			Properties properties = new Properties();
+			try (InputStream stream = Files.newInputStream(manifest)) {
+				properties.load(stream);
+			}
+			return new TilePyramid(directory,
+					Integer.parseInt(properties.getProperty("width")),
+					Integer.parseInt(properties.getProperty("height")),
+					tileSize);
+		}
+		return generate(bytes, cache, directory, tileSize);
+	}
+
+	private static TilePyramid generate(byte[] bytes, Path cache, Path directory, int tileSize)
+			throws IOException {
+		BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+		if (image == null) throw new IOException("Unsupported image format");
+		TilePyramid pyramid = new TilePyramid(directory, image.getWidth(), image.getHeight(),
+				tileSize);
+
+		// written next to the final location and moved in one go so that an
+		// interrupted run never leaves a half written pyramid behind
+		Files.createDirectories(cache);
+		Path staging = Files.createTempDirectory(cache, "staging");
+		try {
+			BufferedImage level = image;
+			for (int l = 0; l < pyramid.levels; l++) {
+				if (l > 0) level = halve(level);
+				Path levelDirectory = Files.createDirectories(staging.resolve(Integer.toString(l)));
+				for (int y = 0; y * tileSize < level.getHeight(); y++) {
+					for (int x = 0; x * tileSize < level.getWidth(); x++) {
+						BufferedImage tile = level.getSubimage(x * tileSize, y * tileSize,
+								Math.min(tileSize, level.getWidth() - x * tileSize),
+								Math.min(tileSize, level.getHeight() - y * tileSize));
+						ImageIO.write(tile, "png", levelDirectory.resolve(x + "_" + y + ".png")
+								.toFile());
+					}
+				}
+			}
+			Properties properties = new Properties();
+			properties.setProperty("width", Integer.toString(pyramid.width));
+			properties.setProperty("height", Integer.toString(pyramid.height));
+			try (OutputStream stream = Files.newOutputStream(staging.resolve(MANIFEST))) {
+				properties.store(stream, null);
+			}
+			try {
+				Files.move(staging, directory, StandardCopyOption.ATOMIC_MOVE);
+			} catch (IOException e) {
+				// another process got there first, theirs is just as good
+				if (!Files.isRegularFile(directory.resolve(MANIFEST))) throw e;
+			}
+		} finally {
+			deleteRecursively(staging);
+		}
+		return pyramid;
+	}
+
+	private static BufferedImage halve(BufferedImage image) {
+		int width = Math.max(1, (image.getWidth() + 1) / 2);
+		int height = Math.max(1, (image.getHeight() + 1) / 2);
+		BufferedImage halved = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D graphics = halved.createGraphics();
+		try {
+			graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+					RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
+					RenderingHints.VALUE_RENDER_QUALITY);
+			graphics.drawImage(image, 0, 0, width, height, null);
+		} finally {
+			graphics.dispose();
+		}
+		return halved;
+	}
+
+	private static void deleteRecursively(Path path) throws IOException {
+		if (!Files.exists(path)) return;
+		try (Stream<Path> paths = Files.walk(path)) {
+			paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+				try {
+					Files.delete(p);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+	}
+
+	static int levelsFor(int width, int height, int tileSize) {
+		int levels = 1;
+		while (Math.max(width, height) > (long) tileSize << (levels - 1)) levels++;
+		return levels;
+	}
+
+	/**
+	 * @return width of the full resolution image
+	 */
+	public int width() {
+		return width;
+	}
+
+	/**
+	 * @return height of the full resolution image
+	 */
+	public int height() {
+		return height;
+	}
+
+	public int tileSize() {
+		return tileSize;
+	}
+
+	public int levels() {
+		return levels;
+	}
+
+	/**
+	 * @param level the level
+	 * @return number of tile columns at the level
+	 */
+	public int columns(int level) {
+		int size = tileSize << level;
+		return (width + size - 1) / size;
+	}
+
+	/**
+	 * @param level the level
+	 * @return number of tile rows at the level
+	 */
+	public int rows(int level) {
+		int size = tileSize << level;
+		return (height + size - 1) / size;
+	}
+
+	/**
+	 * @return location of the tile image
+	 */
+	public Path tile(int level, int column, int row) {
+		return directory.resolve(level + "/" + column + "_" + row + ".png");
+	}
+
+}
@@ -0,0 +1,162 @@
+package uk.ac.bris.cs.fxkit.tile;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.geometry.Bounds;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Region;
+import javafx.scene.transform.Transform;
+import uk.ac.bris.cs.fxkit.Viewports;
+
+/**
+ * Shows a {@link TilePyramid} at its full resolution size, decoding only the
+ * tiles that are visible through the scene and any clipping ancestors, at
+ * the level that matches the current zoom. The coarsest level is always
+ * shown underneath so panning never reveals holes while tiles load.
+ */
+public class TiledImageView extends Region {
+
+	private final ObjectProperty<TilePyramid> pyramid = new SimpleObjectProperty<>(this,
+			"pyramid");
+	private final ObjectProperty<TileCache> cache = new SimpleObjectProperty<>(this, "tileCache",
+			TileCache.shared());
+
+	private final ImageView background = new ImageView();
+	private final Map<Path, ImageView> tiles = new HashMap<>();
+
+	public TiledImageView() {
+		background.setSmooth(true);
+		background.setManaged(false);
+		getChildren().add(background);
+		InvalidationListener relayout = o -> requestLayout();
+		pyramid.addListener(o -> {
+			clearTiles();
+			background.setImage(null);
+			TilePyramid p = pyramid.get();
+			if (p != null) showBackground(p);
+			requestLayout();
+		});
+		cache.addListener(relayout);
+		Viewports.watch(this, relayout);
+	}
+
+	public TiledImageView(TilePyramid pyramid) {
+		this();
+		setPyramid(pyramid);
+	}
+
+	public ObjectProperty<TilePyramid> pyramidProperty() {
+		return pyramid;
+	}
+
+	public TilePyramid getPyramid() {
+		return pyramid.get();
+	}
+
+	public void setPyramid(TilePyramid pyramid) {
+		this.pyramid.set(pyramid);
+	}
+
+	public ObjectProperty<TileCache> tileCacheProperty() {
+		return cache;
+	}
+
+	@Override
+	protected double computePrefWidth(double height) {
+		TilePyramid p = pyramid.get();
+		return p == null ? 0 : p.width();
+	}
+
+	@Override
+	protected double computePrefHeight(double width) {
+		TilePyramid p = pyramid.get();
+		return p == null ? 0 : p.height();
+	}
+
+	@Override
+	protected void layoutChildren() {
+		TilePyramid p = pyramid.get();
+		Bounds visible = Viewports.visibleBounds(this);
+		if (p == null || visible == null) {
+			clearTiles();
+			return;
+		}
+
+		Transform transform = getLocalToSceneTransform();
+		double scale = Math.hypot(transform.getMxx(), transform.getMyx());
+		int level = scale <= 0 ? p.levels() - 1
+				: (int) Math.floor(Math.log(1 / scale) / Math.log(2));
+		level = Math.max(0, Math.min(p.levels() - 1, level));
+		// the background already covers the coarsest level
+		if (level == p.levels() - 1) {
+			clearTiles();
+			return;
+		}
+
+		int span = p.tileSize() << level;
+		int firstColumn = Math.max(0, (int) Math.floor(visible.getMinX() / span));
+		int lastColumn = Math.min(p.columns(level) - 1, (int) Math.floor(visible.getMaxX() / span));
+		int firstRow = Math.max(0, (int) Math.floor(visible.getMinY() / span));
+		int lastRow = Math.min(p.rows(level) - 1, (int) Math.floor(visible.getMaxY() / span));
+
+		Map<Path, ImageView> wanted = new HashMap<>();
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				Path tile = p.tile(level, column, row);
+				ImageView view = tiles.remove(tile);
+				if (view == null) view = createTile(tile, level, column * span, row * span);
+				wanted.put(tile, view);
+			}
+		}
+		clearTiles();
+		tiles.putAll(wanted);
+	}
+
+	private ImageView createTile(Path tile, int level, double x, double y) {
+		ImageView view = new ImageView();
+		view.setSmooth(true);
+		view.setManaged(false);
+		view.relocate(x, y);
+		getChildren().add(view);
+		Image cached = cache.get().get(tile);
+		if (cached != null) show(view, cached, level);
+		else cache.get().load(tile).thenAccept(image -> {
+			// the tile may have scrolled out of view while decoding
+			if (tiles.get(tile) == view) show(view, image, level);
+		});
+		return view;
+	}
+
+	private static void show(ImageView view, Image image, int level) {
+		view.setFitWidth(image.getWidth() * (1 << level));
+		view.setFitHeight(image.getHeight() * (1 << level));
+		view.setImage(image);
+	}
+
+	private void showBackground(TilePyramid p) {
+		int level = p.levels() - 1;
+		cache.get().load(p.tile(level, 0, 0)).thenAccept(image -> {
+			if (pyramid.get() == p) {
+				show(background, image, level);
+				requestLayout();
+			}
+		});
+	}
+
+	private void clearTiles() {
+		Iterator<Entry<Path, ImageView>> iterator = tiles.entrySet().iterator();
+		while (iterator.hasNext()) {
+			getChildren().remove(iterator.next().getValue());
+			iterator.remove();
+		}
+	}
+
+}
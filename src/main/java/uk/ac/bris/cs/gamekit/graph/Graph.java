@@ -2,6 +2,10 @@ package uk.ac.bris.cs.gamekit.graph;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A minimal graph data structure interface
@@ -72,6 +76,71 @@ public interface Graph<V, D> {
 	 */
 	Collection<Edge<V, D>> getEdgesTo(Node<V> destination);
 
+	/**
+	 * Calls the action with the destination value and data of every edge
+	 * coming from the node with the given value, without creating the
+	 * collection {@link #getEdgesFrom(Node)} returns
+	 *
+	 * @param value the value of the source node
+	 * @param action the action; not null
+	 * @throws IllegalArgumentException if no node holds the value
+	 */
+	default void forEachNeighbour(V value, BiConsumer<? super V, ? super D> action) {
+		Node<V> node = getNode(value);
+		if (node == null) throw new IllegalArgumentException(value + " is not in the graph");
+		for (Edge<V, D> edge : getEdgesFrom(node))
+			action.accept(edge.destination().value(), edge.data());
+	}
+
+	/**
+	 * @param value the value of the source node
+	 * @return number of edges coming from the node with the given value
+	 * @throws IllegalArgumentException if no node holds the value
+	 */
+	default int degree(V value) {
+		Node<V> node = getNode(value);
+		if (node == null) throw new IllegalArgumentException(value + " is not in the graph");
+		return getEdgesFrom(node).size();
+	}
+
+	/**
+	 * @return a splittable spliterator over all nodes in insertion order
+	 */
+	default Spliterator<Node<V>> nodeSpliterator() {
+		return getNodes().spliterator();
+	}
+
+	/**
+	 * @return a splittable spliterator over all edges
+	 */
+	default Spliterator<Edge<V, D>> edgeSpliterator() {
+		return getEdges().spliterator();
+	}
+
+	/**
+	 * @param parallel whether the stream is parallel
+	 * @return a stream of all nodes, see {@link #nodeSpliterator()}
+	 */
+	default Stream<Node<V>> nodes(boolean parallel) {
+		return StreamSupport.stream(nodeSpliterator(), parallel);
+	}
+
+	/**
+	 * @param parallel whether the stream is parallel
+	 * @return a stream of all edges, see {@link #edgeSpliterator()}
+	 */
+	default Stream<Edge<V, D>> edges(boolean parallel) {
+		return StreamSupport.stream(edgeSpliterator(), parallel);
+	}
+
+	/**
+	 * @return a primitive index based view of this graph as it is now, see
+	 *         {@link IntGraphView}
+	 */
+	default IntGraphView<V, D> intView() {
+		return IntGraphView.of(this);
+	}
+
 	/**
 	 * Tests whether this graph has any nodes
 	 * 
@@ -5,6 +5,8 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
 
 /**
  * An immutable graph that does not allow adding new nodes or edges
@@ -19,6 +21,7 @@ public final class ImmutableGraph<V, D> extends AbstractGraph<V, D>
 
 	private static final long serialVersionUID = -54523690732483278L;
 	private final Graph<V, D> graph;
+	private transient volatile IntGraphView<V, D> view;
 
 	public ImmutableGraph(Graph<V, D> graph) {
 		this.graph = Objects.requireNonNull(graph);
@@ -66,6 +69,36 @@ public final class ImmutableGraph<V, D> extends AbstractGraph<V, D>
 		return graph.getEdgesTo(destination);
 	}
 
+	@Override
+	public void forEachNeighbour(V value, BiConsumer<? super V, ? super D> action) {
+		graph.forEachNeighbour(value, action);
+	}
+
+	@Override
+	public int degree(V value) {
+		return graph.degree(value);
+	}
+
+	@Override
+	public Spliterator<Node<V>> nodeSpliterator() {
+		return graph.nodeSpliterator();
+	}
+
+	@Override
+	public Spliterator<Edge<V, D>> edgeSpliterator() {
+		return graph.edgeSpliterator();
+	}
+
+	/**
+	 * Built once and shared, the wrapped graph must not change afterwards
+	 */
+	@Override
+	public IntGraphView<V, D> intView() {
+		IntGraphView<V, D> view = this.view;
+		if (view == null) this.view = view = graph.intView();
+		return view;
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return graph.isEmpty();
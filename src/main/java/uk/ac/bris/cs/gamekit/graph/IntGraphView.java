@@ -0,0 +1,118 @@
+package uk.ac.bris.cs.gamekit.graph;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable snapshot of a {@link Graph} addressing nodes by a dense index
+ * in {@code [0, size())}, following the order of {@link Graph#getNodes()},
+ * with the edges of each node stored in flat arrays. Traversal through
+ * {@link #degree(int)}, {@link #neighbour(int, int)} and
+ * {@link #data(int, int)} neither boxes nor allocates.
+ *
+ * @param <V> the type for {@link Node} values
+ * @param <D> the type for {@link Edge} data
+ */
+public final class IntGraphView<V, D> {
+
+	private final Node<V>[] nodes;
+	private final Map<V, Integer> indices;
+	private final int[] offsets;
+	private final int[] targets;
+	private final Object[] data;
+
+	private IntGraphView(Node<V>[] nodes, Map<V, Integer> indices, int[] offsets,
+			int[] targets, Object[] data) {
+		this.nodes = nodes;
+		this.indices = indices;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.data = data;
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @return a view of the graph as it is now, later changes to the graph
+	 *         are not reflected
+	 */
+	public static <V, D> IntGraphView<V, D> of(Graph<V, D> graph) {
+		List<Node<V>> list = Objects.requireNonNull(graph).getNodes();
+		int size = list.size();
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Node<V>[] nodes = list.toArray(new Node[size]);
+		Map<V, Integer> indices = new HashMap<>(size * 2);
+		for (int i = 0; i < size; i++) indices.put(nodes[i].value(), i);
+		int[] offsets = new int[size + 1];
+		for (int i = 0; i < size; i++)
+			offsets[i + 1] = offsets[i] + graph.degree(nodes[i].value());
+		int[] targets = new int[offsets[size]];
+		Object[] data = new Object[offsets[size]];
+		for (int i = 0; i < size; i++) {
+			int[] cursor = { offsets[i] };
+			graph.forEachNeighbour(nodes[i].value(), (value, d) -> {
+				targets[cursor[0]] = indices.get(value);
+				data[cursor[0]++] = d;
+			});
+		}
+		return new IntGraphView<>(nodes, indices, offsets, targets, data);
+	}
+
+	/**
+	 * @return number of nodes
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @param index the node index
+	 * @return the node
+	 */
+	public Node<V> node(int index) {
+		return nodes[index];
+	}
+
+	/**
+	 * @param value the node value
+	 * @return the node index or -1 if no node holds the value
+	 */
+	public int indexOf(V value) {
+		Integer index = indices.get(value);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param index the node index
+	 * @return number of edges leaving the node
+	 */
+	public int degree(int index) {
+		return offsets[index + 1] - offsets[index];
+	}
+
+	/**
+	 * @param index the node index
+	 * @param i the edge number in {@code [0, degree(index))}
+	 * @return the destination node index of the edge
+	 */
+	public int neighbour(int index, int i) {
+		return targets[offsets[index] + i];
+	}
+
+	/**
+	 * @param index the node index
+	 * @param i the edge number in {@code [0, degree(index))}
+	 * @return the data of the edge, e.g. its transport
+	 */
+	@SuppressWarnings("unchecked")
+	public D data(int index, int i) {
+		return (D) data[offsets[index] + i];
+	}
+
+	@Override
+	public String toString() {
+		return "IntGraphView{nodes=" + nodes.length + ", edges=" + targets.length + '}';
+	}
+
+}
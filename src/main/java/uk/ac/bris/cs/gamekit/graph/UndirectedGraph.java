@@ -8,6 +8,8 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
 
 /**
  * An undirected graph implementation
@@ -19,6 +21,8 @@ public final class UndirectedGraph<V, D> extends AbstractGraph<V, D> implements
 
 	private static final long serialVersionUID = 6932837778781276092L;
 	private final Map<V, Node<V>> valueNodeMap = new LinkedHashMap<>();
+	// insertion order, for spliterators that split evenly
+	private final List<Node<V>> nodes = new ArrayList<>();
 	private final Map<Node<V>, List<Edge<V, D>>> sourceEdges = new HashMap<>();
 	private final Map<Node<V>, List<Edge<V, D>>> destinationEdges = new HashMap<>();
 	private final List<Edge<V, D>> edges = new ArrayList<>();
@@ -42,6 +46,7 @@ public final class UndirectedGraph<V, D> extends AbstractGraph<V, D> implements
 		if (valueNodeMap.containsKey(node.value()))
 			throw new IllegalArgumentException(node + " is already in the graph");
 		valueNodeMap.put(node.value(), node);
+		nodes.add(node);
 		sourceEdges.put(node, new ArrayList<>());
 		destinationEdges.put(node, new ArrayList<>());
 	}
@@ -101,6 +106,37 @@ public final class UndirectedGraph<V, D> extends AbstractGraph<V, D> implements
 		return Collections.unmodifiableList(destinationEdges.get(destination));
 	}
 
+	@Override
+	public void forEachNeighbour(V value, BiConsumer<? super V, ? super D> action) {
+		List<Edge<V, D>> from = edgesFrom(value);
+		// indexed to skip the iterator
+		for (int i = 0, size = from.size(); i < size; i++) {
+			Edge<V, D> edge = from.get(i);
+			action.accept(edge.destination().value(), edge.data());
+		}
+	}
+
+	@Override
+	public int degree(V value) {
+		return edgesFrom(value).size();
+	}
+
+	private List<Edge<V, D>> edgesFrom(V value) {
+		Node<V> node = valueNodeMap.get(value);
+		if (node == null) throw new IllegalArgumentException(value + " is not in the graph");
+		return sourceEdges.get(node);
+	}
+
+	@Override
+	public Spliterator<Node<V>> nodeSpliterator() {
+		return nodes.spliterator();
+	}
+
+	@Override
+	public Spliterator<Edge<V, D>> edgeSpliterator() {
+		return edges.spliterator();
+	}
+
 	@Override
 	public boolean isEmpty() {
 		return size() == 0;
@@ -1,71 +1,222 @@
 package uk.ac.bris.cs.scotlandyard;
 
 import static java.lang.String.format;
-import static java.util.function.Function.identity;
-import static java.util.stream.Collectors.toMap;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import javafx.geometry.Point2D;
 import javafx.scene.image.Image;
+import uk.ac.bris.cs.fxkit.tile.TilePyramid;
 import uk.ac.bris.cs.gamekit.graph.Graph;
 import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.scotlandyard.ai.NodeIndex;
 import uk.ac.bris.cs.scotlandyard.ai.ResourceProvider;
 import uk.ac.bris.cs.scotlandyard.model.StandardGame;
 import uk.ac.bris.cs.scotlandyard.model.Ticket;
 import uk.ac.bris.cs.scotlandyard.model.Transport;
 
 /**
- * Manager for static resources such as game map and graph
+ * Manager for static resources such as game map and graph <br>
+ * The graph and map coordinates are available as soon as
+ * {@link #loadAllResources()} returns, images keep decoding in parallel in the
+ * background; use {@link #image(ImageResource)} to avoid waiting for them.
+ * <br>
+ * The board map is shown from a {@link TilePyramid} (see {@link #mapTiles()}),
+ * the full resolution map image is only decoded if someone asks for it.
  */
 public final class ResourceManager implements ResourceProvider {
 
+	private static final Logger logger = LoggerFactory.getLogger(ResourceManager.class);
+
 	private final Point2D TOP_LEFT_OFFSET = new Point2D(60, 60);
 
 	public enum ImageResource {
 		ICON, MAP, UOB_LOGO
 	}
 
-	private Map<ImageResource, Image> imageResources;
-	private Map<Ticket, Image> ticketResources;
-	private Map<Integer, Entry<Integer, Integer>> mapCoordinates;
+	private Map<ImageResource, CompletableFuture<Image>> imageResources;
+	private CompletableFuture<TilePyramid> mapTiles;
+	private CompletableFuture<Image> map;
+	private Map<Ticket, CompletableFuture<Image>> ticketResources;
+	private NodeIndex nodeIndex;
 	private Graph<Integer, Transport> graph;
+	private final Map<String, Duration> loadTimes = Collections
+			.synchronizedMap(new LinkedHashMap<>());
 
 	/**
 	 * Loads all resources into memory <br>
-	 * This should be called before any resources are required
+	 * This should be called before any resources are required; returns once
+	 * the graph and map coordinates are loaded
 	 *
-	 * @throws IOException if any of the resources cannot be found
+	 * @throws IOException if the graph or coordinates cannot be found
 	 */
 	public void loadAllResources() throws IOException {
+		long start = System.nanoTime();
+		ExecutorService loader = Executors.newFixedThreadPool(
+				Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("resource-loader-%d")
+						.build());
+
+		// everything needs these so they are queued first
+		CompletableFuture<NodeIndex> coordinates = load(loader,
+				"pos.txt", () -> indexOf(StandardGame.pngMapPositionEntries()));
+		CompletableFuture<Graph<Integer, Transport>> standardGraph = load(loader,
+				"graph.txt", () -> new ImmutableGraph<>(StandardGame.standardGraph()));
+
+		// only generates tiles on the very first run, after that it just reads
+		// the manifest
+		mapTiles = load(loader, "tiles", () -> TilePyramid.open(
+				ResourceManager.class.getResource("/map_large.png"), tileCacheDirectory(),
+				TilePyramid.DEFAULT_TILE_SIZE));
+
+		List<CompletableFuture<?>> images = new ArrayList<>();
+		images.add(mapTiles);
+		Map<ImageResource, CompletableFuture<Image>> shared = new EnumMap<>(ImageResource.class);
+		shared.put(ImageResource.UOB_LOGO, loadImage(loader, "/uob_logo.png"));
+		shared.put(ImageResource.ICON, loadImage(loader, "/icon.png"));
+		images.addAll(shared.values());
+		imageResources = Collections.unmodifiableMap(shared);
+
+		Map<Ticket, CompletableFuture<Image>> tickets = new EnumMap<>(Ticket.class);
+		for (Ticket ticket : Ticket.values())
+			tickets.put(ticket, loadImage(loader,
+					format("/tickets/%s.png", ticket.name().toLowerCase())));
+		images.addAll(tickets.values());
+		ticketResources = Collections.unmodifiableMap(tickets);
+
+		CompletableFuture.allOf(images.toArray(new CompletableFuture<?>[0]))
+				.whenComplete((ignored, e) -> {
+					loader.shutdown();
+					logger.info("All resources loaded in {}ms, per resource: {}",
+							Duration.ofNanos(System.nanoTime() - start).toMillis(), loadTimes());
+				});
+
+		try {
+			nodeIndex = coordinates.join();
+			graph = standardGraph.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof UncheckedIOException)
+				throw ((UncheckedIOException) e.getCause()).getCause();
+			throw e;
+		}
+		logger.info("Graph and coordinates ready after {}ms",
+				Duration.ofNanos(System.nanoTime() - start).toMillis());
+	}
 
-		// shared images
-		imageResources = ImmutableMap.of(
-				ImageResource.MAP, loadImage("/map_large.png"),
-				ImageResource.UOB_LOGO, loadImage("/uob_logo.png"),
-				ImageResource.ICON, loadImage("/icon.png"));
+	private static NodeIndex indexOf(Map<Integer, Entry<Integer, Integer>> positions) {
+		int[] nodes = new int[positions.size()];
+		double[] xs = new double[nodes.length];
+		double[] ys = new double[nodes.length];
+		int i = 0;
+		for (Entry<Integer, Entry<Integer, Integer>> entry : positions.entrySet()) {
+			nodes[i] = entry.getKey();
+			xs[i] = entry.getValue().getKey();
+			ys[i] = entry.getValue().getValue();
+			i++;
+		}
+		return new NodeIndex(nodes, xs, ys);
+	}
 
-		ticketResources = ImmutableMap.copyOf(Stream.of(Ticket.values()).collect(toMap(
-				identity(),
-				ticket -> loadImage(format("/tickets/%s.png", ticket.name().toLowerCase())))));
+	private interface Loader<T> {
+		T load() throws IOException;
+	}
 
-		mapCoordinates = ImmutableMap.copyOf(StandardGame.pngMapPositionEntries());
-		graph = new ImmutableGraph<>(StandardGame.standardGraph());
+	private <T> CompletableFuture<T> load(ExecutorService executor, String name,
+			Loader<T> loader) {
+		return CompletableFuture.supplyAsync(() -> {
+			long start = System.nanoTime();
+			try {
+				return loader.load();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+				loadTimes.put(name, elapsed);
+				logger.debug("Loaded {} in {}ms", name, elapsed.toMillis());
+			}
+		}, executor);
 	}
 
-	private static Image loadImage(String path) {
-		return new Image(path, -1, -1, true, true, false);
+	private CompletableFuture<Image> loadImage(ExecutorService executor, String path) {
+		return load(executor, path.substring(1),
+				() -> new Image(path, -1, -1, true, true, false));
 	}
 
-	public Image getImage(ImageResource resource) {
+	/**
+	 * @return time taken to load each resource so far, in completion order
+	 */
+	public Map<String, Duration> loadTimes() {
+		synchronized (loadTimes) {
+			return ImmutableMap.copyOf(loadTimes);
+		}
+	}
+
+	/**
+	 * @param resource the image
+	 * @return the image once decoded; never null
+	 */
+	public CompletableFuture<Image> image(ImageResource resource) {
+		if (resource == ImageResource.MAP) return map();
 		return imageResources.get(resource);
 	}
 
+	// the full map takes ~50MB once decoded and nothing on screen needs it
+	private synchronized CompletableFuture<Image> map() {
+		if (map == null) map = loadImage(ForkJoinPool.commonPool(), "/map_large.png");
+		return map;
+	}
+
+	/**
+	 * @return the tiled board map; never null
+	 */
+	public CompletableFuture<TilePyramid> mapTiles() {
+		return mapTiles;
+	}
+
+	private static Path tileCacheDirectory() {
+		Path directory = TilePyramid.defaultCacheDirectory();
+		try {
+			Files.createDirectories(directory);
+			if (Files.isWritable(directory)) return directory;
+		} catch (IOException e) {
+			logger.debug("Cannot use {} for tiles", directory, e);
+		}
+		return Paths.get(System.getProperty("java.io.tmpdir"), "scotlandyard-tiles");
+	}
+
+	/**
+	 * Waits for the image to be decoded if it is not yet available
+	 *
+	 * @param resource the image
+	 * @return the image
+	 */
+	public Image getImage(ImageResource resource) {
+		return image(resource).join();
+	}
+
 	@Override
 	public Image getMap() {
 		return getImage(ImageResource.MAP);
@@ -73,7 +224,7 @@ public final class ResourceManager implements ResourceProvider {
 
 	@Override
 	public Image getTicket(Ticket ticket) {
-		return ticketResources.get(ticket);
+		return ticketResources.get(ticket).join();
 	}
 
 	@Override
@@ -83,8 +234,12 @@ public final class ResourceManager implements ResourceProvider {
 
 	@Override
 	public Point2D coordinateAtNode(int node) {
-		Entry<Integer, Integer> entry = mapCoordinates.get(node);
-		return new Point2D(entry.getKey(), entry.getValue());
+		return nodeIndex.coordinate(node);
+	}
+
+	@Override
+	public NodeIndex getNodeIndex() {
+		return nodeIndex;
 	}
 
 }
@@ -7,7 +7,16 @@ import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -17,6 +26,7 @@ import com.google.common.base.MoreObjects;
 
 import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
 import uk.ac.bris.cs.scotlandyard.ai.ManagedAI.VisualiserType;
+import uk.ac.bris.cs.scotlandyard.ai.processor.ManagedAIProcessor;
 
 /**
  * <b> Not a public API, do not use!</b> <br>
@@ -90,21 +100,73 @@ public final class AI {
 				       .toString();
 	}
 
+	/**
+	 * Finds all AIs, reading the index generated by
+	 * {@link ManagedAIProcessor} and falling back to
+	 * {@link #scanClasspath()} if there is no index on the classpath
+	 *
+	 * @return all AIs; never null
+	 */
+	public static List<AI> discover() {
+		List<AI> indexed = readIndex(AI.class.getClassLoader());
+		return indexed == null ? scanClasspath() : indexed;
+	}
+
+	/**
+	 * Reads every {@link ManagedAIProcessor#INDEX} visible to the class loader
+	 *
+	 * @param loader the class loader; not null
+	 * @return the indexed AIs or null if there is no index
+	 */
+	static List<AI> readIndex(ClassLoader loader) {
+		List<AI> ais = new ArrayList<>();
+		try {
+			Enumeration<URL> indices = loader.getResources(ManagedAIProcessor.INDEX);
+			if (!indices.hasMoreElements()) return null;
+			for (URL index : Collections.list(indices)) {
+				try (BufferedReader reader = new BufferedReader(
+						new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+					String line;
+					while ((line = reader.readLine()) != null) {
+						if (line.trim().isEmpty()) continue;
+						String[] parts = line.split("\t");
+						if (parts.length != 3)
+							throw new IllegalArgumentException("Malformed line in " + index + ": " + line);
+						ais.add(new AI(parts[0], VisualiserType.valueOf(parts[1]),
+								factoryClass(parts[2], loader)));
+					}
+				}
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return checkUnique(ais);
+	}
+
 	@SuppressWarnings("unchecked")
+	private static Class<? extends PlayerFactory> factoryClass(String name, ClassLoader loader) {
+		try {
+			Class<?> clazz = Class.forName(name, false, loader);
+			if (!PlayerFactory.class.isAssignableFrom(clazz))
+				throw new IllegalArgumentException(
+						name + " does not implement " + PlayerFactory.class);
+			return (Class<PlayerFactory>) clazz;
+		} catch (ClassNotFoundException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	public static List<AI> scanClasspath() {
 		List<String> annotated = new FastClasspathScanner().scan()
 				.getNamesOfClassesWithAnnotation(ManagedAI.class);
 		List<AI> ais = annotated.stream().map(c -> {
-			try {
-				Class<?> clazz = Class.forName(c);
-				if (!PlayerFactory.class.isAssignableFrom(clazz))
-					throw new IllegalArgumentException(
-							c + " does not implement " + PlayerFactory.class);
-				return new AI(clazz.getAnnotation(ManagedAI.class), (Class<PlayerFactory>) clazz);
-			} catch (ClassNotFoundException e) {
-				throw new RuntimeException(e);
-			}
+			Class<? extends PlayerFactory> clazz = factoryClass(c, AI.class.getClassLoader());
+			return new AI(clazz.getAnnotation(ManagedAI.class), clazz);
 		}).collect(toList());
+		return checkUnique(ais);
+	}
+
+	private static List<AI> checkUnique(List<AI> ais) {
 		Map<AI, Long> map = ais.stream().collect(groupingBy(identity(), counting()));
 		Map<AI, Long> histogram = map.entrySet().stream().filter(e -> e.getValue() > 1)
 				.collect(toMap(Entry::getKey, Entry::getValue));
@@ -0,0 +1,113 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * <b> Not a public API, do not use!</b> <br>
+ * Decides which threads the AI players of one {@link AIPool} compute their
+ * moves on
+ */
+public interface AIExecutor {
+
+	/**
+	 * System property used by {@link #fromSystemProperty()}, one of
+	 * {@code shared}, {@code dedicated} or {@code virtual}
+	 */
+	String PROPERTY = "scotlandyard.ai.executor";
+
+	/**
+	 * Runs the task at some point in the future
+	 *
+	 * @param task the task; not null
+	 * @param <T> the result type
+	 * @return a future that may be used to cancel the task; never null
+	 */
+	<T> Future<T> submit(Callable<T> task);
+
+	/**
+	 * Runs the task once the delay has passed, used to cancel moves that
+	 * run past their timeout. Unless overridden this runs on a scheduler
+	 * shared by all executors.
+	 *
+	 * @param task the task; not null
+	 * @param delay the delay
+	 * @param unit the unit of the delay
+	 * @return a future that may be used to cancel the task; never null
+	 */
+	default Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		return Deadlines.SHARED.schedule(task, delay, unit);
+	}
+
+	/**
+	 * Cancels all pending tasks and releases the threads owned by this
+	 * executor, tasks submitted afterwards are cancelled straight away
+	 */
+	void shutdown();
+
+	/**
+	 * @param threads number of threads
+	 * @return an executor with its own daemon threads, deadlines included, so
+	 *         that it shares no state with any other executor
+	 */
+	static AIExecutor dedicated(int threads) {
+		return new ServiceExecutor(Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ai-dedicated-%d")
+						.build()),
+				Deadlines.create("ai-dedicated-deadline"));
+	}
+
+	/**
+	 * @return an executor that runs one task at a time on a pool shared by
+	 *         all games, so every game gets its turn
+	 */
+	static AIExecutor shared() {
+		return new FairSharedExecutor();
+	}
+
+	/**
+	 * @return an executor that starts a virtual thread per task
+	 * @throws UnsupportedOperationException if the runtime has no virtual
+	 *         threads (before Java 21)
+	 */
+	static AIExecutor virtualThreads() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return new ServiceExecutor((ExecutorService) method.invoke(null));
+		} catch (ReflectiveOperationException e) {
+			throw new UnsupportedOperationException(
+					"Virtual threads are not available in this runtime", e);
+		}
+	}
+
+	/**
+	 * @return the executor named by {@link #PROPERTY}, {@link #shared()} if
+	 *         absent; virtual threads fall back to a dedicated pool when not
+	 *         supported
+	 */
+	static AIExecutor fromSystemProperty() {
+		String name = System.getProperty(PROPERTY, "shared");
+		switch (name) {
+			case "shared":
+				return shared();
+			case "dedicated":
+				return dedicated(Runtime.getRuntime().availableProcessors());
+			case "virtual":
+				try {
+					return virtualThreads();
+				} catch (UnsupportedOperationException e) {
+					System.err.println(e.getMessage() + ", using a dedicated pool instead");
+					return dedicated(Runtime.getRuntime().availableProcessors());
+				}
+			default:
+				throw new IllegalArgumentException("Unknown " + PROPERTY + ": " + name);
+		}
+	}
+
+}
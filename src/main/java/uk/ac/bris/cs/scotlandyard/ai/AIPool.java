@@ -3,14 +3,16 @@ package uk.ac.bris.cs.scotlandyard.ai;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
@@ -18,17 +20,20 @@ import java.util.stream.Stream;
 import com.google.common.collect.ImmutableSet;
 
 import javafx.scene.layout.Pane;
-import uk.ac.bris.cs.scotlandyard.ResourceManager;
+import uk.ac.bris.cs.scotlandyard.jfr.FlightEvents;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.Move;
 import uk.ac.bris.cs.scotlandyard.model.Player;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGame;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
 
 /**
  * <b> Not a public API, do not use!</b> <br>
  * Internal pooling mechanism for AIs. AIs that are on the same group will share
- * a common GameFactory.
+ * a common GameFactory. Moves are computed on the pool's {@link AIExecutor};
+ * computations still running when the game ends or the move timeout passes
+ * are cancelled.
  * 
  * @param <G> the group, must be stable with proper {@link Object#hashCode()}
  *        and {@link Object#equals(Object)}
@@ -37,21 +42,37 @@ public class AIPool<G> {
 
 	private final VisualiserSurface surface;
 	private final Consumer<Throwable> exceptionHandler;
+	private final AIExecutor executor;
 	private final Map<G, AIGroup> groups = new HashMap<>();
+	private final List<ThreadedPlayer> players = new ArrayList<>();
+	private Duration timeout;
 
 	public AIPool(VisualiserSurface surface, Consumer<Throwable> exceptionHandler) {
+		this(surface, exceptionHandler, AIExecutor.fromSystemProperty());
+	}
+
+	public AIPool(VisualiserSurface surface, Consumer<Throwable> exceptionHandler,
+			AIExecutor executor) {
 		this.surface = surface;
 		this.exceptionHandler = exceptionHandler;
+		this.executor = executor;
 	}
 
 	public void addToGroup(G group, Colour colour, AI ai) {
 		groups.computeIfAbsent(group, g -> new AIGroup()).add(colour, ai);
 	}
 
-	public void initialise(ResourceManager manager, ScotlandYardGame game) {
+	public void initialise(ResourceProvider provider, ScotlandYardGame game, Duration timeout) {
+		this.timeout = timeout;
+		game.registerSpectator(new Spectator() {
+			@Override
+			public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
+				cancelAll();
+			}
+		});
 		groups.values().forEach(group -> {
 			try {
-				group.initialise(manager, game);
+				group.initialise(provider, game, timeout);
 			} catch (Exception e) {
 				e.printStackTrace();
 				exceptionHandler.accept(e);
@@ -68,10 +89,27 @@ public class AIPool<G> {
 		if (created.isEmpty()) return Optional.empty();
 		if (created.size() != 1)
 			throw new IllegalArgumentException(colour + " existed in multiple groups");
-		return Optional.of(created.get(0));
+		ThreadedPlayer player = new ThreadedPlayer(created.get(0), exceptionHandler, executor,
+				timeout);
+		synchronized (players) {
+			players.add(player);
+		}
+		return Optional.of(player);
+	}
+
+	/**
+	 * Cancels every move that is still being computed, their results will be
+	 * discarded
+	 */
+	public void cancelAll() {
+		synchronized (players) {
+			players.forEach(ThreadedPlayer::cancel);
+		}
 	}
 
 	public void terminate() {
+		cancelAll();
+		executor.shutdown();
 		groups.values().forEach((group) -> {
 			try {
 				group.terminate();
@@ -99,14 +137,16 @@ public class AIPool<G> {
 			ais.put(colour, ai);
 		}
 
-		void initialise(ResourceManager manager, ScotlandYardGame game) throws Exception {
+		void initialise(ResourceProvider provider, ScotlandYardGame game, Duration timeout)
+				throws Exception {
 			factories = ais.values().stream()
 					.distinct()
 					.collect(toMap(Function.identity(), AI::instantiate));
 			factories.forEach((ai, factory) -> {
 				factory.createSpectators(game).forEach(game::registerSpectator);
+				factory.moveTimeout(timeout);
 				Pane pane = surface.onCreate(ai);
-				factory.ready(() -> pane, manager);
+				factory.ready(() -> pane, provider);
 			});
 		}
 
@@ -116,24 +156,25 @@ public class AIPool<G> {
 
 		public Optional<Player> createPlayer(Colour colour) {
 			if (!ais.containsKey(colour)) return Optional.empty();
-			return Optional.of(
-					new ThreadedPlayer(
-							factories.get(ais.get(colour)).createPlayer(colour),
-							exceptionHandler));
+			return Optional.of(factories.get(ais.get(colour)).createPlayer(colour));
 		}
 
 	}
 
 	static class ThreadedPlayer implements Player {
 
-		final static ExecutorService service = Executors.newWorkStealingPool();
-
 		private final Player player;
 		private final Consumer<Throwable> exceptionHandler;
+		private final AIExecutor executor;
+		private final Duration timeout;
+		private Computation current;
 
-		private ThreadedPlayer(Player player, Consumer<Throwable> exceptionHandler) {
+		private ThreadedPlayer(Player player, Consumer<Throwable> exceptionHandler,
+				AIExecutor executor, Duration timeout) {
 			this.player = player;
 			this.exceptionHandler = exceptionHandler;
+			this.executor = executor;
+			this.timeout = timeout;
 		}
 
 		@Override
@@ -141,15 +182,62 @@ public class AIPool<G> {
 				int location,
 				Set<Move> moves,
 				Consumer<Move> callback) {
-			service.submit((Callable<Void>) () -> {
+			Computation computation = new Computation();
+			synchronized (this) {
+				if (current != null) current.cancel();
+				current = computation;
+			}
+			// the game moves on while the AI thinks, so the AI sees the state
+			// as it was when asked instead of the live game where published
+			ScotlandYardView seen = view.readView()
+					.map(published -> published.read(published.newSnapshot()).asView(view))
+					.orElse(view);
+			Object wait = FlightEvents.beginAITaskWait();
+			Colour colour = wait == null ? null : view.getCurrentPlayer();
+			computation.future = executor.submit(() -> {
+				FlightEvents.endAITaskWait(wait, colour);
 				try {
-					player.makeMove(view, location, ImmutableSet.copyOf(moves), callback);
+					player.makeMove(seen, location, ImmutableSet.copyOf(moves), move -> {
+						if (computation.finish()) callback.accept(move);
+					});
 				} catch (Throwable e) {
-					e.printStackTrace();
-					exceptionHandler.accept(e);
+					if (!computation.cancelled.get()) {
+						e.printStackTrace();
+						exceptionHandler.accept(e);
+					}
 				}
 				return null;
 			});
+			// cancelled before there was anything to interrupt
+			if (computation.cancelled.get()) computation.future.cancel(true);
+			if (timeout != null) computation.deadline = executor.schedule(
+					computation::cancel, timeout.toMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		synchronized void cancel() {
+			if (current != null) current.cancel();
+		}
+
+		private static class Computation {
+
+			final AtomicBoolean cancelled = new AtomicBoolean();
+			volatile Future<?> future;
+			volatile Future<?> deadline;
+
+			boolean finish() {
+				if (cancelled.get()) return false;
+				Future<?> deadline = this.deadline;
+				if (deadline != null) deadline.cancel(false);
+				return true;
+			}
+
+			void cancel() {
+				if (cancelled.getAndSet(true)) return;
+				Future<?> future = this.future;
+				if (future != null) future.cancel(true);
+				Future<?> deadline = this.deadline;
+				if (deadline != null) deadline.cancel(false);
+			}
 		}
 	}
 
@@ -0,0 +1,23 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * The scheduler move deadlines run on unless the {@link AIExecutor} has its
+ * own
+ */
+final class Deadlines {
+
+	static final ScheduledExecutorService SHARED = create("ai-deadline");
+
+	private Deadlines() {}
+
+	static ScheduledExecutorService create(String name) {
+		return Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+				.setDaemon(true).setNameFormat(name).build());
+	}
+
+}
@@ -0,0 +1,184 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+
+/**
+ * Move decision latencies of a game, from the moment a player is asked to
+ * {@link uk.ac.bris.cs.scotlandyard.model.Player#makeMove make a move} to
+ * the moment it answers, recorded per colour and per player label (usually
+ * the name of the AI). Latencies are compared against the timeout of the
+ * game so that AI time budgets can be tuned.
+ */
+public final class DecisionLatencies {
+
+	private static final double[] PERCENTILES = { 50, 90, 99, 100 };
+
+	private final Duration timeout;
+	private final Map<Colour, LatencyHistogram> colours = new EnumMap<>(Colour.class);
+	private final Map<Colour, String> labels = new EnumMap<>(Colour.class);
+	private final Map<String, LatencyHistogram> byLabel = new LinkedHashMap<>();
+
+	/**
+	 * @param timeout the move timeout of the game
+	 */
+	public DecisionLatencies(Duration timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * @return where games export their latencies by default
+	 */
+	public static Path defaultExportDirectory() {
+		return Paths.get(System.getProperty("user.home"), ".scotlandyard", "latencies");
+	}
+
+	public Duration timeout() {
+		return timeout;
+	}
+
+	/**
+	 * Wraps the player of the configuration so that every decision it makes
+	 * is recorded. Only the first answer to each move request counts.
+	 *
+	 * @param that the configuration to observe
+	 * @param label the label to group the player under, e.g. the AI name
+	 * @return a configuration identical to the given one other than the player
+	 */
+	public synchronized PlayerConfiguration observePlayer(PlayerConfiguration that,
+			String label) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		colours.put(that.colour, histogram);
+		labels.put(that.colour, label);
+		LatencyHistogram shared = byLabel.computeIfAbsent(label, l -> new LatencyHistogram());
+		return new PlayerConfiguration.Builder(that.colour)
+				.at(that.location)
+				.with(that.tickets)
+				.using((view, location, moves, callback) -> {
+					long start = System.nanoTime();
+					AtomicBoolean answered = new AtomicBoolean();
+					that.player.makeMove(view, location, moves, (Move picked) -> {
+						if (answered.compareAndSet(false, true)) {
+							long elapsed = System.nanoTime() - start;
+							histogram.record(elapsed);
+							shared.record(elapsed);
+						}
+						callback.accept(picked);
+					});
+				}).build();
+	}
+
+	public synchronized Optional<LatencyHistogram> colour(Colour colour) {
+		return Optional.ofNullable(colours.get(colour));
+	}
+
+	public synchronized Optional<String> label(Colour colour) {
+		return Optional.ofNullable(labels.get(colour));
+	}
+
+	/**
+	 * @return one line for the given colour, e.g.
+	 *         {@code "BLUE(AI) p50 12.0ms p99 840.1ms max 901.3ms (90% of 1.00s)"}
+	 */
+	public String summary(Colour colour) {
+		Optional<LatencyHistogram> histogram = colour(colour);
+		if (!histogram.isPresent()) return colour + ": not observed";
+		return colour + "(" + label(colour).orElse("?") + ") " + summary(histogram.get());
+	}
+
+	/**
+	 * @return one line per colour followed by one line per label
+	 */
+	public synchronized List<String> summaries() {
+		List<String> lines = new ArrayList<>();
+		colours.keySet().forEach(colour -> lines.add(summary(colour)));
+		byLabel.forEach((label, histogram) -> lines.add(label + " " + summary(histogram)));
+		return lines;
+	}
+
+	private String summary(LatencyHistogram histogram) {
+		if (histogram.count() == 0) return "no moves";
+		Duration max = histogram.max();
+		return String.format("p50 %s p99 %s max %s (%.0f%% of %s)",
+				LatencyHistogram.format(histogram.percentile(50)),
+				LatencyHistogram.format(histogram.percentile(99)),
+				LatencyHistogram.format(max),
+				timeout.isZero() ? 0 : 100.0 * max.toNanos() / timeout.toNanos(),
+				LatencyHistogram.format(timeout));
+	}
+
+	/**
+	 * Writes every histogram as CSV, one row per colour and one per label,
+	 * all durations in milliseconds.
+	 *
+	 * @param writer the writer to write to, not closed
+	 */
+	public synchronized void write(Writer writer) throws IOException {
+		StringBuilder header = new StringBuilder("scope,name,label,moves");
+		for (double p : PERCENTILES)
+			header.append(p == 100 ? ",max_ms" : String.format(",p%.0f_ms", p));
+		writer.write(header.append(",mean_ms,timeout_ms\n").toString());
+		for (Map.Entry<Colour, LatencyHistogram> e : colours.entrySet())
+			writer.write(row("colour", e.getKey().toString(), labels.get(e.getKey()),
+					e.getValue()));
+		for (Map.Entry<String, LatencyHistogram> e : byLabel.entrySet())
+			writer.write(row("label", e.getKey(), e.getKey(), e.getValue()));
+	}
+
+	/**
+	 * Writes the CSV of {@link #write(Writer)} to a new file in the given
+	 * directory, creating the directory if needed.
+	 *
+	 * @return the file written
+	 */
+	public Path export(Path directory) {
+		try {
+			Files.createDirectories(directory);
+			Path file = directory.resolve("latencies-" + System.currentTimeMillis() + ".csv");
+			try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				write(writer);
+			}
+			return file;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private String row(String scope, String name, String label, LatencyHistogram histogram) {
+		StringBuilder row = new StringBuilder();
+		row.append(scope).append(',').append(quote(name)).append(',').append(quote(label))
+				.append(',').append(histogram.count());
+		for (double p : PERCENTILES)
+			row.append(',').append(millis(histogram.percentile(p)));
+		return row.append(',').append(millis(histogram.mean()))
+				.append(',').append(millis(timeout)).append('\n').toString();
+	}
+
+	private static String millis(Duration duration) {
+		return String.format(Locale.ROOT, "%.3f", duration.toNanos() / 1e6);
+	}
+
+	private static String quote(String value) {
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0) return value;
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+}
@@ -0,0 +1,66 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * An {@link AIExecutor} backed by a pool shared by every instance. Each
+ * instance queues its own tasks and hands them to the pool one at a time,
+ * so a game never holds more than one slot in the pool's queue and
+ * concurrent games take turns instead of starving each other.
+ */
+class FairSharedExecutor implements AIExecutor {
+
+	private static final ExecutorService POOL = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(),
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ai-shared-%d").build());
+
+	private final Deque<FutureTask<?>> pending = new ArrayDeque<>();
+	private boolean running;
+	private boolean shutdown;
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		FutureTask<T> future = new FutureTask<>(task);
+		synchronized (this) {
+			if (shutdown) {
+				future.cancel(false);
+				return future;
+			}
+			pending.add(future);
+			if (!running) scheduleNext();
+		}
+		return future;
+	}
+
+	// must hold the lock
+	private void scheduleNext() {
+		FutureTask<?> next = pending.poll();
+		running = next != null;
+		if (next == null) return;
+		POOL.execute(() -> {
+			try {
+				next.run();
+			} finally {
+				synchronized (this) {
+					scheduleNext();
+				}
+			}
+		});
+	}
+
+	@Override
+	public synchronized void shutdown() {
+		shutdown = true;
+		pending.forEach(future -> future.cancel(false));
+		pending.clear();
+	}
+
+}
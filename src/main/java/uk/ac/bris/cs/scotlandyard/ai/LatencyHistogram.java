@@ -0,0 +1,102 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * A histogram of durations in the style of HdrHistogram: exact below 64ns,
+ * above that every power of two is split into 32 buckets, so any value read
+ * back is within about 3% of a recorded one. Recording is constant time and
+ * never allocates. Thread safe.
+ */
+public final class LatencyHistogram {
+
+	private static final int SUB_BITS = 5;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int LINEAR = SUB_BUCKETS * 2;
+	private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKETS];
+	private long count;
+	private long total;
+	private long max;
+
+	/**
+	 * @param nanos the duration in nanoseconds, negative values count as 0
+	 */
+	public synchronized void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts[index(value)]++;
+		count++;
+		total += value;
+		max = Math.max(max, value);
+	}
+
+	public synchronized long count() {
+		return count;
+	}
+
+	public synchronized Duration max() {
+		return Duration.ofNanos(max);
+	}
+
+	public synchronized Duration mean() {
+		return Duration.ofNanos(count == 0 ? 0 : total / count);
+	}
+
+	/**
+	 * @param percentile between 0 and 100
+	 * @return the smallest value that at least the given percentage of the
+	 *         recorded values are equal to or less than, zero if empty
+	 */
+	public synchronized Duration percentile(double percentile) {
+		if (percentile < 0 || percentile > 100)
+			throw new IllegalArgumentException("percentile " + percentile + " out of range");
+		if (count == 0) return Duration.ZERO;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) return Duration.ofNanos(Math.min(max, highest(i)));
+		}
+		return Duration.ofNanos(max);
+	}
+
+	public synchronized void reset() {
+		Arrays.fill(counts, 0);
+		count = total = max = 0;
+	}
+
+	static int index(long value) {
+		if (value < LINEAR) return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return LINEAR + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	// the highest value that falls into the bucket
+	static long highest(int index) {
+		if (index < LINEAR) return index;
+		int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+		long sub = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+		long next = (sub + 1) << shift;
+		return next < 0 ? Long.MAX_VALUE : next - 1;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("n=%d p50=%s p99=%s max=%s", count, format(percentile(50)),
+				format(percentile(99)), format(max()));
+	}
+
+	/**
+	 * @return the duration in the most readable of ns, µs, ms or s
+	 */
+	public static String format(Duration duration) {
+		long nanos = duration.toNanos();
+		if (nanos < 1_000) return nanos + "ns";
+		if (nanos < 1_000_000) return String.format("%.1fµs", nanos / 1e3);
+		if (nanos < 1_000_000_000) return String.format("%.1fms", nanos / 1e6);
+		return String.format("%.2fs", nanos / 1e9);
+	}
+
+}
@@ -0,0 +1,264 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+
+/**
+ * Spatial index over the map position of every node, for finding the node
+ * under a point, the nodes inside a rectangle and the area a set of nodes
+ * covers without going through every node.
+ * <br>
+ * Nodes are bucketed into a uniform grid sized for about two nodes per
+ * cell; all positions are kept in primitive arrays. Instances are immutable
+ * and safe to share between threads.
+ */
+public final class NodeIndex {
+
+	private static final double NODES_PER_CELL = 2;
+
+	// sorted by node for lookups
+	private final int[] sortedNodes;
+	private final int[] sortedSlots;
+
+	// grouped by cell, cellStart[c] to cellStart[c + 1] are the slots of cell c
+	private final int[] nodes;
+	private final double[] xs;
+	private final double[] ys;
+	private final int[] cellStart;
+
+	private final double minX, minY, maxX, maxY;
+	private final double cellSize;
+	private final int columns, rows;
+
+	/**
+	 * @param nodes the nodes to index
+	 * @param coordinates the position of each node; not null for any of the
+	 *        nodes
+	 * @return the index; never null
+	 */
+	public static NodeIndex of(Iterable<Integer> nodes, IntFunction<Point2D> coordinates) {
+		requireNonNull(nodes);
+		requireNonNull(coordinates);
+		int size = 0;
+		int[] ids = new int[16];
+		double[] xs = new double[16];
+		double[] ys = new double[16];
+		for (int node : nodes) {
+			Point2D point = requireNonNull(coordinates.apply(node), "No position for " + node);
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+				xs = Arrays.copyOf(xs, size * 2);
+				ys = Arrays.copyOf(ys, size * 2);
+			}
+			ids[size] = node;
+			xs[size] = point.getX();
+			ys[size] = point.getY();
+			size++;
+		}
+		return new NodeIndex(Arrays.copyOf(ids, size), Arrays.copyOf(xs, size),
+				Arrays.copyOf(ys, size));
+	}
+
+	/**
+	 * @param nodes the nodes, distinct
+	 * @param xs x position of each node
+	 * @param ys y position of each node
+	 */
+	public NodeIndex(int[] nodes, double[] xs, double[] ys) {
+		int size = nodes.length;
+		if (xs.length != size || ys.length != size)
+			throw new IllegalArgumentException("Nodes and positions differ in length");
+
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			minX = Math.min(minX, xs[i]);
+			minY = Math.min(minY, ys[i]);
+			maxX = Math.max(maxX, xs[i]);
+			maxY = Math.max(maxY, ys[i]);
+		}
+		if (size == 0) minX = minY = maxX = maxY = 0;
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+
+		double area = Math.max(maxX - minX, 1) * Math.max(maxY - minY, 1);
+		this.cellSize = Math.sqrt(area / Math.max(1, size / NODES_PER_CELL));
+		this.columns = (int) ((maxX - minX) / cellSize) + 1;
+		this.rows = (int) ((maxY - minY) / cellSize) + 1;
+
+		// counting sort into cells
+		int[] cellOf = new int[size];
+		int[] counts = new int[columns * rows + 1];
+		for (int i = 0; i < size; i++) {
+			cellOf[i] = cell(column(xs[i]), row(ys[i]));
+			counts[cellOf[i] + 1]++;
+		}
+		for (int c = 0; c < columns * rows; c++) counts[c + 1] += counts[c];
+		this.cellStart = counts.clone();
+		this.nodes = new int[size];
+		this.xs = new double[size];
+		this.ys = new double[size];
+		int[] next = counts;
+		for (int i = 0; i < size; i++) {
+			int slot = next[cellOf[i]]++;
+			this.nodes[slot] = nodes[i];
+			this.xs[slot] = xs[i];
+			this.ys[slot] = ys[i];
+		}
+
+		this.sortedNodes = this.nodes.clone();
+		Arrays.sort(sortedNodes);
+		for (int i = 1; i < size; i++)
+			if (sortedNodes[i] == sortedNodes[i - 1])
+				throw new IllegalArgumentException("Duplicate node " + sortedNodes[i]);
+		this.sortedSlots = new int[size];
+		for (int slot = 0; slot < size; slot++)
+			sortedSlots[Arrays.binarySearch(sortedNodes, this.nodes[slot])] = slot;
+	}
+
+	private int column(double x) {
+		return Math.max(0, Math.min(columns - 1, (int) ((x - minX) / cellSize)));
+	}
+
+	private int row(double y) {
+		return Math.max(0, Math.min(rows - 1, (int) ((y - minY) / cellSize)));
+	}
+
+	private int cell(int column, int row) {
+		return row * columns + column;
+	}
+
+	/**
+	 * @return number of nodes in this index
+	 */
+	public int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @param node the node
+	 * @return the position of the node or null if the node is not indexed
+	 */
+	public Point2D coordinate(int node) {
+		int i = Arrays.binarySearch(sortedNodes, node);
+		if (i < 0) return null;
+		int slot = sortedSlots[i];
+		return new Point2D(xs[slot], ys[slot]);
+	}
+
+	/**
+	 * @param point the point; not null
+	 * @return the node closest to the point, empty if there are no nodes
+	 */
+	public OptionalInt nearest(Point2D point) {
+		return nearest(point, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * @param point the point; not null
+	 * @param maxDistance the distance beyond which nodes are not considered
+	 * @return the node closest to the point, empty if there is none within
+	 *         maxDistance
+	 */
+	public OptionalInt nearest(Point2D point, double maxDistance) {
+		double x = point.getX();
+		double y = point.getY();
+		int column = column(x);
+		int row = row(y);
+		int best = -1;
+		double bestDistance = maxDistance * maxDistance;
+		for (int ring = 0; ; ring++) {
+			int left = column - ring, right = column + ring;
+			int top = row - ring, bottom = row + ring;
+			for (int r = Math.max(0, top); r <= Math.min(rows - 1, bottom); r++) {
+				boolean edgeRow = r == top || r == bottom;
+				// only the outline of the ring is new, the inside was searched
+				int step = edgeRow ? 1 : Math.max(1, right - left);
+				for (int c = left; c <= right; c += step) {
+					if (c < 0 || c >= columns) continue;
+					int cell = cell(c, r);
+					for (int slot = cellStart[cell]; slot < cellStart[cell + 1]; slot++) {
+						double dx = xs[slot] - x, dy = ys[slot] - y;
+						double distance = dx * dx + dy * dy;
+						if (distance <= bestDistance) {
+							bestDistance = distance;
+							best = slot;
+						}
+					}
+				}
+			}
+			// anything further out is at least this far along some axis
+			double bound = Double.POSITIVE_INFINITY;
+			if (left > 0) bound = Math.min(bound, x - (minX + left * cellSize));
+			if (right < columns - 1) bound = Math.min(bound, minX + (right + 1) * cellSize - x);
+			if (top > 0) bound = Math.min(bound, y - (minY + top * cellSize));
+			if (bottom < rows - 1) bound = Math.min(bound, minY + (bottom + 1) * cellSize - y);
+			if (bound == Double.POSITIVE_INFINITY) break;
+			if (bound > 0 && bound * bound > bestDistance) break;
+		}
+		return best < 0 ? OptionalInt.empty() : OptionalInt.of(nodes[best]);
+	}
+
+	/**
+	 * Visits every node inside the rectangle, in no particular order
+	 *
+	 * @param bounds the rectangle, inclusive; not null
+	 * @param consumer receives the nodes; not null
+	 */
+	public void within(Bounds bounds, IntConsumer consumer) {
+		double left = bounds.getMinX(), right = bounds.getMaxX();
+		double top = bounds.getMinY(), bottom = bounds.getMaxY();
+		if (nodes.length == 0 || right < minX || left > maxX || bottom < minY || top > maxY)
+			return;
+		for (int r = row(top); r <= row(bottom); r++) {
+			for (int c = column(left); c <= column(right); c++) {
+				int cell = cell(c, r);
+				for (int slot = cellStart[cell]; slot < cellStart[cell + 1]; slot++) {
+					double x = xs[slot], y = ys[slot];
+					if (x >= left && x <= right && y >= top && y <= bottom)
+						consumer.accept(nodes[slot]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param nodes the nodes, unknown nodes are ignored; not null
+	 * @return the smallest rectangle containing all the given nodes, empty if
+	 *         none of them are indexed
+	 */
+	public Optional<Bounds> fit(Iterable<Integer> nodes) {
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (int node : nodes) {
+			int i = Arrays.binarySearch(sortedNodes, node);
+			if (i < 0) continue;
+			int slot = sortedSlots[i];
+			minX = Math.min(minX, xs[slot]);
+			minY = Math.min(minY, ys[slot]);
+			maxX = Math.max(maxX, xs[slot]);
+			maxY = Math.max(maxY, ys[slot]);
+		}
+		if (minX > maxX) return Optional.empty();
+		return Optional.of(new BoundingBox(minX, minY, maxX - minX, maxY - minY));
+	}
+
+	/**
+	 * @return the smallest rectangle containing every node
+	 */
+	public Bounds bounds() {
+		return new BoundingBox(minX, minY, maxX - minX, maxY - minY);
+	}
+
+}
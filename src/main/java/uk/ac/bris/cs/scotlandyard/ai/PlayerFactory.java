@@ -1,5 +1,6 @@
 package uk.ac.bris.cs.scotlandyard.ai;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -45,6 +46,17 @@ public interface PlayerFactory {
 		return Collections.emptyList();
 	}
 
+	/**
+	 * Called before {@link #ready(Visualiser, ResourceProvider)} with the time
+	 * a player has to choose a move, players that take longer may lose the
+	 * game <br>
+	 *
+	 * Defaults to no-op
+	 *
+	 * @param timeout the time limit per move; never null
+	 */
+	default void moveTimeout(Duration timeout) {}
+
 	/**
 	 * Called when the game is about to start(i.e. before the first
 	 * {@link ScotlandYardGame#startRotate()}) <br>
@@ -3,6 +3,7 @@ package uk.ac.bris.cs.scotlandyard.ai;
 import javafx.geometry.Point2D;
 import javafx.scene.image.Image;
 import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.Node;
 import uk.ac.bris.cs.scotlandyard.model.Ticket;
 import uk.ac.bris.cs.scotlandyard.model.Transport;
 
@@ -45,4 +46,16 @@ public interface ResourceProvider {
 	 */
 	Point2D coordinateAtNode(int node);
 
+	/**
+	 * Retrieves a spatial index over the position of every node of
+	 * {@link #getGraph()}, use this instead of going through
+	 * {@link #coordinateAtNode(int)} for every node
+	 *
+	 * @return the index; never null
+	 */
+	default NodeIndex getNodeIndex() {
+		return NodeIndex.of(() -> getGraph().getNodes().stream().map(Node::value).iterator(),
+				this::coordinateAtNode);
+	}
+
 }
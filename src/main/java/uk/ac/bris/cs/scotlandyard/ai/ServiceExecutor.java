@@ -0,0 +1,60 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link AIExecutor} that owns an {@link ExecutorService} and optionally
+ * the scheduler for its deadlines
+ */
+class ServiceExecutor implements AIExecutor {
+
+	private final ExecutorService service;
+	private final ScheduledExecutorService deadlines;
+
+	ServiceExecutor(ExecutorService service) {
+		this(service, null);
+	}
+
+	ServiceExecutor(ExecutorService service, ScheduledExecutorService deadlines) {
+		this.service = requireNonNull(service);
+		this.deadlines = deadlines;
+	}
+
+	@Override
+	public <T> Future<T> submit(Callable<T> task) {
+		try {
+			return service.submit(task);
+		} catch (RejectedExecutionException e) {
+			FutureTask<T> cancelled = new FutureTask<>(task);
+			cancelled.cancel(false);
+			return cancelled;
+		}
+	}
+
+	@Override
+	public Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+		if (deadlines == null) return AIExecutor.super.schedule(task, delay, unit);
+		try {
+			return deadlines.schedule(task, delay, unit);
+		} catch (RejectedExecutionException e) {
+			FutureTask<?> cancelled = new FutureTask<>(task, null);
+			cancelled.cancel(false);
+			return cancelled;
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		service.shutdownNow();
+		if (deadlines != null) deadlines.shutdownNow();
+	}
+
+}
@@ -0,0 +1,94 @@
+package uk.ac.bris.cs.scotlandyard.ai.book;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+
+/**
+ * The {@link OpeningBook} moves of one game, so that AIs can play their
+ * first move without searching. Only a standard game, with the standard
+ * rounds, tickets and start locations, uses the book.
+ */
+public final class Opening {
+
+	private static final Opening NONE = new Opening(null, Collections.emptyMap());
+
+	private final OpeningBook book;
+	private final Map<Colour, Integer> starts;
+	private final List<Integer> detectives;
+	private final Set<Colour> played = EnumSet.noneOf(Colour.class);
+
+	private Opening(OpeningBook book, Map<Colour, Integer> starts) {
+		this.book = book;
+		this.starts = starts;
+		this.detectives = new ArrayList<>(starts.values());
+	}
+
+	/**
+	 * Remembers the start locations of the detectives; call before the game
+	 * starts, e.g. in {@code createSpectators}
+	 *
+	 * @param view the game; not null
+	 * @param graph the compact form of {@link ScotlandYardView#getGraph()}
+	 * @return the opening of the game, without moves if there is no
+	 *         {@link OpeningBook#standard() book} for it
+	 */
+	public static Opening of(ScotlandYardView view, CompactGraph graph) {
+		requireNonNull(view);
+		Optional<OpeningBook> book = OpeningBook.standard();
+		if (!book.isPresent() || !book.get().isFor(graph)
+				|| !view.getRounds().equals(StandardGame.ROUNDS)
+				|| view.getPlayers().size() - 1 > book.get().detectives())
+			return NONE;
+		Map<Colour, Integer> starts = new EnumMap<>(Colour.class);
+		for (Colour colour : view.getPlayers()) {
+			Map<Ticket, Integer> tickets = colour.isMrX() ? StandardGame.generateMrXTickets()
+					: StandardGame.generateDetectiveTickets();
+			for (Map.Entry<Ticket, Integer> entry : tickets.entrySet()) {
+				Optional<Integer> count = view.getPlayerTickets(colour, entry.getKey());
+				if (count.isPresent() && !count.get().equals(entry.getValue())) return NONE;
+			}
+			if (colour.isMrX()) continue;
+			int location = view.getPlayerLocation(colour).orElse(0);
+			if (!StandardGame.DETECTIVE_LOCATIONS.contains(location)
+					|| starts.containsValue(location))
+				return NONE;
+			starts.put(colour, location);
+		}
+		return new Opening(book.get(), starts);
+	}
+
+	/**
+	 * @param colour the player; not null
+	 * @param location the player's location, Mr.X's actual one
+	 * @param valid the valid moves given by the model; not null
+	 * @return the book move if this is the player's first move and the book
+	 *         has one that is valid, empty otherwise
+	 */
+	public Optional<Move> firstMove(Colour colour, int location, Set<Move> valid) {
+		if (book == null) return Optional.empty();
+		synchronized (played) {
+			if (!played.add(colour)) return Optional.empty();
+		}
+		Integer start = starts.get(colour);
+		Optional<Move> move = colour.isMrX() ? book.mrXMove(location, detectives)
+				: start != null && start == location
+						? book.detectiveMove(colour, location, detectives) : Optional.empty();
+		return move.filter(valid::contains);
+	}
+
+}
@@ -0,0 +1,412 @@
+package uk.ac.bris.cs.scotlandyard.ai.book;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+/**
+ * First moves for the start configurations of a standard game, built
+ * offline by {@link OpeningBookBuilder}. A configuration is Mr.X's location
+ * from {@link StandardGame#MRX_LOCATIONS} and the set of detective locations
+ * from {@link StandardGame#DETECTIVE_LOCATIONS}; every configuration has a
+ * fixed slot, found from the rank of the detective set in the combinatorial
+ * number system, so a lookup reads a few bytes at a computed offset.
+ * <br>
+ * The file is memory mapped rather than read, and holds for every number of
+ * detectives up to {@link #detectives()}:
+ * <ul>
+ * <li>per configuration Mr.X's first move and his estimated chance of
+ * winning after it</li>
+ * <li>per detective set, which is all detectives know, Mr.X's chance of
+ * winning averaged over his start locations and a first move for each
+ * detective, ordered by location</li>
+ * </ul>
+ * Moves are stored with node values, configurations that were not evaluated
+ * have no move and a {@code NaN} value. Lookups are safe from any thread.
+ */
+public final class OpeningBook {
+
+	private static final Logger logger = LoggerFactory.getLogger(OpeningBook.class);
+
+	public static final int MAX_DETECTIVES = 5;
+
+	private static final int MAGIC = 0x53594F42; // SYOB
+	private static final int VERSION = 1;
+	private static final int HEADER = 24;
+	private static final int NONE = 0;
+
+	private static final int[] MRX = StandardGame.MRX_LOCATIONS.stream()
+			.mapToInt(Integer::intValue).toArray();
+	private static final int[] DETECTIVES = StandardGame.DETECTIVE_LOCATIONS.stream()
+			.mapToInt(Integer::intValue).sorted().toArray();
+	private static final int[][] BINOMIAL = binomials(DETECTIVES.length, MAX_DETECTIVES);
+
+	private final ByteBuffer buffer;
+	private final int detectives;
+	private final int[] mrXOffsets;
+	private final int[] detectiveOffsets;
+
+	private OpeningBook(ByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC)
+			throw new IOException("Not an opening book");
+		int version = buffer.getInt(4);
+		if (version != VERSION) throw new IOException("Unsupported version " + version);
+		detectives = buffer.getInt(16);
+		if (detectives < 1 || detectives > MAX_DETECTIVES)
+			throw new IOException("Invalid detective count " + detectives);
+		mrXOffsets = new int[detectives + 1];
+		detectiveOffsets = new int[detectives + 1];
+		int offset = HEADER;
+		for (int d = 1; d <= detectives; d++) {
+			mrXOffsets[d] = offset;
+			offset += MRX.length * sets(d) * 8;
+			detectiveOffsets[d] = offset;
+			offset += sets(d) * detectiveRecord(d);
+		}
+		if (buffer.capacity() != offset)
+			throw new IOException("Expected " + offset + " bytes, got " + buffer.capacity());
+	}
+
+	/**
+	 * @return where the book is looked for by default
+	 */
+	public static Path defaultFile() {
+		return Paths.get(System.getProperty("user.home"), ".scotlandyard", "openings",
+				"standard.book");
+	}
+
+	/**
+	 * Maps a book saved with {@link #save(Path)}
+	 *
+	 * @param file the file; not null
+	 * @return the book
+	 * @throws IOException if the file cannot be read or is malformed
+	 */
+	public static OpeningBook load(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			// the mapping stays valid after the channel is closed
+			return new OpeningBook(
+					channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * @return the book in {@link #defaultFile()}, mapped on first use, or
+	 *         empty if there is none
+	 */
+	public static Optional<OpeningBook> standard() {
+		return Standard.BOOK;
+	}
+
+	private static final class Standard {
+		static final Optional<OpeningBook> BOOK = loadStandard();
+
+		private static Optional<OpeningBook> loadStandard() {
+			Path file = defaultFile();
+			try {
+				OpeningBook book = load(file);
+				logger.info("Using opening book {} for up to {} detectives", file,
+						book.detectives);
+				return Optional.of(book);
+			} catch (NoSuchFileException e) {
+				logger.debug("No opening book at {}", file);
+			} catch (IOException e) {
+				logger.warn("Ignoring opening book {}", file, e);
+			}
+			return Optional.empty();
+		}
+	}
+
+	// a book with no moves, to be filled by the builder
+	static OpeningBook create(CompactGraph graph, int detectives, int playouts) {
+		if (detectives < 1 || detectives > MAX_DETECTIVES)
+			throw new IllegalArgumentException("Invalid detective count " + detectives);
+		int size = HEADER;
+		for (int d = 1; d <= detectives; d++)
+			size += MRX.length * sets(d) * 8 + sets(d) * detectiveRecord(d);
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		buffer.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, graph.fingerprint())
+				.putInt(16, detectives).putInt(20, playouts);
+		try {
+			OpeningBook book = new OpeningBook(buffer);
+			for (int d = 1; d <= detectives; d++) {
+				for (int set = 0; set < sets(d); set++) {
+					for (int x = 0; x < MRX.length; x++) book.putMrX(d, set, x, NONE, Float.NaN);
+					book.putDetectives(d, set, new int[d], Float.NaN);
+				}
+			}
+			return book;
+		} catch (IOException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Saves the book, replacing the file only once it is written completely
+	 *
+	 * @param file the file; not null
+	 */
+	public void save(Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) Files.createDirectories(parent);
+		Path temporary = Files.createTempFile(parent, "book", ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+			ByteBuffer all = buffer.duplicate();
+			all.clear();
+			while (all.hasRemaining()) channel.write(all);
+		} catch (IOException e) {
+			Files.deleteIfExists(temporary);
+			throw e;
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * @return the largest number of detectives the book has moves for
+	 */
+	public int detectives() {
+		return detectives;
+	}
+
+	/**
+	 * @return the playouts per candidate move the book was built with
+	 */
+	public int playouts() {
+		return buffer.getInt(20);
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @return whether the book was built for the graph
+	 */
+	public boolean isFor(CompactGraph graph) {
+		return buffer.getLong(8) == graph.fingerprint();
+	}
+
+	/**
+	 * @param mrX Mr.X's start location
+	 * @param detectives the start locations of all detectives; not null
+	 * @return Mr.X's first move, empty if the configuration is not a
+	 *         standard one or was not evaluated
+	 */
+	public Optional<Move> mrXMove(int mrX, Collection<Integer> detectives) {
+		int x = indexOf(MRX, mrX);
+		int set = rank(detectives);
+		if (x < 0 || set < 0) return Optional.empty();
+		return decode(Colour.BLACK, buffer.getInt(mrXRecord(detectives.size(), set, x)));
+	}
+
+	/**
+	 * @param mrX Mr.X's start location
+	 * @param detectives the start locations of all detectives; not null
+	 * @return Mr.X's estimated chance of winning after his
+	 *         {@link #mrXMove first move}, {@code NaN} if unknown
+	 */
+	public double mrXValue(int mrX, Collection<Integer> detectives) {
+		int x = indexOf(MRX, mrX);
+		int set = rank(detectives);
+		if (x < 0 || set < 0) return Double.NaN;
+		return buffer.getFloat(mrXRecord(detectives.size(), set, x) + 4);
+	}
+
+	/**
+	 * @param colour the detective; not null
+	 * @param location the detective's start location
+	 * @param detectives the start locations of all detectives, including
+	 *        {@code location}; not null
+	 * @return the detective's first move, empty if the configuration is not
+	 *         a standard one or was not evaluated
+	 */
+	public Optional<Move> detectiveMove(Colour colour, int location,
+			Collection<Integer> detectives) {
+		requireNonNull(colour);
+		int set = rank(detectives);
+		if (set < 0) return Optional.empty();
+		if (!detectives.contains(location)) return Optional.empty();
+		int slot = 0;
+		for (int other : detectives) if (other < location) slot++;
+		return decode(colour,
+				buffer.getInt(detectiveRecord(detectives.size(), set) + 4 + slot * 4));
+	}
+
+	/**
+	 * @param detectives the start locations of all detectives; not null
+	 * @return Mr.X's estimated chance of winning averaged over his start
+	 *         locations, {@code NaN} if unknown
+	 */
+	public double value(Collection<Integer> detectives) {
+		int set = rank(detectives);
+		if (set < 0) return Double.NaN;
+		return buffer.getFloat(detectiveRecord(detectives.size(), set));
+	}
+
+	void putMrX(int d, int set, int x, int move, float value) {
+		int offset = mrXRecord(d, set, x);
+		buffer.putInt(offset, move).putFloat(offset + 4, value);
+	}
+
+	void putDetectives(int d, int set, int[] moves, float value) {
+		int offset = detectiveRecord(d, set);
+		buffer.putFloat(offset, value);
+		for (int i = 0; i < d; i++) buffer.putInt(offset + 4 + i * 4, moves[i]);
+	}
+
+	private int mrXRecord(int d, int set, int x) {
+		return mrXOffsets[d] + (set * MRX.length + x) * 8;
+	}
+
+	private int detectiveRecord(int d, int set) {
+		return detectiveOffsets[d] + set * detectiveRecord(d);
+	}
+
+	private static int detectiveRecord(int d) {
+		return 4 + d * 4;
+	}
+
+	/**
+	 * @param d number of detectives
+	 * @return number of detective sets, i.e. {@code DETECTIVE_LOCATIONS}
+	 *         choose {@code d}
+	 */
+	static int sets(int d) {
+		return BINOMIAL[DETECTIVES.length][d];
+	}
+
+	/**
+	 * @return number of start locations for Mr.X, which are indexed in the
+	 *         order of {@link StandardGame#MRX_LOCATIONS}
+	 */
+	static int mrXLocations() {
+		return MRX.length;
+	}
+
+	// -1 unless the locations are distinct detective start locations this
+	// book has moves for
+	private int rank(Collection<Integer> locations) {
+		int d = locations.size();
+		if (d < 1 || d > detectives) return -1;
+		int[] positions = new int[d];
+		int i = 0;
+		for (int location : locations) {
+			int position = indexOf(DETECTIVES, location);
+			if (position < 0) return -1;
+			positions[i++] = position;
+		}
+		Arrays.sort(positions);
+		for (i = 1; i < d; i++) if (positions[i] == positions[i - 1]) return -1;
+		return rank(positions);
+	}
+
+	/**
+	 * @param positions strictly increasing indices into the sorted detective
+	 *        start locations
+	 * @return the rank of the set among all sets of the same size
+	 */
+	static int rank(int[] positions) {
+		int rank = 0;
+		for (int i = 0; i < positions.length; i++) rank += BINOMIAL[positions[i]][i + 1];
+		return rank;
+	}
+
+	/**
+	 * The inverse of {@link #rank(int[])}
+	 *
+	 * @param rank the rank
+	 * @param positions filled with the indices, its length is the set size
+	 * @return the detective start locations of the set, ascending
+	 */
+	static int[] unrank(int rank, int[] positions) {
+		int[] locations = new int[positions.length];
+		int candidate = DETECTIVES.length - 1;
+		for (int i = positions.length - 1; i >= 0; i--) {
+			while (BINOMIAL[candidate][i + 1] > rank) candidate--;
+			rank -= BINOMIAL[candidate][i + 1];
+			positions[i] = candidate;
+			locations[i] = DETECTIVES[candidate];
+			candidate--;
+		}
+		return locations;
+	}
+
+	/**
+	 * Packs an engine move into 32 bits using node values: kind in bits 0-1,
+	 * tickets in bits 2-4 and 17-19, destinations in bits 5-16 and 20-31
+	 */
+	static int pack(CompactGraph graph, long move) {
+		switch (Moves.kind(move)) {
+			case Moves.KIND_SINGLE:
+				return Moves.KIND_SINGLE | Moves.firstTicket(move) << 2
+						| node(graph, Moves.firstDestination(move)) << 5;
+			case Moves.KIND_DOUBLE:
+				return Moves.KIND_DOUBLE | Moves.firstTicket(move) << 2
+						| node(graph, Moves.firstDestination(move)) << 5
+						| Moves.secondTicket(move) << 17
+						| node(graph, Moves.secondDestination(move)) << 20;
+			default:
+				return NONE;
+		}
+	}
+
+	private static int node(CompactGraph graph, int index) {
+		int value = graph.value(index);
+		if (value >= 1 << 12) throw new IllegalArgumentException("Node " + value + " too large");
+		return value;
+	}
+
+	private static Optional<Move> decode(Colour colour, int packed) {
+		Ticket[] tickets = Ticket.values();
+		Ticket first = tickets[packed >>> 2 & 7];
+		int firstDestination = packed >>> 5 & 0xFFF;
+		switch (packed & 3) {
+			case Moves.KIND_SINGLE:
+				return Optional.of(new TicketMove(colour, first, firstDestination));
+			case Moves.KIND_DOUBLE:
+				return Optional.of(new DoubleMove(colour, first, firstDestination,
+						tickets[packed >>> 17 & 7], packed >>> 20));
+			default:
+				// nobody passes at the start, so a pass marks a missing entry
+				return Optional.empty();
+		}
+	}
+
+	private static int indexOf(int[] values, int value) {
+		for (int i = 0; i < values.length; i++) if (values[i] == value) return i;
+		return -1;
+	}
+
+	private static int[][] binomials(int n, int k) {
+		int[][] binomial = new int[n + 1][k + 1];
+		for (int i = 0; i <= n; i++) {
+			binomial[i][0] = 1;
+			for (int j = 1; j <= Math.min(i, k); j++)
+				binomial[i][j] = binomial[i - 1][j - 1] + binomial[i - 1][j];
+		}
+		return binomial;
+	}
+
+}
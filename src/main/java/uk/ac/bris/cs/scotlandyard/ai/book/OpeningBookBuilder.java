@@ -0,0 +1,251 @@
+package uk.ac.bris.cs.scotlandyard.ai.book;
+
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Distances;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+
+/**
+ * Builds an {@link OpeningBook} by self-play. Every start configuration is
+ * evaluated in parallel, for {@link OpeningBook#MAX_DETECTIVES} detectives
+ * only a sample of the detective sets:
+ * <ul>
+ * <li>each single first move of Mr.X is played out a number of times with
+ * {@link Playouts}, the one he wins most often goes in the book; double
+ * moves are left to the search, spending one in the first round is rarely
+ * worth it</li>
+ * <li>the detectives then pick, in order of their start location, the first
+ * move after which Mr.X wins least often, over all his start locations and
+ * his book moves from them</li>
+ * </ul>
+ * Run with
+ * {@code mvn exec:java -Dexec.mainClass=uk.ac.bris.cs.scotlandyard.ai.book.OpeningBookBuilder -Dexec.args="--help"}
+ * for the options.
+ */
+public final class OpeningBookBuilder {
+
+	private static final String USAGE = String.join("\n",
+			"Usage: OpeningBookBuilder [options]",
+			"  --detectives <n>  largest number of detectives, 1 to 5 (5)",
+			"  --playouts <n>    games played per candidate move (64)",
+			"  --sample <n>      detective sets evaluated for 5 detectives (256)",
+			"  --threads <n>     sets evaluated at once (available processors)",
+			"  --seed <n>        seed of the playouts and the sample (0)",
+			"  --out <file>      where to save the book (" + OpeningBook.defaultFile() + ")");
+
+	private int detectives = OpeningBook.MAX_DETECTIVES;
+	private int playouts = 64;
+	private int sample = 256;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed;
+	private Path out = OpeningBook.defaultFile();
+
+	private final PrintStream log = System.out;
+	private final LongAdder games = new LongAdder();
+	private CompactGraph graph;
+	private Distances distances;
+	private int[] mrXStarts;
+	private OpeningBook book;
+
+	public static void main(String[] args) throws Exception {
+		OpeningBookBuilder builder = new OpeningBookBuilder();
+		try {
+			if (!builder.parse(args)) {
+				System.out.println(USAGE);
+				return;
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		builder.run();
+	}
+
+	private boolean parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("--help")) return false;
+			if (i + 1 >= args.length) throw new IllegalArgumentException(option + " needs a value");
+			String value = args[++i];
+			try {
+				switch (option) {
+				case "--detectives":
+					detectives = positive(option, value);
+					if (detectives > OpeningBook.MAX_DETECTIVES)
+						throw new IllegalArgumentException(option + " must be at most "
+								+ OpeningBook.MAX_DETECTIVES);
+					break;
+				case "--playouts":
+					playouts = positive(option, value);
+					break;
+				case "--sample":
+					sample = positive(option, value);
+					break;
+				case "--threads":
+					threads = positive(option, value);
+					break;
+				case "--seed":
+					seed = Long.parseLong(value);
+					break;
+				case "--out":
+					out = Paths.get(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(option + " needs a number, got " + value);
+			}
+		}
+		return true;
+	}
+
+	private static int positive(String option, String value) {
+		int number = Integer.parseInt(value);
+		if (number <= 0) throw new IllegalArgumentException(option + " must be positive");
+		return number;
+	}
+
+	private void run() throws Exception {
+		graph = CompactGraph.of(StandardGame.standardGraph());
+		distances = Distances.of(graph);
+		mrXStarts = StandardGame.MRX_LOCATIONS.stream().mapToInt(graph::indexOf).toArray();
+		book = OpeningBook.create(graph, detectives, playouts);
+		log.printf("Building an opening book for up to %d detectives, %d playouts per move, "
+				+ "on %d threads%n", detectives, playouts, threads);
+
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			for (int d = 1; d <= detectives; d++) {
+				int count = d;
+				int[] sets = sets(d);
+				long start = System.nanoTime();
+				long before = games.sum();
+				// parallel streams run in the pool they are started from
+				pool.submit(() -> Arrays.stream(sets).parallel()
+						.forEach(set -> evaluate(count, set))).get();
+				log.printf("%d detectives: %d of %d sets, %d games in %dms%n", d, sets.length,
+						OpeningBook.sets(d), games.sum() - before,
+						(System.nanoTime() - start) / 1_000_000);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		book.save(out);
+		log.printf("Saved %s%n", out);
+	}
+
+	// every set, or a sample of them for the most detectives
+	private int[] sets(int d) {
+		if (d < OpeningBook.MAX_DETECTIVES || sample >= OpeningBook.sets(d))
+			return IntStream.range(0, OpeningBook.sets(d)).toArray();
+		List<Integer> all = new ArrayList<>();
+		for (int set = 0; set < OpeningBook.sets(d); set++) all.add(set);
+		Collections.shuffle(all, new Random(seed));
+		return all.stream().limit(sample).mapToInt(Integer::intValue).sorted().toArray();
+	}
+
+	private void evaluate(int d, int set) {
+		int[] locations = OpeningBook.unrank(set, new int[d]);
+		GameState root = start(locations);
+		SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + (d << 12 | set));
+		Playouts selfPlay = new Playouts(distances, mrXStarts, root, random);
+		MoveList moves = new MoveList(256);
+		int starts = OpeningBook.mrXLocations();
+
+		long[] mrXMoves = new long[starts];
+		double total = 0;
+		for (int x = 0; x < starts; x++) {
+			root.setLocation(MRX, mrXStarts[x]);
+			root.generateMoves(moves);
+			int bestWins = -1;
+			int candidates = 0;
+			for (int i = 0; i < moves.size(); i++) {
+				long move = moves.get(i);
+				if (Moves.kind(move) != Moves.KIND_SINGLE) continue;
+				candidates++;
+				root.play(move);
+				int wins = selfPlay.mrXWins(root, playouts);
+				root.undo();
+				if (wins > bestWins) {
+					bestWins = wins;
+					mrXMoves[x] = move;
+				}
+			}
+			games.add(candidates * (long) playouts);
+			double value = (double) bestWins / playouts;
+			book.putMrX(d, set, x, OpeningBook.pack(graph, mrXMoves[x]), (float) value);
+			total += value;
+		}
+
+		// a few games per start location, as many as for Mr.X in total
+		int perStart = (playouts + starts - 1) / starts;
+		long[] chosen = new long[d];
+		int[] packed = new int[d];
+		for (int slot = 0; slot < d; slot++) {
+			// Mr.X's location never makes a detective move illegal
+			root.setLocation(MRX, mrXStarts[0]);
+			root.play(mrXMoves[0]);
+			for (int p = 0; p < slot; p++) root.play(chosen[p]);
+			root.generateMoves(moves);
+			for (int p = 0; p <= slot; p++) root.undo();
+			int fewest = Integer.MAX_VALUE;
+			for (int i = 0; i < moves.size(); i++) {
+				long move = moves.get(i);
+				int wins = 0;
+				for (int x = 0; x < starts; x++) {
+					root.setLocation(MRX, mrXStarts[x]);
+					root.play(mrXMoves[x]);
+					for (int p = 0; p < slot; p++) root.play(chosen[p]);
+					root.play(move);
+					wins += selfPlay.mrXWins(root, perStart);
+					for (int p = 0; p <= slot + 1; p++) root.undo();
+				}
+				if (wins < fewest) {
+					fewest = wins;
+					chosen[slot] = move;
+				}
+			}
+			games.add(moves.size() * (long) perStart * starts);
+			packed[slot] = OpeningBook.pack(graph, chosen[slot]);
+		}
+		book.putDetectives(d, set, packed, (float) (total / starts));
+	}
+
+	// detectives play in order of their start location
+	private GameState start(int[] locations) {
+		List<Colour> colours = Arrays.asList(Colour.values()).subList(0, locations.length + 1);
+		GameState state = new GameState(graph, colours, StandardGame.ROUNDS);
+		for (Map.Entry<Ticket, Integer> entry : StandardGame.generateMrXTickets().entrySet())
+			state.setTickets(MRX, entry.getKey().ordinal(), entry.getValue());
+		for (int p = 1; p <= locations.length; p++) {
+			state.setLocation(p, graph.indexOf(locations[p - 1]));
+			for (Map.Entry<Ticket, Integer> entry : StandardGame.generateDetectiveTickets()
+					.entrySet())
+				state.setTickets(p, entry.getKey().ordinal(), entry.getValue());
+		}
+		return state;
+	}
+
+}
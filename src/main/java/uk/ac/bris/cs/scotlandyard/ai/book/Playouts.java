@@ -0,0 +1,122 @@
+package uk.ac.bris.cs.scotlandyard.ai.book;
+
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX_WINS;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.UNDECIDED;
+
+import java.util.SplittableRandom;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.Distances;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+
+/**
+ * Self-play to the end of the game with a cheap, mostly greedy policy. Mr.X
+ * keeps away from the detectives. The detectives only use what they would
+ * know: they head for where Mr.X was last revealed, or for the start
+ * location of Mr.X nearest to them before he was revealed at all.
+ * <br>
+ * Not thread safe, each worker uses its own.
+ */
+final class Playouts {
+
+	private static final double GREEDY = 0.8;
+
+	private final Distances distances;
+	private final int[] mrXStarts;
+	private final GameState state;
+	private final MoveList moves = new MoveList(256);
+	private final SplittableRandom random;
+	private int lastSeen;
+
+	/**
+	 * @param distances distances of the graph
+	 * @param mrXStarts node indices Mr.X may have started at
+	 * @param origin a state every position played from is derived from
+	 * @param random the source of randomness
+	 */
+	Playouts(Distances distances, int[] mrXStarts, GameState origin, SplittableRandom random) {
+		this.distances = distances;
+		this.mrXStarts = mrXStarts;
+		this.state = origin.copy();
+		this.random = random;
+	}
+
+	/**
+	 * Plays games from a position in which Mr.X has not been revealed yet
+	 *
+	 * @param from the position, derived from the origin
+	 * @param games number of games
+	 * @return number of games Mr.X won
+	 */
+	int mrXWins(GameState from, int games) {
+		int wins = 0;
+		for (int i = 0; i < games; i++) {
+			state.copyFrom(from);
+			lastSeen = -1;
+			int winner;
+			while ((winner = state.winner()) == UNDECIDED) {
+				state.generateMoves(moves);
+				boolean mrX = state.current() == MRX;
+				long move = choose();
+				state.play(move);
+				if (mrX) reveal(move);
+			}
+			if (winner == MRX_WINS) wins++;
+		}
+		return wins;
+	}
+
+	// called right after Mr.X moved
+	private void reveal(long move) {
+		int round = state.round();
+		if (state.isRevealRound(round)) lastSeen = state.location(MRX);
+		else if (Moves.kind(move) == Moves.KIND_DOUBLE && state.isRevealRound(round - 1))
+			lastSeen = Moves.firstDestination(move);
+	}
+
+	private long choose() {
+		int size = moves.size();
+		if (size == 1 || random.nextDouble() >= GREEDY) return moves.get(random.nextInt(size));
+		int mover = state.current();
+		int target = mover == MRX ? -1 : lastSeen >= 0 ? lastSeen : nearestStart(mover);
+		int offset = random.nextInt(size);
+		long best = moves.get(offset);
+		int bestScore = Integer.MIN_VALUE;
+		for (int k = 0; k < size; k++) {
+			long move = moves.get((offset + k) % size);
+			int destination = Moves.finalDestination(move);
+			if (destination < 0) continue;
+			int score;
+			if (mover == MRX) {
+				score = Integer.MAX_VALUE;
+				for (int p = 1; p < state.players(); p++)
+					score = Math.min(score, distances.distance(destination, state.location(p)));
+				if (Moves.kind(move) == Moves.KIND_DOUBLE) score--;
+			} else {
+				score = -distances.distance(destination, target);
+			}
+			if (score > bestScore) {
+				bestScore = score;
+				best = move;
+			}
+		}
+		return best;
+	}
+
+	private int nearestStart(int detective) {
+		int from = state.location(detective);
+		int nearest = mrXStarts[0];
+		int distance = Integer.MAX_VALUE;
+		for (int start : mrXStarts) {
+			int d = distances.distance(from, start);
+			if (d < distance) {
+				distance = d;
+				nearest = start;
+			}
+		}
+		return nearest;
+	}
+
+}
@@ -0,0 +1,177 @@
+package uk.ac.bris.cs.scotlandyard.ai.endgame;
+
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Fills a {@link Tablebase} by backward induction from the end of the game.
+ * Every move of Mr.X uses up a round, so the layers are solved in order of
+ * remaining rounds. With the same rounds remaining Mr.X to move comes first,
+ * then the detectives from the last to move to the first.
+ * <br>
+ * A layer is solved in parallel, one detective configuration at a time, and
+ * the bitset over Mr.X's locations is computed as a whole: detectives
+ * cannot be blocked by Mr.X, so a detective's moves are the same for every
+ * location of Mr.X and combine the bitsets of the layer below with a few
+ * word operations.
+ */
+final class RetrogradeSolver {
+
+	private static final int UNDERGROUND = Transport.UNDERGROUND.ordinal();
+
+	private final Tablebase table;
+	private final CompactGraph graph;
+	private final int detectives;
+	private final int words;
+	private final int size;
+
+	RetrogradeSolver(Tablebase table) {
+		this.table = table;
+		this.graph = table.graph();
+		this.detectives = table.detectives();
+		this.words = table.words();
+		this.size = graph.size();
+	}
+
+	/**
+	 * Solves every layer of the table
+	 *
+	 * @param pool the pool to solve layers in
+	 * @param progress told about every remaining round once solved
+	 */
+	void solve(ForkJoinPool pool, IntConsumer progress)
+			throws InterruptedException, ExecutionException {
+		int configurations = table.configurations();
+		for (int r = 0; r <= table.rounds(); r++) {
+			for (int k = 0; k <= Tablebase.doubles(r); k++) {
+				int remaining = r;
+				int doubles = k;
+				for (int i = 0; i <= detectives; i++) {
+					int player = i == 0 ? MRX : detectives + 1 - i;
+					// parallel streams run in the pool they are started from
+					pool.submit(() -> IntStream.range(0, configurations).parallel()
+							.forEach(c -> solve(remaining, doubles, player, c))).get();
+				}
+			}
+			progress.accept(r);
+		}
+	}
+
+	private void solve(int remaining, int doubles, int side, int configuration) {
+		int[] locations = new int[detectives + 1];
+		int rest = configuration;
+		for (int p = 1; p <= detectives; p++) {
+			locations[p] = rest % size;
+			rest /= size;
+		}
+		for (int p = 1; p <= detectives; p++)
+			for (int q = p + 1; q <= detectives; q++)
+				if (locations[p] == locations[q]) return; // never reached
+		long[] layer = table.layer(remaining, doubles, side);
+		int offset = configuration * words;
+		if (side == MRX) mrX(remaining, doubles, locations, configuration, layer, offset);
+		else detective(remaining, doubles, side, locations, configuration, layer, offset);
+	}
+
+	private void mrX(int remaining, int doubles, int[] locations, int configuration,
+			long[] layer, int offset) {
+		long[] wins = new long[words];
+		if (remaining == 0 || detectivesStuck(locations)) {
+			// the game ends before Mr.X moves
+			for (int x = 0; x < size; x++) wins[x >>> 6] |= 1L << x;
+		} else {
+			long[] single = table.layer(remaining - 1, Math.min(doubles,
+					Tablebase.doubles(remaining - 1)), 1);
+			int base = configuration * words;
+			// where Mr.X wins by moving to, with a double move if he has one
+			long[] good = new long[words];
+			for (int y = 0; y < size; y++)
+				if ((single[base + (y >>> 6)] >>> y & 1) != 0) good[y >>> 6] |= 1L << y;
+			if (doubles > 0 && remaining >= 2) {
+				long[] twice = table.layer(remaining - 2, Math.min(doubles - 1,
+						Tablebase.doubles(remaining - 2)), 1);
+				for (int y = 0; y < size; y++) {
+					if (occupied(locations, y)) continue;
+					for (int i = 0, degree = graph.degree(y); i < degree; i++) {
+						int z = graph.neighbour(y, i);
+						if (graph.transport(y, i) <= UNDERGROUND && !occupied(locations, z)
+								&& (twice[base + (z >>> 6)] >>> z & 1) != 0) {
+							good[y >>> 6] |= 1L << y;
+							break;
+						}
+					}
+				}
+			}
+			for (int x = 0; x < size; x++) {
+				for (int i = 0, degree = graph.degree(x); i < degree; i++) {
+					int y = graph.neighbour(x, i);
+					if (graph.transport(x, i) <= UNDERGROUND && !occupied(locations, y)
+							&& (good[y >>> 6] >>> y & 1) != 0) {
+						wins[x >>> 6] |= 1L << x;
+						break;
+					}
+				}
+			}
+		}
+		clearCaught(wins, locations);
+		System.arraycopy(wins, 0, layer, offset, words);
+	}
+
+	private void detective(int remaining, int doubles, int side, int[] locations,
+			int configuration, long[] layer, int offset) {
+		long[] next = table.layer(remaining, doubles, side == detectives ? MRX : side + 1);
+		long[] wins = new long[words];
+		for (int w = 0; w < words; w++) wins[w] = -1L;
+		int from = locations[side];
+		int scale = 1;
+		for (int p = 1; p < side; p++) scale *= size;
+		boolean moved = false;
+		for (int i = 0, degree = graph.degree(from); i < degree; i++) {
+			int y = graph.neighbour(from, i);
+			if (graph.transport(from, i) > UNDERGROUND || occupied(locations, y)) continue;
+			moved = true;
+			int base = (configuration + (y - from) * scale) * words;
+			// Mr.X only wins if he wins after every move, and is not caught
+			for (int w = 0; w < words; w++) wins[w] &= next[base + w];
+			wins[y >>> 6] &= ~(1L << y);
+		}
+		if (!moved) {
+			// a detective that cannot move passes
+			int base = configuration * words;
+			for (int w = 0; w < words; w++) wins[w] &= next[base + w];
+		}
+		clearCaught(wins, locations);
+		System.arraycopy(wins, 0, layer, offset, words);
+	}
+
+	// Mr.X on a detective has lost, also clears the bits past the last node
+	private void clearCaught(long[] wins, int[] locations) {
+		for (int p = 1; p <= detectives; p++) wins[locations[p] >>> 6] &= ~(1L << locations[p]);
+		if ((size & 63) != 0) wins[words - 1] &= (1L << size) - 1;
+	}
+
+	private boolean occupied(int[] locations, int node) {
+		for (int p = 1; p <= detectives; p++) if (locations[p] == node) return true;
+		return false;
+	}
+
+	private boolean detectivesStuck(int[] locations) {
+		for (int p = 1; p <= detectives; p++) {
+			int from = locations[p];
+			for (int i = 0, degree = graph.degree(from); i < degree; i++) {
+				int to = graph.neighbour(from, i);
+				if (graph.transport(from, i) <= UNDERGROUND && !occupied(locations, to))
+					return false;
+			}
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,401 @@
+package uk.ac.bris.cs.scotlandyard.ai.endgame;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.DETECTIVES_WIN;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX_WINS;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.UNDECIDED;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Solved endgames: whether Mr.X wins with perfect play by both sides, for
+ * every position of the last {@link #rounds()} rounds with a fixed number of
+ * detectives, built by {@link TablebaseBuilder}.
+ * <br>
+ * Positions are full information and leave tickets out: every player may use
+ * any taxi, bus or underground edge, Mr.X has up to
+ * {@link #MAX_DOUBLES} double moves but no ferries. Tickets do run out in a
+ * real game, so {@link #probe(GameState)} only answers when that cannot
+ * change the result:
+ * <ul>
+ * <li>a win for Mr.X when his tickets, with secret tickets filling the gaps,
+ * last for every remaining round; a double move takes two rounds and two
+ * tickets, so that holds however many of them he makes</li>
+ * <li>a win for the detectives when each of them has enough tickets of every
+ * transport for its remaining moves, and Mr.X cannot reach a ferry in time
+ * or has no secret ticket to take it with</li>
+ * </ul>
+ * A position is one bit, set if Mr.X wins. Bits are grouped into layers by
+ * remaining rounds, Mr.X's double moves and the player to move; within a
+ * layer the detective locations select a short bitset over every location of
+ * Mr.X. Tables are compressed on disk and held uncompressed in memory.
+ */
+public final class Tablebase {
+
+	private static final Logger logger = LoggerFactory.getLogger(Tablebase.class);
+
+	public static final int MAX_DETECTIVES = 3;
+	public static final int MAX_DOUBLES = 2;
+
+	private static final int MAGIC = 0x53594554; // SYET
+	private static final int VERSION = 1;
+
+	private static final int TAXI = Ticket.TAXI.ordinal();
+	private static final int BUS = Ticket.BUS.ordinal();
+	private static final int UNDERGROUND = Ticket.UNDERGROUND.ordinal();
+	private static final int DOUBLE = Ticket.DOUBLE.ordinal();
+	private static final int SECRET = Ticket.SECRET.ordinal();
+
+	private static final ConcurrentMap<Integer, Optional<Tablebase>> standard =
+			new ConcurrentHashMap<>();
+
+	private final CompactGraph graph;
+	private final long fingerprint;
+	private final int detectives;
+	private final int rounds;
+	private final int words;
+	private final int[] bases;
+	private final long[][] layers;
+	private final int[] ferryDistance;
+
+	Tablebase(CompactGraph graph, int detectives, int rounds) {
+		this.graph = requireNonNull(graph);
+		this.fingerprint = graph.fingerprint();
+		if (detectives < 1 || detectives > MAX_DETECTIVES)
+			throw new IllegalArgumentException("Invalid detective count " + detectives);
+		if (rounds < 0) throw new IllegalArgumentException("Negative rounds " + rounds);
+		this.detectives = detectives;
+		this.rounds = rounds;
+		this.words = (graph.size() + 63) >>> 6;
+		this.bases = new int[rounds + 2];
+		for (int r = 0; r <= rounds; r++)
+			bases[r + 1] = bases[r] + (doubles(r) + 1) * sides();
+		long length = (long) configurations() * words;
+		if (length > Integer.MAX_VALUE)
+			throw new IllegalArgumentException(detectives + " detectives do not fit a layer");
+		this.layers = new long[bases[rounds + 1]][(int) length];
+		this.ferryDistance = ferryDistances(graph);
+	}
+
+	/**
+	 * @param detectives the number of detectives
+	 * @return where the table for the number of detectives is looked for by
+	 *         default
+	 */
+	public static Path defaultFile(int detectives) {
+		return Paths.get(System.getProperty("user.home"), ".scotlandyard", "endgame",
+				detectives + "-detectives.tb");
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @param detectives the number of detectives
+	 * @return the table in {@link #defaultFile(int)}, loaded on first use, or
+	 *         empty if there is none for the graph
+	 */
+	public static Optional<Tablebase> standard(CompactGraph graph, int detectives) {
+		requireNonNull(graph);
+		Optional<Tablebase> table = standard.computeIfAbsent(detectives, d -> {
+			Path file = defaultFile(d);
+			try {
+				Tablebase loaded = load(file, graph);
+				logger.info("Using endgame table {} for the last {} rounds", file,
+						loaded.rounds);
+				return Optional.of(loaded);
+			} catch (NoSuchFileException e) {
+				logger.debug("No endgame table at {}", file);
+			} catch (IOException e) {
+				logger.warn("Ignoring endgame table {}", file, e);
+			}
+			return Optional.empty();
+		});
+		return table.filter(t -> t.graph == graph || t.isFor(graph));
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @return whether the table was built for the graph
+	 */
+	public boolean isFor(CompactGraph graph) {
+		return graph.size() == this.graph.size() && graph.fingerprint() == fingerprint;
+	}
+
+	/**
+	 * @return the number of detectives
+	 */
+	public int detectives() {
+		return detectives;
+	}
+
+	/**
+	 * @return the number of rounds before the end of the game the table
+	 *         covers
+	 */
+	public int rounds() {
+		return rounds;
+	}
+
+	/**
+	 * Looks a position up, in constant time
+	 *
+	 * @param state the position; not null
+	 * @return {@link GameState#MRX_WINS} or {@link GameState#DETECTIVES_WIN}
+	 *         if the position is in the table and the tickets of the losing
+	 *         side cannot matter, {@link GameState#UNDECIDED} otherwise
+	 */
+	public int probe(GameState state) {
+		if (state.players() != detectives + 1 || state.graph().size() != graph.size())
+			return UNDECIDED;
+		int remaining = state.maxRounds() - state.round();
+		if (remaining < 0 || remaining > rounds) return UNDECIDED;
+		int doubles = state.tickets(MRX, DOUBLE);
+		int k = Math.min(doubles, doubles(remaining));
+		int configuration = 0;
+		for (int p = detectives; p >= 1; p--)
+			configuration = configuration * graph.size() + state.location(p);
+		int x = state.location(MRX);
+		long[] layer = layers[index(remaining, k, state.current())];
+		if ((layer[configuration * words + (x >>> 6)] >>> x & 1) != 0)
+			return mrXHasTickets(state, remaining) ? MRX_WINS : UNDECIDED;
+		// Mr.X may have more double moves than the table, and time to use them
+		boolean fewerDoubles = k < doubles && k < remaining / 2;
+		return !fewerDoubles && detectivesHaveTickets(state, remaining) ? DETECTIVES_WIN
+				: UNDECIDED;
+	}
+
+	/**
+	 * @param state the position; not null, not modified
+	 * @param moves the moves of the current player, see
+	 *        {@link GameState#generateMoves(MoveList)}; not null
+	 * @return a move after which {@link #probe(GameState)} still proves a win
+	 *         for the current player, or -1 if the table has none
+	 */
+	public long winningMove(GameState state, MoveList moves) {
+		int win = state.current() == MRX ? MRX_WINS : DETECTIVES_WIN;
+		if (state.winner() != UNDECIDED || probe(state) != win) return -1;
+		GameState copy = state.copy();
+		for (int i = 0; i < moves.size(); i++) {
+			long move = moves.get(i);
+			copy.play(move);
+			int winner = copy.winner();
+			int result = winner != UNDECIDED ? winner : probe(copy);
+			copy.undo();
+			if (result == win) return move;
+		}
+		return -1;
+	}
+
+	// Mr.X pays for any of his moves, secret tickets make up for the rest.
+	// Each hop takes a round, double moves included, so there are at most
+	// remaining hops of any one transport
+	private boolean mrXHasTickets(GameState state, int remaining) {
+		int missing = 0;
+		for (int ticket : new int[] { TAXI, BUS, UNDERGROUND })
+			missing += Math.max(0, remaining - state.tickets(MRX, ticket));
+		return missing <= state.tickets(MRX, SECRET);
+	}
+
+	private boolean detectivesHaveTickets(GameState state, int remaining) {
+		int current = state.current();
+		for (int p = 1; p <= detectives; p++) {
+			// a detective still to move this round moves once more
+			int moves = remaining + (current != MRX && p >= current ? 1 : 0);
+			if (state.tickets(p, TAXI) < moves || state.tickets(p, BUS) < moves
+					|| state.tickets(p, UNDERGROUND) < moves)
+				return false;
+		}
+		// Mr.X must be on a ferry node with a hop left to take one, and has
+		// one hop per round whether or not he moves twice
+		return state.tickets(MRX, SECRET) == 0 || ferryDistance[state.location(MRX)] >= remaining;
+	}
+
+	CompactGraph graph() {
+		return graph;
+	}
+
+	int words() {
+		return words;
+	}
+
+	int sides() {
+		return detectives + 1;
+	}
+
+	/**
+	 * @param remaining rounds left
+	 * @return the most double moves Mr.X can make in them
+	 */
+	static int doubles(int remaining) {
+		return Math.min(MAX_DOUBLES, remaining / 2);
+	}
+
+	int configurations() {
+		int configurations = 1;
+		for (int p = 0; p < detectives; p++) configurations *= graph.size();
+		return configurations;
+	}
+
+	/**
+	 * @param remaining rounds left
+	 * @return the share of positions with Mr.X to move and no double moves
+	 *         left that he wins, over positions where nobody shares a node
+	 */
+	double mrXWinRate(int remaining) {
+		long[] layer = layer(remaining, 0, MRX);
+		long wins = 0;
+		long positions = 0;
+		int[] locations = new int[detectives];
+		for (int c = 0; c < configurations(); c++) {
+			int rest = c;
+			boolean distinct = true;
+			for (int p = 0; p < detectives; p++) {
+				locations[p] = rest % graph.size();
+				rest /= graph.size();
+				for (int q = 0; q < p; q++) if (locations[q] == locations[p]) distinct = false;
+			}
+			if (!distinct) continue;
+			positions += graph.size() - detectives;
+			for (int w = 0; w < words; w++) wins += Long.bitCount(layer[c * words + w]);
+		}
+		return positions == 0 ? 0 : (double) wins / positions;
+	}
+
+	long[] layer(int remaining, int doubles, int side) {
+		return layers[index(remaining, doubles, side)];
+	}
+
+	private int index(int remaining, int doubles, int side) {
+		return bases[remaining] + doubles * sides() + side;
+	}
+
+	// hops from every node to the nearest node with a ferry
+	private static int[] ferryDistances(CompactGraph graph) {
+		int[] distance = new int[graph.size()];
+		Arrays.fill(distance, Integer.MAX_VALUE);
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		for (int node = 0; node < graph.size(); node++) {
+			for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+				if (graph.transport(node, i) == Transport.FERRY.ordinal()) {
+					distance[node] = 0;
+					queue.add(node);
+					break;
+				}
+			}
+		}
+		while (!queue.isEmpty()) {
+			int node = queue.poll();
+			for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+				int next = graph.neighbour(node, i);
+				if (distance[next] == Integer.MAX_VALUE) {
+					distance[next] = distance[node] + 1;
+					queue.add(next);
+				}
+			}
+		}
+		return distance;
+	}
+
+	/**
+	 * Writes the table deflated, see {@link #read(InputStream, CompactGraph)}
+	 *
+	 * @param out the stream; not null, not closed
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream header = new DataOutputStream(out);
+		header.writeInt(MAGIC);
+		header.writeInt(VERSION);
+		header.writeLong(fingerprint);
+		header.writeInt(graph.size());
+		header.writeInt(detectives);
+		header.writeInt(rounds);
+		header.flush();
+		Deflater deflater = new Deflater();
+		try {
+			DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, 1 << 16);
+			DataOutputStream data = new DataOutputStream(new BufferedOutputStream(deflated));
+			for (long[] layer : layers)
+				for (long word : layer) data.writeLong(word);
+			data.flush();
+			deflated.finish();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * @param in the stream; not null, not closed
+	 * @param graph the graph the table was built for; not null
+	 * @return the table
+	 * @throws IOException if the stream is malformed or was written for
+	 *         another graph
+	 */
+	public static Tablebase read(InputStream in, CompactGraph graph) throws IOException {
+		requireNonNull(graph);
+		DataInputStream header = new DataInputStream(in);
+		if (header.readInt() != MAGIC) throw new IOException("Not an endgame table");
+		int version = header.readInt();
+		if (version != VERSION) throw new IOException("Unsupported version " + version);
+		if (header.readLong() != graph.fingerprint() || header.readInt() != graph.size())
+			throw new IOException("Endgame table was built for another graph");
+		int detectives = header.readInt();
+		int rounds = header.readInt();
+		if (detectives < 1 || detectives > MAX_DETECTIVES || rounds < 0)
+			throw new IOException("Invalid table of " + detectives + " detectives and "
+					+ rounds + " rounds");
+		Tablebase table = new Tablebase(graph, detectives, rounds);
+		DataInputStream data = new DataInputStream(
+				new BufferedInputStream(new InflaterInputStream(in), 1 << 16));
+		for (long[] layer : table.layers)
+			for (int i = 0; i < layer.length; i++) layer[i] = data.readLong();
+		return table;
+	}
+
+	/**
+	 * Saves the table to a file, replacing it if it exists
+	 */
+	public void save(Path file) throws IOException {
+		Path parent = file.toAbsolutePath().getParent();
+		if (parent != null) Files.createDirectories(parent);
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Loads a table saved with {@link #save(Path)} for the same graph
+	 */
+	public static Tablebase load(Path file, CompactGraph graph) throws IOException {
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+			return read(in, graph);
+		}
+	}
+
+}
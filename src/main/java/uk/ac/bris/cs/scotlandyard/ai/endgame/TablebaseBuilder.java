@@ -0,0 +1,112 @@
+package uk.ac.bris.cs.scotlandyard.ai.endgame;
+
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+/**
+ * Solves the endgame of the standard map for a number of detectives and
+ * saves the {@link Tablebase}. Memory grows with the number of locations to
+ * the power of detectives plus one: two detectives take a few megabytes per
+ * round, three take gigabytes.
+ * <br>
+ * Run with
+ * {@code mvn exec:java -Dexec.mainClass=uk.ac.bris.cs.scotlandyard.ai.endgame.TablebaseBuilder -Dexec.args="--help"}
+ * for the options.
+ */
+public final class TablebaseBuilder {
+
+	private static final String USAGE = String.join("\n",
+			"Usage: TablebaseBuilder [options]",
+			"  --detectives <n>  number of detectives, 1 to 3 (2)",
+			"  --rounds <n>      rounds before the end of the game to solve (4)",
+			"  --threads <n>     threads to solve with (available processors)",
+			"  --out <file>      where to save the table (in ~/.scotlandyard/endgame)");
+
+	private int detectives = 2;
+	private int rounds = 4;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private Path out;
+
+	private final PrintStream log = System.out;
+
+	public static void main(String[] args) throws Exception {
+		TablebaseBuilder builder = new TablebaseBuilder();
+		try {
+			if (!builder.parse(args)) {
+				System.out.println(USAGE);
+				return;
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		builder.run();
+	}
+
+	private boolean parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("--help")) return false;
+			if (i + 1 >= args.length) throw new IllegalArgumentException(option + " needs a value");
+			String value = args[++i];
+			try {
+				switch (option) {
+				case "--detectives":
+					detectives = positive(option, value);
+					if (detectives > Tablebase.MAX_DETECTIVES)
+						throw new IllegalArgumentException(option + " must be at most "
+								+ Tablebase.MAX_DETECTIVES);
+					break;
+				case "--rounds":
+					rounds = positive(option, value);
+					break;
+				case "--threads":
+					threads = positive(option, value);
+					break;
+				case "--out":
+					out = Paths.get(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(option + " needs a number, got " + value);
+			}
+		}
+		return true;
+	}
+
+	private static int positive(String option, String value) {
+		int number = Integer.parseInt(value);
+		if (number <= 0) throw new IllegalArgumentException(option + " must be positive");
+		return number;
+	}
+
+	private void run() throws Exception {
+		if (out == null) out = Tablebase.defaultFile(detectives);
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		Tablebase table = new Tablebase(graph, detectives, rounds);
+		log.printf("Solving the last %d rounds for %d detectives on %d threads%n", rounds,
+				detectives, threads);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long start = System.nanoTime();
+		try {
+			new RetrogradeSolver(table).solve(pool, remaining -> log.printf(
+					"%d rounds left: Mr.X wins %.1f%% of positions with him to move, %dms%n",
+					remaining, 100 * table.mrXWinRate(remaining),
+					(System.nanoTime() - start) / 1_000_000));
+		} finally {
+			pool.shutdownNow();
+		}
+		table.save(out);
+		log.printf("Saved %s, %d bytes%n", out, Files.size(out));
+	}
+
+}
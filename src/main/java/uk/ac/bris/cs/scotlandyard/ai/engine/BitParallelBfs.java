@@ -0,0 +1,187 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Runs many breadth first searches over a {@link CompactGraph} at once, one
+ * bit per search in a word per node, so 64 searches cost about as much as
+ * one. More than 64 searches use several words per node. Only edges of the
+ * given transport types are followed. Each level pulls from a node's
+ * neighbours, which assumes undirected edges as in every game graph.
+ * <br>
+ * Typical uses are one search per detective to find out who can reach which
+ * of Mr.X's possible locations within so many moves, or one search per
+ * possible location of Mr.X.
+ * <br>
+ * Buffers are kept between runs so that repeated queries do not allocate.
+ * Instances are not thread safe, use one per thread.
+ */
+public final class BitParallelBfs {
+
+	/**
+	 * Every transport type
+	 */
+	public static final int ALL_TRANSPORTS = (1 << Transport.values().length) - 1;
+
+	// graphs with more nodes pull each level in parallel
+	private static final int PARALLEL_NODES = 1 << 14;
+
+	private final int size;
+	private final int[] offsets;
+	private final int[] targets;
+
+	private int words;
+	private long[] visited = new long[0];
+	private long[] frontier = new long[0];
+	private long[] next = new long[0];
+	private final int[] depth;
+
+	/**
+	 * @param graph the graph; not null
+	 * @param transports bits of the {@link Transport#ordinal()}s to follow,
+	 *        see {@link #transports(Transport...)}
+	 */
+	public BitParallelBfs(CompactGraph graph, int transports) {
+		requireNonNull(graph);
+		size = graph.size();
+		offsets = new int[size + 1];
+		for (int node = 0; node < size; node++) {
+			int count = 0;
+			for (int i = 0, degree = graph.degree(node); i < degree; i++)
+				if ((transports & 1 << graph.transport(node, i)) != 0) count++;
+			offsets[node + 1] = offsets[node] + count;
+		}
+		targets = new int[offsets[size]];
+		for (int node = 0, cursor = 0; node < size; node++) {
+			for (int i = 0, degree = graph.degree(node); i < degree; i++)
+				if ((transports & 1 << graph.transport(node, i)) != 0)
+					targets[cursor++] = graph.neighbour(node, i);
+		}
+		depth = new int[size];
+	}
+
+	/**
+	 * @param types the transport types to follow
+	 * @return the transport bits for {@link #BitParallelBfs(CompactGraph, int)}
+	 */
+	public static int transports(Transport... types) {
+		int bits = 0;
+		for (Transport type : types) bits |= 1 << type.ordinal();
+		return bits;
+	}
+
+	/**
+	 * Runs one search from each source, replacing the results of the last run.
+	 * Search {@code s} starts at {@code sources[s]}.
+	 *
+	 * @param sources source node indices, one per search
+	 * @param count number of searches, the first {@code count} sources
+	 * @param maxDepth the number of moves to search, 0 only reaches the
+	 *        sources
+	 * @return the number of levels expanded, less than {@code maxDepth} if
+	 *         every search ran out of nodes first
+	 */
+	public int run(int[] sources, int count, int maxDepth) {
+		if (count < 0 || count > sources.length)
+			throw new IllegalArgumentException("count " + count + " out of range");
+		if (maxDepth < 0) throw new IllegalArgumentException("maxDepth " + maxDepth + " < 0");
+		words = (count + 63) >>> 6;
+		int length = size * words;
+		if (visited.length < length) {
+			visited = new long[length];
+			frontier = new long[length];
+			next = new long[length];
+		} else {
+			Arrays.fill(visited, 0, length, 0);
+			Arrays.fill(frontier, 0, length, 0);
+		}
+		Arrays.fill(depth, -1);
+		for (int s = 0; s < count; s++) {
+			int at = sources[s] * words + (s >>> 6);
+			frontier[at] |= 1L << s;
+			visited[at] |= 1L << s;
+			depth[sources[s]] = 0;
+		}
+		for (int level = 1; level <= maxDepth; level++) {
+			boolean active = size >= PARALLEL_NODES ? pullParallel(level) : pull(level);
+			long[] swap = frontier;
+			frontier = next;
+			next = swap;
+			if (!active) return level - 1;
+		}
+		return maxDepth;
+	}
+
+	private boolean pull(int level) {
+		boolean active = false;
+		for (int node = 0; node < size; node++) active |= pull(node, level);
+		return active;
+	}
+
+	private boolean pullParallel(int level) {
+		// counting rather than anyMatch so that every node is pulled
+		return IntStream.range(0, size).parallel().filter(node -> pull(node, level)).count() > 0;
+	}
+
+	// a node only writes its own words, so nodes can be pulled in any order
+	// and on any thread
+	private boolean pull(int node, int level) {
+		int base = node * words;
+		boolean reached = false;
+		boolean first = depth[node] < 0;
+		for (int w = 0; w < words; w++) {
+			long bits = 0;
+			for (int e = offsets[node], end = offsets[node + 1]; e < end; e++)
+				bits |= frontier[targets[e] * words + w];
+			bits &= ~visited[base + w];
+			next[base + w] = bits;
+			if (bits != 0) {
+				visited[base + w] |= bits;
+				reached = true;
+			}
+		}
+		if (reached && first) depth[node] = level;
+		return reached;
+	}
+
+	/**
+	 * @param search the search number
+	 * @param node the node index
+	 * @return whether the search reached the node in the last run
+	 */
+	public boolean reached(int search, int node) {
+		return (visited[node * words + (search >>> 6)] & 1L << search) != 0;
+	}
+
+	/**
+	 * @param node the node index
+	 * @param word the word number, searches {@code 64 * word} to
+	 *        {@code 64 * word + 63}
+	 * @return the searches that reached the node, one bit each
+	 */
+	public long reachedBy(int node, int word) {
+		return visited[node * words + word];
+	}
+
+	/**
+	 * @param node the node index
+	 * @return the fewest moves any search needed to reach the node in the
+	 *         last run, or -1 if none did
+	 */
+	public int depth(int node) {
+		return depth[node];
+	}
+
+	/**
+	 * @return the number of words per node of the last run
+	 */
+	public int words() {
+		return words;
+	}
+
+}
@@ -0,0 +1,131 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.IntGraphView;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * An immutable, array backed adjacency representation of a game graph. Nodes
+ * are addressed by a dense index in {@code [0, size())} instead of their
+ * value so that search code can use primitive arrays for per node data.
+ */
+public final class CompactGraph {
+
+	private final int[] values;
+	private final int[] indices;
+	private final int[] offsets;
+	private final int[] targets;
+	private final byte[] transports;
+
+	private CompactGraph(int[] values, int[] indices, int[] offsets, int[] targets,
+			byte[] transports) {
+		this.values = values;
+		this.indices = indices;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.transports = transports;
+	}
+
+	/**
+	 * Creates a compact copy of the given graph, node values must be
+	 * non-negative
+	 *
+	 * @param graph the graph; not null
+	 * @return the compact graph; never null
+	 */
+	public static CompactGraph of(Graph<Integer, Transport> graph) {
+		IntGraphView<Integer, Transport> view = requireNonNull(graph).intView();
+		int size = view.size();
+		int[] values = new int[size];
+		int max = 0;
+		for (int i = 0; i < size; i++) {
+			int value = view.node(i).value();
+			if (value < 0) throw new IllegalArgumentException("Negative node value " + value);
+			values[i] = value;
+			max = Math.max(max, value);
+		}
+		int[] indices = new int[max + 1];
+		Arrays.fill(indices, -1);
+		for (int i = 0; i < size; i++) indices[values[i]] = i;
+
+		int[] offsets = new int[size + 1];
+		for (int i = 0; i < size; i++) offsets[i + 1] = offsets[i] + view.degree(i);
+		int[] targets = new int[offsets[size]];
+		byte[] transports = new byte[offsets[size]];
+		for (int i = 0; i < size; i++) {
+			for (int e = 0, degree = view.degree(i); e < degree; e++) {
+				targets[offsets[i] + e] = view.neighbour(i, e);
+				transports[offsets[i] + e] = (byte) view.data(i, e).ordinal();
+			}
+		}
+		return new CompactGraph(values, indices, offsets, targets, transports);
+	}
+
+	/**
+	 * @return number of nodes
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	/**
+	 * @param index the node index
+	 * @return the node value (i.e the location used by the model)
+	 */
+	public int value(int index) {
+		return values[index];
+	}
+
+	/**
+	 * @param value the node value
+	 * @return the node index or -1 if no such node exists
+	 */
+	public int indexOf(int value) {
+		return value >= 0 && value < indices.length ? indices[value] : -1;
+	}
+
+	/**
+	 * @param index the node index
+	 * @return number of edges leaving the node
+	 */
+	public int degree(int index) {
+		return offsets[index + 1] - offsets[index];
+	}
+
+	/**
+	 * @param index the node index
+	 * @param i the edge number in {@code [0, degree(index))}
+	 * @return the destination node index of the edge
+	 */
+	public int neighbour(int index, int i) {
+		return targets[offsets[index] + i];
+	}
+
+	/**
+	 * @param index the node index
+	 * @param i the edge number in {@code [0, degree(index))}
+	 * @return the {@link Transport#ordinal()} of the edge
+	 */
+	public int transport(int index, int i) {
+		return transports[offsets[index] + i];
+	}
+
+	/**
+	 * @return an FNV-1a hash over node values and adjacency, for telling
+	 *         whether data saved for a graph belongs to this one
+	 */
+	public long fingerprint() {
+		long hash = 0xcbf29ce484222325L;
+		for (int node = 0; node < size(); node++) {
+			hash = (hash ^ value(node)) * 0x100000001b3L;
+			for (int i = 0, degree = degree(node); i < degree; i++)
+				hash = (hash ^ neighbour(node, i)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+}
@@ -0,0 +1,88 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * All pairs hop distances over a {@link CompactGraph}, ignoring transport
+ * types. Each row is computed with a breadth first search, rows are built in
+ * parallel.
+ */
+public final class DistanceTable implements Distances {
+
+	/**
+	 * Largest graph a table will be built for, the table needs
+	 * {@code 2 * size^2} bytes
+	 */
+	public static final int MAX_NODES = 4096;
+
+	/**
+	 * Distance reported for unreachable pairs
+	 */
+	public static final int UNREACHABLE = Distances.UNREACHABLE;
+
+	private final int size;
+	private final short[] distances;
+
+	private DistanceTable(int size, short[] distances) {
+		this.size = size;
+		this.distances = distances;
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @return whether a table can be built for the graph
+	 */
+	public static boolean supports(CompactGraph graph) {
+		return graph.size() <= MAX_NODES;
+	}
+
+	/**
+	 * Builds the table
+	 *
+	 * @param graph the graph; not null and no larger than {@link #MAX_NODES}
+	 * @return the table; never null
+	 */
+	public static DistanceTable build(CompactGraph graph) {
+		requireNonNull(graph);
+		if (!supports(graph)) throw new IllegalArgumentException(
+				"Graph of " + graph.size() + " nodes exceeds " + MAX_NODES);
+		int size = graph.size();
+		short[] distances = new short[size * size];
+		IntStream.range(0, size).parallel().forEach(source -> {
+			int[] queue = new int[size];
+			int offset = source * size;
+			Arrays.fill(distances, offset, offset + size, (short) UNREACHABLE);
+			distances[offset + source] = 0;
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = source;
+			while (head < tail) {
+				int node = queue[head++];
+				short next = (short) (distances[offset + node] + 1);
+				for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+					int to = graph.neighbour(node, i);
+					if (distances[offset + to] == UNREACHABLE) {
+						distances[offset + to] = next;
+						queue[tail++] = to;
+					}
+				}
+			}
+		});
+		return new DistanceTable(size, distances);
+	}
+
+	/**
+	 * @param from source node index
+	 * @param to destination node index
+	 * @return the smallest number of moves between the two nodes or
+	 *         {@link #UNREACHABLE}
+	 */
+	@Override
+	public int distance(int from, int to) {
+		return distances[from * size + to];
+	}
+
+}
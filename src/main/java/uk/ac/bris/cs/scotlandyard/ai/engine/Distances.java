@@ -0,0 +1,33 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+/**
+ * Hop distances between the node indices of a {@link CompactGraph}, ignoring
+ * transport types. Implementations are either exact or never larger than the
+ * true distance, and are safe to share between threads.
+ */
+public interface Distances {
+
+	/**
+	 * Distance reported for unreachable pairs
+	 */
+	int UNREACHABLE = Short.MAX_VALUE;
+
+	/**
+	 * @param from source node index
+	 * @param to destination node index
+	 * @return the smallest number of moves between the two nodes, a lower
+	 *         bound of it, or {@link #UNREACHABLE}
+	 */
+	int distance(int from, int to);
+
+	/**
+	 * @param graph the graph; not null
+	 * @return an exact {@link DistanceTable} if the graph is small enough,
+	 *         {@link Landmarks} estimates otherwise
+	 */
+	static Distances of(CompactGraph graph) {
+		return DistanceTable.supports(graph) ? DistanceTable.build(graph)
+				: Landmarks.build(graph, Landmarks.DEFAULT_COUNT);
+	}
+
+}
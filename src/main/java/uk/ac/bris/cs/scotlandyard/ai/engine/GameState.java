@@ -0,0 +1,430 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+
+/**
+ * A mutable, full information Scotland Yard position for search. All state
+ * lives in primitive arrays so that playing and undoing moves does not
+ * allocate. Players are addressed by their index in
+ * {@link ScotlandYardView#getPlayers()}, Mr.X is always {@link #MRX}; node
+ * locations are {@link CompactGraph} indices.
+ * <br>
+ * The rules follow {@link uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel}:
+ * the round advances with every move Mr.X makes (twice for a double move) and
+ * tickets used by detectives are handed to Mr.X.
+ */
+public final class GameState {
+
+	public static final int MRX = 0;
+
+	public static final int UNDECIDED = 0;
+	public static final int MRX_WINS = 1;
+	public static final int DETECTIVES_WIN = 2;
+
+	public static final int TICKETS = Ticket.values().length;
+
+	private static final int TAXI = Ticket.TAXI.ordinal();
+	private static final int UNDERGROUND = Ticket.UNDERGROUND.ordinal();
+	private static final int DOUBLE = Ticket.DOUBLE.ordinal();
+	private static final int SECRET = Ticket.SECRET.ordinal();
+
+	private final CompactGraph graph;
+	private final Colour[] colours;
+	private final boolean[] reveal;
+	private final Keys keys;
+
+	private final int players;
+	private final int[] location;
+	private final int[] tickets;
+	private int current;
+	private int round;
+	private long hash;
+
+	private long[] undoMove = new long[32];
+	private int[] undoLocation = new int[32];
+	private int[] undoRound = new int[32];
+	private int depth;
+
+	/**
+	 * Creates a state with every player at node index 0 with no tickets, use
+	 * {@link #setLocation(int, int)} and {@link #setTickets(int, int, int)} to
+	 * set it up
+	 *
+	 * @param graph the graph; not null
+	 * @param colours the colours in order of play, Mr.X first; not null
+	 * @param rounds the reveal rounds, see {@link ScotlandYardView#getRounds()}
+	 */
+	public GameState(CompactGraph graph, List<Colour> colours, List<Boolean> rounds) {
+		this.graph = requireNonNull(graph);
+		this.colours = colours.toArray(new Colour[0]);
+		if (this.colours.length < 2 || !this.colours[0].isMrX())
+			throw new IllegalArgumentException("Expecting Mr.X and at least one detective");
+		this.reveal = new boolean[rounds.size()];
+		for (int i = 0; i < reveal.length; i++) reveal[i] = rounds.get(i);
+		this.players = this.colours.length;
+		this.location = new int[players];
+		this.tickets = new int[players * TICKETS];
+		this.keys = new Keys(graph.size(), players, reveal.length);
+		this.hash = keys.location[0] + keys.round[0] + keys.current[0];
+		for (int p = 1; p < players; p++) hash += keys.location[p * graph.size()];
+	}
+
+	private GameState(GameState that) {
+		this.graph = that.graph;
+		this.colours = that.colours;
+		this.reveal = that.reveal;
+		this.keys = that.keys;
+		this.players = that.players;
+		this.location = that.location.clone();
+		this.tickets = that.tickets.clone();
+		this.current = that.current;
+		this.round = that.round;
+		this.hash = that.hash;
+	}
+
+	/**
+	 * Creates a state from a view of a running game
+	 *
+	 * @param graph the compact form of {@link ScotlandYardView#getGraph()}
+	 * @param view the view; not null
+	 * @param mrXLocation Mr.X's actual location if known, otherwise his last
+	 *        known location or the best guess
+	 * @return the state; never null
+	 */
+	public static GameState fromView(CompactGraph graph, ScotlandYardView view, int mrXLocation) {
+		List<Colour> colours = view.getPlayers();
+		GameState state = new GameState(graph, colours, view.getRounds());
+		for (int p = 0; p < colours.size(); p++) {
+			Colour colour = colours.get(p);
+			int value = colour.isMrX() ? mrXLocation
+					: view.getPlayerLocation(colour).orElseThrow(AssertionError::new);
+			state.setLocation(p, Math.max(0, graph.indexOf(value)));
+			for (Ticket ticket : Ticket.values())
+				state.setTickets(p, ticket.ordinal(),
+						view.getPlayerTickets(colour, ticket).orElse(0));
+		}
+		state.setRound(view.getCurrentRound());
+		state.setCurrent(colours.indexOf(view.getCurrentPlayer()));
+		return state;
+	}
+
+	/**
+	 * @return an independent copy without undo history
+	 */
+	public GameState copy() {
+		return new GameState(this);
+	}
+
+	/**
+	 * Overwrites this state with the given one without allocating; both states
+	 * must have been derived from the same state
+	 *
+	 * @param that the state to copy from; not null
+	 */
+	public void copyFrom(GameState that) {
+		if (that.keys != keys) throw new IllegalArgumentException("Unrelated states");
+		System.arraycopy(that.location, 0, location, 0, players);
+		System.arraycopy(that.tickets, 0, tickets, 0, tickets.length);
+		current = that.current;
+		round = that.round;
+		hash = that.hash;
+		depth = 0;
+	}
+
+	public CompactGraph graph() {
+		return graph;
+	}
+
+	public int players() {
+		return players;
+	}
+
+	public Colour colour(int player) {
+		return colours[player];
+	}
+
+	public int location(int player) {
+		return location[player];
+	}
+
+	public int tickets(int player, int ticket) {
+		return tickets[player * TICKETS + ticket];
+	}
+
+	public int current() {
+		return current;
+	}
+
+	public int round() {
+		return round;
+	}
+
+	public int maxRounds() {
+		return reveal.length;
+	}
+
+	/**
+	 * @param round a round in {@code [1, maxRounds()]}
+	 * @return whether Mr.X reveals his location after moving in that round
+	 */
+	public boolean isRevealRound(int round) {
+		return round >= 1 && round <= reveal.length && reveal[round - 1];
+	}
+
+	/**
+	 * @return a Zobrist style hash of locations, tickets, round and current
+	 *         player, maintained incrementally
+	 */
+	public long hash() {
+		return hash;
+	}
+
+	public void setLocation(int player, int node) {
+		hash += keys.location[player * graph.size() + node]
+				- keys.location[player * graph.size() + location[player]];
+		location[player] = node;
+	}
+
+	public void setTickets(int player, int ticket, int count) {
+		int i = player * TICKETS + ticket;
+		hash += keys.tickets[i] * (count - tickets[i]);
+		tickets[i] = count;
+	}
+
+	public void setRound(int round) {
+		if (round < 0 || round > reveal.length)
+			throw new IllegalArgumentException("Round " + round + " out of range");
+		hash += keys.round[round] - keys.round[this.round];
+		this.round = round;
+	}
+
+	public void setCurrent(int player) {
+		if (player < 0 || player >= players)
+			throw new IllegalArgumentException("Player " + player + " out of range");
+		hash += keys.current[player] - keys.current[current];
+		this.current = player;
+	}
+
+	private boolean occupied(int player, int node) {
+		for (int q = 1; q < players; q++)
+			if (q != player && location[q] == node) return true;
+		return false;
+	}
+
+	/**
+	 * Generates all valid moves for the current player, a single
+	 * {@link Moves#PASS} is generated for a detective that cannot move
+	 *
+	 * @param moves the list to fill, cleared first; not null
+	 */
+	public void generateMoves(MoveList moves) {
+		moves.clear();
+		int player = current;
+		int base = player * TICKETS;
+		int from = location[player];
+		singleMoves(player, from, moves);
+		int singles = moves.size();
+		if (player == MRX && tickets[base + DOUBLE] > 0 && round <= reveal.length - 2) {
+			for (int i = 0; i < singles; i++) {
+				long first = moves.get(i);
+				int ticket = Moves.firstTicket(first);
+				int via = Moves.firstDestination(first);
+				tickets[base + ticket]--;
+				int end = moves.size();
+				singleMoves(player, via, moves);
+				for (int j = end; j < moves.size(); j++) {
+					long second = moves.get(j);
+					moves.set(j, Moves.doubleMove(ticket, via,
+							Moves.firstTicket(second), Moves.firstDestination(second)));
+				}
+				tickets[base + ticket]++;
+			}
+		}
+		if (moves.isEmpty() && player != MRX) moves.add(Moves.PASS);
+	}
+
+	private void singleMoves(int player, int from, MoveList moves) {
+		int base = player * TICKETS;
+		int start = moves.size();
+		boolean secret = tickets[base + SECRET] > 0;
+		int degree = graph.degree(from);
+		for (int i = 0; i < degree; i++) {
+			int to = graph.neighbour(from, i);
+			if (occupied(player, to)) continue;
+			int transport = graph.transport(from, i);
+			if (transport <= UNDERGROUND && tickets[base + transport] > 0) {
+				long move = Moves.single(transport, to);
+				if (!containsFrom(moves, start, move)) moves.add(move);
+			}
+			if (secret) {
+				long move = Moves.single(SECRET, to);
+				if (!containsFrom(moves, start, move)) moves.add(move);
+			}
+		}
+	}
+
+	private static boolean containsFrom(MoveList moves, int start, long move) {
+		for (int i = start; i < moves.size(); i++)
+			if (moves.get(i) == move) return true;
+		return false;
+	}
+
+	/**
+	 * @param player the player
+	 * @return whether the player has at least one move other than a pass
+	 */
+	public boolean canMove(int player) {
+		int base = player * TICKETS;
+		int from = location[player];
+		boolean secret = tickets[base + SECRET] > 0;
+		int degree = graph.degree(from);
+		for (int i = 0; i < degree; i++) {
+			int to = graph.neighbour(from, i);
+			if (occupied(player, to)) continue;
+			int transport = graph.transport(from, i);
+			if (secret || (transport <= UNDERGROUND && tickets[base + transport] > 0))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Plays a move generated by {@link #generateMoves(MoveList)} for the
+	 * current player
+	 *
+	 * @param move the encoded move
+	 */
+	public void play(long move) {
+		if (depth == undoMove.length) {
+			undoMove = Arrays.copyOf(undoMove, depth * 2);
+			undoLocation = Arrays.copyOf(undoLocation, depth * 2);
+			undoRound = Arrays.copyOf(undoRound, depth * 2);
+		}
+		int player = current;
+		undoMove[depth] = move;
+		undoLocation[depth] = location[player];
+		undoRound[depth] = round;
+		depth++;
+		switch (Moves.kind(move)) {
+			case Moves.KIND_SINGLE:
+				useTicket(player, Moves.firstTicket(move));
+				setLocation(player, Moves.firstDestination(move));
+				if (player == MRX) setRound(round + 1);
+				break;
+			case Moves.KIND_DOUBLE:
+				useTicket(player, DOUBLE);
+				useTicket(player, Moves.firstTicket(move));
+				useTicket(player, Moves.secondTicket(move));
+				setLocation(player, Moves.secondDestination(move));
+				setRound(round + 2);
+				break;
+			default:
+				break;
+		}
+		setCurrent(player + 1 == players ? MRX : player + 1);
+	}
+
+	/**
+	 * Reverts the last move played with {@link #play(long)}
+	 */
+	public void undo() {
+		if (depth == 0) throw new IllegalStateException("Nothing to undo");
+		depth--;
+		long move = undoMove[depth];
+		int player = current == MRX ? players - 1 : current - 1;
+		setCurrent(player);
+		switch (Moves.kind(move)) {
+			case Moves.KIND_SINGLE:
+				returnTicket(player, Moves.firstTicket(move));
+				break;
+			case Moves.KIND_DOUBLE:
+				returnTicket(player, DOUBLE);
+				returnTicket(player, Moves.firstTicket(move));
+				returnTicket(player, Moves.secondTicket(move));
+				break;
+			default:
+				break;
+		}
+		setLocation(player, undoLocation[depth]);
+		setRound(undoRound[depth]);
+	}
+
+	/**
+	 * @return number of moves that can be undone
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	private void useTicket(int player, int ticket) {
+		setTickets(player, ticket, tickets(player, ticket) - 1);
+		if (player != MRX) setTickets(MRX, ticket, tickets(MRX, ticket) + 1);
+	}
+
+	private void returnTicket(int player, int ticket) {
+		setTickets(player, ticket, tickets(player, ticket) + 1);
+		if (player != MRX) setTickets(MRX, ticket, tickets(MRX, ticket) - 1);
+	}
+
+	/**
+	 * Decides the game; a detective standing on Mr.X wins immediately, the
+	 * remaining conditions are checked when a rotation completes (i.e. it is
+	 * Mr.X's turn)
+	 *
+	 * @return one of {@link #UNDECIDED}, {@link #MRX_WINS} or
+	 *         {@link #DETECTIVES_WIN}
+	 */
+	public int winner() {
+		int mrX = location[MRX];
+		for (int p = 1; p < players; p++)
+			if (location[p] == mrX) return DETECTIVES_WIN;
+		if (current != MRX) return UNDECIDED;
+		if (round >= reveal.length) return MRX_WINS;
+		boolean detectivesStuck = true;
+		for (int p = 1; p < players && detectivesStuck; p++)
+			if (canMove(p)) detectivesStuck = false;
+		if (detectivesStuck) return MRX_WINS;
+		if (!canMove(MRX)) return DETECTIVES_WIN;
+		return UNDECIDED;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("GameState{round=").append(round)
+				.append(", current=").append(colours[current]);
+		for (int p = 0; p < players; p++) {
+			sb.append(", ").append(colours[p]).append('@').append(graph.value(location[p]))
+					.append(Arrays.toString(
+							Arrays.copyOfRange(tickets, p * TICKETS, (p + 1) * TICKETS)));
+		}
+		return sb.append('}').toString();
+	}
+
+	/**
+	 * Random keys for the incremental hash, shared between copies
+	 */
+	private static final class Keys {
+
+		final long[] location;
+		final long[] tickets;
+		final long[] round;
+		final long[] current;
+
+		Keys(int nodes, int players, int rounds) {
+			SplittableRandom random = new SplittableRandom(0x5C07L);
+			location = random.longs((long) nodes * players).toArray();
+			tickets = random.longs((long) TICKETS * players).toArray();
+			round = random.longs(rounds + 1).toArray();
+			current = random.longs(players).toArray();
+		}
+	}
+
+}
@@ -0,0 +1,382 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Landmark (ALT) distance estimates for graphs too large for a
+ * {@link DistanceTable}. The hop distance from a handful of landmarks to every
+ * node is stored, by the triangle inequality
+ * {@code |d(l, a) - d(l, b)|} is then a lower bound of {@code d(a, b)} for
+ * every landmark {@code l}. The same bounds guide an A* search for exact
+ * distances and paths.
+ * <br>
+ * Landmarks are chosen by farthest point selection, each one being the node
+ * furthest from all landmarks chosen before it, so that every connected
+ * component gets one. Each breadth first search expands large frontiers in
+ * parallel. Edges are assumed to be undirected, as they are in every game
+ * graph. Instances are immutable and safe to share between threads; a built
+ * instance can be saved and loaded again for the same graph.
+ */
+public final class Landmarks implements Distances {
+
+	/**
+	 * Number of landmarks {@link Distances#of(CompactGraph)} uses
+	 */
+	public static final int DEFAULT_COUNT = 16;
+
+	private static final int MAGIC = 0x534C4D4B; // SLMK
+	private static final int VERSION = 1;
+	// distances are stored as chars, longer distances are capped which keeps
+	// the bounds admissible
+	private static final int CAP = Character.MAX_VALUE - 1;
+	private static final char NONE = Character.MAX_VALUE;
+	private static final int INFINITE = Integer.MAX_VALUE;
+	// frontiers smaller than this are expanded on the calling thread
+	private static final int PARALLEL_FRONTIER = 4096;
+	private static final int CHUNK = 1024;
+
+	private final CompactGraph graph;
+	private final int[] landmarks;
+	// node major, the distances of node n are at [n * count, (n + 1) * count)
+	private final char[] distances;
+	private final ThreadLocal<Search> searches;
+
+	private Landmarks(CompactGraph graph, int[] landmarks, char[] distances) {
+		this.graph = graph;
+		this.landmarks = landmarks;
+		this.distances = distances;
+		this.searches = ThreadLocal.withInitial(() -> new Search(graph.size()));
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @param count the number of landmarks, at most one per node is used
+	 * @return the landmarks; never null
+	 */
+	public static Landmarks build(Graph<Integer, Transport> graph, int count) {
+		return build(CompactGraph.of(graph), count);
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @param count the number of landmarks, at most one per node is used
+	 * @return the landmarks; never null
+	 */
+	public static Landmarks build(CompactGraph graph, int count) {
+		requireNonNull(graph);
+		if (count < 1) throw new IllegalArgumentException("count " + count + " < 1");
+		int size = graph.size();
+		count = Math.min(count, size);
+		int[] landmarks = new int[count];
+		char[] distances = new char[size * count];
+		// distance to the nearest landmark so far
+		int[] nearest = new int[size];
+		Arrays.fill(nearest, INFINITE);
+		int next = size == 0 ? -1 : farthest(bfs(graph, 0), size);
+		for (int l = 0; l < count; l++) {
+			landmarks[l] = next;
+			int[] from = bfs(graph, next);
+			int landmark = l;
+			IntStream.range(0, size).parallel().forEach(node -> {
+				int d = from[node];
+				distances[node * landmarks.length + landmark] = d == INFINITE ? NONE
+						: (char) Math.min(d, CAP);
+				nearest[node] = Math.min(nearest[node], d);
+			});
+			next = farthest(nearest, size);
+		}
+		return new Landmarks(graph, landmarks, distances);
+	}
+
+	// the node with the largest distance, unreachable ones first, lowest index
+	// on ties
+	private static int farthest(int[] distance, int size) {
+		return IntStream.range(0, size).parallel().reduce(0, (a, b) ->
+				distance[b] > distance[a] || distance[b] == distance[a] && b < a ? b : a);
+	}
+
+	// level synchronous so that large levels can be expanded in parallel,
+	// nodes are claimed with a compare and set so none is queued twice
+	private static int[] bfs(CompactGraph graph, int source) {
+		int size = graph.size();
+		AtomicIntegerArray distance = new AtomicIntegerArray(size);
+		for (int i = 0; i < size; i++) distance.lazySet(i, INFINITE);
+		distance.set(source, 0);
+		int[] frontier = { source };
+		for (int level = 1; frontier.length > 0; level++) {
+			int depth = level;
+			int[] current = frontier;
+			if (current.length < PARALLEL_FRONTIER) {
+				frontier = expand(graph, distance, current, 0, current.length, depth);
+			} else {
+				int chunks = (current.length + CHUNK - 1) / CHUNK;
+				int[][] parts = IntStream.range(0, chunks).parallel()
+						.mapToObj(c -> expand(graph, distance, current, c * CHUNK,
+								Math.min(current.length, (c + 1) * CHUNK), depth))
+						.toArray(int[][]::new);
+				frontier = new int[Arrays.stream(parts).mapToInt(p -> p.length).sum()];
+				int cursor = 0;
+				for (int[] part : parts) {
+					System.arraycopy(part, 0, frontier, cursor, part.length);
+					cursor += part.length;
+				}
+			}
+		}
+		int[] result = new int[size];
+		for (int i = 0; i < size; i++) result[i] = distance.get(i);
+		return result;
+	}
+
+	private static int[] expand(CompactGraph graph, AtomicIntegerArray distance, int[] frontier,
+			int from, int to, int depth) {
+		int[] next = new int[16];
+		int size = 0;
+		for (int f = from; f < to; f++) {
+			int node = frontier[f];
+			for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+				int neighbour = graph.neighbour(node, i);
+				if (distance.get(neighbour) == INFINITE
+						&& distance.compareAndSet(neighbour, INFINITE, depth)) {
+					if (size == next.length) next = Arrays.copyOf(next, size * 2);
+					next[size++] = neighbour;
+				}
+			}
+		}
+		return Arrays.copyOf(next, size);
+	}
+
+	/**
+	 * @return the graph the landmarks are for
+	 */
+	public CompactGraph graph() {
+		return graph;
+	}
+
+	/**
+	 * @return the node indices of the landmarks
+	 */
+	public int[] landmarks() {
+		return landmarks.clone();
+	}
+
+	/**
+	 * @param from source node index
+	 * @param to destination node index
+	 * @return a lower bound of the distance between the nodes, or
+	 *         {@link #UNREACHABLE} if some landmark reaches only one of them
+	 */
+	public int lowerBound(int from, int to) {
+		if (from == to) return 0;
+		int count = landmarks.length;
+		int a = from * count;
+		int b = to * count;
+		int bound = 0;
+		for (int l = 0; l < count; l++) {
+			char x = distances[a + l];
+			char y = distances[b + l];
+			if (x == NONE || y == NONE) {
+				if (x != y) return UNREACHABLE;
+				continue;
+			}
+			bound = Math.max(bound, Math.abs(x - y));
+		}
+		return Math.min(bound, UNREACHABLE - 1);
+	}
+
+	/**
+	 * The {@link #lowerBound(int, int) lower bound}, cheap enough for search
+	 * evaluation. Use {@link #exactDistance(int, int)} for the real distance.
+	 */
+	@Override
+	public int distance(int from, int to) {
+		return lowerBound(from, to);
+	}
+
+	/**
+	 * @param from source node index
+	 * @param to destination node index
+	 * @return the smallest number of moves between the nodes, found with A*,
+	 *         or {@link #UNREACHABLE}
+	 */
+	public int exactDistance(int from, int to) {
+		Search search = searches.get();
+		return search.run(from, to) ? Math.min(search.cost[to], UNREACHABLE) : UNREACHABLE;
+	}
+
+	/**
+	 * @param from source node index
+	 * @param to destination node index
+	 * @return a shortest path as node indices from {@code from} to {@code to}
+	 *         inclusive, empty if there is none
+	 */
+	public int[] path(int from, int to) {
+		Search search = searches.get();
+		if (!search.run(from, to)) return new int[0];
+		int[] path = new int[search.cost[to] + 1];
+		for (int node = to, i = path.length - 1; i >= 0; node = search.parent[node], i--)
+			path[i] = node;
+		return path;
+	}
+
+	// per thread A* state, stamped so nothing is cleared between searches
+	private final class Search {
+
+		final int[] cost;
+		final int[] parent;
+		final int[] stamp;
+		final boolean[] closed;
+		// entries are (f << 32 | node), stale ones are skipped when popped
+		long[] heap = new long[64];
+		int generation;
+
+		Search(int size) {
+			cost = new int[size];
+			parent = new int[size];
+			stamp = new int[size];
+			closed = new boolean[size];
+		}
+
+		boolean run(int from, int to) {
+			if (lowerBound(from, to) == UNREACHABLE) return false;
+			if (++generation == 0) {
+				Arrays.fill(stamp, 0);
+				generation = 1;
+			}
+			int heapSize = 0;
+			open(from, 0, from);
+			heapSize = push(heapSize, lowerBound(from, to), from);
+			while (heapSize > 0) {
+				long top = heap[0];
+				heapSize = pop(heapSize);
+				int node = (int) top;
+				if (closed[node]) continue;
+				if (node == to) return true;
+				closed[node] = true;
+				int next = cost[node] + 1;
+				for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+					int neighbour = graph.neighbour(node, i);
+					if (stamp[neighbour] == generation
+							&& (closed[neighbour] || cost[neighbour] <= next)) continue;
+					open(neighbour, next, node);
+					heapSize = push(heapSize, next + lowerBound(neighbour, to), neighbour);
+				}
+			}
+			return false;
+		}
+
+		private void open(int node, int g, int from) {
+			stamp[node] = generation;
+			cost[node] = g;
+			parent[node] = from;
+			closed[node] = false;
+		}
+
+		private int push(int size, int f, int node) {
+			if (size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+			long entry = (long) f << 32 | node;
+			int i = size;
+			while (i > 0) {
+				int up = (i - 1) >>> 1;
+				if (heap[up] <= entry) break;
+				heap[i] = heap[up];
+				i = up;
+			}
+			heap[i] = entry;
+			return size + 1;
+		}
+
+		private int pop(int size) {
+			long last = heap[--size];
+			int i = 0;
+			while (true) {
+				int child = 2 * i + 1;
+				if (child >= size) break;
+				if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+				if (heap[child] >= last) break;
+				heap[i] = heap[child];
+				i = child;
+			}
+			heap[i] = last;
+			return size;
+		}
+
+	}
+
+	/**
+	 * Writes the landmarks in a compact binary form, see
+	 * {@link #read(InputStream, CompactGraph)}
+	 *
+	 * @param out the stream; not null, not closed
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeLong(graph.fingerprint());
+		data.writeInt(graph.size());
+		data.writeInt(landmarks.length);
+		for (int landmark : landmarks) data.writeInt(landmark);
+		for (char distance : distances) data.writeChar(distance);
+		data.flush();
+	}
+
+	/**
+	 * @param in the stream; not null, not closed
+	 * @param graph the graph the landmarks were built for; not null
+	 * @return the landmarks
+	 * @throws IOException if the stream is malformed or was written for
+	 *         another graph
+	 */
+	public static Landmarks read(InputStream in, CompactGraph graph) throws IOException {
+		requireNonNull(graph);
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		if (data.readInt() != MAGIC) throw new IOException("Not a landmark file");
+		int version = data.readInt();
+		if (version != VERSION) throw new IOException("Unsupported version " + version);
+		if (data.readLong() != graph.fingerprint() || data.readInt() != graph.size())
+			throw new IOException("Landmarks were built for another graph");
+		int count = data.readInt();
+		if (count < 0 || count > graph.size())
+			throw new IOException("Invalid landmark count " + count);
+		int[] landmarks = new int[count];
+		for (int i = 0; i < count; i++) landmarks[i] = data.readInt();
+		char[] distances = new char[graph.size() * count];
+		for (int i = 0; i < distances.length; i++) distances[i] = data.readChar();
+		return new Landmarks(graph, landmarks, distances);
+	}
+
+	/**
+	 * Saves the landmarks to a file, replacing it if it exists
+	 */
+	public void save(Path file) throws IOException {
+		try (OutputStream out = Files.newOutputStream(file)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Loads landmarks saved with {@link #save(Path)} for the same graph
+	 */
+	public static Landmarks load(Path file, CompactGraph graph) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return read(in, graph);
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of encoded moves (see {@link Moves}). Meant to be reused
+ * across calls so that move generation does not allocate once warmed up.
+ */
+public final class MoveList {
+
+	private long[] moves;
+	private int size;
+
+	public MoveList() {
+		this(64);
+	}
+
+	public MoveList(int capacity) {
+		this.moves = new long[Math.max(1, capacity)];
+	}
+
+	public void add(long move) {
+		if (size == moves.length) moves = Arrays.copyOf(moves, size * 2);
+		moves[size++] = move;
+	}
+
+	public long get(int index) {
+		if (index >= size) throw new IndexOutOfBoundsException(index + " >= " + size);
+		return moves[index];
+	}
+
+	public void set(int index, long move) {
+		if (index >= size) throw new IndexOutOfBoundsException(index + " >= " + size);
+		moves[index] = move;
+	}
+
+	/**
+	 * Swaps two moves, used by move ordering
+	 */
+	public void swap(int i, int j) {
+		long t = moves[i];
+		moves[i] = moves[j];
+		moves[j] = t;
+	}
+
+	public boolean contains(long move) {
+		for (int i = 0; i < size; i++)
+			if (moves[i] == move) return true;
+		return false;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "MoveList{size=" + size + "}";
+	}
+
+}
@@ -0,0 +1,215 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import java.util.Set;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.MoveVisitor;
+import uk.ac.bris.cs.scotlandyard.model.PassMove;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+/**
+ * Packs moves into a single {@code long} so that move lists can be kept in
+ * primitive arrays. Destinations are {@link CompactGraph} indices, not node
+ * values.
+ *
+ * <pre>
+ * bits 0-1   kind (pass, single or double)
+ * bits 2-4   first ticket ordinal
+ * bits 5-25  first destination
+ * bits 26-28 second ticket ordinal
+ * bits 29-49 second destination
+ * </pre>
+ */
+public final class Moves {
+
+	private Moves() {}
+
+	public static final long PASS = 0;
+
+	public static final int KIND_PASS = 0;
+	public static final int KIND_SINGLE = 1;
+	public static final int KIND_DOUBLE = 2;
+
+	/**
+	 * Upper bound (exclusive) of node indices that can be encoded, the last
+	 * index is reserved for {@link #HIDDEN}
+	 */
+	public static final int MAX_NODES = 1 << 21;
+
+	private static final long DEST_MASK = MAX_NODES - 1;
+
+	/**
+	 * Destination of a move part that was not revealed, see
+	 * {@link #observe(long, boolean, boolean)}
+	 */
+	public static final int HIDDEN = MAX_NODES - 1;
+
+	public static long single(int ticket, int destination) {
+		return KIND_SINGLE | ((long) ticket << 2) | ((long) destination << 5);
+	}
+
+	public static long doubleMove(int firstTicket, int firstDestination, int secondTicket,
+			int secondDestination) {
+		return KIND_DOUBLE | ((long) firstTicket << 2) | ((long) firstDestination << 5)
+				| ((long) secondTicket << 26) | ((long) secondDestination << 29);
+	}
+
+	public static int kind(long move) {
+		return (int) (move & 3);
+	}
+
+	public static int firstTicket(long move) {
+		return (int) ((move >>> 2) & 7);
+	}
+
+	public static int firstDestination(long move) {
+		return (int) ((move >>> 5) & DEST_MASK);
+	}
+
+	public static int secondTicket(long move) {
+		return (int) ((move >>> 26) & 7);
+	}
+
+	public static int secondDestination(long move) {
+		return (int) ((move >>> 29) & DEST_MASK);
+	}
+
+	/**
+	 * @param move the encoded move
+	 * @return where the player ends up after the move, or -1 for a pass
+	 */
+	public static int finalDestination(long move) {
+		switch (kind(move)) {
+			case KIND_SINGLE:
+				return firstDestination(move);
+			case KIND_DOUBLE:
+				return secondDestination(move);
+			default:
+				return -1;
+		}
+	}
+
+	/**
+	 * Replaces the destinations of the hidden parts of a move with
+	 * {@link #HIDDEN}, i.e. what the detectives see of one of Mr.X's moves
+	 *
+	 * @param move the encoded move
+	 * @param firstHidden whether the first (or only) part is hidden
+	 * @param secondHidden whether the second part of a double move is hidden
+	 * @return the observed move
+	 */
+	public static long observe(long move, boolean firstHidden, boolean secondHidden) {
+		switch (kind(move)) {
+			case KIND_SINGLE:
+				return firstHidden ? single(firstTicket(move), HIDDEN) : move;
+			case KIND_DOUBLE:
+				return doubleMove(
+						firstTicket(move), firstHidden ? HIDDEN : firstDestination(move),
+						secondTicket(move), secondHidden ? HIDDEN : secondDestination(move));
+			default:
+				return move;
+		}
+	}
+
+	/**
+	 * @param observed a move as returned by {@link #observe(long, boolean, boolean)}
+	 * @param move an actual move
+	 * @return whether the actual move could have been observed as
+	 *         {@code observed}
+	 */
+	public static boolean matches(long observed, long move) {
+		if (observed == move) return true;
+		if (kind(observed) != kind(move) || firstTicket(observed) != firstTicket(move))
+			return false;
+		int first = firstDestination(observed);
+		if (first != HIDDEN && first != firstDestination(move)) return false;
+		if (kind(move) != KIND_DOUBLE) return true;
+		int second = secondDestination(observed);
+		return secondTicket(observed) == secondTicket(move)
+				&& (second == HIDDEN || second == secondDestination(move));
+	}
+
+	/**
+	 * Converts an encoded move back to a model move
+	 *
+	 * @param graph the graph used for encoding; not null
+	 * @param colour the player making the move; not null
+	 * @param move the encoded move
+	 * @return the model move; never null
+	 */
+	public static Move toMove(CompactGraph graph, Colour colour, long move) {
+		Ticket[] tickets = Ticket.values();
+		switch (kind(move)) {
+			case KIND_SINGLE:
+				return new TicketMove(colour, tickets[firstTicket(move)],
+						graph.value(firstDestination(move)));
+			case KIND_DOUBLE:
+				return new DoubleMove(colour,
+						tickets[firstTicket(move)], graph.value(firstDestination(move)),
+						tickets[secondTicket(move)], graph.value(secondDestination(move)));
+			default:
+				return new PassMove(colour);
+		}
+	}
+
+	/**
+	 * Encodes a model move
+	 *
+	 * @param graph the graph used for encoding; not null
+	 * @param move the model move; not null
+	 * @return the encoded move
+	 */
+	public static long fromMove(CompactGraph graph, Move move) {
+		long[] encoded = { PASS };
+		move.visit(new MoveVisitor() {
+			@Override
+			public void visit(TicketMove move) {
+				encoded[0] = single(move.ticket().ordinal(), graph.indexOf(move.destination()));
+			}
+
+			@Override
+			public void visit(DoubleMove move) {
+				encoded[0] = doubleMove(
+						move.firstMove().ticket().ordinal(),
+						graph.indexOf(move.firstMove().destination()),
+						move.secondMove().ticket().ordinal(),
+						graph.indexOf(move.secondMove().destination()));
+			}
+		});
+		return encoded[0];
+	}
+
+	/**
+	 * Converts the chosen move and checks that it is one of the given valid
+	 * moves, falling back to an arbitrary valid move if the engine and the
+	 * model disagree
+	 *
+	 * @param graph the graph used for encoding; not null
+	 * @param colour the player making the move; not null
+	 * @param move the encoded move
+	 * @param valid the valid moves given by the model; not empty
+	 * @return a move contained in {@code valid}; never null
+	 */
+	public static Move pick(CompactGraph graph, Colour colour, long move, Set<Move> valid) {
+		Move converted = toMove(graph, colour, move);
+		return valid.contains(converted) ? converted : valid.iterator().next();
+	}
+
+	public static String toString(CompactGraph graph, long move) {
+		Ticket[] tickets = Ticket.values();
+		switch (kind(move)) {
+			case KIND_SINGLE:
+				return tickets[firstTicket(move)] + "->" + graph.value(firstDestination(move));
+			case KIND_DOUBLE:
+				return tickets[firstTicket(move)] + "->" + graph.value(firstDestination(move))
+						+ "," + tickets[secondTicket(move)] + "->"
+						+ graph.value(secondDestination(move));
+			default:
+				return "Pass";
+		}
+	}
+
+}
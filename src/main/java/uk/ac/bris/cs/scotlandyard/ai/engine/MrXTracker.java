@@ -0,0 +1,148 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+/**
+ * Keeps track of every location Mr.X could be at given what the detectives
+ * have seen so far: a reveal narrows the set down to a single node, a hidden
+ * move expands it along edges usable with the shown ticket and detectives
+ * rule out the nodes they stand on.
+ * <br>
+ * Register with the game through
+ * {@link uk.ac.bris.cs.scotlandyard.ai.PlayerFactory#createSpectators(ScotlandYardView)};
+ * all methods are safe to call from the AI thread.
+ */
+public final class MrXTracker implements Spectator {
+
+	private final CompactGraph graph;
+	private BitSet candidates;
+	private boolean initialised;
+
+	public MrXTracker(CompactGraph graph) {
+		this.graph = requireNonNull(graph);
+		this.candidates = new BitSet(graph.size());
+	}
+
+	private void initialise(ScotlandYardView view) {
+		if (initialised) return;
+		initialised = true;
+		int known = view.getPlayerLocation(Colour.BLACK).map(graph::indexOf).orElse(-1);
+		if (known >= 0) {
+			candidates.set(known);
+		} else {
+			candidates.set(0, graph.size());
+			removeDetectives(view);
+		}
+	}
+
+	private void removeDetectives(ScotlandYardView view) {
+		for (Colour colour : view.getPlayers()) {
+			if (colour.isMrX()) continue;
+			view.getPlayerLocation(colour).map(graph::indexOf)
+					.filter(i -> i >= 0)
+					.ifPresent(candidates::clear);
+		}
+	}
+
+	@Override
+	public synchronized void onMoveMade(ScotlandYardView view, Move move) {
+		initialise(view);
+		// the parts of a double move are reported individually afterwards
+		if (move instanceof DoubleMove || !(move instanceof TicketMove)) return;
+		TicketMove ticketMove = (TicketMove) move;
+		if (move.colour().isDetective()) {
+			int at = graph.indexOf(ticketMove.destination());
+			if (at >= 0 && candidates.cardinality() > 1) candidates.clear(at);
+			return;
+		}
+		int round = view.getCurrentRound();
+		List<Boolean> rounds = view.getRounds();
+		int destination = graph.indexOf(ticketMove.destination());
+		if (round >= 1 && round <= rounds.size() && rounds.get(round - 1) && destination >= 0) {
+			candidates.clear();
+			candidates.set(destination);
+		} else {
+			expand(ticketMove.ticket());
+			removeDetectives(view);
+		}
+	}
+
+	private void expand(Ticket ticket) {
+		BitSet next = new BitSet(graph.size());
+		boolean secret = ticket == Ticket.SECRET;
+		for (int node = candidates.nextSetBit(0); node >= 0;
+				node = candidates.nextSetBit(node + 1)) {
+			for (int i = 0, degree = graph.degree(node); i < degree; i++) {
+				if (secret || graph.transport(node, i) == ticket.ordinal())
+					next.set(graph.neighbour(node, i));
+			}
+		}
+		candidates = next;
+	}
+
+	/**
+	 * Prepares the tracker for a decision, must be called at least once
+	 * before the first query
+	 *
+	 * @param view the current view; not null
+	 */
+	public synchronized void update(ScotlandYardView view) {
+		initialise(view);
+	}
+
+	/**
+	 * @return number of possible locations
+	 */
+	public synchronized int size() {
+		return candidates.cardinality();
+	}
+
+	/**
+	 * @return a copy of all possible locations as {@link CompactGraph} indices
+	 */
+	public synchronized BitSet candidates() {
+		return (BitSet) candidates.clone();
+	}
+
+	/**
+	 * Copies the possible locations into the given array
+	 *
+	 * @param into destination with at least {@link #size()} slots
+	 * @return number of locations copied
+	 */
+	public synchronized int candidates(int[] into) {
+		int n = 0;
+		for (int node = candidates.nextSetBit(0); node >= 0 && n < into.length;
+				node = candidates.nextSetBit(node + 1))
+			into[n++] = node;
+		return n;
+	}
+
+	/**
+	 * Picks a possible location uniformly at random
+	 *
+	 * @param random the source of randomness; not null
+	 * @return a node index or -1 if no location is possible
+	 */
+	public synchronized int sample(SplittableRandom random) {
+		int size = candidates.cardinality();
+		if (size == 0) return -1;
+		int skip = random.nextInt(size);
+		int node = candidates.nextSetBit(0);
+		while (skip-- > 0) node = candidates.nextSetBit(node + 1);
+		return node;
+	}
+
+}
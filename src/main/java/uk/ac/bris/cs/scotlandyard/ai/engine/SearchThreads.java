@@ -0,0 +1,66 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The pool every AI runs its parallel searches on. All instances in the JVM
+ * share it, so concurrent games never run more search threads than there are
+ * processors however many AIs they have, and the searches of different
+ * games queue for the same threads.
+ * <br>
+ * A search works on its own thread and asks {@link #enter(int)} how many
+ * helpers to submit, so that concurrent searches split the pool between them
+ * instead of queueing helpers that would only start after their deadline.
+ * Searches must end by their own deadline and never shut the pool down.
+ */
+public final class SearchThreads {
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(parallelism(), pool -> {
+		ForkJoinWorkerThread thread =
+				ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+		thread.setName("ai-search-" + thread.getPoolIndex());
+		return thread;
+	}, null, false);
+
+	private static final AtomicInteger SEARCHES = new AtomicInteger();
+
+	private SearchThreads() {}
+
+	/**
+	 * @return the shared pool; never null
+	 */
+	public static ForkJoinPool pool() {
+		return POOL;
+	}
+
+	/**
+	 * @return the number of threads of the pool, the most helpers a search
+	 *         gains from
+	 */
+	public static int parallelism() {
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Starts a search. Every search gets an even share of the pool, its own
+	 * thread counting as one of them, less any submissions still waiting for
+	 * a thread. Must be followed by {@link #leave()} once the search is done.
+	 *
+	 * @param wanted the most helpers the search can use
+	 * @return the number of helpers to submit to the pool, possibly 0
+	 */
+	public static int enter(int wanted) {
+		int share = Math.max(1, parallelism() / SEARCHES.incrementAndGet()) - 1;
+		return Math.max(0, Math.min(wanted, share - POOL.getQueuedSubmissionCount()));
+	}
+
+	/**
+	 * Ends a search started with {@link #enter(int)}
+	 */
+	public static void leave() {
+		SEARCHES.decrementAndGet();
+	}
+
+}
@@ -0,0 +1,59 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Compact graphs and distances shared by every AI that plays on the same
+ * graph instance, so that many concurrent games on one frozen graph build
+ * them once. Entries are keyed by identity and dropped once the graph is no
+ * longer referenced.
+ * <br>
+ * Only pass graphs that do not change afterwards, such as an
+ * {@link uk.ac.bris.cs.gamekit.graph.ImmutableGraph} over a graph nobody
+ * else holds.
+ */
+public final class SharedGraphs {
+
+	private static final ConcurrentMap<Graph<Integer, Transport>, CompactGraph> compact =
+			new MapMaker().weakKeys().makeMap();
+	private static final ConcurrentMap<CompactGraph, Distances> distances =
+			new MapMaker().weakKeys().makeMap();
+
+	private SharedGraphs() {}
+
+	/**
+	 * @param graph the graph; not null
+	 * @return the compact graph of this instance, built on first use
+	 */
+	public static CompactGraph compact(Graph<Integer, Transport> graph) {
+		requireNonNull(graph);
+		// building twice in a race is harmless, only one of them is kept
+		CompactGraph existing = compact.get(graph);
+		if (existing != null) return existing;
+		CompactGraph built = CompactGraph.of(graph);
+		existing = compact.putIfAbsent(graph, built);
+		return existing == null ? built : existing;
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @return the {@link Distances#of(CompactGraph)} of this instance, built
+	 *         on first use
+	 */
+	public static Distances distances(CompactGraph graph) {
+		requireNonNull(graph);
+		Distances existing = distances.get(graph);
+		if (existing != null) return existing;
+		Distances built = Distances.of(graph);
+		existing = distances.putIfAbsent(graph, built);
+		return existing == null ? built : existing;
+	}
+
+}
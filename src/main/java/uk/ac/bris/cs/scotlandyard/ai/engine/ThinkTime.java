@@ -0,0 +1,31 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import java.time.Duration;
+
+/**
+ * Decides how long a search may take per move
+ */
+public final class ThinkTime {
+
+	private ThinkTime() {}
+
+	public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+	public static final Duration MAX = Duration.ofSeconds(10);
+	public static final Duration MIN = Duration.ofMillis(50);
+	public static final Duration SAFETY_MARGIN = Duration.ofMillis(100);
+
+	/**
+	 * Half of the move timeout, capped at {@link #MAX}, less a safety margin
+	 * for converting and submitting the move
+	 *
+	 * @param timeout the move timeout; not null
+	 * @return the search budget; never null
+	 */
+	public static Duration forTimeout(Duration timeout) {
+		Duration time = timeout.dividedBy(2);
+		if (time.compareTo(MAX) > 0) time = MAX;
+		time = time.minus(SAFETY_MARGIN);
+		return time.compareTo(MIN) < 0 ? MIN : time;
+	}
+
+}
@@ -0,0 +1,106 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI;
+import uk.ac.bris.cs.scotlandyard.ai.PlayerFactory;
+import uk.ac.bris.cs.scotlandyard.ai.book.Opening;
+import uk.ac.bris.cs.scotlandyard.ai.endgame.Tablebase;
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Distances;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MrXTracker;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SearchThreads;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SharedGraphs;
+import uk.ac.bris.cs.scotlandyard.ai.engine.ThinkTime;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+
+/**
+ * Plays either side with a parallel Monte Carlo tree search, see
+ * {@link ThinkTime} for how long each move takes. First moves come from the
+ * {@link Opening} book if there is one, and Mr.X plays a won endgame from
+ * the {@link Tablebase} without searching. Playouts run on the
+ * {@link SearchThreads} pool.
+ */
+@ManagedAI("MCTS")
+public class MonteCarloAI implements PlayerFactory {
+
+	private static final Logger logger = LoggerFactory.getLogger(MonteCarloAI.class);
+
+	private final int parallelism = SearchThreads.parallelism();
+
+	private Duration timeout = ThinkTime.DEFAULT_TIMEOUT;
+	private CompactGraph graph;
+	private MonteCarloTreeSearch mrX;
+	private MonteCarloTreeSearch detectives;
+	private Opening opening;
+	private Tablebase endgame;
+
+	@Override
+	public List<Spectator> createSpectators(ScotlandYardView view) {
+		graph = SharedGraphs.compact(view.getGraph());
+		Distances distances = SharedGraphs.distances(graph);
+		MrXTracker tracker = new MrXTracker(graph);
+		mrX = new MonteCarloTreeSearch(graph, distances, tracker, true, parallelism);
+		detectives = new MonteCarloTreeSearch(graph, distances, tracker, false, parallelism);
+		opening = Opening.of(view, graph);
+		endgame = Tablebase.standard(graph, view.getPlayers().size() - 1).orElse(null);
+		return Arrays.asList(tracker, mrX, detectives);
+	}
+
+	@Override
+	public void moveTimeout(Duration timeout) {
+		this.timeout = requireNonNull(timeout);
+	}
+
+	@Override
+	public Player createPlayer(Colour colour) {
+		return (view, location, moves, callback) -> {
+			Optional<Move> booked = opening.firstMove(colour, location, moves);
+			if (booked.isPresent()) {
+				callback.accept(booked.get());
+				return;
+			}
+			// only Mr.X knows where he is, which a lookup needs
+			if (colour.isMrX() && endgame != null) {
+				GameState state = GameState.fromView(graph, view, location);
+				MoveList list = new MoveList(256);
+				state.generateMoves(list);
+				long move = endgame.winningMove(state, list);
+				if (move >= 0) {
+					callback.accept(Moves.pick(graph, colour, move, moves));
+					return;
+				}
+			}
+			// players are created before the game, and so before the searches
+			MonteCarloTreeSearch search = colour.isMrX() ? mrX : detectives;
+			long move = search.search(SearchThreads.pool(), view, location,
+					ThinkTime.forTimeout(timeout));
+			callback.accept(Moves.pick(graph, colour, move, moves));
+		};
+	}
+
+	@Override
+	public void finish() {
+		for (MonteCarloTreeSearch search : Arrays.asList(mrX, detectives)) {
+			if (search != null && search.totalPlayouts() > 0)
+				logger.info("{} playouts in total, {} playouts/s on average",
+						search.totalPlayouts(), (long) search.playoutsPerSecond());
+		}
+	}
+
+}
@@ -0,0 +1,386 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX_WINS;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.UNDECIDED;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Distances;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MrXTracker;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SearchThreads;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+
+/**
+ * Root parallel Monte Carlo tree search for one side of the game. Every
+ * worker grows its own tree from the same root and the trees are merged by
+ * visit count once the time budget is used up.
+ * <br>
+ * Searching for the detectives, Mr.X's location is sampled from the
+ * {@link MrXTracker} at the start of every iteration and his moves are keyed
+ * by what the detectives get to see (see {@link Moves#observe(long, boolean,
+ * boolean)}), so a tree node stands for everything the detectives know. The
+ * search listens to the game so that the subtree matching the moves played
+ * since the last decision can be kept for the next one.
+ */
+final class MonteCarloTreeSearch implements Spectator {
+
+	private static final Logger logger = LoggerFactory.getLogger(MonteCarloTreeSearch.class);
+
+	private static final double EXPLORATION = 0.7;
+	private static final double GREEDY_ROLLOUT = 0.75;
+	private static final int MAX_TREE_NODES = 1 << 20;
+
+	private final CompactGraph graph;
+	private final Distances distances;
+	private final MrXTracker tracker;
+	private final boolean mrXSide;
+	private final Worker[] workers;
+
+	private final List<Long> observed = new ArrayList<>();
+	private final Deque<Long> chosen = new ArrayDeque<>();
+	private boolean observable = true;
+	private int skipParts;
+
+	private volatile boolean stopped;
+	private long totalPlayouts;
+	private long totalNanos;
+
+	/**
+	 * @param graph the game graph; not null
+	 * @param distances distances for the rollout policy, null for uniformly
+	 *        random rollouts
+	 * @param tracker possible Mr.X locations; not null
+	 * @param mrXSide whether to search for Mr.X or for the detectives
+	 * @param parallelism the most trees to grow at once
+	 */
+	MonteCarloTreeSearch(CompactGraph graph, Distances distances, MrXTracker tracker,
+			boolean mrXSide, int parallelism) {
+		this.graph = requireNonNull(graph);
+		this.distances = distances;
+		this.tracker = requireNonNull(tracker);
+		this.mrXSide = mrXSide;
+		this.workers = new Worker[parallelism];
+		for (int i = 0; i < parallelism; i++) workers[i] = new Worker(new SplittableRandom());
+	}
+
+	/**
+	 * Searches for the best move of the current player
+	 *
+	 * @param pool the pool to run the helpers on, see {@link SearchThreads};
+	 *        not null
+	 * @param view the current view; not null
+	 * @param location the location of the current player
+	 * @param budget how long to search for
+	 * @return the encoded move
+	 */
+	long search(ForkJoinPool pool, ScotlandYardView view, int location, Duration budget) {
+		GameState root;
+		int[] candidates = new int[0];
+		if (mrXSide) {
+			root = GameState.fromView(graph, view, location);
+		} else {
+			tracker.update(view);
+			candidates = new int[tracker.size()];
+			tracker.candidates(candidates);
+			root = GameState.fromView(graph, view,
+					view.getPlayerLocation(Colour.BLACK).orElse(0));
+		}
+		List<Long> path;
+		synchronized (this) {
+			path = observable ? new ArrayList<>(observed) : null;
+			observed.clear();
+			observable = true;
+		}
+
+		int reused = 0;
+		for (Worker worker : workers) reused += worker.prepare(root, path, candidates);
+
+		long start = System.nanoTime();
+		long deadline = start + budget.toNanos();
+		stopped = false;
+		// the first tree grows on this thread so that there is always one,
+		// however busy the pool is with other games
+		List<ForkJoinTask<?>> tasks = new ArrayList<>();
+		try {
+			int helpers = SearchThreads.enter(workers.length - 1);
+			for (int i = 1; i <= helpers; i++) {
+				Worker worker = workers[i];
+				tasks.add(pool.submit(() -> worker.run(deadline)));
+			}
+			workers[0].run(deadline);
+			stopped = true;
+			for (ForkJoinTask<?> task : tasks) task.get();
+		} catch (InterruptedException e) {
+			for (ForkJoinTask<?> task : tasks) task.join();
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException(e.getCause());
+		} finally {
+			SearchThreads.leave();
+		}
+		long elapsed = System.nanoTime() - start;
+
+		long best = bestMove(root);
+		long playouts = 0;
+		for (Worker worker : workers) playouts += worker.playouts;
+		synchronized (this) {
+			totalPlayouts += playouts;
+			totalNanos += elapsed;
+			if (mrXSide) chosen.add(best);
+		}
+		logger.debug("{}: {} playouts in {}ms ({} playouts/s, {} reused), chose {}",
+				root.colour(root.current()), playouts, elapsed / 1_000_000,
+				(long) (playouts / (elapsed / 1e9)), reused, Moves.toString(graph, best));
+		return best;
+	}
+
+	private long bestMove(GameState root) {
+		Map<Long, long[]> merged = new HashMap<>();
+		for (Worker worker : workers) {
+			SearchNode tree = worker.tree;
+			for (int i = 0; i < tree.childCount; i++) {
+				SearchNode child = tree.children[i];
+				long[] stats = merged.computeIfAbsent(child.key, k -> new long[1]);
+				stats[0] += child.visits;
+			}
+		}
+		long best = Moves.PASS;
+		long bestVisits = -1;
+		for (Map.Entry<Long, long[]> entry : merged.entrySet()) {
+			if (entry.getValue()[0] > bestVisits) {
+				bestVisits = entry.getValue()[0];
+				best = entry.getKey();
+			}
+		}
+		if (bestVisits < 0) {
+			MoveList moves = new MoveList();
+			root.generateMoves(moves);
+			if (!moves.isEmpty()) best = moves.get(0);
+		}
+		return best;
+	}
+
+	/**
+	 * @return average playouts per second over all searches so far
+	 */
+	synchronized double playoutsPerSecond() {
+		return totalNanos == 0 ? 0 : totalPlayouts / (totalNanos / 1e9);
+	}
+
+	synchronized long totalPlayouts() {
+		return totalPlayouts;
+	}
+
+	@Override
+	public synchronized void onMoveMade(ScotlandYardView view, Move move) {
+		if (move.colour().isMrX() && !(move instanceof DoubleMove) && skipParts > 0) {
+			skipParts--;
+			return;
+		}
+		if (move instanceof DoubleMove) skipParts = 2;
+		if (move.colour().isDetective()) {
+			record(Moves.fromMove(graph, move));
+		} else if (mrXSide) {
+			Long own = chosen.poll();
+			if (own == null) observable = false;
+			else record(own);
+		} else {
+			// the view already shows the round Mr.X is moving into for a
+			// single move, but not for a double move
+			int before = view.getCurrentRound() - (move instanceof DoubleMove ? 0 : 1);
+			List<Boolean> rounds = view.getRounds();
+			record(Moves.observe(Moves.fromMove(graph, move),
+					!revealed(rounds, before + 1),
+					!revealed(rounds, before + 2)));
+		}
+	}
+
+	private static boolean revealed(List<Boolean> rounds, int round) {
+		return round >= 1 && round <= rounds.size() && rounds.get(round - 1);
+	}
+
+	private void record(long move) {
+		if (Moves.kind(move) != Moves.KIND_PASS && Moves.finalDestination(move) < 0)
+			observable = false;
+		observed.add(move);
+	}
+
+	private final class Worker {
+
+		private final SplittableRandom random;
+		private final MoveList moves = new MoveList(256);
+		private GameState root;
+		private GameState state;
+		private int[] candidates;
+		private SearchNode tree;
+		private int nodes;
+		private int iteration;
+		private long playouts;
+
+		Worker(SplittableRandom random) {
+			this.random = random;
+		}
+
+		int prepare(GameState root, List<Long> path, int[] candidates) {
+			this.root = root;
+			this.state = root.copy();
+			this.candidates = candidates;
+			this.playouts = 0;
+			SearchNode node = path == null ? null : tree;
+			if (node != null) {
+				for (long key : path) {
+					node = node.child(key);
+					if (node == null) break;
+				}
+			}
+			int previous = root.current() == MRX ? root.players() - 1 : root.current() - 1;
+			if (node == null || node.mover != previous) {
+				tree = SearchNode.root(previous);
+				nodes = 1;
+				return 0;
+			}
+			node.parent = null;
+			tree = node;
+			nodes = node.visits + 1;
+			return node.visits;
+		}
+
+		void run(long deadline) {
+			while (!stopped && System.nanoTime() < deadline) {
+				iterate();
+				playouts++;
+			}
+		}
+
+		private void iterate() {
+			state.copyFrom(root);
+			if (candidates.length > 0)
+				state.setLocation(MRX, candidates[random.nextInt(candidates.length)]);
+			int stamp = ++iteration;
+			SearchNode node = tree;
+			while (state.winner() == UNDECIDED) {
+				state.generateMoves(moves);
+				int mover = state.current();
+				boolean masked = !mrXSide && mover == MRX;
+				boolean firstHidden = masked && !state.isRevealRound(state.round() + 1);
+				boolean secondHidden = masked && !state.isRevealRound(state.round() + 2);
+
+				SearchNode best = null;
+				double bestScore = Double.NEGATIVE_INFINITY;
+				int untried = 0;
+				long untriedKey = 0;
+				long untriedMove = 0;
+				for (int i = 0; i < moves.size(); i++) {
+					long move = moves.get(i);
+					long key = masked ? Moves.observe(move, firstHidden, secondHidden) : move;
+					SearchNode child = node.child(key);
+					if (child == null) {
+						if (random.nextInt(++untried) == 0) {
+							untriedKey = key;
+							untriedMove = move;
+						}
+					} else if (child.seen != stamp) {
+						child.seen = stamp;
+						child.available++;
+						double score = child.reward / child.visits + EXPLORATION
+								* Math.sqrt(Math.log(child.available) / child.visits);
+						if (score > bestScore) {
+							bestScore = score;
+							best = child;
+						}
+					}
+				}
+
+				if (untried > 0 && nodes < MAX_TREE_NODES) {
+					node = node.addChild(untriedKey, mover);
+					nodes++;
+					state.play(untriedMove);
+					break;
+				}
+				if (best == null) break;
+				node = best;
+				state.play(masked ? sampleMatching(best.key) : best.key);
+			}
+			int winner = rollout();
+			double reward = winner == MRX_WINS ? 1 : 0;
+			for (SearchNode n = node; n != null; n = n.parent) {
+				n.visits++;
+				n.reward += n.mover == MRX ? reward : 1 - reward;
+			}
+		}
+
+		private long sampleMatching(long key) {
+			long picked = key;
+			int matched = 0;
+			for (int i = 0; i < moves.size(); i++) {
+				long move = moves.get(i);
+				if (Moves.matches(key, move) && random.nextInt(++matched) == 0) picked = move;
+			}
+			return picked;
+		}
+
+		private int rollout() {
+			int winner;
+			while ((winner = state.winner()) == UNDECIDED) {
+				state.generateMoves(moves);
+				state.play(rolloutMove());
+			}
+			return winner;
+		}
+
+		private long rolloutMove() {
+			int size = moves.size();
+			if (size == 1 || distances == null || random.nextDouble() >= GREEDY_ROLLOUT)
+				return moves.get(random.nextInt(size));
+			int mover = state.current();
+			int offset = random.nextInt(size);
+			long best = moves.get(offset);
+			int bestScore = Integer.MIN_VALUE;
+			for (int k = 0; k < size; k++) {
+				long move = moves.get((offset + k) % size);
+				int destination = Moves.finalDestination(move);
+				if (destination < 0) continue;
+				int score;
+				if (mover == MRX) {
+					score = Integer.MAX_VALUE;
+					for (int p = 1; p < state.players(); p++)
+						score = Math.min(score,
+								distances.distance(destination, state.location(p)));
+					// keep double moves for when they make a difference
+					if (Moves.kind(move) == Moves.KIND_DOUBLE) score--;
+				} else {
+					score = -distances.distance(destination, state.location(MRX));
+				}
+				if (score > bestScore) {
+					bestScore = score;
+					best = move;
+				}
+			}
+			return best;
+		}
+	}
+
+}
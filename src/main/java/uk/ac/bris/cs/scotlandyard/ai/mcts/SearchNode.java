@@ -0,0 +1,48 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import java.util.Arrays;
+
+/**
+ * A node of a search tree, reached by playing {@link #key} as {@link #mover}.
+ * Each tree is owned by a single worker so nodes are not thread safe.
+ */
+final class SearchNode {
+
+	private static final SearchNode[] NO_CHILDREN = new SearchNode[0];
+
+	final long key;
+	final int mover;
+	SearchNode parent;
+	SearchNode[] children = NO_CHILDREN;
+	int childCount;
+
+	int visits;
+	int available;
+	double reward;
+	int seen = -1;
+
+	SearchNode(SearchNode parent, long key, int mover) {
+		this.parent = parent;
+		this.key = key;
+		this.mover = mover;
+	}
+
+	static SearchNode root(int mover) {
+		return new SearchNode(null, 0, mover);
+	}
+
+	SearchNode child(long key) {
+		for (int i = 0; i < childCount; i++)
+			if (children[i].key == key) return children[i];
+		return null;
+	}
+
+	SearchNode addChild(long key, int mover) {
+		if (childCount == children.length)
+			children = Arrays.copyOf(children, Math.max(4, childCount * 2));
+		SearchNode node = new SearchNode(this, key, mover);
+		children[childCount++] = node;
+		return node;
+	}
+
+}
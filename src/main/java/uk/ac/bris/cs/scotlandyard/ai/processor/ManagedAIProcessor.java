@@ -0,0 +1,153 @@
+package uk.ac.bris.cs.scotlandyard.ai.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI;
+
+/**
+ * Writes every {@link ManagedAI} class being compiled into
+ * {@link #INDEX}, one {@code name<TAB>visualiser type<TAB>class} line per AI,
+ * so that AIs can be found at startup without scanning the classpath.
+ * <br>
+ * Entries of an existing index are kept as long as their class is still
+ * annotated, which keeps the index complete across incremental builds.
+ * Misconfigured AIs (not a public top-level class implementing
+ * {@code PlayerFactory}, duplicate names) fail the build.
+ */
+@SupportedAnnotationTypes(ManagedAIProcessor.MANAGED_AI)
+public class ManagedAIProcessor extends AbstractProcessor {
+
+	/**
+	 * Location of the index relative to the class output
+	 */
+	public static final String INDEX = "META-INF/scotlandyard/managed-ai.index";
+
+	static final String MANAGED_AI = "uk.ac.bris.cs.scotlandyard.ai.ManagedAI";
+	static final String PLAYER_FACTORY = "uk.ac.bris.cs.scotlandyard.ai.PlayerFactory";
+
+	private final Map<String, String> entries = new LinkedHashMap<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+		if (round.processingOver()) {
+			if (!entries.isEmpty()) writeIndex();
+			return false;
+		}
+		for (Element element : round.getElementsAnnotatedWith(ManagedAI.class)) {
+			if (validate(element)) {
+				TypeElement type = (TypeElement) element;
+				ManagedAI ai = type.getAnnotation(ManagedAI.class);
+				String binaryName = processingEnv.getElementUtils().getBinaryName(type)
+						.toString();
+				add(ai.value(), ai.visualiserType().name(), binaryName, element);
+			}
+		}
+		return false;
+	}
+
+	private boolean validate(Element element) {
+		if (element.getKind() != ElementKind.CLASS) {
+			error(element, "@ManagedAI can only be used on classes");
+			return false;
+		}
+		TypeElement type = (TypeElement) element;
+		if (type.getNestingKind() != NestingKind.TOP_LEVEL
+				|| !type.getModifiers().contains(Modifier.PUBLIC)
+				|| type.getModifiers().contains(Modifier.ABSTRACT)) {
+			error(element, "@ManagedAI class must be public, top-level and not abstract");
+			return false;
+		}
+		TypeElement factory = processingEnv.getElementUtils().getTypeElement(PLAYER_FACTORY);
+		TypeMirror factoryType = processingEnv.getTypeUtils().erasure(factory.asType());
+		if (!processingEnv.getTypeUtils().isAssignable(type.asType(), factoryType)) {
+			error(element, "@ManagedAI class must implement " + PLAYER_FACTORY);
+			return false;
+		}
+		String name = type.getAnnotation(ManagedAI.class).value();
+		if (name.isEmpty() || name.contains("\t") || name.contains("\n")) {
+			error(element, "@ManagedAI name must be non-empty and not contain tabs or newlines");
+			return false;
+		}
+		return true;
+	}
+
+	private void add(String name, String visualiserType, String className, Element element) {
+		String existing = entries.get(name);
+		if (existing != null && !existing.endsWith("\t" + className)) {
+			error(element, "AIs with same name are not allowed, " + name
+					+ " is already used by " + existing.substring(existing.lastIndexOf('\t') + 1));
+			return;
+		}
+		entries.put(name, name + "\t" + visualiserType + "\t" + className);
+	}
+
+	private void writeIndex() {
+		Map<String, String> merged = new LinkedHashMap<>();
+		readExistingIndex(merged);
+		merged.putAll(entries);
+		try {
+			FileObject file = processingEnv.getFiler()
+					.createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+			try (Writer writer = file.openWriter()) {
+				for (String line : merged.values()) writer.write(line + "\n");
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Kind.ERROR,
+					"Unable to write " + INDEX + ": " + e);
+		}
+	}
+
+	private void readExistingIndex(Map<String, String> into) {
+		try {
+			FileObject file = processingEnv.getFiler()
+					.getResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+			try (Reader reader = new InputStreamReader(file.openInputStream(),
+					StandardCharsets.UTF_8);
+					BufferedReader lines = new BufferedReader(reader)) {
+				String line;
+				while ((line = lines.readLine()) != null) {
+					String[] parts = line.split("\t");
+					if (parts.length != 3) continue;
+					TypeElement type = processingEnv.getElementUtils().getTypeElement(parts[2]);
+					// drop AIs that were deleted, renamed or lost their annotation
+					ManagedAI ai = type == null ? null : type.getAnnotation(ManagedAI.class);
+					if (ai != null && ai.value().equals(parts[0])) into.put(parts[0], line);
+				}
+			}
+		} catch (IOException | IllegalArgumentException e) {
+			// no previous index
+		}
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Kind.ERROR, message, element);
+	}
+
+}
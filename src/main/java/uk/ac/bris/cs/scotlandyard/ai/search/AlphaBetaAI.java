@@ -0,0 +1,118 @@
+package uk.ac.bris.cs.scotlandyard.ai.search;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI;
+import uk.ac.bris.cs.scotlandyard.ai.PlayerFactory;
+import uk.ac.bris.cs.scotlandyard.ai.book.Opening;
+import uk.ac.bris.cs.scotlandyard.ai.endgame.Tablebase;
+import uk.ac.bris.cs.scotlandyard.ai.engine.BitParallelBfs;
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Distances;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MrXTracker;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SearchThreads;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SharedGraphs;
+import uk.ac.bris.cs.scotlandyard.ai.engine.ThinkTime;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Plays either side with a multi-threaded iterative deepening alpha-beta
+ * search, see {@link AlphaBetaSearch}. The detectives search as if Mr.X was
+ * at the possible location furthest away from them, in keeping with the
+ * paranoid model. First moves come from the {@link Opening} book and the
+ * last rounds are looked up in the {@link Tablebase} where there are ones.
+ * <br>
+ * Searches run on the {@link SearchThreads} pool and share their
+ * transposition table with every other game of the same shape.
+ */
+@ManagedAI("Alpha-beta")
+public class AlphaBetaAI implements PlayerFactory {
+
+	private static final int TABLE_BITS = 20;
+
+	private final int threads = SearchThreads.parallelism();
+
+	private Duration timeout = ThinkTime.DEFAULT_TIMEOUT;
+	private CompactGraph graph;
+	private Distances distances;
+	private MrXTracker tracker;
+	private Opening opening;
+	private AlphaBetaSearch search;
+
+	@Override
+	public List<Spectator> createSpectators(ScotlandYardView view) {
+		graph = SharedGraphs.compact(view.getGraph());
+		distances = SharedGraphs.distances(graph);
+		tracker = new MrXTracker(graph);
+		opening = Opening.of(view, graph);
+		Tablebase endgame = Tablebase.standard(graph, view.getPlayers().size() - 1).orElse(null);
+		TranspositionTable table = TranspositionTable.shared(graph, view.getPlayers().size(),
+				view.getRounds().size(), TABLE_BITS);
+		search = new AlphaBetaSearch(graph, distances, endgame, threads, table);
+		return Arrays.asList(tracker);
+	}
+
+	@Override
+	public void moveTimeout(Duration timeout) {
+		this.timeout = requireNonNull(timeout);
+	}
+
+	@Override
+	public Player createPlayer(Colour colour) {
+		// detectives move one at a time, but each gets its own buffers anyway
+		BitParallelBfs reach = colour.isMrX() ? null : new BitParallelBfs(graph,
+				BitParallelBfs.transports(Transport.TAXI, Transport.BUS, Transport.UNDERGROUND));
+		return (view, location, moves, callback) -> {
+			Optional<Move> booked = opening.firstMove(colour, location, moves);
+			if (booked.isPresent()) {
+				callback.accept(booked.get());
+				return;
+			}
+			int mrX = colour.isMrX() ? location : guessMrX(view, reach);
+			GameState root = GameState.fromView(graph, view, mrX);
+			long move = search.search(SearchThreads.pool(), root, ThinkTime.forTimeout(timeout));
+			callback.accept(Moves.pick(graph, colour, move, moves));
+		};
+	}
+
+	/**
+	 * @return the possible location of Mr.X furthest from the nearest
+	 *         detective, as a node value
+	 */
+	private int guessMrX(ScotlandYardView view, BitParallelBfs reach) {
+		tracker.update(view);
+		int[] candidates = new int[tracker.size()];
+		tracker.candidates(candidates);
+		// one search per detective, all run at once
+		int[] detectives = view.getPlayers().stream()
+				.filter(Colour::isDetective)
+				.mapToInt(colour -> graph.indexOf(view.getPlayerLocation(colour).orElse(0)))
+				.filter(index -> index >= 0)
+				.toArray();
+		reach.run(detectives, detectives.length, graph.size());
+		int best = graph.indexOf(view.getPlayerLocation(Colour.BLACK).orElse(0));
+		int furthest = -1;
+		for (int candidate : candidates) {
+			int depth = reach.depth(candidate);
+			int nearest = depth < 0 ? Integer.MAX_VALUE : depth;
+			if (nearest > furthest) {
+				furthest = nearest;
+				best = candidate;
+			}
+		}
+		return best < 0 ? 0 : graph.value(best);
+	}
+
+}
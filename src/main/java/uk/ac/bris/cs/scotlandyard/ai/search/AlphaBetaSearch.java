@@ -0,0 +1,391 @@
+package uk.ac.bris.cs.scotlandyard.ai.search;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX_WINS;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.UNDECIDED;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.bris.cs.scotlandyard.ai.endgame.Tablebase;
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Distances;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SearchThreads;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+
+/**
+ * Iterative deepening alpha-beta search under the paranoid assumption: Mr.X
+ * maximises the score and all detectives minimise it as one team. Scores are
+ * always from Mr.X's point of view.
+ * <br>
+ * Searching is Lazy SMP style: every thread runs its own iterative deepening
+ * loop on the same root and the threads only cooperate through the shared
+ * {@link TranspositionTable}; every other helper starts one ply deeper so that
+ * the threads spread out. The main thread is the caller's, helpers are
+ * submitted for its share of the {@link SearchThreads} pool. The move of the
+ * thread that completed the deepest iteration is played.
+ */
+final class AlphaBetaSearch {
+
+	private static final Logger logger = LoggerFactory.getLogger(AlphaBetaSearch.class);
+
+	static final int WIN = 1_000_000;
+	static final int MAX_PLY = 64;
+
+	private static final int INFINITY = WIN + 1;
+	private static final int NODES_PER_CHECK = 1024;
+	private static final int SECRET = Ticket.SECRET.ordinal();
+	private static final int DOUBLE = Ticket.DOUBLE.ordinal();
+
+	private final CompactGraph graph;
+	private final Distances distances;
+	private final Tablebase endgame;
+	private final TranspositionTable table;
+	private final Searcher[] searchers;
+
+	private volatile boolean stopped;
+	private long deadline;
+	private long softDeadline;
+
+	/**
+	 * @param graph the game graph; not null
+	 * @param distances distances for evaluation and move ordering, null to
+	 *        search on material alone
+	 * @param endgame solved endgames to look positions up in instead of
+	 *        searching them, null for none
+	 * @param threads the most search threads to run at once
+	 * @param table the transposition table, possibly shared with other
+	 *        searches; not null
+	 */
+	AlphaBetaSearch(CompactGraph graph, Distances distances, Tablebase endgame, int threads,
+			TranspositionTable table) {
+		this.graph = requireNonNull(graph);
+		this.distances = distances;
+		this.endgame = endgame;
+		this.table = requireNonNull(table);
+		this.searchers = new Searcher[threads];
+		for (int i = 0; i < threads; i++) searchers[i] = new Searcher(i);
+	}
+
+	/**
+	 * Searches for the best move of the current player, returning no later
+	 * than the budget allows. A new iteration is not started once half of the
+	 * budget is used since it would most likely not complete.
+	 *
+	 * @param executor the executor to run the helpers on, see
+	 *        {@link SearchThreads}; not null
+	 * @param root the position to search; not modified
+	 * @param budget how long to search for
+	 * @return the encoded move
+	 */
+	long search(ExecutorService executor, GameState root, Duration budget) {
+		long start = System.nanoTime();
+		deadline = start + budget.toNanos();
+		softDeadline = start + budget.toNanos() / 2;
+		stopped = false;
+		for (Searcher searcher : searchers) searcher.prepare(root);
+		// the main searcher runs on this thread so that at least one
+		// iteration completes however busy the executor is
+		List<Future<?>> futures = new ArrayList<>();
+		boolean interrupted = false;
+		try {
+			int helpers = SearchThreads.enter(searchers.length - 1);
+			for (int i = 1; i <= helpers; i++) futures.add(executor.submit(searchers[i]::run));
+			searchers[0].run();
+			for (Future<?> future : futures) {
+				while (true) {
+					try {
+						future.get();
+						break;
+					} catch (InterruptedException e) {
+						interrupted = true;
+					} catch (ExecutionException e) {
+						throw new RuntimeException(e.getCause());
+					}
+				}
+			}
+		} finally {
+			stopped = true;
+			SearchThreads.leave();
+		}
+		if (interrupted) Thread.currentThread().interrupt();
+
+		Searcher best = searchers[0];
+		long nodes = 0;
+		for (Searcher searcher : searchers) {
+			nodes += searcher.nodes;
+			if (searcher.completedDepth > best.completedDepth) best = searcher;
+		}
+		long elapsed = System.nanoTime() - start;
+		logger.debug("{}: depth {}, score {}, {} nodes in {}ms ({} nodes/s), chose {}",
+				root.colour(root.current()), best.completedDepth, best.bestScore, nodes,
+				elapsed / 1_000_000, (long) (nodes / (elapsed / 1e9)),
+				Moves.toString(graph, best.bestMove));
+		return best.bestMove;
+	}
+
+	private static int toTable(int score, int ply) {
+		if (score >= WIN - MAX_PLY) return score + ply;
+		if (score <= -WIN + MAX_PLY) return score - ply;
+		return score;
+	}
+
+	private static int fromTable(int score, int ply) {
+		if (score >= WIN - MAX_PLY) return score - ply;
+		if (score <= -WIN + MAX_PLY) return score + ply;
+		return score;
+	}
+
+	private final class Searcher {
+
+		private final int id;
+		private final MoveList[] moves = new MoveList[MAX_PLY];
+		private final int[][] order = new int[MAX_PLY][];
+		private final long[][] killers = new long[MAX_PLY][2];
+		private int[] history;
+		private GameState state;
+
+		long nodes;
+		int completedDepth;
+		long bestMove;
+		int bestScore;
+
+		Searcher(int id) {
+			this.id = id;
+			for (int i = 0; i < MAX_PLY; i++) {
+				moves[i] = new MoveList(256);
+				order[i] = new int[256];
+			}
+		}
+
+		void prepare(GameState root) {
+			state = root.copy();
+			if (history == null) history = new int[2 * graph.size()];
+			for (int i = 0; i < history.length; i++) history[i] /= 4;
+			for (long[] killer : killers) Arrays.fill(killer, -1);
+			nodes = 0;
+			completedDepth = 0;
+			bestScore = 0;
+			state.generateMoves(moves[0]);
+			bestMove = moves[0].isEmpty() ? Moves.PASS : moves[0].get(0);
+		}
+
+		void run() {
+			for (int depth = 1 + (id & 1); depth < MAX_PLY - 1; depth++) {
+				if (id == 0 && System.nanoTime() > softDeadline) break;
+				long move = root(depth);
+				if (stopped) break;
+				completedDepth = depth;
+				bestMove = move;
+				if (Math.abs(bestScore) >= WIN - MAX_PLY) break;
+			}
+			// helpers only run for as long as the main thread does
+			if (id == 0) stopped = true;
+		}
+
+		private boolean timeUp() {
+			if (++nodes % NODES_PER_CHECK == 0 && System.nanoTime() > deadline) stopped = true;
+			return stopped;
+		}
+
+		private long root(int depth) {
+			boolean maximising = state.current() == MRX;
+			MoveList list = moves[0];
+			state.generateMoves(list);
+			score(list, 0, table.move(state.hash()), maximising);
+			// search the best move of the previous iteration first
+			for (int i = 0; i < list.size(); i++) {
+				if (list.get(i) == bestMove) order[0][i] = Integer.MAX_VALUE;
+			}
+			int alpha = -INFINITY;
+			int beta = INFINITY;
+			long best = bestMove;
+			int bestValue = maximising ? -INFINITY : INFINITY;
+			for (int i = 0; i < list.size(); i++) {
+				long move = next(list, 0, i);
+				state.play(move);
+				int value = alphaBeta(depth - 1, 1, alpha, beta);
+				state.undo();
+				if (stopped) break;
+				if (maximising ? value > bestValue : value < bestValue) {
+					bestValue = value;
+					best = move;
+				}
+				if (maximising) alpha = Math.max(alpha, value);
+				else beta = Math.min(beta, value);
+			}
+			if (!stopped) {
+				bestScore = bestValue;
+				table.store(state.hash(), best, toTable(bestValue, 0), depth,
+						TranspositionTable.EXACT);
+			}
+			return best;
+		}
+
+		private int alphaBeta(int depth, int ply, int alpha, int beta) {
+			int winner = state.winner();
+			if (winner != UNDECIDED) return winner == MRX_WINS ? WIN - ply : -WIN + ply;
+			if (endgame != null && (winner = endgame.probe(state)) != UNDECIDED)
+				return winner == MRX_WINS ? WIN - ply : -WIN + ply;
+			if (depth <= 0 || ply >= MAX_PLY - 1) return evaluate();
+			if (timeUp()) return 0;
+
+			long hash = state.hash();
+			long entry = table.probe(hash);
+			long tableMove = -1;
+			if (entry != 0) {
+				tableMove = table.move(hash);
+				if (TranspositionTable.depth(entry) >= depth) {
+					int score = fromTable(TranspositionTable.score(entry), ply);
+					switch (TranspositionTable.bound(entry)) {
+						case TranspositionTable.EXACT:
+							return score;
+						case TranspositionTable.LOWER:
+							if (score >= beta) return score;
+							break;
+						case TranspositionTable.UPPER:
+							if (score <= alpha) return score;
+							break;
+						default:
+							break;
+					}
+				}
+			}
+
+			boolean maximising = state.current() == MRX;
+			MoveList list = moves[ply];
+			state.generateMoves(list);
+			score(list, ply, tableMove, maximising);
+			int originalAlpha = alpha;
+			int originalBeta = beta;
+			int best = maximising ? -INFINITY : INFINITY;
+			long bestChild = list.get(0);
+			for (int i = 0; i < list.size(); i++) {
+				long move = next(list, ply, i);
+				state.play(move);
+				int value = alphaBeta(depth - 1, ply + 1, alpha, beta);
+				state.undo();
+				if (stopped) return 0;
+				if (maximising) {
+					if (value > best) {
+						best = value;
+						bestChild = move;
+					}
+					alpha = Math.max(alpha, best);
+				} else {
+					if (value < best) {
+						best = value;
+						bestChild = move;
+					}
+					beta = Math.min(beta, best);
+				}
+				if (alpha >= beta) {
+					cutoff(move, ply, depth, maximising);
+					break;
+				}
+			}
+			int bound = best <= originalAlpha ? TranspositionTable.UPPER
+					: best >= originalBeta ? TranspositionTable.LOWER
+							: TranspositionTable.EXACT;
+			table.store(hash, bestChild, toTable(best, ply), depth, bound);
+			return best;
+		}
+
+		private void cutoff(long move, int ply, int depth, boolean maximising) {
+			long[] killer = killers[ply];
+			if (killer[0] != move) {
+				killer[1] = killer[0];
+				killer[0] = move;
+			}
+			int destination = Moves.finalDestination(move);
+			if (destination >= 0)
+				history[(maximising ? 0 : graph.size()) + destination] += depth * depth;
+		}
+
+		/**
+		 * Assigns an ordering score to every move: the table move, then
+		 * killers, then history and distance heuristics. Double moves come last
+		 * as they are rarely needed.
+		 */
+		private void score(MoveList list, int ply, long tableMove, boolean maximising) {
+			if (order[ply].length < list.size()) order[ply] = new int[list.size() * 2];
+			int[] scores = order[ply];
+			long[] killer = killers[ply];
+			int side = maximising ? 0 : graph.size();
+			int mrX = state.location(MRX);
+			for (int i = 0; i < list.size(); i++) {
+				long move = list.get(i);
+				int score;
+				if (move == tableMove) score = Integer.MAX_VALUE - 1;
+				else if (move == killer[0]) score = Integer.MAX_VALUE - 2;
+				else if (move == killer[1]) score = Integer.MAX_VALUE - 3;
+				else {
+					int destination = Moves.finalDestination(move);
+					score = destination < 0 ? 0 : history[side + destination];
+					if (distances != null && destination >= 0) {
+						score += maximising ? 64 * nearestDetective(destination)
+								: -64 * distances.distance(destination, mrX);
+					}
+					if (Moves.kind(move) == Moves.KIND_DOUBLE) score -= 1 << 20;
+				}
+				scores[i] = score;
+			}
+		}
+
+		/**
+		 * Selection sort step: moves the best scored move at or after
+		 * {@code index} to {@code index}
+		 */
+		private long next(MoveList list, int ply, int index) {
+			int[] scores = order[ply];
+			int best = index;
+			for (int i = index + 1; i < list.size(); i++)
+				if (scores[i] > scores[best]) best = i;
+			if (best != index) {
+				list.swap(index, best);
+				int score = scores[index];
+				scores[index] = scores[best];
+				scores[best] = score;
+			}
+			return list.get(index);
+		}
+
+		private int nearestDetective(int node) {
+			int nearest = Distances.UNREACHABLE;
+			for (int p = 1; p < state.players(); p++)
+				nearest = Math.min(nearest, distances.distance(node, state.location(p)));
+			return nearest;
+		}
+
+		/**
+		 * Static evaluation from Mr.X's point of view: distance to the
+		 * detectives, number of escape routes and the special tickets left
+		 */
+		private int evaluate() {
+			int mrX = state.location(MRX);
+			int score = 20 * state.tickets(MRX, SECRET) + 40 * state.tickets(MRX, DOUBLE);
+			if (distances == null) return score;
+			int total = 0;
+			for (int p = 1; p < state.players(); p++)
+				total += Math.min(8, distances.distance(mrX, state.location(p)));
+			score += 100 * Math.min(6, nearestDetective(mrX)) + 10 * total;
+			for (int i = 0, degree = graph.degree(mrX); i < degree; i++) {
+				if (nearestDetective(graph.neighbour(mrX, i)) > 1) score += 30;
+			}
+			return score;
+		}
+	}
+
+}
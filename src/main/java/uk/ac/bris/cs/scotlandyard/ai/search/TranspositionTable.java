@@ -0,0 +1,118 @@
+package uk.ac.bris.cs.scotlandyard.ai.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.collect.MapMaker;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+
+/**
+ * A fixed size transposition table shared by all search threads without
+ * locking. Each slot stores the key xor-ed with its data so that a slot torn
+ * by a concurrent write fails verification and reads as a miss.
+ * <br>
+ * The data word packs the score (bits 0-31), remaining depth (bits 32-39)
+ * and bound type (bits 40-41); the best move is stored separately.
+ * <br>
+ * Concurrent games on the same graph share a table through
+ * {@link #shared(CompactGraph, int, int, int)}, so memory does not grow with
+ * the number of games. Positions hash the same in every game of the same
+ * shape and score the same, other games only compete for slots.
+ */
+final class TranspositionTable {
+
+	static final int EXACT = 1;
+	static final int LOWER = 2;
+	static final int UPPER = 3;
+
+	private static final ConcurrentMap<CompactGraph,
+			ConcurrentMap<List<Integer>, TranspositionTable>> shared =
+					new MapMaker().weakKeys().makeMap();
+
+	private final int mask;
+	private final long[] keys;
+	private final long[] moves;
+	private final long[] data;
+
+	/**
+	 * @param bits log2 of the number of slots
+	 */
+	TranspositionTable(int bits) {
+		if (bits < 1 || bits > 28) throw new IllegalArgumentException("Bad table size " + bits);
+		int size = 1 << bits;
+		this.mask = size - 1;
+		this.keys = new long[size];
+		this.moves = new long[size];
+		this.data = new long[size];
+	}
+
+	/**
+	 * @param graph the graph of the game; not null
+	 * @param players the number of players, Mr.X included
+	 * @param rounds the number of rounds; the hash leaves the game length
+	 *        out, so games of another length get their own table
+	 * @param bits log2 of the number of slots if the table is created
+	 * @return the table shared by every game of this shape on the graph
+	 */
+	static TranspositionTable shared(CompactGraph graph, int players, int rounds, int bits) {
+		return shared.computeIfAbsent(graph, g -> new ConcurrentHashMap<>())
+				.computeIfAbsent(Arrays.asList(players, rounds),
+						shape -> new TranspositionTable(bits));
+	}
+
+	/**
+	 * @param hash the position hash
+	 * @return the data word for the position or 0 if absent
+	 */
+	long probe(long hash) {
+		int slot = (int) hash & mask;
+		long move = moves[slot];
+		long word = data[slot];
+		return (keys[slot] ^ move ^ word) == hash ? word : 0;
+	}
+
+	/**
+	 * @param hash the position hash
+	 * @return the best move stored for the position, only meaningful when
+	 *         {@link #probe(long)} hits
+	 */
+	long move(long hash) {
+		int slot = (int) hash & mask;
+		long move = moves[slot];
+		return (keys[slot] ^ move ^ data[slot]) == hash ? move : -1;
+	}
+
+	void store(long hash, long move, int score, int depth, int bound) {
+		int slot = (int) hash & mask;
+		long existing = data[slot];
+		// keep deeper results of the same position
+		if ((keys[slot] ^ moves[slot] ^ existing) == hash && depth(existing) > depth
+				&& bound != EXACT) return;
+		long word = (score & 0xFFFFFFFFL) | ((long) depth << 32) | ((long) bound << 40);
+		moves[slot] = move;
+		data[slot] = word;
+		keys[slot] = hash ^ move ^ word;
+	}
+
+	void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(moves, 0);
+		Arrays.fill(data, 0);
+	}
+
+	static int score(long word) {
+		return (int) word;
+	}
+
+	static int depth(long word) {
+		return (int) ((word >>> 32) & 0xFF);
+	}
+
+	static int bound(long word) {
+		return (int) ((word >>> 40) & 3);
+	}
+
+}
@@ -0,0 +1,280 @@
+package uk.ac.bris.cs.scotlandyard.fuzz;
+
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import uk.ac.bris.cs.scotlandyard.model.ModelFactories;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGameFactory;
+
+/**
+ * Differential fuzzer for game models: plays random games (random graph,
+ * rounds, tickets, start locations and moves) on every factory in
+ * {@link ModelFactories} and on the reference engine, and compares the
+ * players' requests, the spectator events and the views after each of them.
+ * The first difference in a game is shrunk to a small scenario and printed.
+ * <br>
+ * The models log to {@link System#out}. While fuzzing, whatever the fuzzing
+ * threads print there is dropped; other threads print as usual, and the
+ * report goes to the original stream.
+ * <br>
+ * Run with
+ * {@code mvn exec:java -Dexec.mainClass=uk.ac.bris.cs.scotlandyard.fuzz.Fuzzer -Dexec.args="--help"}
+ * for the options.
+ */
+public final class Fuzzer {
+
+	private static final String USAGE = String.join("\n",
+			"Usage: Fuzzer [options]",
+			"  --seconds <n>     how long to fuzz for (60)",
+			"  --games <n>       stop after this many games (unlimited)",
+			"  --failures <n>    stop after this many failing games (1)",
+			"  --threads <n>     games played at once (available processors)",
+			"  --seed <n>        seed of the first game, game i uses seed + i (0)",
+			"  --shrink <n>      games to play at most while shrinking a failure (2000)",
+			"  --no-reference    only compare the factories with each other");
+
+	private static final long PROGRESS_MILLIS = 10_000;
+
+	private Duration duration = Duration.ofSeconds(60);
+	private long games = Long.MAX_VALUE;
+	private int failureLimit = 1;
+	private int threads = Runtime.getRuntime().availableProcessors();
+	private long seed;
+	private int shrinkBudget = 2000;
+	private boolean reference = true;
+
+	private final PrintStream out = System.out;
+	private final AtomicLong nextGame = new AtomicLong();
+	private final LongAdder played = new LongAdder();
+	private final LongAdder moves = new LongAdder();
+	private final AtomicInteger failures = new AtomicInteger();
+
+	public static void main(String[] args) throws Exception {
+		Fuzzer fuzzer = new Fuzzer();
+		try {
+			if (!fuzzer.parse(args)) {
+				System.out.println(USAGE);
+				return;
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		System.exit(fuzzer.run() ? 0 : 1);
+	}
+
+	boolean parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("--help")) return false;
+			if (option.equals("--no-reference")) {
+				reference = false;
+				continue;
+			}
+			if (i + 1 >= args.length) throw new IllegalArgumentException(option + " needs a value");
+			String value = args[++i];
+			try {
+				switch (option) {
+				case "--seconds":
+					duration = Duration.ofSeconds(positive(option, value));
+					break;
+				case "--games":
+					games = positive(option, value);
+					break;
+				case "--failures":
+					failureLimit = positive(option, value);
+					break;
+				case "--threads":
+					threads = positive(option, value);
+					break;
+				case "--seed":
+					seed = Long.parseLong(value);
+					break;
+				case "--shrink":
+					shrinkBudget = positive(option, value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(option + " needs a number, got " + value);
+			}
+		}
+		return true;
+	}
+
+	private static int positive(String option, String value) {
+		int number = Integer.parseInt(value);
+		if (number <= 0) throw new IllegalArgumentException(option + " must be positive");
+		return number;
+	}
+
+	/**
+	 * Fuzzes with the options parsed last
+	 *
+	 * @return whether no game failed
+	 */
+	boolean run() throws InterruptedException {
+		List<Class<? extends ScotlandYardGameFactory>> classes = ModelFactories.factories();
+		List<String> names = ScotlandYardGameFactory.instantiate(classes).stream()
+				.map(Object::toString).collect(toList());
+		out.printf("Fuzzing %s against %s for %ss on %d threads%n", names,
+				reference ? Trial.REFERENCE : "each other", duration.getSeconds(), threads);
+
+		QuietThreads quiet = new QuietThreads(out);
+		System.setOut(new PrintStream(quiet, true));
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("fuzzer-%d").build());
+		long start = System.nanoTime();
+		long deadline = start + duration.toNanos();
+		try {
+			List<Future<?>> workers = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				// every worker has its own factories, implementations need
+				// not be thread safe
+				List<? extends ScotlandYardGameFactory> factories = ScotlandYardGameFactory
+						.instantiate(classes);
+				workers.add(executor.submit(() -> {
+					quiet.silence();
+					fuzz(factories, names, deadline);
+				}));
+			}
+			long next = start;
+			for (Future<?> worker : workers) {
+				while (!worker.isDone()) {
+					TimeUnit.MILLISECONDS.sleep(100);
+					if (System.nanoTime() - next >= TimeUnit.MILLISECONDS.toNanos(PROGRESS_MILLIS)) {
+						next = System.nanoTime();
+						progress(start);
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+			System.setOut(out);
+		}
+		progress(start);
+		return failures.get() == 0;
+	}
+
+	private void fuzz(List<? extends ScotlandYardGameFactory> factories, List<String> names,
+			long deadline) {
+		while (System.nanoTime() < deadline && failures.get() < failureLimit) {
+			long game = nextGame.getAndIncrement();
+			if (game >= games) return;
+			Scenario scenario = Scenario.random(seed + game);
+			Mismatch mismatch = trial(scenario, factories, names);
+			played.increment();
+			if (mismatch == null) continue;
+			if (failures.incrementAndGet() > failureLimit) return;
+			report(scenario, mismatch, shrink(scenario, mismatch, factories, names));
+		}
+	}
+
+	Mismatch trial(Scenario scenario, List<? extends ScotlandYardGameFactory> factories,
+			List<String> names) {
+		return new Trial(scenario).run(factories, names, reference, moves::add);
+	}
+
+	/**
+	 * @return the smallest scenario found that fails the same way, the
+	 *         scenario itself if none does
+	 */
+	Shrunk shrink(Scenario scenario, Mismatch mismatch,
+			List<? extends ScotlandYardGameFactory> factories, List<String> names) {
+		Shrunk shrunk = new Shrunk(scenario, mismatch);
+		int budget = shrinkBudget;
+		boolean progress = true;
+		while (progress && budget > 0) {
+			progress = false;
+			for (Scenario candidate : shrunk.scenario.shrinks()) {
+				if (budget-- <= 0) break;
+				Mismatch failure = trial(candidate, factories, names);
+				if (failure != null && failure.kind.equals(mismatch.kind)
+						&& candidate.size() < shrunk.scenario.size()) {
+					shrunk = new Shrunk(candidate, failure);
+					progress = true;
+					break;
+				}
+			}
+		}
+		return shrunk;
+	}
+
+	private void report(Scenario scenario, Mismatch mismatch, Shrunk shrunk) {
+		synchronized (out) {
+			out.printf("%nGame with seed %d failed: %s%nShrunk to:%n%s%s%n", scenario.seed,
+					mismatch, shrunk.scenario, shrunk.mismatch);
+		}
+	}
+
+	private void progress(long start) {
+		double minutes = (System.nanoTime() - start) / 60e9;
+		synchronized (out) {
+			out.printf("%d games, %d moves (%.0f moves/min), %d failing%n", played.sum(),
+					moves.sum(), moves.sum() / Math.max(minutes, 1e-9), failures.get());
+		}
+	}
+
+	static final class Shrunk {
+
+		final Scenario scenario;
+		final Mismatch mismatch;
+
+		Shrunk(Scenario scenario, Mismatch mismatch) {
+			this.scenario = scenario;
+			this.mismatch = mismatch;
+		}
+	}
+
+	/**
+	 * Passes on what is written to it, except from threads that silenced
+	 * themselves
+	 */
+	private static final class QuietThreads extends OutputStream {
+
+		private final OutputStream target;
+		private final ThreadLocal<Boolean> silenced = ThreadLocal.withInitial(() -> false);
+
+		QuietThreads(OutputStream target) {
+			this.target = target;
+		}
+
+		void silence() {
+			silenced.set(true);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			if (!silenced.get()) target.write(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (!silenced.get()) target.write(b, off, len);
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (!silenced.get()) target.flush();
+		}
+
+	}
+
+}
@@ -0,0 +1,62 @@
+package uk.ac.bris.cs.scotlandyard.fuzz;
+
+import java.util.List;
+
+/**
+ * The first difference between two traces of the same {@link Scenario}
+ */
+final class Mismatch {
+
+	// what went wrong, shrinking keeps to scenarios failing the same way
+	final String kind;
+	final String expectedSide;
+	final String actualSide;
+	final int index;
+	final String expected;
+	final String actual;
+
+	Mismatch(String kind, String expectedSide, String actualSide, int index, String expected,
+			String actual) {
+		this.kind = kind;
+		this.expectedSide = expectedSide;
+		this.actualSide = actualSide;
+		this.index = index;
+		this.expected = expected;
+		this.actual = actual;
+	}
+
+	/**
+	 * @return the first difference between the lists, null if they are equal
+	 */
+	static Mismatch between(String expectedSide, List<String> expected, String actualSide,
+			List<String> actual) {
+		int length = Math.min(expected.size(), actual.size());
+		for (int i = 0; i < length; i++)
+			if (!expected.get(i).equals(actual.get(i)))
+				return new Mismatch(kind(expected.get(i), actual.get(i)), expectedSide,
+						actualSide, i, expected.get(i), actual.get(i));
+		if (expected.size() == actual.size()) return null;
+		String missing = expected.size() > length ? expected.get(length) : "<end>";
+		String extra = actual.size() > length ? actual.get(length) : "<end>";
+		return new Mismatch(kind(missing, extra), expectedSide, actualSide, length, missing,
+				extra);
+	}
+
+	private static String kind(String expected, String actual) {
+		return word(expected) + "/" + word(actual);
+	}
+
+	private static String word(String event) {
+		int space = event.indexOf(' ');
+		// exceptions are told apart by their type
+		if (event.startsWith("threw ")) space = event.indexOf(' ', space + 1);
+		return space < 0 ? event : event.substring(0, space);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s differs from %s at event %d (%s):%n  %s: %s%n  %s: %s", actualSide,
+				expectedSide, index, kind, expectedSide, expected, actualSide, actual);
+	}
+
+}
@@ -0,0 +1,266 @@
+package uk.ac.bris.cs.scotlandyard.fuzz;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+
+import uk.ac.bris.cs.gamekit.graph.Edge;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.gamekit.graph.Node;
+import uk.ac.bris.cs.gamekit.graph.UndirectedGraph;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * A complete, valid game setup together with the move every player will
+ * pick. Moves are picked by index into the valid moves sorted by their
+ * {@link uk.ac.bris.cs.scotlandyard.ai.engine.Moves} encoding, so the same
+ * scenario makes the same choices on every implementation that agrees on
+ * the valid moves.
+ * <br>
+ * Scenarios are immutable; {@link #shrinks()} gives smaller scenarios to try
+ * when minimising a failing one.
+ */
+final class Scenario {
+
+	private static final int TICKETS = Ticket.values().length;
+	private static final Transport[] TRANSPORTS = Transport.values();
+
+	final long seed;
+	// nodes are 1..nodes
+	final int nodes;
+	// source, destination, transport ordinal
+	final int[][] edges;
+	final boolean[] rounds;
+	// Mr.X first, one entry per player
+	final int[] locations;
+	final int[][] tickets;
+	final int[] choices;
+
+	private Scenario(long seed, int nodes, int[][] edges, boolean[] rounds, int[] locations,
+			int[][] tickets, int[] choices) {
+		this.seed = seed;
+		this.nodes = nodes;
+		this.edges = edges;
+		this.rounds = rounds;
+		this.locations = locations;
+		this.tickets = tickets;
+		this.choices = choices;
+	}
+
+	/**
+	 * @param seed the seed, the same seed always gives the same scenario
+	 * @return a random scenario on a random graph
+	 */
+	static Scenario random(long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		int players = 2 + random.nextInt(Colour.values().length - 1);
+		int nodes = players + 2 + random.nextInt(60);
+		Set<Long> seen = new HashSet<>();
+		List<int[]> edges = new ArrayList<>();
+		// a random spanning tree keeps most of the graph reachable, the
+		// extra edges make cycles and several transports between nodes
+		for (int node = 2; node <= nodes; node++)
+			addEdge(edges, seen, 1 + random.nextInt(node - 1), node, transport(random));
+		int extra = random.nextInt(nodes * 2);
+		for (int i = 0; i < extra; i++) {
+			int a = 1 + random.nextInt(nodes), b = 1 + random.nextInt(nodes);
+			if (a != b) addEdge(edges, seen, a, b, transport(random));
+		}
+
+		boolean[] rounds = new boolean[1 + random.nextInt(24)];
+		for (int i = 0; i < rounds.length; i++) rounds[i] = random.nextInt(4) == 0;
+
+		List<Integer> free = new ArrayList<>();
+		for (int node = 1; node <= nodes; node++) free.add(node);
+		int[] locations = new int[players];
+		int[][] tickets = new int[players][TICKETS];
+		for (int p = 0; p < players; p++) {
+			locations[p] = free.remove(random.nextInt(free.size()));
+			for (Ticket ticket : Ticket.values()) {
+				boolean mrXOnly = ticket == Ticket.DOUBLE || ticket == Ticket.SECRET;
+				if (p != 0 && mrXOnly) continue;
+				tickets[p][ticket.ordinal()] = random.nextInt(mrXOnly ? 4 : 12);
+			}
+		}
+
+		int[] choices = new int[players * (rounds.length + 1)];
+		for (int i = 0; i < choices.length; i++) choices[i] = random.nextInt(Integer.MAX_VALUE);
+		return new Scenario(seed, nodes, edges.toArray(new int[0][]), rounds, locations,
+				tickets, choices);
+	}
+
+	private static Transport transport(SplittableRandom random) {
+		int roll = random.nextInt(20);
+		if (roll < 11) return Transport.TAXI;
+		if (roll < 16) return Transport.BUS;
+		if (roll < 19) return Transport.UNDERGROUND;
+		return Transport.FERRY;
+	}
+
+	private static void addEdge(List<int[]> edges, Set<Long> seen, int a, int b,
+			Transport transport) {
+		long key = ((long) Math.min(a, b) << 32 | Math.max(a, b)) * TRANSPORTS.length
+				+ transport.ordinal();
+		if (seen.add(key)) edges.add(new int[] { a, b, transport.ordinal() });
+	}
+
+	int players() {
+		return locations.length;
+	}
+
+	Colour colour(int player) {
+		return Colour.values()[player];
+	}
+
+	List<Colour> colours() {
+		return Arrays.asList(Colour.values()).subList(0, players());
+	}
+
+	List<Boolean> roundList() {
+		List<Boolean> list = new ArrayList<>(rounds.length);
+		for (boolean round : rounds) list.add(round);
+		return list;
+	}
+
+	Map<Ticket, Integer> ticketMap(int player) {
+		Map<Ticket, Integer> map = new EnumMap<>(Ticket.class);
+		for (Ticket ticket : Ticket.values()) map.put(ticket, tickets[player][ticket.ordinal()]);
+		return map;
+	}
+
+	int choice(int decision) {
+		return decision < choices.length ? choices[decision] : 0;
+	}
+
+	Graph<Integer, Transport> graph() {
+		UndirectedGraph<Integer, Transport> graph = new UndirectedGraph<>();
+		for (int node = 1; node <= nodes; node++) graph.addNode(new Node<>(node));
+		for (int[] edge : edges)
+			graph.addEdge(new Edge<>(graph.getNode(edge[0]), graph.getNode(edge[1]),
+					TRANSPORTS[edge[2]]));
+		return new ImmutableGraph<>(graph);
+	}
+
+	/**
+	 * Smaller variants of this scenario, roughly the biggest reductions
+	 * first: fewer detectives, fewer rounds, fewer edges, fewer nodes, fewer
+	 * tickets and simpler choices. Every variant is still a valid game.
+	 *
+	 * @return the variants; never null
+	 */
+	List<Scenario> shrinks() {
+		List<Scenario> shrinks = new ArrayList<>();
+		if (players() > 2) shrinks.add(new Scenario(seed, nodes, edges, rounds,
+				Arrays.copyOf(locations, players() - 1), Arrays.copyOf(tickets, players() - 1),
+				choices));
+		for (int length : new TreeSet<>(Arrays.asList(1, rounds.length / 2, rounds.length - 1)))
+			if (length >= 1 && length < rounds.length)
+				shrinks.add(withRounds(Arrays.copyOf(rounds, length)));
+		for (int i = 0; i < rounds.length; i++) {
+			if (!rounds[i]) continue;
+			boolean[] hidden = rounds.clone();
+			hidden[i] = false;
+			shrinks.add(withRounds(hidden));
+		}
+		for (int chunk = edges.length / 2; chunk >= 1; chunk /= 2) {
+			for (int start = 0; start + chunk <= edges.length; start += chunk) {
+				int[][] fewer = new int[edges.length - chunk][];
+				System.arraycopy(edges, 0, fewer, 0, start);
+				System.arraycopy(edges, start + chunk, fewer, start, edges.length - start - chunk);
+				shrinks.add(new Scenario(seed, nodes, fewer, rounds, locations, tickets, choices));
+			}
+		}
+		for (int node = nodes; node >= 1; node--)
+			withoutNode(node).ifPresent(shrinks::add);
+		for (int p = 0; p < players(); p++) {
+			for (int t = 0; t < TICKETS; t++) {
+				if (tickets[p][t] == 0) continue;
+				int[][] fewer = new int[players()][];
+				for (int q = 0; q < players(); q++) fewer[q] = tickets[q].clone();
+				fewer[p][t] = tickets[p][t] > 1 ? tickets[p][t] / 2 : 0;
+				shrinks.add(new Scenario(seed, nodes, edges, rounds, locations, fewer, choices));
+			}
+		}
+		for (int i = 0; i < choices.length; i++) {
+			if (choices[i] == 0) continue;
+			int[] simpler = choices.clone();
+			simpler[i] = 0;
+			shrinks.add(new Scenario(seed, nodes, edges, rounds, locations, tickets, simpler));
+		}
+		return shrinks;
+	}
+
+	private Scenario withRounds(boolean[] rounds) {
+		return new Scenario(seed, nodes, edges, rounds, locations, tickets, choices);
+	}
+
+	// removes a node nobody stands on with its edges, the nodes after it
+	// move down by one so they stay numbered 1..nodes
+	private Optional<Scenario> withoutNode(int node) {
+		for (int location : locations)
+			if (location == node) return Optional.empty();
+		List<int[]> kept = new ArrayList<>();
+		for (int[] edge : edges) {
+			if (edge[0] == node || edge[1] == node) continue;
+			kept.add(new int[] { edge[0] > node ? edge[0] - 1 : edge[0],
+					edge[1] > node ? edge[1] - 1 : edge[1], edge[2] });
+		}
+		int[] moved = locations.clone();
+		for (int p = 0; p < moved.length; p++)
+			if (moved[p] > node) moved[p]--;
+		return Optional.of(new Scenario(seed, nodes - 1, kept.toArray(new int[0][]),
+				rounds, moved, tickets, choices));
+	}
+
+	/**
+	 * @return the size used to order scenarios while shrinking
+	 */
+	long size() {
+		long size = nodes + edges.length * 2L + rounds.length * 4L + players() * 16L;
+		for (int[] counts : tickets)
+			for (int count : counts) size += count;
+		for (int choice : choices)
+			if (choice != 0) size++;
+		return size;
+	}
+
+	/**
+	 * @return the graph in the graph.txt format followed by the rest of the
+	 *         setup, enough to reproduce the scenario by hand
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("seed ").append(seed).append('\n');
+		sb.append("rounds ");
+		for (boolean round : rounds) sb.append(round ? 'R' : '-');
+		sb.append('\n');
+		for (int p = 0; p < players(); p++) {
+			sb.append(colour(p)).append('@').append(locations[p]).append(' ')
+					.append(ticketMap(p)).append('\n');
+		}
+		// choices past the end are 0 anyway
+		int last = choices.length;
+		while (last > 0 && choices[last - 1] == 0) last--;
+		sb.append("choices ").append(Arrays.toString(Arrays.copyOf(choices, last))).append('\n');
+		sb.append(nodes).append(' ').append(edges.length).append('\n');
+		for (int node = 1; node <= nodes; node++) sb.append(node).append('\n');
+		for (int[] edge : edges) {
+			String name = TRANSPORTS[edge[2]].name();
+			sb.append(edge[0]).append(' ').append(edge[1]).append(' ')
+					.append(name.charAt(0)).append(name.substring(1).toLowerCase()).append('\n');
+		}
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,27 @@
+package uk.ac.bris.cs.scotlandyard.fuzz;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The events one implementation produced for a {@link Scenario}. Every event
+ * has a full form, compared between implementations, and optionally a
+ * reference form holding only what the reference engine can also produce.
+ */
+final class Trace {
+
+	final List<String> full = new ArrayList<>();
+	final List<String> reference = new ArrayList<>();
+	// number of moves the players were asked for
+	int moves;
+
+	void add(String full) {
+		this.full.add(full);
+	}
+
+	void add(String full, String reference) {
+		this.full.add(full);
+		this.reference.add(reference);
+	}
+
+}
@@ -0,0 +1,254 @@
+package uk.ac.bris.cs.scotlandyard.fuzz;
+
+import static java.util.stream.Collectors.joining;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Moves;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGame;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGameFactory;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+
+/**
+ * Plays a {@link Scenario} on game implementations and on the reference
+ * engine, {@link GameState}, recording what each of them did
+ */
+final class Trial {
+
+	static final String REFERENCE = "reference";
+
+	private final Scenario scenario;
+	private final CompactGraph compact;
+	// a game may not ask for more moves than this, guards against models that never end
+	private final int maxMoves;
+
+	Trial(Scenario scenario) {
+		this.scenario = scenario;
+		this.compact = CompactGraph.of(scenario.graph());
+		this.maxMoves = (scenario.rounds.length + 2) * scenario.players() * 2;
+	}
+
+	/**
+	 * Plays the scenario on every factory, and the reference engine if asked
+	 * to. Every factory is compared with the reference, then in full with the
+	 * first factory.
+	 *
+	 * @param factories the implementations, in the order they are reported
+	 * @param names a name for every implementation
+	 * @param reference whether to compare with the reference engine
+	 * @param moves counts the moves asked for
+	 * @return the first mismatch, null if they all agree
+	 */
+	Mismatch run(List<? extends ScotlandYardGameFactory> factories, List<String> names,
+			boolean reference, IntConsumer moves) {
+		Trace expected = null;
+		if (reference) {
+			expected = reference();
+			moves.accept(expected.moves);
+		}
+		Trace first = null;
+		for (int i = 0; i < factories.size(); i++) {
+			Trace trace = play(factories.get(i));
+			moves.accept(trace.moves);
+			Mismatch mismatch = expected == null ? null
+					: Mismatch.between(REFERENCE, expected.reference, names.get(i),
+							trace.reference);
+			if (mismatch == null && first != null)
+				mismatch = Mismatch.between(names.get(0), first.full, names.get(i), trace.full);
+			if (mismatch != null) return mismatch;
+			if (first == null) first = trace;
+		}
+		return null;
+	}
+
+	Trace play(ScotlandYardGameFactory factory) {
+		Trace trace = new Trace();
+		Player player = (view, location, moves, callback) -> {
+			if (trace.moves++ >= maxMoves) throw new TooLong();
+			long[] keys = new long[moves.size()];
+			Map<Long, Move> byKey = new HashMap<>();
+			int i = 0;
+			for (Move move : moves) {
+				keys[i++] = Moves.fromMove(compact, move);
+				byKey.put(keys[i - 1], move);
+			}
+			Arrays.sort(keys);
+			String event = makeMove(view.getCurrentPlayer(), location, keys) + " "
+					+ state(view);
+			trace.add(event + " " + extra(view), event);
+			callback.accept(byKey.get(keys[choose(trace.moves - 1, keys.length)]));
+		};
+		PlayerConfiguration[] players = new PlayerConfiguration[scenario.players()];
+		for (int p = 0; p < players.length; p++)
+			players[p] = new PlayerConfiguration.Builder(scenario.colour(p))
+					.using(player)
+					.with(scenario.ticketMap(p))
+					.at(scenario.locations[p])
+					.build();
+
+		try {
+			ScotlandYardGame game = factory.createGame(scenario.roundList(), scenario.graph(),
+					players[0], players[1], Arrays.copyOfRange(players, 2, players.length));
+			game.registerSpectator(new Recorder(trace));
+			int rotations = 0;
+			while (!game.isGameOver() && rotations++ <= scenario.rounds.length + 1)
+				game.startRotate();
+			String over = game.isGameOver()
+					? over(game.getWinningPlayers().contains(Colour.BLACK))
+					: "unfinished";
+			trace.add(over, over);
+		} catch (TooLong e) {
+			trace.add("unfinished", "unfinished");
+		} catch (RuntimeException | StackOverflowError e) {
+			String threw = "threw " + e.getClass().getName() + " " + e.getMessage();
+			trace.add(threw, threw);
+		}
+		return trace;
+	}
+
+	Trace reference() {
+		Trace trace = new Trace();
+		GameState state = new GameState(compact, scenario.colours(), scenario.roundList());
+		for (int p = 0; p < scenario.players(); p++) {
+			state.setLocation(p, compact.indexOf(scenario.locations[p]));
+			for (int t = 0; t < GameState.TICKETS; t++)
+				state.setTickets(p, t, scenario.tickets[p][t]);
+		}
+		MoveList moves = new MoveList();
+		while (state.winner() == GameState.UNDECIDED) {
+			if (trace.moves++ >= maxMoves) {
+				trace.add("unfinished", "unfinished");
+				return trace;
+			}
+			state.generateMoves(moves);
+			long[] keys = new long[moves.size()];
+			for (int i = 0; i < keys.length; i++) keys[i] = moves.get(i);
+			Arrays.sort(keys);
+			int current = state.current();
+			String event = makeMove(state.colour(current),
+					compact.value(state.location(current)), keys) + " " + state(state);
+			trace.add(event, event);
+			if (keys.length == 0) {
+				// the model has nothing to offer Mr.X either, it is the
+				// winning rules' job to have ended the game before this
+				trace.add("stuck", "stuck");
+				return trace;
+			}
+			state.play(keys[choose(trace.moves - 1, keys.length)]);
+		}
+		String over = over(state.winner() == GameState.MRX_WINS);
+		trace.add(over, over);
+		return trace;
+	}
+
+	private int choose(int decision, int options) {
+		return Integer.remainderUnsigned(scenario.choice(decision), options);
+	}
+
+	private String makeMove(Colour colour, int location, long[] keys) {
+		return "makeMove " + colour + "@" + location + " " + Arrays.stream(keys)
+				.mapToObj(key -> Moves.toString(compact, key)).collect(joining(",", "[", "]"));
+	}
+
+	private static String over(boolean mrXWon) {
+		return mrXWon ? "over mrX" : "over detectives";
+	}
+
+	// what the reference engine can tell as well: Mr.X's location is left
+	// out as the view may only show where he was last seen
+	private static String state(ScotlandYardView view) {
+		StringBuilder sb = new StringBuilder("round=").append(view.getCurrentRound());
+		for (Colour colour : view.getPlayers()) {
+			sb.append(' ').append(colour);
+			if (colour.isDetective())
+				sb.append('@').append(view.getPlayerLocation(colour).orElse(-1));
+			sb.append('[');
+			for (Ticket ticket : Ticket.values())
+				sb.append(ticket.ordinal() == 0 ? "" : ",")
+						.append(view.getPlayerTickets(colour, ticket).orElse(-1));
+			sb.append(']');
+		}
+		return sb.toString();
+	}
+
+	private String state(GameState state) {
+		StringBuilder sb = new StringBuilder("round=").append(state.round());
+		for (int p = 0; p < state.players(); p++) {
+			sb.append(' ').append(state.colour(p));
+			if (p != GameState.MRX) sb.append('@').append(compact.value(state.location(p)));
+			sb.append('[');
+			for (int t = 0; t < GameState.TICKETS; t++)
+				sb.append(t == 0 ? "" : ",").append(state.tickets(p, t));
+			sb.append(']');
+		}
+		return sb.toString();
+	}
+
+	private static String extra(ScotlandYardView view) {
+		List<Colour> winning = new ArrayList<>(view.getWinningPlayers());
+		winning.sort(null);
+		return "mrX@" + view.getPlayerLocation(Colour.BLACK).orElse(-1) + " current="
+				+ view.getCurrentPlayer() + " over=" + view.isGameOver() + " winning=" + winning;
+	}
+
+	private static String view(ScotlandYardView view) {
+		return state(view) + " " + extra(view);
+	}
+
+	private static final class Recorder implements Spectator {
+
+		private final Trace trace;
+
+		Recorder(Trace trace) {
+			this.trace = trace;
+		}
+
+		@Override
+		public void onMoveMade(ScotlandYardView view, Move move) {
+			trace.add("onMoveMade " + move + " " + view(view));
+		}
+
+		@Override
+		public void onRoundStarted(ScotlandYardView view, int round) {
+			trace.add("onRoundStarted " + round + " " + view(view));
+		}
+
+		@Override
+		public void onRotationComplete(ScotlandYardView view) {
+			trace.add("onRotationComplete " + view(view));
+		}
+
+		@Override
+		public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
+			List<Colour> winning = new ArrayList<>(winningPlayers);
+			winning.sort(null);
+			trace.add("onGameOver " + winning + " " + view(view));
+		}
+	}
+
+	// thrown through the game to stop one that keeps asking for moves
+	private static final class TooLong extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		TooLong() {
+			super(null, null, false, false);
+		}
+	}
+
+}
@@ -16,6 +16,7 @@ import java.util.stream.Stream;
 import uk.ac.bris.cs.gamekit.graph.Graph;
 import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
 import uk.ac.bris.cs.gamekit.graph.UndirectedGraph;
+import uk.ac.bris.cs.scotlandyard.jfr.FlightEvents;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
 import uk.ac.bris.cs.scotlandyard.model.Move;
@@ -86,7 +87,10 @@ public final class ImmutableScotlandYardView implements ScotlandYardView {
 	final int currentRound;
 
 	public static ImmutableScotlandYardView snapshot(ScotlandYardView view) {
-		return new ImmutableScotlandYardView(view);
+		Object event = FlightEvents.beginSnapshot();
+		ImmutableScotlandYardView snapshot = new ImmutableScotlandYardView(view);
+		FlightEvents.endSnapshot(event, snapshot.currentPlayer, snapshot.currentRound);
+		return snapshot;
 	}
 
 	private ImmutableScotlandYardView(
@@ -0,0 +1,167 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import uk.ac.bris.cs.scotlandyard.host.HostedGame.State;
+
+/**
+ * Runs many games at once in one JVM. Every game is played on the same
+ * frozen graph from {@link SharedResources}, so compact graphs and distance
+ * tables are built once, and the model hands out interned moves.
+ * <br>
+ * Games are isolated from each other: each one has its own model that only
+ * runs on its own lane, and a game that fails or times out ends on its own.
+ * Model work of all games shares one pool of threads and AI moves share the
+ * {@link uk.ac.bris.cs.scotlandyard.ai.AIExecutor#shared()} pool, both hand
+ * out one task per game at a time so that games take turns. The bundled AIs
+ * search on the one {@link uk.ac.bris.cs.scotlandyard.ai.engine.SearchThreads}
+ * pool, so search threads do not grow with the number of games either.
+ * <br>
+ * Games that have not seen a move for the idle timeout are evicted, games
+ * that ended are forgotten once they have been over for as long. Per game the
+ * host keeps a bounded move history. Alpha-beta keeps one transposition table
+ * for all games of the same shape, Monte Carlo keeps a search tree of bounded
+ * size per side.
+ */
+public final class GameHost implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(GameHost.class);
+
+	private final SharedResources resources;
+	private final int capacity;
+	private final Duration moveTimeout;
+	private final Duration idleTimeout;
+
+	private final ExecutorService lanes;
+	private final ScheduledExecutorService timer;
+	private final Map<Long, HostedGame> games = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+	private boolean closed;
+
+	/**
+	 * @param resources the shared resources; not null
+	 * @param capacity the most games held at once, running or not yet
+	 *        forgotten
+	 * @param moveTimeout the time a player has for each move; not null
+	 * @param idleTimeout the time after which a game without moves is
+	 *        evicted, and an ended game forgotten; not null
+	 */
+	public GameHost(SharedResources resources, int capacity, Duration moveTimeout,
+			Duration idleTimeout) {
+		if (capacity < 1) throw new IllegalArgumentException("Capacity " + capacity + " < 1");
+		this.resources = requireNonNull(resources);
+		this.capacity = capacity;
+		this.moveTimeout = requireNonNull(moveTimeout);
+		this.idleTimeout = requireNonNull(idleTimeout);
+		this.lanes = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("game-host-%d").build());
+		this.timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+				.setDaemon(true).setNameFormat("game-host-timer").build());
+		long sweep = Math.max(10, idleTimeout.toMillis() / 4);
+		timer.scheduleWithFixedDelay(this::sweep, sweep, sweep, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Creates a game and starts it
+	 *
+	 * @param spec the game; not null
+	 * @return the game
+	 * @throws IllegalStateException if the host is full or closed
+	 */
+	public synchronized HostedGame create(GameSpec spec) {
+		requireNonNull(spec);
+		if (closed) throw new IllegalStateException("Host is closed");
+		if (games.size() >= capacity)
+			throw new IllegalStateException("Host is full with " + capacity + " games");
+		HostedGame game = new HostedGame(ids.incrementAndGet(), resources, spec, lanes, timer,
+				moveTimeout);
+		games.put(game.id(), game);
+		game.start();
+		return game;
+	}
+
+	/**
+	 * @param id the id of the game
+	 * @return the game, empty if it never existed or was evicted or forgotten
+	 */
+	public Optional<HostedGame> game(long id) {
+		return Optional.ofNullable(games.get(id));
+	}
+
+	/**
+	 * @return the games currently held
+	 */
+	public Collection<HostedGame> games() {
+		return Collections.unmodifiableCollection(games.values());
+	}
+
+	/**
+	 * @return the number of games currently held
+	 */
+	public int size() {
+		return games.size();
+	}
+
+	/**
+	 * Ends a game that is still running and forgets it
+	 *
+	 * @param id the id of the game
+	 * @return whether the game was held
+	 */
+	public boolean remove(long id) {
+		HostedGame game = games.remove(id);
+		if (game == null) return false;
+		game.evict("Removed from host");
+		return true;
+	}
+
+	private void sweep() {
+		try {
+			for (HostedGame game : games.values()) {
+				if (game.idle().compareTo(idleTimeout) < 0) continue;
+				if (game.state() == State.RUNNING) {
+					logger.debug("Evicting game {}, idle for {}ms", game.id(),
+							game.idle().toMillis());
+					game.evict("Idle for longer than " + idleTimeout.toMillis() + "ms");
+				}
+				games.remove(game.id());
+			}
+		} catch (RuntimeException e) {
+			// an exception would stop all further sweeps
+			logger.warn("Sweeping games failed", e);
+		}
+	}
+
+	/**
+	 * Evicts every game and stops the host's threads
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+		}
+		games.values().forEach(game -> game.evict("Host closed"));
+		games.clear();
+		timer.shutdownNow();
+		lanes.shutdownNow();
+	}
+
+}
@@ -0,0 +1,137 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+/**
+ * What a {@link GameHost} should play: who plays each colour, how many
+ * detectives there are and the seed their start locations are generated
+ * from. Every colour in the game is played either by an {@link AI} or by a
+ * {@link Player} supplied by the caller.
+ */
+public final class GameSpec {
+
+	final List<Colour> colours;
+	final int seed;
+	final List<Boolean> rounds;
+	private final Map<Colour, AI> ais;
+	private final Map<Colour, Player> players;
+
+	private GameSpec(Builder builder) {
+		this.colours = builder.colours();
+		this.seed = builder.seed;
+		this.rounds = builder.rounds;
+		this.ais = new EnumMap<>(builder.ais);
+		this.players = new EnumMap<>(builder.players);
+	}
+
+	Optional<AI> ai(Colour colour) {
+		return Optional.ofNullable(ais.get(colour));
+	}
+
+	Optional<Player> player(Colour colour) {
+		return Optional.ofNullable(players.get(colour));
+	}
+
+	public static class Builder {
+
+		private final int detectives;
+		private int seed;
+		private List<Boolean> rounds = StandardGame.ROUNDS;
+		private final Map<Colour, AI> ais = new EnumMap<>(Colour.class);
+		private final Map<Colour, Player> players = new EnumMap<>(Colour.class);
+
+		/**
+		 * @param detectives the number of detectives, the first ones of
+		 *        {@link Colour#values()}
+		 */
+		public Builder(int detectives) {
+			int available = Colour.values().length - 1;
+			if (detectives < 1 || detectives > available)
+				throw new IllegalArgumentException(
+						"Detectives must be between 1 and " + available + ", was " + detectives);
+			this.detectives = detectives;
+		}
+
+		/**
+		 * @param seed the seed for start locations, 0 unless given
+		 * @return this builder
+		 */
+		public Builder seed(int seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * @param rounds the rounds, {@link StandardGame#ROUNDS} unless given
+		 * @return this builder
+		 */
+		public Builder rounds(List<Boolean> rounds) {
+			this.rounds = Collections.unmodifiableList(new ArrayList<>(requireNonNull(rounds)));
+			return this;
+		}
+
+		/**
+		 * @param colour the colour; not null
+		 * @param ai the AI playing it; not null, replaces any player given
+		 *        for the colour
+		 * @return this builder
+		 */
+		public Builder ai(Colour colour, AI ai) {
+			players.remove(requireNonNull(colour));
+			ais.put(colour, requireNonNull(ai));
+			return this;
+		}
+
+		/**
+		 * @param colour the colour; not null
+		 * @param player the player; not null, replaces any AI given for the
+		 *        colour. Its callbacks may be called from any thread.
+		 * @return this builder
+		 */
+		public Builder player(Colour colour, Player player) {
+			ais.remove(requireNonNull(colour));
+			players.put(colour, requireNonNull(player));
+			return this;
+		}
+
+		private List<Colour> colours() {
+			List<Colour> colours = new ArrayList<>();
+			colours.add(Colour.BLACK);
+			for (Colour colour : Colour.values())
+				if (colour.isDetective() && colours.size() <= detectives) colours.add(colour);
+			return Collections.unmodifiableList(colours);
+		}
+
+		/**
+		 * @return the spec
+		 * @throws IllegalStateException if a colour in the game has neither
+		 *         an AI nor a player, or one that is not in the game has
+		 */
+		public GameSpec build() {
+			List<Colour> colours = colours();
+			for (Colour colour : colours)
+				if (!ais.containsKey(colour) && !players.containsKey(colour))
+					throw new IllegalStateException("Nobody plays " + colour);
+			for (Colour colour : Colour.values())
+				if (!colours.contains(colour)
+						&& (ais.containsKey(colour) || players.containsKey(colour)))
+					throw new IllegalStateException(colour + " is not in a game with "
+							+ detectives + " detectives");
+			return new GameSpec(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,220 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import uk.ac.bris.cs.scotlandyard.ai.AIExecutor;
+import uk.ac.bris.cs.scotlandyard.ai.AIPool;
+import uk.ac.bris.cs.scotlandyard.host.TimedPlayers.Side;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ReadView;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+/**
+ * One game of a {@link GameHost}. The model only runs on the game's own
+ * {@link SerialLane}: moves arriving from AI threads or remote players are
+ * queued there, and a rotation that completes queues the next one rather
+ * than starting it straight away so other games get a turn in between.
+ * <br>
+ * A player that does not move within the timeout loses the game for its
+ * side, see {@link TimedPlayers}. Only the last {@link #HISTORY} moves are
+ * kept.
+ */
+public final class HostedGame {
+
+	/**
+	 * Number of moves kept by {@link #history()}
+	 */
+	public static final int HISTORY = 64;
+
+	public enum State {
+		RUNNING, FINISHED, EVICTED, FAILED
+	}
+
+	private final long id;
+	private final SerialLane lane;
+	private final TimedPlayers players;
+	private final AIPool<Side> pool;
+	private final ScotlandYardModel model;
+	private final List<Colour> colours;
+
+	private final AtomicReference<State> state = new AtomicReference<>(State.RUNNING);
+	private final CompletableFuture<Set<Colour>> result = new CompletableFuture<>();
+	private volatile long ended;
+
+	private final Move[] history = new Move[HISTORY];
+	private int moves;
+
+	HostedGame(long id, SharedResources resources, GameSpec spec, Executor lanes,
+			ScheduledExecutorService timer, Duration timeout) {
+		this.id = id;
+		this.colours = spec.colours;
+		this.lane = new SerialLane(lanes, this::fail);
+		this.players = new TimedPlayers(timeout, timer, lane::execute, this::forfeit);
+		this.pool = new AIPool<>(new NoOpVisualiserSurface(), this::fail, AIExecutor.shared());
+		try {
+			for (Colour colour : colours)
+				spec.ai(colour).ifPresent(ai -> pool.addToGroup(Side.of(colour), colour, ai));
+
+			List<Integer> locations = StandardGame.generateDetectiveLocations(spec.seed,
+					colours.size() - 1);
+			List<PlayerConfiguration> configurations = new ArrayList<>();
+			for (Colour colour : colours) {
+				configurations.add(new PlayerConfiguration.Builder(colour)
+						.using(players.player(colour))
+						.with(colour.isMrX() ? StandardGame.generateMrXTickets()
+								: StandardGame.generateDetectiveTickets())
+						.at(colour.isMrX() ? StandardGame.generateMrXLocation(spec.seed)
+								: locations.get(configurations.size() - 1))
+						.build());
+			}
+			model = new ScotlandYardModel(spec.rounds, resources.graph(), configurations.get(0),
+					configurations.get(1), configurations.stream().skip(2)
+							.toArray(PlayerConfiguration[]::new));
+
+			pool.initialise(resources, model, timeout);
+			for (Colour colour : colours) {
+				Player player = spec.player(colour).orElseGet(() -> pool.createPlayer(colour)
+						.orElseThrow(AssertionError::new));
+				players.play(colour, player);
+			}
+		} catch (RuntimeException e) {
+			pool.terminate();
+			throw e;
+		}
+
+		model.registerSpectator(new Spectator() {
+			@Override
+			public void onMoveMade(ScotlandYardView view, Move move) {
+				record(move);
+			}
+		});
+		// a rotation that completes queues the next one on the lane
+		model.registerSpectator(TimedPlayers.rotation(model, lane::execute, this::finish));
+	}
+
+	private void finish(Set<Colour> winningPlayers) {
+		Set<Colour> winners = EnumSet.noneOf(Colour.class);
+		winners.addAll(winningPlayers);
+		if (end(State.FINISHED)) result.complete(Collections.unmodifiableSet(winners));
+	}
+
+	void start() {
+		lane.execute(model::startRotate);
+	}
+
+	/**
+	 * @return the id given by the host
+	 */
+	public long id() {
+		return id;
+	}
+
+	public State state() {
+		return state.get();
+	}
+
+	/**
+	 * @return the colours in the game, Mr.X first
+	 */
+	public List<Colour> colours() {
+		return colours;
+	}
+
+	/**
+	 * @return the game state, readable from any thread
+	 */
+	public ReadView readView() {
+		return model.readView().orElseThrow(AssertionError::new);
+	}
+
+	/**
+	 * Registers a spectator on the game's lane, so that it can read the game
+	 * as it is at that point, for example to send it to watchers joining
+	 * late. Nothing happens if the game has ended by then.
+	 *
+	 * @param factory creates the spectator from the game; not null
+	 */
+	public void spectate(Function<ScotlandYardView, Spectator> factory) {
+		requireNonNull(factory);
+		lane.execute(() -> model.registerSpectator(factory.apply(model)));
+	}
+
+	/**
+	 * @return the last {@link #HISTORY} moves as spectators saw them, oldest
+	 *         first
+	 */
+	public synchronized List<Move> history() {
+		int kept = Math.min(moves, HISTORY);
+		List<Move> copy = new ArrayList<>(kept);
+		for (int i = moves - kept; i < moves; i++) copy.add(history[i % HISTORY]);
+		return copy;
+	}
+
+	/**
+	 * @return the winning colours once the game is over; completes with a
+	 *         {@link CancellationException} if the game is evicted and with
+	 *         the error if it fails
+	 */
+	public CompletableFuture<Set<Colour>> result() {
+		return result.thenApply(Function.identity());
+	}
+
+	/**
+	 * @return the time since a player was last asked for or made a move, or
+	 *         since the game ended; zero while the game waits for the host
+	 *         rather than for a player
+	 */
+	public Duration idle() {
+		if (state() == State.RUNNING && lane.busy()) return Duration.ZERO;
+		long last = state() == State.RUNNING ? players.lastActivity() : ended;
+		return Duration.ofNanos(System.nanoTime() - last);
+	}
+
+	void evict(String reason) {
+		if (end(State.EVICTED)) result.completeExceptionally(new CancellationException(reason));
+	}
+
+	private void fail(Throwable e) {
+		if (end(State.FAILED)) result.completeExceptionally(e);
+	}
+
+	private boolean end(State to) {
+		if (!state.compareAndSet(State.RUNNING, to)) return false;
+		ended = System.nanoTime();
+		players.cancel();
+		lane.close();
+		pool.terminate();
+		return true;
+	}
+
+	private synchronized void record(Move move) {
+		history[moves++ % HISTORY] = move;
+	}
+
+	private void forfeit(Colour colour) {
+		Set<Colour> winners = EnumSet.noneOf(Colour.class);
+		for (Colour other : colours)
+			if (other.isMrX() != colour.isMrX()) winners.add(other);
+		finish(winners);
+	}
+
+}
@@ -0,0 +1,24 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import javafx.scene.layout.Pane;
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.ai.AIPool.VisualiserSurface;
+
+/**
+ * A surface for games nobody watches, AIs get a pane that is never attached
+ * to a scene so they can draw on it from any thread
+ */
+public final class NoOpVisualiserSurface implements VisualiserSurface {
+
+	@Override
+	public Pane onCreate(AI ai) {
+		Pane pane = new Pane();
+		pane.setManaged(false);
+		pane.setVisible(false);
+		return pane;
+	}
+
+	@Override
+	public void onDestroy() {}
+
+}
@@ -0,0 +1,77 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Runs the tasks of one game one at a time and in order on a pool shared by
+ * all games, so a game's model is only ever touched by one thread at a time
+ * and never holds more than one slot in the pool's queue. A task that throws
+ * is reported and does not stop later tasks.
+ */
+final class SerialLane implements Executor {
+
+	private final Executor pool;
+	private final Consumer<Throwable> exceptionHandler;
+	private final Deque<Runnable> pending = new ArrayDeque<>();
+	private boolean running;
+	private boolean closed;
+
+	SerialLane(Executor pool, Consumer<Throwable> exceptionHandler) {
+		this.pool = pool;
+		this.exceptionHandler = exceptionHandler;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		synchronized (this) {
+			if (closed) return;
+			pending.add(task);
+			if (running) return;
+			running = true;
+		}
+		pool.execute(this::drain);
+	}
+
+	private void drain() {
+		Runnable task;
+		synchronized (this) {
+			task = pending.poll();
+			if (task == null) {
+				running = false;
+				return;
+			}
+		}
+		try {
+			task.run();
+		} catch (Throwable e) {
+			exceptionHandler.accept(e);
+		}
+		synchronized (this) {
+			if (pending.isEmpty()) {
+				running = false;
+				return;
+			}
+		}
+		// one task per turn so that other games get theirs
+		pool.execute(this::drain);
+	}
+
+	/**
+	 * @return whether tasks are queued or running
+	 */
+	synchronized boolean busy() {
+		return running;
+	}
+
+	/**
+	 * Drops pending tasks, later ones are ignored
+	 */
+	synchronized void close() {
+		closed = true;
+		pending.clear();
+	}
+
+}
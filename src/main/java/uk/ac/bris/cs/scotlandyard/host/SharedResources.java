@@ -0,0 +1,96 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javafx.geometry.Point2D;
+import javafx.scene.image.Image;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.scotlandyard.ai.NodeIndex;
+import uk.ac.bris.cs.scotlandyard.ai.ResourceProvider;
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.Distances;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SharedGraphs;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Resources for games without a UI; the graph, node positions, compact graph
+ * and distances are built once and shared by every game, images are not
+ * available. Games created with {@link #graph()} hand the same graph instance
+ * to their AIs, so AIs using {@link SharedGraphs} do not build their own.
+ */
+public final class SharedResources implements ResourceProvider {
+
+	private final ImmutableGraph<Integer, Transport> graph;
+	private final NodeIndex nodeIndex;
+	private final CompactGraph compactGraph;
+	private final Distances distances;
+
+	/**
+	 * Loads the standard graph and node positions
+	 *
+	 * @throws IOException if they cannot be read
+	 */
+	public SharedResources() throws IOException {
+		this.graph = new ImmutableGraph<>(StandardGame.standardGraph());
+		Map<Integer, Entry<Integer, Integer>> positions = StandardGame.pngMapPositionEntries();
+		this.nodeIndex = NodeIndex.of(positions.keySet(), node -> {
+			Entry<Integer, Integer> position = positions.get(node);
+			return new Point2D(position.getKey(), position.getValue());
+		});
+		// built up front rather than by whichever game's AI asks first
+		this.compactGraph = SharedGraphs.compact(graph);
+		this.distances = SharedGraphs.distances(compactGraph);
+	}
+
+	/**
+	 * @return the frozen graph every game should be created with
+	 */
+	public ImmutableGraph<Integer, Transport> graph() {
+		return graph;
+	}
+
+	/**
+	 * @return the compact form of {@link #graph()}
+	 */
+	public CompactGraph compactGraph() {
+		return compactGraph;
+	}
+
+	/**
+	 * @return the distances of {@link #compactGraph()}
+	 */
+	public Distances distances() {
+		return distances;
+	}
+
+	@Override
+	public Image getMap() {
+		throw new UnsupportedOperationException("Images are not available in headless games");
+	}
+
+	@Override
+	public Image getTicket(Ticket ticket) {
+		throw new UnsupportedOperationException("Images are not available in headless games");
+	}
+
+	@Override
+	public Graph<Integer, Transport> getGraph() {
+		return graph;
+	}
+
+	@Override
+	public Point2D coordinateAtNode(int node) {
+		return nodeIndex.coordinate(node);
+	}
+
+	@Override
+	public NodeIndex getNodeIndex() {
+		return nodeIndex;
+	}
+
+}
@@ -0,0 +1,159 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+
+/**
+ * The players of one game played without a UI, both in a {@link HostedGame}
+ * and in a tournament. Like in a local game, a player that does not move
+ * within the timeout loses the game for its side; a move arriving after that
+ * is ignored.
+ * <br>
+ * The game is configured with {@link #player(Colour)} before the real
+ * players exist, since AIs need the game to create them; they are added
+ * with {@link #play(Colour, Player)} once they do.
+ */
+public final class TimedPlayers {
+
+	/**
+	 * The groups AIs are created in
+	 */
+	public enum Side {
+		MRX, DETECTIVES;
+
+		public static Side of(Colour colour) {
+			return colour.isMrX() ? MRX : DETECTIVES;
+		}
+	}
+
+	// how late a move may arrive after its timeout before the game is called
+	private static final long GRACE_MILLIS = 250;
+
+	private final Duration timeout;
+	private final ScheduledExecutorService timer;
+	private final Executor callbacks;
+	private final Consumer<Colour> forfeit;
+
+	private final Map<Colour, Player> players = new EnumMap<>(Colour.class);
+	// bumped by every move made, -1 once a move timed out
+	private final AtomicLong turn = new AtomicLong();
+	private volatile long lastActivity = System.nanoTime();
+	private volatile ScheduledFuture<?> deadline;
+
+	/**
+	 * @param timeout the time a player has for each move; not null
+	 * @param timer runs the deadline of every move; not null
+	 * @param callbacks runs the callback of every move made in time; not
+	 *        null
+	 * @param forfeit told the colour of the player that timed out, at most
+	 *        once; not null
+	 */
+	public TimedPlayers(Duration timeout, ScheduledExecutorService timer, Executor callbacks,
+			Consumer<Colour> forfeit) {
+		this.timeout = requireNonNull(timeout);
+		this.timer = requireNonNull(timer);
+		this.callbacks = requireNonNull(callbacks);
+		this.forfeit = requireNonNull(forfeit);
+	}
+
+	/**
+	 * @param colour the colour of the player
+	 * @return a player to configure the game with, asking the player added
+	 *         for the colour later on
+	 */
+	public Player player(Colour colour) {
+		requireNonNull(colour);
+		return (view, location, moves, callback) -> players.get(colour)
+				.makeMove(view, location, moves, callback);
+	}
+
+	/**
+	 * @param colour the colour of the player
+	 * @param player the player to ask for the moves of the colour, within
+	 *        the timeout; not null
+	 */
+	public void play(Colour colour, Player player) {
+		requireNonNull(player);
+		players.put(colour, (view, location, moves, callback) -> {
+			long current = turn.get();
+			lastActivity = System.nanoTime();
+			ScheduledFuture<?> due = timer.schedule(() -> {
+				if (turn.compareAndSet(current, -1)) forfeit.accept(colour);
+			}, timeLimit().toMillis(), TimeUnit.MILLISECONDS);
+			deadline = due;
+			player.makeMove(view, location, moves, move -> {
+				if (!turn.compareAndSet(current, current + 1)) return;
+				due.cancel(false);
+				lastActivity = System.nanoTime();
+				callbacks.execute(() -> callback.accept(move));
+			});
+		});
+	}
+
+	/**
+	 * @return the longest a game waits for one move
+	 */
+	public Duration timeLimit() {
+		return timeout.plusMillis(GRACE_MILLIS);
+	}
+
+	/**
+	 * @return {@link System#nanoTime()} when a player was last asked for or
+	 *         made a move
+	 */
+	public long lastActivity() {
+		return lastActivity;
+	}
+
+	/**
+	 * Cancels the deadline of the move asked for last, once the game ended
+	 * some other way
+	 */
+	public void cancel() {
+		ScheduledFuture<?> deadline = this.deadline;
+		if (deadline != null) deadline.cancel(false);
+	}
+
+	/**
+	 * @param model the game to drive
+	 * @param rotations runs the start of every rotation after the first;
+	 *        not null
+	 * @param over told the winners once the game is over
+	 * @return a spectator starting every rotation of the game until it ends
+	 */
+	public static Spectator rotation(ScotlandYardModel model, Executor rotations,
+			Consumer<Set<Colour>> over) {
+		requireNonNull(rotations);
+		return new Spectator() {
+			@Override
+			public void onRotationComplete(ScotlandYardView view) {
+				// a rotation ending in a pass can end the game without
+				// onGameOver
+				if (view.isGameOver()) over.accept(view.getWinningPlayers());
+				else rotations.execute(model::startRotate);
+			}
+
+			@Override
+			public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
+				over.accept(winningPlayers);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,194 @@
+package uk.ac.bris.cs.scotlandyard.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+
+/**
+ * The JFR event types, only loaded once {@link FlightEvents} found JFR in the
+ * runtime
+ */
+final class Events {
+
+	private static final String PREFIX = "uk.ac.bris.cs.scotlandyard.";
+
+	private Events() {}
+
+	/**
+	 * Keeps the flags of {@link FlightEvents} up to date from now on, without
+	 * initialising JFR if nothing records
+	 */
+	static void watch() {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recordingStateChanged(Recording recording) {
+				refresh();
+			}
+		});
+		refresh();
+	}
+
+	private static void refresh() {
+		FlightEvents.moveRequested = new MoveRequested().isEnabled();
+		FlightEvents.moveAccepted = new MoveAccepted().isEnabled();
+		FlightEvents.moveGeneration = new MoveGeneration().isEnabled();
+		FlightEvents.spectatorDispatch = new SpectatorDispatch().isEnabled();
+		FlightEvents.snapshot = new Snapshot().isEnabled();
+		FlightEvents.aiTaskWait = new AITaskWait().isEnabled();
+	}
+
+	// FlightEvents must not see the event types, the verifier would load
+	// them; beginning still returns null unless enabled, the flags can be a
+	// recording behind
+
+	static Object beginMoveAccepted() {
+		return begin(new MoveAccepted());
+	}
+
+	static Object beginMoveGeneration() {
+		return begin(new MoveGeneration());
+	}
+
+	static Object beginSpectatorDispatch() {
+		return begin(new SpectatorDispatch());
+	}
+
+	static Object beginSnapshot() {
+		return begin(new Snapshot());
+	}
+
+	static Object beginAITaskWait() {
+		return begin(new AITaskWait());
+	}
+
+	private static Object begin(Event event) {
+		if (!event.isEnabled()) return null;
+		event.begin();
+		return event;
+	}
+
+	static void moveRequested(Colour colour, int round, int moves) {
+		MoveRequested event = new MoveRequested();
+		if (!event.isEnabled()) return;
+		event.player = colour.name();
+		event.round = round;
+		event.moves = moves;
+		event.commit();
+	}
+
+	static void endMoveAccepted(Object token, Colour colour, Object move) {
+		MoveAccepted event = (MoveAccepted) token;
+		event.end();
+		event.player = colour.name();
+		event.move = String.valueOf(move);
+		event.commit();
+	}
+
+	static void endMoveGeneration(Object token, Colour colour, int moves, int doubles) {
+		MoveGeneration event = (MoveGeneration) token;
+		event.end();
+		event.player = colour.name();
+		event.moves = moves;
+		event.doubleMoves = doubles;
+		event.commit();
+	}
+
+	static void endSpectatorDispatch(Object token, Object spectator, String callback) {
+		SpectatorDispatch event = (SpectatorDispatch) token;
+		event.end();
+		event.spectator = spectator.getClass().getName();
+		event.callback = callback;
+		event.commit();
+	}
+
+	static void endSnapshot(Object token, Colour current, int round) {
+		Snapshot event = (Snapshot) token;
+		event.end();
+		event.player = current.name();
+		event.round = round;
+		event.commit();
+	}
+
+	static void endAITaskWait(Object token, Colour colour) {
+		AITaskWait event = (AITaskWait) token;
+		event.end();
+		event.player = colour.name();
+		event.commit();
+	}
+
+	@Name(PREFIX + "MoveRequested")
+	@Label("Move Requested")
+	@Description("A player was asked for a move")
+	@Category({ "Scotland Yard", "Model" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class MoveRequested extends Event {
+		@Label("Player") String player;
+		@Label("Round") int round;
+		@Label("Valid Moves") int moves;
+	}
+
+	@Name(PREFIX + "MoveAccepted")
+	@Label("Move Accepted")
+	@Description("A player's move was accepted, the duration is the player's think time")
+	@Category({ "Scotland Yard", "Model" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class MoveAccepted extends Event {
+		@Label("Player") String player;
+		@Label("Move") String move;
+	}
+
+	@Name(PREFIX + "MoveGeneration")
+	@Label("Move Generation")
+	@Description("The valid moves of a player were generated")
+	@Category({ "Scotland Yard", "Model" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class MoveGeneration extends Event {
+		@Label("Player") String player;
+		@Label("Valid Moves") int moves;
+		@Label("Double Moves") int doubleMoves;
+	}
+
+	@Name(PREFIX + "SpectatorDispatch")
+	@Label("Spectator Dispatch")
+	@Description("One spectator was notified of a game event")
+	@Category({ "Scotland Yard", "Model" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class SpectatorDispatch extends Event {
+		@Label("Spectator") String spectator;
+		@Label("Callback") String callback;
+	}
+
+	@Name(PREFIX + "Snapshot")
+	@Label("Snapshot")
+	@Description("An immutable snapshot of a view was taken")
+	@Category({ "Scotland Yard", "Model" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class Snapshot extends Event {
+		@Label("Current Player") String player;
+		@Label("Round") int round;
+	}
+
+	@Name(PREFIX + "AITaskWait")
+	@Label("AI Task Wait")
+	@Description("An AI move waited for a thread, from being submitted to starting")
+	@Category({ "Scotland Yard", "AI" })
+	@Enabled(false)
+	@StackTrace(false)
+	static final class AITaskWait extends Event {
+		@Label("Player") String player;
+	}
+
+}
@@ -0,0 +1,128 @@
+package uk.ac.bris.cs.scotlandyard.jfr;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+
+/**
+ * Java Flight Recorder events of the game engine and the AI pipeline. The
+ * events are disabled unless a recording enables them, e.g. with
+ * <pre>
+ * -XX:StartFlightRecording:settings=default,+uk.ac.bris.cs.scotlandyard.MoveRequested#enabled=true,...
+ * </pre>
+ * (JDK 17 and later) or through the event settings of JDK Mission Control;
+ * all event names start with {@code uk.ac.bris.cs.scotlandyard.}.
+ * <br>
+ * Timed events are started with one of the {@code begin} methods, which
+ * return a token to hand to the matching {@code end} method once the work is
+ * done. The token is {@code null} while the event is disabled. Whether each
+ * event is enabled is cached here and refreshed whenever a recording starts,
+ * stops or closes, so the cost when not recording is a volatile field read
+ * and a null check, and every method here does nothing on runtimes without
+ * JFR. Settings changed on a recording that is already running only apply
+ * from its next state change. Only this class may be referenced from outside
+ * the package; the JFR types stay hidden behind it.
+ */
+public final class FlightEvents {
+
+	private static final boolean AVAILABLE = available();
+
+	// written by Events whenever the state of a recording changes
+	static volatile boolean moveRequested;
+	static volatile boolean moveAccepted;
+	static volatile boolean moveGeneration;
+	static volatile boolean spectatorDispatch;
+	static volatile boolean snapshot;
+	static volatile boolean aiTaskWait;
+
+	static {
+		if (AVAILABLE) Events.watch();
+	}
+
+	private FlightEvents() {}
+
+	private static boolean available() {
+		try {
+			Class.forName("jdk.jfr.Event", false, FlightEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	/**
+	 * A player was asked for a move
+	 *
+	 * @param colour the player
+	 * @param round the current round
+	 * @param moves number of valid moves offered
+	 */
+	public static void moveRequested(Colour colour, int round, int moves) {
+		if (moveRequested) Events.moveRequested(colour, round, moves);
+	}
+
+	/**
+	 * Starts timing a player's think time, from the request to the move
+	 * being accepted
+	 *
+	 * @return the token for {@link #endMoveAccepted(Object, Colour, Object)}
+	 */
+	public static Object beginMoveAccepted() {
+		return moveAccepted ? Events.beginMoveAccepted() : null;
+	}
+
+	public static void endMoveAccepted(Object token, Colour colour, Object move) {
+		if (token != null) Events.endMoveAccepted(token, colour, move);
+	}
+
+	/**
+	 * Starts timing the generation of a player's valid moves
+	 *
+	 * @return the token for {@link #endMoveGeneration(Object, Colour, int, int)}
+	 */
+	public static Object beginMoveGeneration() {
+		return moveGeneration ? Events.beginMoveGeneration() : null;
+	}
+
+	public static void endMoveGeneration(Object token, Colour colour, int moves, int doubles) {
+		if (token != null) Events.endMoveGeneration(token, colour, moves, doubles);
+	}
+
+	/**
+	 * Starts timing one spectator callback
+	 *
+	 * @return the token for {@link #endSpectatorDispatch(Object, Object, String)}
+	 */
+	public static Object beginSpectatorDispatch() {
+		return spectatorDispatch ? Events.beginSpectatorDispatch() : null;
+	}
+
+	public static void endSpectatorDispatch(Object token, Object spectator, String callback) {
+		if (token != null) Events.endSpectatorDispatch(token, spectator, callback);
+	}
+
+	/**
+	 * Starts timing the creation of an immutable snapshot of a view
+	 *
+	 * @return the token for {@link #endSnapshot(Object, Colour, int)}
+	 */
+	public static Object beginSnapshot() {
+		return snapshot ? Events.beginSnapshot() : null;
+	}
+
+	public static void endSnapshot(Object token, Colour current, int round) {
+		if (token != null) Events.endSnapshot(token, current, round);
+	}
+
+	/**
+	 * Starts timing how long an AI move waits for a thread
+	 *
+	 * @return the token for {@link #endAITaskWait(Object, Colour)}
+	 */
+	public static Object beginAITaskWait() {
+		return aiTaskWait ? Events.beginAITaskWait() : null;
+	}
+
+	public static void endAITaskWait(Object token, Colour colour) {
+		if (token != null) Events.endAITaskWait(token, colour);
+	}
+
+}
@@ -0,0 +1,69 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Arrays;
+
+/**
+ * One instance of every ticket and pass move the model generates, shared by
+ * all games in the JVM. Moves are immutable, so handing out the same instance
+ * for the same colour, ticket and destination is indistinguishable from
+ * creating a new one, and a host running many games does not allocate the
+ * same few thousand moves over and over.
+ * <br>
+ * Lookups are a plain array read; a missing move is created under a lock and
+ * the row it goes in is replaced, never written in place.
+ */
+final class InternedMoves {
+
+	private static final Colour[] COLOURS = Colour.values();
+	private static final Ticket[] TICKETS = Ticket.values();
+	// destinations beyond this are not interned, so a strange graph cannot
+	// make the table grow without bound
+	private static final int MAX_DESTINATION = 1 << 16;
+
+	private static final PassMove[] passes = new PassMove[COLOURS.length];
+	private static final Object lock = new Object();
+	// by colour and ticket ordinal, then destination
+	private static volatile TicketMove[][] tickets = new TicketMove[COLOURS.length
+			* TICKETS.length][0];
+
+	static {
+		for (Colour colour : COLOURS) passes[colour.ordinal()] = new PassMove(colour);
+	}
+
+	private InternedMoves() {}
+
+	static PassMove pass(Colour colour) {
+		return passes[colour.ordinal()];
+	}
+
+	static TicketMove ticket(Colour colour, Ticket ticket, int destination) {
+		if (destination < 0 || destination >= MAX_DESTINATION)
+			return new TicketMove(requireNonNull(colour), requireNonNull(ticket), destination);
+		TicketMove[] row = tickets[colour.ordinal() * TICKETS.length + ticket.ordinal()];
+		if (destination < row.length) {
+			TicketMove move = row[destination];
+			if (move != null) return move;
+		}
+		return intern(colour, ticket, destination);
+	}
+
+	private static TicketMove intern(Colour colour, Ticket ticket, int destination) {
+		synchronized (lock) {
+			int index = colour.ordinal() * TICKETS.length + ticket.ordinal();
+			TicketMove[][] table = tickets;
+			TicketMove[] row = table[index];
+			if (destination < row.length && row[destination] != null) return row[destination];
+			TicketMove[] grown = Arrays.copyOf(row,
+					Math.min(MAX_DESTINATION, Math.max(row.length * 2, destination + 1)));
+			TicketMove move = new TicketMove(colour, ticket, destination);
+			grown[destination] = move;
+			TicketMove[][] next = table.clone();
+			next[index] = grown;
+			tickets = next;
+			return move;
+		}
+	}
+
+}
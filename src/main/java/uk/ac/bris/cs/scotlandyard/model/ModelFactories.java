@@ -15,7 +15,7 @@ public class ModelFactories {
 	 * A list of models to test
 	 * @return A list of models; never null
 	 */
-	static List<Class<? extends ScotlandYardGameFactory>> factories() {
+	public static List<Class<? extends ScotlandYardGameFactory>> factories() {
 		return Collections.singletonList(ImperativeModelFactory.class);
 	}
 
@@ -0,0 +1,229 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+
+/**
+ * The state of a game as published by the game thread after every change,
+ * for reading from any other thread without locks: player locations as
+ * {@link ScotlandYardView#getPlayerLocation(Colour)} reports them, tickets,
+ * round, current player and winners.
+ * <br>
+ * Publication is a sequence lock: the version is odd while the game thread
+ * writes and even once it is done. A reader copies the state into a
+ * {@link Snapshot} it owns and retries if the version changed meanwhile, so
+ * a snapshot is always of one version and reading never allocates.
+ */
+public final class ReadView {
+
+	private static final Colour[] COLOURS = Colour.values();
+	private static final Ticket[] TICKETS = Ticket.values();
+	private static final int STRIDE = 1 + TICKETS.length;
+	private static final int ROUND = 0;
+	private static final int CURRENT = 1;
+	private static final int WINNERS = 2;
+	private static final int PLAYERS = 3;
+	private static final int LENGTH = PLAYERS + COLOURS.length * STRIDE;
+
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicIntegerArray state = new AtomicIntegerArray(LENGTH);
+
+	ReadView() {
+		for (int c = 0; c < COLOURS.length; c++) state.set(PLAYERS + c * STRIDE, -1);
+	}
+
+	/**
+	 * Publishes a new version, only called by the game thread
+	 *
+	 * @param round the current round
+	 * @param current the ordinal of the current player
+	 * @param locations public locations by colour ordinal, ignored for
+	 *        colours not playing
+	 * @param tickets ticket counts by colour and ticket ordinal
+	 * @param playing whether a colour is playing, by ordinal
+	 * @param winners the winning players, empty while the game is not over
+	 */
+	void publish(int round, int current, int[] locations, int[][] tickets, boolean[] playing,
+			Set<Colour> winners) {
+		int mask = 0;
+		for (Colour colour : winners) mask |= 1 << colour.ordinal();
+		// the increment is a full fence, no write below moves above it
+		sequence.incrementAndGet();
+		state.lazySet(ROUND, round);
+		state.lazySet(CURRENT, current);
+		state.lazySet(WINNERS, mask);
+		for (int c = 0; c < COLOURS.length; c++) {
+			if (!playing[c]) continue;
+			int base = PLAYERS + c * STRIDE;
+			state.lazySet(base, locations[c]);
+			for (int t = 0; t < TICKETS.length; t++) state.lazySet(base + 1 + t, tickets[c][t]);
+		}
+		sequence.incrementAndGet();
+	}
+
+	/**
+	 * @return the version of the latest publication, even unless a new one is
+	 *         being written
+	 */
+	public long version() {
+		return sequence.get();
+	}
+
+	/**
+	 * @return an empty snapshot to read into
+	 */
+	public Snapshot newSnapshot() {
+		return new Snapshot();
+	}
+
+	/**
+	 * Copies the latest published version into the snapshot, spinning while
+	 * the game thread is writing
+	 *
+	 * @param into the snapshot to overwrite; not null, must not be shared
+	 *        between threads
+	 * @return the given snapshot
+	 */
+	public Snapshot read(Snapshot into) {
+		int[] copy = into.state;
+		while (true) {
+			long before = sequence.get();
+			if ((before & 1) == 0) {
+				for (int i = 0; i < LENGTH; i++) copy[i] = state.get(i);
+				if (sequence.get() == before) {
+					into.version = before;
+					return into;
+				}
+			}
+			Thread.yield();
+		}
+	}
+
+	/**
+	 * One consistent version of the state, reused between reads
+	 */
+	public static final class Snapshot {
+
+		private final int[] state = new int[LENGTH];
+		private long version = -1;
+
+		private Snapshot() {}
+
+		/**
+		 * @return the version read, -1 if nothing was read yet
+		 */
+		public long version() {
+			return version;
+		}
+
+		public int round() {
+			return state[ROUND];
+		}
+
+		public Colour currentPlayer() {
+			return COLOURS[state[CURRENT]];
+		}
+
+		/**
+		 * @return the winning players, empty while the game is not over
+		 */
+		public Set<Colour> winners() {
+			Set<Colour> winners = EnumSet.noneOf(Colour.class);
+			for (Colour colour : COLOURS)
+				if ((state[WINNERS] & 1 << colour.ordinal()) != 0) winners.add(colour);
+			return winners;
+		}
+
+		public boolean playing(Colour colour) {
+			return state[PLAYERS + colour.ordinal() * STRIDE] >= 0;
+		}
+
+		/**
+		 * @return the location as {@link ScotlandYardView#getPlayerLocation}
+		 *         reports it, -1 if the colour is not playing
+		 */
+		public int location(Colour colour) {
+			return state[PLAYERS + colour.ordinal() * STRIDE];
+		}
+
+		/**
+		 * @return the number of tickets, 0 if the colour is not playing
+		 */
+		public int tickets(Colour colour, Ticket ticket) {
+			return playing(colour) ? state[PLAYERS + colour.ordinal() * STRIDE + 1 + ticket.ordinal()]
+					: 0;
+		}
+
+		/**
+		 * A view that answers everything that changes during a game from this
+		 * snapshot, and the players, rounds and graph, which do not, from the
+		 * given view. The view reflects later reads into this snapshot.
+		 *
+		 * @param game the view of the same game; not null
+		 * @return the view
+		 */
+		public ScotlandYardView asView(ScotlandYardView game) {
+			requireNonNull(game);
+			Snapshot snapshot = this;
+			return new ScotlandYardView() {
+				@Override
+				public List<Colour> getPlayers() {
+					return game.getPlayers();
+				}
+
+				@Override
+				public Set<Colour> getWinningPlayers() {
+					return Collections.unmodifiableSet(snapshot.winners());
+				}
+
+				@Override
+				public Optional<Integer> getPlayerLocation(Colour colour) {
+					return colour != null && snapshot.playing(colour)
+							? Optional.of(snapshot.location(colour)) : Optional.empty();
+				}
+
+				@Override
+				public Optional<Integer> getPlayerTickets(Colour colour, Ticket ticket) {
+					return colour != null && snapshot.playing(colour)
+							? Optional.of(snapshot.tickets(colour, ticket)) : Optional.empty();
+				}
+
+				@Override
+				public boolean isGameOver() {
+					return snapshot.state[WINNERS] != 0;
+				}
+
+				@Override
+				public Colour getCurrentPlayer() {
+					return snapshot.currentPlayer();
+				}
+
+				@Override
+				public int getCurrentRound() {
+					return snapshot.round();
+				}
+
+				@Override
+				public List<Boolean> getRounds() {
+					return game.getRounds();
+				}
+
+				@Override
+				public Graph<Integer, Transport> getGraph() {
+					return game.getGraph();
+				}
+			};
+		}
+
+	}
+
+}
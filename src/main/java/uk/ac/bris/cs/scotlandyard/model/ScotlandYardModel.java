@@ -12,6 +12,7 @@ import static uk.ac.bris.cs.scotlandyard.model.Ticket.DOUBLE;
 import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -19,25 +20,44 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.Iterator;
 import java.util.function.Consumer;
 import uk.ac.bris.cs.gamekit.graph.Edge;
 import uk.ac.bris.cs.gamekit.graph.Node;
 import uk.ac.bris.cs.gamekit.graph.Graph;
 import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.scotlandyard.jfr.FlightEvents;
 
 public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, MoveVisitor {
 
+    private static final Colour[] COLOURS = Colour.values();
+    private static final int MRX = BLACK.ordinal();
+
     private final List<Boolean> rounds;
     private final Graph<Integer, Transport> graph;
+    //handed out by getGraph, one instance so that AIs can share what they derive from it
+    private final ImmutableGraph<Integer, Transport> frozenGraph;
     private List<Spectator> spectators;
-    private List<ScotlandYardPlayer> players;
-    private Colour currentPlayerColour;
+    //Player table, indexed by Colour.ordinal() and Ticket.ordinal()
+    private final Player[] player = new Player[COLOURS.length];
+    private final int[] location = new int[COLOURS.length];
+    private final int[][] tickets = new int[COLOURS.length][Ticket.values().length];
+    //Position of each colour in the turn order, -1 if not playing
+    private final int[] turn = new int[COLOURS.length];
+    //Colour ordinals in turn order, Mr.X first
+    private final int[] order;
+    private final List<Colour> colours;
+    //Locations with a detective on them, detectives never share one
+    private final BitSet occupied = new BitSet();
+    private final boolean[] playing = new boolean[COLOURS.length];
+    private int current;
+    private final ReadView readView = new ReadView();
+    private final int[] visible = new int[COLOURS.length];
     private Set<Move> possibleMoves;
-    private Integer mrXLastKnown;
+    private int mrXLastKnown;
     private int round;
     private Boolean reciveCallback;
     private Move lastMove;
+    private Object thinkTime;
 
     //////////////
     //Constructor
@@ -49,6 +69,8 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
         //Check all players and fields are not null
         this.rounds = requireNonNull(rounds);
         this.graph = requireNonNull(graph);
+        this.frozenGraph = graph instanceof ImmutableGraph
+                ? (ImmutableGraph<Integer, Transport>) graph : new ImmutableGraph<>(graph);
 
         //Add player initial configs to array.
         final List<PlayerConfiguration> configurations = new ArrayList<>();
@@ -103,11 +125,15 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
         }
 
         //Initialise players
-        this.players = new ArrayList<>();
-        for (PlayerConfiguration player : configurations) {
-            this.players.add(initPlayer(player));
+        Arrays.fill(turn, -1);
+        order = new int[configurations.size()];
+        List<Colour> colours = new ArrayList<>();
+        for (int i = 0; i < configurations.size(); i++) {
+            initPlayer(i, configurations.get(i));
+            colours.add(configurations.get(i).colour);
         }
-        currentPlayerColour = mrX.colour;
+        this.colours = unmodifiableList(colours);
+        current = 0;
         possibleMoves = new HashSet<>();
 
         //Initialise rounds
@@ -118,134 +144,140 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 
         //Spectators
         spectators = new ArrayList<>();
+        publish();
     }
 
     //////////////
     //Util
     //////////////
-    //Initialise a ScotlandYardPlayer from PlayerConfiguration
-    private ScotlandYardPlayer initPlayer(PlayerConfiguration player) {
-        return new ScotlandYardPlayer(player.player, player.colour, player.location, player.tickets);
+    //Initialise a table entry from PlayerConfiguration
+    private void initPlayer(int index, PlayerConfiguration configuration) {
+        int p = configuration.colour.ordinal();
+        order[index] = p;
+        turn[p] = index;
+        playing[p] = true;
+        player[p] = configuration.player;
+        for (Ticket ticket : Ticket.values()) {
+            tickets[p][ticket.ordinal()] = configuration.tickets.get(ticket);
+        }
+        location[p] = configuration.location;
+        if (p != MRX) {
+            occupied.set(configuration.location);
+        }
+    }
+
+    //Move a player, keeping the occupancy in step
+    private void moveTo(int p, int destination) {
+        if (p != MRX) {
+            occupied.clear(location[p]);
+            occupied.set(destination);
+        }
+        location[p] = destination;
     }
 
-    private Set<TicketMove> ticketMoves(ScotlandYardPlayer player, int sourceLocation) {
+    private boolean hasTickets(int p, Ticket ticket) {
+        return tickets[p][ticket.ordinal()] != 0;
+    }
+
+    //whether another player is located in the target destination; players
+    //never block their own location and detectives may move onto mrx
+    private boolean blocked(int p, int destination) {
+        return occupied.get(destination) && destination != location[p]
+                && (p == MRX || destination != location[MRX]);
+    }
+
+    private Set<TicketMove> ticketMoves(int p, int sourceLocation) {
         Set<TicketMove> moves = new HashSet<>();
-        Collection<Edge<Integer, Transport>> nearbyMoves = graph.getEdgesFrom(graph.getNode(sourceLocation));
-        Iterator<Edge<Integer, Transport>> iterator = nearbyMoves.iterator();
-        //List of all player locations to exclude                         
-        List<Integer> playerLocations = getPlayerLocations();
-        playerLocations.removeAll(Collections.singleton(player.location()));
-        //remove mrx location if current is detective(not mrx)
-        if (!player.isMrX()) {
-            playerLocations.removeAll(Collections.singleton(getPlayerData(Colour.BLACK).location()));
-        }
-        while (iterator.hasNext()) {
-            Edge<Integer, Transport> location = iterator.next();
-            //whether another one is located in the target destination
-            if (!playerLocations.contains(location.destination().value())) {
-                if (player.hasTickets(Ticket.SECRET)) {
-                    moves.add(new TicketMove(player.colour(), Ticket.SECRET, location.destination().value()));
-                }
-                if (location.data().equals(Transport.TAXI) && player.hasTickets(Ticket.TAXI)) {
-                    moves.add(new TicketMove(player.colour(), Ticket.TAXI, location.destination().value()));
-                }
-                if (location.data().equals(Transport.BUS) && player.hasTickets(Ticket.BUS)) {
-                    moves.add(new TicketMove(player.colour(), Ticket.BUS, location.destination().value()));
-                }
-                if (location.data().equals(Transport.UNDERGROUND) && player.hasTickets(Ticket.UNDERGROUND)) {
-                    moves.add(new TicketMove(player.colour(), Ticket.UNDERGROUND, location.destination().value()));
-                }
+        Colour colour = COLOURS[p];
+        graph.forEachNeighbour(sourceLocation, (destination, transport) -> {
+            if (blocked(p, destination)) {
+                return;
             }
-        }
-      //*//  
-                if (playerLocations.contains(player.location())) {
-            moves.clear();
-        }
+            if (hasTickets(p, Ticket.SECRET)) {
+                moves.add(InternedMoves.ticket(colour, Ticket.SECRET, destination));
+            }
+            if (transport != Transport.FERRY && hasTickets(p, Ticket.fromTransport(transport))) {
+                moves.add(InternedMoves.ticket(colour, Ticket.fromTransport(transport), destination));
+            }
+        });
         return moves;
     }
 
+    //whether the player has any move other than a pass, without generating them
+    private boolean hasTicketMove(int p) {
+        for (Edge<Integer, Transport> edge : graph.getEdgesFrom(graph.getNode(location[p]))) {
+            int destination = edge.destination().value();
+            if (!blocked(p, destination) && (hasTickets(p, Ticket.SECRET)
+                    || edge.data() != Transport.FERRY && hasTickets(p, Ticket.fromTransport(edge.data())))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     //Compute a set of possible moves for the given player
-    private Set<Move> possibleMoves(ScotlandYardPlayer player) {
+    private Set<Move> possibleMoves(int p) {
+        Object generation = FlightEvents.beginMoveGeneration();
+        int doubles = 0;
         Set<Move> moves = new HashSet<>();
-        Set<TicketMove> ticketMoves = ticketMoves(player, player.location());
+        Set<TicketMove> ticketMoves = ticketMoves(p, location[p]);
         moves.addAll(ticketMoves);
 //we should have at least 2 rounds for double moves
-        if (player.hasTickets(Ticket.DOUBLE) && (round <= rounds.size() - 2)) {
-            Iterator<TicketMove> eachFirstPath = ticketMoves.iterator();
-            while (eachFirstPath.hasNext()) {//hasNext
-
-                TicketMove firstPath = eachFirstPath.next();
-                player.removeTicket(firstPath.ticket());
-            Iterator<TicketMove> eachSecondPath = ticketMoves(player, firstPath.destination()).iterator();
-                while (eachSecondPath.hasNext()) {
-                    moves.add(new DoubleMove(player.colour(), firstPath, eachSecondPath.next()));
+        if (hasTickets(p, Ticket.DOUBLE) && (round <= rounds.size() - 2)) {
+            for (TicketMove firstPath : ticketMoves) {
+                tickets[p][firstPath.ticket().ordinal()]--;
+                for (TicketMove secondPath : ticketMoves(p, firstPath.destination())) {
+                    moves.add(new DoubleMove(COLOURS[p], firstPath, secondPath));
+                    doubles++;
                 }
-                player.addTicket(firstPath.ticket());
+                tickets[p][firstPath.ticket().ordinal()]++;
             }
         }
-        if (moves.isEmpty() && !player.isMrX()) {
-            moves.add(new PassMove(player.colour()));
+        if (moves.isEmpty() && p != MRX) {
+            moves.add(InternedMoves.pass(COLOURS[p]));
         }
+        FlightEvents.endMoveGeneration(generation, COLOURS[p], moves.size(), doubles);
         return moves;
     }
 
-    //Get the player locations
-    private List<Integer> getPlayerLocations() {
-        List<Integer> playerLocations = new ArrayList<>();
-        for (int i = 0; i < players.size(); i++) {
-            playerLocations.add(players.get(i).location());
-        }
-        return playerLocations;
-    }
-
     //check if a player is stuck（false）
-    private Boolean isStuck(ScotlandYardPlayer player) {
-        Set<Move> moves = possibleMoves(player);
-        Iterator<Move> movesIt = moves.iterator();
-        Boolean movable = false;
-        while (movesIt.hasNext()) {
-            Move move = movesIt.next();
-            if (!(move instanceof PassMove)) {
-                movable = true;
-            }
-        }
-        if (!movable) {
-            return true;
-        }
-        return false;
+    private Boolean isStuck(int p) {
+        return !hasTicketMove(p);
     }
 
     //check if mrx caught
     private Set<Colour> MrXCaught() {
-        Integer mrXLoc = getPlayerData(Colour.BLACK).location();
         Set<Colour> winners = new HashSet<>();
-        for (int i = 0; i < players.size(); i++) {
-            if (players.get(i).location() == mrXLoc && !players.get(i).isMrX()) {
-                winners.addAll(getPlayers());
-                winners.remove(BLACK);
-            }
+        if (occupied.get(location[MRX])) {
+            winners.addAll(getPlayers());
+            winners.remove(BLACK);
         }
         return winners;
     }
 
-    //Get the player object from colour.
-    private ScotlandYardPlayer getPlayerData(Colour colour) {
-        for (int i = 0; i < players.size(); i++) {
-            if (players.get(i).colour().equals(colour)) {
-                return players.get(i);
-            }
+    //Remember where mrx was seen once the round he moved in is a reveal round
+    private void reveal() {
+        if (!MrXHiddenPrev()) {
+            mrXLastKnown = location[MRX];
         }
-        throw new IllegalArgumentException("Player colour is not in the game.");
     }
-    
-    //Get the player object from colour(default to current player).
-    private ScotlandYardPlayer getPlayerData() {
-        for (int i = 0; i < players.size(); i++) {
-            if (players.get(i).colour().equals(currentPlayerColour)) {
-                return players.get(i);
-            }
+
+    //Location as everyone but mrx himself sees it
+    private int publicLocation(int p) {
+        return p == MRX ? mrXLastKnown : location[p];
+    }
+
+    //Publish the state for readers on other threads, see readView()
+    private void publish() {
+        for (int p : order) {
+            visible[p] = publicLocation(p);
         }
-        throw new IllegalArgumentException("Player colour is not in the game.");
+        readView.publish(round, currentPlayer(), visible, tickets, playing, getWinningPlayers());
+    }
+
+    //Get the ordinal of the current player
+    private int currentPlayer() {
+        return order[current];
     }
 
     //check if mr is hidden
@@ -299,25 +331,37 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 
     private void OnRoundStarted() {
         for (int i = 0; i < spectators.size(); i++) {
-            spectators.get(i).onRoundStarted(this, round);
+            Spectator spectator = spectators.get(i);
+            Object dispatch = FlightEvents.beginSpectatorDispatch();
+            spectator.onRoundStarted(this, round);
+            FlightEvents.endSpectatorDispatch(dispatch, spectator, "onRoundStarted");
         }
     }
 
     private void OnMoveMade(Move move) {
         for (int i = 0; i < spectators.size(); i++) {
-            spectators.get(i).onMoveMade(this, move);
+            Spectator spectator = spectators.get(i);
+            Object dispatch = FlightEvents.beginSpectatorDispatch();
+            spectator.onMoveMade(this, move);
+            FlightEvents.endSpectatorDispatch(dispatch, spectator, "onMoveMade");
         }
     }
 
     private void OnRotationComplete() {
         for (int i = 0; i < spectators.size(); i++) {
-            spectators.get(i).onRotationComplete(this);
+            Spectator spectator = spectators.get(i);
+            Object dispatch = FlightEvents.beginSpectatorDispatch();
+            spectator.onRotationComplete(this);
+            FlightEvents.endSpectatorDispatch(dispatch, spectator, "onRotationComplete");
         }
     }
 
     private void OnGameOver() {
         for (int i = 0; i < spectators.size(); i++) {
-            spectators.get(i).onGameOver(this, getWinningPlayers());
+            Spectator spectator = spectators.get(i);
+            Object dispatch = FlightEvents.beginSpectatorDispatch();
+            spectator.onGameOver(this, getWinningPlayers());
+            FlightEvents.endSpectatorDispatch(dispatch, spectator, "onGameOver");
         }
     }
     
@@ -327,25 +371,17 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
     //Advance to the next player
     private Boolean advancePlayer(Boolean advanceRound) {
         Boolean firstRound = false;
-        if (getPlayerData().isMrX()) {// start here at first
+        if (currentPlayer() == MRX) {// start here at first
             if (advanceRound) {
                 round++;
+                reveal();
             }
             firstRound = true;
         }
-        for (int i = 0; i < players.size(); i++) {
-            if (players.get(i).equals(getPlayerData())) {
-                if (i >= players.size() - 1) {
-                    currentPlayerColour = players.get(0).colour();
-                    break;
-                } else {
-                    currentPlayerColour = players.get(i + 1).colour();
-                    break;
-                }
-            }
-        }
+        current = (current + 1) % order.length;
+        publish();
         System.out.println("--------------Changed");
-        System.out.println("Player:" + currentPlayerColour);
+        System.out.println("Player:" + getCurrentPlayer());
         System.out.println("Round:" + round);
         return firstRound;
     }
@@ -353,12 +389,14 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
     //Asks current player what move they want to make
     private void makeMove() {
         System.out.println("--------------makeMove");
-        System.out.println("Player:" + currentPlayerColour);
-        System.out.println("Location:" + getPlayerData().location());
+        System.out.println("Player:" + getCurrentPlayer());
+        System.out.println("Location:" + location[currentPlayer()]);
         possibleMoves.clear();
-        possibleMoves.addAll(possibleMoves(getPlayerData()));
+        possibleMoves.addAll(possibleMoves(currentPlayer()));
+        FlightEvents.moveRequested(getCurrentPlayer(), round, possibleMoves.size());
+        thinkTime = FlightEvents.beginMoveAccepted();
         reciveCallback = true; //set a callback for accept for the players response  
-        getPlayerData().player().makeMove(this, getPlayerData().location(), possibleMoves, andThen(this));
+        player[currentPlayer()].makeMove(this, location[currentPlayer()], possibleMoves, andThen(this));
     }
     
     //////////////
@@ -377,6 +415,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
                 System.out.println("Chosen move:" + move + " is not valid");
                 throw new IllegalArgumentException("Chosen move is not valid");
             }
+            FlightEvents.endMoveAccepted(thinkTime, move.colour(), move);
             move.visit(this);
         } else {
             System.out.println("######dummy:" + move);
@@ -390,7 +429,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
         }
         System.out.println("------------------------Start Rotate");
         System.out.println("--------------Status");
-        System.out.println("Player:" + currentPlayerColour);
+        System.out.println("Player:" + getCurrentPlayer());
         System.out.println("Round:" + round);
         makeMove();
     }
@@ -401,7 +440,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
     public void visit(PassMove move) {
         System.out.println("Asked:" + move);
         advancePlayer(true);
-        if (getPlayerData().isMrX()) {
+        if (currentPlayer() == MRX) {
             OnMoveMade(move);
             OnRotationComplete();
             System.out.println("------------------------End of rotation");
@@ -414,12 +453,12 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
     @Override
     public void visit(TicketMove move) {
         System.out.println("Asked:" + move);
-        getPlayerData().location(move.destination());//get the location
-        getPlayerData().removeTicket(move.ticket());// get the ticket
+        moveTo(currentPlayer(), move.destination());//get the location
+        tickets[currentPlayer()][move.ticket().ordinal()]--;// get the ticket
         TicketMove hiddenMove = new TicketMove(Colour.BLACK, move.ticket(), mrXLastKnown); //particulat hidden ticket
         //decide whether to add tickets or hide move
-        if (currentPlayerColour.isDetective()) {
-            getPlayerData(Colour.BLACK).addTicket(move.ticket());// let detective make move and get the mrx data
+        if (currentPlayer() != MRX) {
+            tickets[MRX][move.ticket().ordinal()]++;// let detective make move and get the mrx data
         } else {
             if (MrXHidden()) {
                 move = hiddenMove;
@@ -435,13 +474,13 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
             OnMoveMade(move);
             if (isGameOver()) {
                 OnGameOver();
-                if (!MrXCaught().isEmpty() || getPlayerData().isMrX()) {
+                if (!MrXCaught().isEmpty() || currentPlayer() == MRX) {
                     return;
                 }
             }
             
             //decide wheather to end round or continue
-            if (getPlayerData().isMrX()) {
+            if (currentPlayer() == MRX) {
                 OnRotationComplete();
                 System.out.println("------------------------End of rotation");
             } else {
@@ -454,7 +493,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
     @Override
     public void visit(DoubleMove move) {
         System.out.println("Asked:" + move);
-        getPlayerData().removeTicket(Ticket.DOUBLE);
+        tickets[MRX][DOUBLE.ordinal()]--;
         DoubleMove originalMove = move;
         TicketMove hiddenMove1 = new TicketMove(Colour.BLACK, move.firstMove().ticket(), mrXLastKnown);
         TicketMove hiddenMove2 = new TicketMove(Colour.BLACK, move.secondMove().ticket(), mrXLastKnown);
@@ -490,13 +529,17 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
         advancePlayer(false);
         OnMoveMade(move);
         round++;
-        getPlayerData(BLACK).removeTicket(move.firstMove().ticket());
-        getPlayerData(BLACK).location(originalMove.firstMove().destination());
+        tickets[MRX][move.firstMove().ticket().ordinal()]--;
+        moveTo(MRX, originalMove.firstMove().destination());
+        reveal();
+        publish();
         OnRoundStarted();
         OnMoveMade(move.firstMove());
         round++;
-        getPlayerData(BLACK).removeTicket(move.secondMove().ticket());
-        getPlayerData(BLACK).location(originalMove.finalDestination());
+        tickets[MRX][move.secondMove().ticket().ordinal()]--;
+        moveTo(MRX, originalMove.finalDestination());
+        reveal();
+        publish();
         OnRoundStarted();
         OnMoveMade(move.secondMove());
         makeMove();
@@ -514,45 +557,51 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 
     @Override
     public List<Colour> getPlayers() {
-        List<Colour> colours = new ArrayList<>();
-        for (ScotlandYardPlayer player : players) {
-            colours.add(player.colour());
-        }
-        return Collections.unmodifiableList(colours);
+        return colours;
     }
 
     @Override
     public Set<Colour> getWinningPlayers() {
         Set<Colour> winners = new HashSet<>();
-        Integer mrXLoc = getPlayerData(Colour.BLACK).location();
-        //check if mrx caught
+        int mrXLoc = location[MRX];
+        //check if mrx caught, a capture wins even in the last round or with
+        //every detective stuck afterwards
         winners.addAll(MrXCaught());
+        if (!winners.isEmpty()) {
+            return Collections.unmodifiableSet(winners);
+        }
         //check if mrx is cornered
-        Iterator<Edge<Integer, Transport>> paths = graph.getEdgesFrom(graph.getNode(mrXLoc)).iterator();
-        List<Integer> neighbours = new ArrayList<>();
-        while (paths.hasNext()) {
-            neighbours.add(paths.next().destination().value());
+        Collection<Edge<Integer, Transport>> paths = graph.getEdgesFrom(graph.getNode(mrXLoc));
+        boolean cornered = true;
+        for (Edge<Integer, Transport> path : paths) {
+            int neighbour = path.destination().value();
+            if (!occupied.get(neighbour) && neighbour != mrXLoc) {
+                cornered = false;
+                break;
+            }
         }
-        if (getPlayerLocations().containsAll(neighbours)) { //all neighbouring nodes are detective
+        if (cornered) { //all neighbouring nodes are detective
             System.out.println("mrx cornered");
-            for (int i = 0; i < players.size(); i++) {
-                if (neighbours.contains(players.get(i).location())) {
-                    winners.add(players.get(i).colour());
+            for (int p : order) {
+                for (Edge<Integer, Transport> path : paths) {
+                    if (path.destination().value() == location[p]) {
+                        winners.add(COLOURS[p]);
+                        break;
+                    }
                 }
             }
         }
         //check if mrx is stuck(no tickets)
-        if (isStuck(getPlayerData(Colour.BLACK))) {
+        if (isStuck(MRX)) {
             winners.addAll(getPlayers());
             winners.remove(BLACK);
         }
         //check if all detectives stuck(no tickets)
-        Iterator<Colour> playersIt = getPlayers().iterator();
         Boolean freeDetective = false;
-        while (playersIt.hasNext()) {
-            Colour player = playersIt.next();
-            if (player.isDetective() && !isStuck(getPlayerData(player))) {
+        for (int p : order) {
+            if (p != MRX && !isStuck(p)) {
                 freeDetective = true;// state this line at first
+                break;
             }
         }
         if (!freeDetective) {
@@ -560,7 +609,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
             System.out.println("detectives stuck");
         }
         //Check if rounds are over
-        if (round >= rounds.size() && (currentPlayerColour == BLACK)) {
+        if (round >= rounds.size() && (currentPlayer() == MRX)) {
             winners.add(BLACK);
         }
         return Collections.unmodifiableSet(winners);
@@ -568,30 +617,24 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 
     @Override
     public Optional<Integer> getPlayerLocation(Colour colour) {
-        for (int i = 0; i < players.size(); i++) {
-            if (players.get(i).colour().equals(colour) && !(players.get(i).colour().isMrX() && MrXHiddenPrev())) {
-                if (players.get(i).colour().isMrX()) {
-                    mrXLastKnown = players.get(i).location();
-                }
-                return Optional.of(players.get(i).location());
-            }
-            if (players.get(i).colour().equals(colour) && players.get(i).colour().isMrX() && MrXHiddenPrev()) {
-                return Optional.of(mrXLastKnown);
-            }
+        if (!inGame(colour)) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.of(publicLocation(colour.ordinal()));
     }
 
     @Override
     public Optional<Integer> getPlayerTickets(Colour colour, Ticket ticket) {
-        for (int i = 0; i < players.size(); i++) {
-            if (players.get(i).colour().equals(colour)) {
-                return Optional.of(players.get(i).tickets().get(ticket));
-            }
+        if (!inGame(colour)) {
+            return Optional.empty();
         }
-        return Optional.empty();
+        return Optional.of(tickets[colour.ordinal()][ticket.ordinal()]);
     }// takes in the current player color and map key and return an integer of remaining tickets
 
+    private boolean inGame(Colour colour) {
+        return colour != null && turn[colour.ordinal()] >= 0;
+    }
+
     @Override
     public boolean isGameOver() {
         if (getWinningPlayers().size() == 0) {
@@ -600,9 +643,18 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
         return true;
     }
 
+    /**
+     * @return the state of this game for lock free reads from other threads,
+     *         republished after every change
+     */
+    @Override
+    public Optional<ReadView> readView() {
+        return Optional.of(readView);
+    }
+
     @Override
     public Colour getCurrentPlayer() {
-        return currentPlayerColour;
+        return COLOURS[currentPlayer()];
     }
 
     @Override
@@ -617,7 +669,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 
     @Override
     public Graph<Integer, Transport> getGraph() {
-        return new ImmutableGraph<>(graph);
+        return frozenGraph;
     }
 
 }
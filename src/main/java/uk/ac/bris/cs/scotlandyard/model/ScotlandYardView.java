@@ -106,4 +106,14 @@ public interface ScotlandYardView {
 	 */
 	Graph<Integer, Transport> getGraph();
 
+	/**
+	 * State of the game that other threads can read without locks while the
+	 * game goes on, see {@link ReadView}
+	 *
+	 * @return the read view, empty if this view does not publish one
+	 */
+	default Optional<ReadView> readView() {
+		return Optional.empty();
+	}
+
 }
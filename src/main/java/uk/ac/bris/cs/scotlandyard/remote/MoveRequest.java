@@ -0,0 +1,88 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+
+/**
+ * A request for a move received by a {@link PlayerClient}. Requests may be
+ * answered in any order and from any thread.
+ */
+public final class MoveRequest {
+
+	private final PlayerClient client;
+	private final int id;
+	private final long game;
+	private final ScotlandYardView view;
+	private final int location;
+	private final long[] moves;
+
+	MoveRequest(PlayerClient client, int id, long game, ScotlandYardView view, int location,
+			long[] moves) {
+		this.client = client;
+		this.id = id;
+		this.game = game;
+		this.view = view;
+		this.location = location;
+		this.moves = moves;
+	}
+
+	/**
+	 * @return the request number, unique per connection
+	 */
+	public int id() {
+		return id;
+	}
+
+	/**
+	 * @return the game the move is for
+	 */
+	public long game() {
+		return game;
+	}
+
+	/**
+	 * @return the game as the player sees it
+	 */
+	public ScotlandYardView view() {
+		return view;
+	}
+
+	/**
+	 * @return the actual location of the player to move
+	 */
+	public int location() {
+		return location;
+	}
+
+	/**
+	 * @return the legal moves, packed as by {@link Protocol#encode(Move)}
+	 */
+	public long[] packedMoves() {
+		return moves.clone();
+	}
+
+	/**
+	 * @return the legal moves
+	 */
+	public Set<Move> moves() {
+		Set<Move> decoded = new LinkedHashSet<>();
+		for (long move : moves) decoded.add(Protocol.decode(move));
+		return Collections.unmodifiableSet(decoded);
+	}
+
+	/**
+	 * Sends the chosen move
+	 *
+	 * @param move one of {@link #moves()}; not null
+	 * @throws IOException if the move cannot be sent
+	 */
+	public void reply(Move move) throws IOException {
+		client.reply(id, Protocol.encode(move));
+	}
+
+}
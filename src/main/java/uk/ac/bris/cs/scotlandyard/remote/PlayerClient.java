@@ -0,0 +1,110 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * The player side of the {@link Protocol}, for players in another process.
+ * One thread reads requests with {@link #next()}; replies may come from any
+ * thread and in any order, so a client can think about moves of several
+ * games at once.
+ */
+public final class PlayerClient implements AutoCloseable {
+
+	private final Graph<Integer, Transport> graph;
+	private final Socket socket;
+	private final DataInputStream in;
+	private final DataOutputStream out;
+
+	private PlayerClient(Graph<Integer, Transport> graph, Socket socket) throws IOException {
+		this.graph = graph;
+		this.socket = socket;
+		this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+		this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+	}
+
+	/**
+	 * Connects to a {@link PlayerServer}
+	 *
+	 * @param address the address of the server; not null
+	 * @param graph the graph games are played on, the server does not send
+	 *        it; not null
+	 * @return the connected client
+	 * @throws IOException if the connection fails or the server does not
+	 *         speak this version of the protocol
+	 */
+	public static PlayerClient connect(InetSocketAddress address, Graph<Integer, Transport> graph)
+			throws IOException {
+		requireNonNull(address);
+		requireNonNull(graph);
+		Socket socket = new Socket();
+		try {
+			socket.setTcpNoDelay(true);
+			socket.connect(address);
+			PlayerClient client = new PlayerClient(graph, socket);
+			ByteBuffer hello = client.frame();
+			if (hello.get() != Protocol.HELLO || hello.getInt() != Protocol.MAGIC)
+				throw new IOException("Not a player server");
+			int version = hello.getInt();
+			if (version != Protocol.VERSION)
+				throw new IOException("Unsupported version " + version);
+			return client;
+		} catch (IOException | RuntimeException e) {
+			socket.close();
+			throw e;
+		}
+	}
+
+	Graph<Integer, Transport> graph() {
+		return graph;
+	}
+
+	/**
+	 * Waits for the next request
+	 *
+	 * @return the request
+	 * @throws IOException if the connection fails or closes
+	 */
+	public MoveRequest next() throws IOException {
+		ByteBuffer frame = frame();
+		byte type = frame.get();
+		if (type != Protocol.REQUEST) throw new IOException("Unexpected frame type " + type);
+		try {
+			return Protocol.readRequest(frame, this);
+		} catch (RuntimeException e) {
+			throw new IOException("Malformed request", e);
+		}
+	}
+
+	private ByteBuffer frame() throws IOException {
+		int length = in.readInt();
+		if (length < 1 || length > Protocol.MAX_FRAME)
+			throw new IOException("Invalid frame length " + length);
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return ByteBuffer.wrap(bytes);
+	}
+
+	synchronized void reply(int request, long move) throws IOException {
+		ByteBuffer frame = Protocol.move(request, move);
+		out.write(frame.array(), frame.position(), frame.remaining());
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		socket.close();
+	}
+
+}
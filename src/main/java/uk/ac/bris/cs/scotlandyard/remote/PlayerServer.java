@@ -0,0 +1,207 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Lets players in other processes play games over the binary
+ * {@link Protocol}. One thread and one selector serve every connection, so
+ * the number of connections does not cost threads. Games get a
+ * {@link RemotePlayer} from an accepted {@link RemoteConnection}, any number
+ * of games may share a connection.
+ */
+public final class PlayerServer implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(PlayerServer.class);
+
+	private final Selector selector;
+	private final ServerSocketChannel server;
+	private final Thread thread;
+	private final Queue<RemoteConnection> flushes = new ConcurrentLinkedQueue<>();
+	private final BlockingQueue<RemoteConnection> accepted = new LinkedBlockingQueue<>();
+	private final List<RemoteConnection> connections = new CopyOnWriteArrayList<>();
+	private volatile boolean closed;
+
+	/**
+	 * Starts a server
+	 *
+	 * @param address the address to listen on; not null
+	 * @throws IOException if the address cannot be bound
+	 */
+	public PlayerServer(InetSocketAddress address) throws IOException {
+		requireNonNull(address);
+		selector = Selector.open();
+		server = ServerSocketChannel.open();
+		try {
+			server.bind(address);
+			server.configureBlocking(false);
+			server.register(selector, SelectionKey.OP_ACCEPT);
+		} catch (IOException e) {
+			server.close();
+			selector.close();
+			throw e;
+		}
+		thread = new ThreadFactoryBuilder().setDaemon(true).setNameFormat("player-server-%d")
+				.build().newThread(this::run);
+		thread.start();
+	}
+
+	/**
+	 * @return a server listening on a free port of the loopback address
+	 * @throws IOException if no port can be bound
+	 */
+	public static PlayerServer loopback() throws IOException {
+		return new PlayerServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+	}
+
+	/**
+	 * @return the address the server listens on
+	 */
+	public InetSocketAddress address() {
+		return (InetSocketAddress) server.socket().getLocalSocketAddress();
+	}
+
+	/**
+	 * Waits for a connection no one took yet
+	 *
+	 * @param timeout how long to wait; not null
+	 * @return the connection
+	 * @throws InterruptedException if interrupted while waiting
+	 * @throws TimeoutException if no client connected in time
+	 */
+	public RemoteConnection accept(Duration timeout)
+			throws InterruptedException, TimeoutException {
+		RemoteConnection connection = accepted.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		if (connection == null) throw new TimeoutException("No client connected");
+		return connection;
+	}
+
+	/**
+	 * @return the open connections
+	 */
+	public List<RemoteConnection> connections() {
+		return new ArrayList<>(connections);
+	}
+
+	void flushLater(RemoteConnection connection) {
+		flushes.add(connection);
+		selector.wakeup();
+	}
+
+	private void run() {
+		while (!closed) {
+			try {
+				selector.select();
+			} catch (IOException e) {
+				logger.error("Selecting failed, stopping", e);
+				break;
+			}
+			for (RemoteConnection connection; (connection = flushes.poll()) != null;)
+				flush(connection);
+			for (SelectionKey key : selector.selectedKeys()) {
+				if (!key.isValid()) continue;
+				if (key.isAcceptable()) {
+					accept();
+					continue;
+				}
+				RemoteConnection connection = (RemoteConnection) key.attachment();
+				try {
+					if (key.isReadable() && !connection.read()) {
+						logger.debug("{} closed by the client", connection);
+						disconnect(connection);
+						continue;
+					}
+					if (key.isValid() && key.isWritable()) flush(connection);
+				} catch (IOException | RuntimeException e) {
+					logger.warn("{} failed, closing it", connection, e);
+					disconnect(connection);
+				}
+			}
+			selector.selectedKeys().clear();
+		}
+	}
+
+	private void accept() {
+		try {
+			SocketChannel channel = server.accept();
+			if (channel == null) return;
+			channel.configureBlocking(false);
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			RemoteConnection connection = new RemoteConnection(this, channel);
+			channel.register(selector, SelectionKey.OP_READ, connection);
+			connections.add(connection);
+			// the hello is already queued
+			flush(connection);
+			accepted.add(connection);
+			logger.debug("Accepted {}", connection);
+		} catch (IOException e) {
+			logger.warn("Accepting a connection failed", e);
+		}
+	}
+
+	private void flush(RemoteConnection connection) {
+		SelectionKey key = connection.channel().keyFor(selector);
+		if (key == null || !key.isValid()) return;
+		try {
+			boolean done = connection.flush();
+			key.interestOps(done ? SelectionKey.OP_READ
+					: SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+		} catch (IOException e) {
+			logger.warn("Writing to {} failed, closing it", connection, e);
+			disconnect(connection);
+		}
+	}
+
+	private void disconnect(RemoteConnection connection) {
+		connections.remove(connection);
+		accepted.remove(connection);
+		connection.close();
+	}
+
+	/**
+	 * Closes every connection and stops listening
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		selector.wakeup();
+		try {
+			thread.join(TimeUnit.SECONDS.toMillis(1));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		connections.forEach(RemoteConnection::close);
+		connections.clear();
+		accepted.clear();
+		try {
+			server.close();
+			selector.close();
+		} catch (IOException e) {
+			logger.debug("Closing the server failed", e);
+		}
+	}
+
+}
@@ -0,0 +1,222 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.PassMove;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+/**
+ * The binary protocol between a {@link PlayerServer} and out of process
+ * players. All numbers are big endian and shorts are unsigned. Every frame
+ * is
+ *
+ * <pre>
+ * int   length   bytes that follow, type included, at most MAX_FRAME
+ * byte  type
+ * ...   payload
+ * </pre>
+ *
+ * The server sends {@link #HELLO} ({@code int magic, int version}) once a
+ * connection is accepted, then a {@link #REQUEST} whenever a game wants a
+ * move from a player on the connection:
+ *
+ * <pre>
+ * int   request  unique per connection
+ * long  game     the game the move is for, a connection may serve many
+ * short round
+ * byte  current  colour ordinal
+ * short rounds   followed by (rounds + 7) / 8 bytes, bit r set if round
+ *                r + 1 is a reveal round
+ * byte  players  followed per player by a colour ordinal byte, an int
+ *                location as the view reports it and a short count per
+ *                ticket in ticket ordinal order
+ * int   location the actual location of the player to move
+ * short moves    followed by one packed move per legal move
+ * </pre>
+ *
+ * The client answers with a {@link #MOVE} ({@code int request, long move})
+ * at any time and in any order, so requests may be pipelined. The graph is
+ * not sent, clients are expected to know it.
+ * <br>
+ * A move is packed into a long, low bits first: 2 bits kind (0 pass,
+ * 1 ticket, 2 double), 4 bits colour ordinal, then for each ticket move
+ * 3 bits ticket ordinal and 16 bits destination.
+ */
+public final class Protocol {
+
+	public static final int MAGIC = 0x53595250; // SYRP
+	public static final int VERSION = 1;
+	public static final int MAX_FRAME = 1 << 20;
+
+	public static final byte HELLO = 1;
+	public static final byte REQUEST = 2;
+	public static final byte MOVE = 3;
+
+	private static final Colour[] COLOURS = Colour.values();
+	private static final Ticket[] TICKETS = Ticket.values();
+
+	private static final int PASS = 0;
+	private static final int TICKET = 1;
+	private static final int DOUBLE = 2;
+	private static final int MAX_DESTINATION = 0xFFFF;
+	private static final int MAX_SHORT = 0xFFFF;
+
+	private Protocol() {}
+
+	/**
+	 * @param move the move; not null, destinations must fit in 16 bits
+	 * @return the packed move
+	 */
+	public static long encode(Move move) {
+		requireNonNull(move);
+		long colour = move.colour().ordinal() << 2;
+		if (move instanceof PassMove) return PASS | colour;
+		if (move instanceof TicketMove) return TICKET | colour | ticket((TicketMove) move) << 6;
+		if (move instanceof DoubleMove) {
+			DoubleMove doubleMove = (DoubleMove) move;
+			return DOUBLE | colour | ticket(doubleMove.firstMove()) << 6
+					| ticket(doubleMove.secondMove()) << 25;
+		}
+		throw new IllegalArgumentException("Unknown move " + move);
+	}
+
+	// 19 bits, ticket then destination
+	private static long ticket(TicketMove move) {
+		int destination = move.destination();
+		if (destination < 0 || destination > MAX_DESTINATION)
+			throw new IllegalArgumentException("Destination " + destination + " does not fit");
+		return move.ticket().ordinal() | (long) destination << 3;
+	}
+
+	/**
+	 * @param packed a move packed by {@link #encode(Move)}
+	 * @return the move
+	 * @throws IllegalArgumentException if the move is malformed
+	 */
+	public static Move decode(long packed) {
+		int kind = (int) (packed & 0x3);
+		int colour = (int) (packed >>> 2 & 0xF);
+		if (colour >= COLOURS.length)
+			throw new IllegalArgumentException("Invalid colour " + colour);
+		switch (kind) {
+			case PASS:
+				return new PassMove(COLOURS[colour]);
+			case TICKET:
+				return ticket(COLOURS[colour], packed >>> 6);
+			case DOUBLE:
+				return new DoubleMove(COLOURS[colour], ticket(COLOURS[colour], packed >>> 6),
+						ticket(COLOURS[colour], packed >>> 25));
+			default:
+				throw new IllegalArgumentException("Invalid move kind " + kind);
+		}
+	}
+
+	private static TicketMove ticket(Colour colour, long bits) {
+		int ticket = (int) (bits & 0x7);
+		if (ticket >= TICKETS.length)
+			throw new IllegalArgumentException("Invalid ticket " + ticket);
+		return new TicketMove(colour, TICKETS[ticket], (int) (bits >>> 3 & MAX_DESTINATION));
+	}
+
+	static ByteBuffer hello() {
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 8);
+		buffer.putInt(1 + 8).put(HELLO).putInt(MAGIC).putInt(VERSION);
+		buffer.flip();
+		return buffer;
+	}
+
+	static ByteBuffer move(int request, long move) {
+		ByteBuffer buffer = ByteBuffer.allocate(4 + 1 + 12);
+		buffer.putInt(1 + 12).put(MOVE).putInt(request).putLong(move);
+		buffer.flip();
+		return buffer;
+	}
+
+	static ByteBuffer request(int request, long game, ScotlandYardView view, int location,
+			long[] moves) {
+		List<Colour> players = view.getPlayers();
+		List<Boolean> rounds = view.getRounds();
+		int length = 1 + 4 + 8 + 2 + 1 + 2 + (rounds.size() + 7) / 8 + 1
+				+ players.size() * (1 + 4 + 2 * TICKETS.length) + 4 + 2 + 8 * moves.length;
+		if (length > MAX_FRAME) throw new IllegalArgumentException("Request does not fit");
+		ByteBuffer buffer = ByteBuffer.allocate(4 + length);
+		buffer.putInt(length).put(REQUEST).putInt(request).putLong(game);
+		buffer.putShort(unsigned(view.getCurrentRound(), "round"));
+		buffer.put((byte) view.getCurrentPlayer().ordinal());
+		buffer.putShort(unsigned(rounds.size(), "rounds"));
+		for (int i = 0; i < rounds.size(); i += 8) {
+			int bits = 0;
+			for (int r = i; r < Math.min(i + 8, rounds.size()); r++)
+				if (rounds.get(r)) bits |= 1 << (r - i);
+			buffer.put((byte) bits);
+		}
+		buffer.put((byte) players.size());
+		for (Colour colour : players) {
+			buffer.put((byte) colour.ordinal());
+			buffer.putInt(view.getPlayerLocation(colour).orElse(-1));
+			for (Ticket ticket : TICKETS)
+				buffer.putShort(
+						unsigned(view.getPlayerTickets(colour, ticket).orElse(0), "tickets"));
+		}
+		buffer.putInt(location);
+		buffer.putShort(unsigned(moves.length, "moves"));
+		for (long move : moves) buffer.putLong(move);
+		buffer.flip();
+		return buffer;
+	}
+
+	// reads the payload of a REQUEST after the type byte
+	static MoveRequest readRequest(ByteBuffer buffer, PlayerClient client) {
+		int request = buffer.getInt();
+		long game = buffer.getLong();
+		int round = buffer.getShort() & MAX_SHORT;
+		Colour current = colour(buffer.get());
+		int roundCount = buffer.getShort() & MAX_SHORT;
+		List<Boolean> rounds = new ArrayList<>(roundCount);
+		for (int i = 0; i < roundCount; i += 8) {
+			int bits = buffer.get();
+			for (int r = i; r < Math.min(i + 8, roundCount); r++)
+				rounds.add((bits & 1 << (r - i)) != 0);
+		}
+		int playerCount = buffer.get();
+		List<Colour> players = new ArrayList<>(playerCount);
+		int[] locations = new int[COLOURS.length];
+		int[][] tickets = new int[COLOURS.length][TICKETS.length];
+		for (int p = 0; p < playerCount; p++) {
+			Colour colour = colour(buffer.get());
+			players.add(colour);
+			locations[colour.ordinal()] = buffer.getInt();
+			for (int t = 0; t < TICKETS.length; t++)
+				tickets[colour.ordinal()][t] = buffer.getShort() & MAX_SHORT;
+		}
+		int location = buffer.getInt();
+		int count = buffer.getShort() & MAX_SHORT;
+		long[] moves = new long[count];
+		for (int i = 0; i < count; i++) moves[i] = buffer.getLong();
+		RemoteView view = new RemoteView(client.graph(), round, current, rounds, players,
+				locations, tickets);
+		return new MoveRequest(client, request, game, view, location, moves);
+	}
+
+	private static short unsigned(int value, String name) {
+		if (value < 0 || value > MAX_SHORT)
+			throw new IllegalArgumentException(value + " " + name + " do not fit");
+		return (short) value;
+	}
+
+	private static Colour colour(byte ordinal) {
+		if (ordinal < 0 || ordinal >= COLOURS.length)
+			throw new IllegalArgumentException("Invalid colour " + ordinal);
+		return COLOURS[ordinal];
+	}
+
+}
@@ -0,0 +1,214 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+
+/**
+ * One client connected to a {@link PlayerServer}. Any number of games can
+ * have players on the same connection and any number of requests can be
+ * outstanding at once, moves are matched to requests by number.
+ * <br>
+ * Requests are encoded on the thread asking for the move and queued, all
+ * socket IO happens on the server's thread.
+ */
+public final class RemoteConnection {
+
+	private static final Logger logger = LoggerFactory.getLogger(RemoteConnection.class);
+
+	// buffers written with one gathering write
+	private static final int GATHER = 64;
+	private static final int MOVE_LENGTH = 1 + 4 + 8;
+
+	private final PlayerServer server;
+	private final SocketChannel channel;
+	private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+	private final AtomicInteger requests = new AtomicInteger();
+	private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private volatile boolean closed;
+
+	// only used by the server's thread
+	private final ArrayDeque<ByteBuffer> writing = new ArrayDeque<>();
+	private final ByteBuffer[] gather = new ByteBuffer[GATHER];
+	private final ByteBuffer inbound = ByteBuffer.allocate(1 << 12);
+
+	private static final class Pending {
+		final Move[] moves;
+		final long[] packed;
+		final Consumer<Move> callback;
+
+		Pending(Move[] moves, long[] packed, Consumer<Move> callback) {
+			this.moves = moves;
+			this.packed = packed;
+			this.callback = callback;
+		}
+	}
+
+	RemoteConnection(PlayerServer server, SocketChannel channel) {
+		this.server = server;
+		this.channel = channel;
+		outbound.add(Protocol.hello());
+	}
+
+	/**
+	 * @param game the game the player is in, sent with every request so the
+	 *        client can tell games apart
+	 * @return a player that asks this connection for its moves
+	 */
+	public RemotePlayer player(long game) {
+		return new RemotePlayer(this, game);
+	}
+
+	/**
+	 * @return the number of requests not answered yet
+	 */
+	public int outstanding() {
+		return pending.size();
+	}
+
+	public boolean isOpen() {
+		return !closed;
+	}
+
+	/**
+	 * @return the address of the client, empty if it is not known
+	 */
+	public Optional<SocketAddress> remoteAddress() {
+		try {
+			return Optional.ofNullable(channel.getRemoteAddress());
+		} catch (IOException e) {
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * Closes the connection, outstanding requests are never answered
+	 */
+	public void close() {
+		if (closed) return;
+		closed = true;
+		int dropped = pending.size();
+		pending.clear();
+		outbound.clear();
+		try {
+			channel.close();
+		} catch (IOException e) {
+			logger.debug("Closing {} failed", this, e);
+		}
+		if (dropped > 0) logger.info("{} closed with {} moves outstanding", this, dropped);
+	}
+
+	void request(long game, ScotlandYardView view, int location, Collection<Move> moves,
+			Consumer<Move> callback) {
+		if (closed) {
+			logger.debug("{} is closed, not asking for a move in game {}", this, game);
+			return;
+		}
+		int id = requests.incrementAndGet();
+		Move[] legal = moves.toArray(new Move[0]);
+		long[] packed = new long[legal.length];
+		for (int i = 0; i < legal.length; i++) packed[i] = Protocol.encode(legal[i]);
+		ByteBuffer frame = Protocol.request(id, game, view, location, packed);
+		pending.put(id, new Pending(legal, packed, callback));
+		outbound.add(frame);
+		if (flushRequested.compareAndSet(false, true)) server.flushLater(this);
+	}
+
+	SocketChannel channel() {
+		return channel;
+	}
+
+	// the server's thread from here on
+
+	/**
+	 * @return whether everything queued was written
+	 */
+	boolean flush() throws IOException {
+		flushRequested.set(false);
+		for (ByteBuffer next; (next = outbound.poll()) != null;) writing.add(next);
+		while (!writing.isEmpty()) {
+			int count = 0;
+			for (ByteBuffer buffer : writing) {
+				gather[count++] = buffer;
+				if (count == GATHER) break;
+			}
+			long written = channel.write(gather, 0, count);
+			Arrays.fill(gather, 0, count, null);
+			while (!writing.isEmpty() && !writing.peek().hasRemaining()) writing.poll();
+			// the socket is full, wait until it is writable again
+			if (written == 0) break;
+		}
+		return writing.isEmpty();
+	}
+
+	/**
+	 * @return false once the client has closed the connection
+	 */
+	boolean read() throws IOException {
+		int read = channel.read(inbound);
+		if (read < 0) return false;
+		inbound.flip();
+		while (inbound.remaining() >= 4) {
+			// clients only send moves
+			int length = inbound.getInt(inbound.position());
+			if (length != MOVE_LENGTH) throw new IOException("Invalid frame length " + length);
+			if (inbound.remaining() < 4 + length) break;
+			inbound.getInt();
+			byte type = inbound.get();
+			if (type != Protocol.MOVE) throw new IOException("Unexpected frame type " + type);
+			received(inbound.getInt(), inbound.getLong());
+		}
+		inbound.compact();
+		return true;
+	}
+
+	private void received(int request, long packed) throws IOException {
+		Pending answered = pending.remove(request);
+		if (answered == null) {
+			logger.debug("{} answered request {} which is not outstanding", this, request);
+			return;
+		}
+		Move move = null;
+		for (int i = 0; i < answered.packed.length && move == null; i++)
+			if (answered.packed[i] == packed) move = answered.moves[i];
+		if (move == null) {
+			try {
+				// not legal, the game decides what happens to it
+				move = Protocol.decode(packed);
+			} catch (IllegalArgumentException e) {
+				throw new IOException("Malformed move for request " + request, e);
+			}
+		}
+		try {
+			answered.callback.accept(move);
+		} catch (RuntimeException e) {
+			// one game rejecting its move must not end the other games here
+			logger.warn("{} failed to play the move for request {}", this, request, e);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "Connection[" + remoteAddress().map(Object::toString).orElse("?") + "]";
+	}
+
+}
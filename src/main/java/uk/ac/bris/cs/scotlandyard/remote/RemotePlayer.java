@@ -0,0 +1,40 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+
+/**
+ * A player in another process, reached through a {@link RemoteConnection}.
+ * {@link #makeMove} only queues the request and returns; the callback runs
+ * on the server's thread once the move arrives, so it must not block. Moves
+ * that do not arrive, because the connection closed or the client never
+ * answers, are never called back, time them out like any other player.
+ */
+public final class RemotePlayer implements Player {
+
+	private final RemoteConnection connection;
+	private final long game;
+
+	RemotePlayer(RemoteConnection connection, long game) {
+		this.connection = connection;
+		this.game = game;
+	}
+
+	/**
+	 * @return the game this player plays, sent with every request
+	 */
+	public long game() {
+		return game;
+	}
+
+	@Override
+	public void makeMove(ScotlandYardView view, int location, Set<Move> moves,
+			Consumer<Move> callback) {
+		connection.request(game, view, location, moves, callback);
+	}
+
+}
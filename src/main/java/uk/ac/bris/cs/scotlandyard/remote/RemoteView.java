@@ -0,0 +1,90 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * The view of a game as a {@link PlayerClient} received it with a move
+ * request. A game that asks for a move is not over, so there are never
+ * winning players.
+ */
+final class RemoteView implements ScotlandYardView {
+
+	private final Graph<Integer, Transport> graph;
+	private final int round;
+	private final Colour current;
+	private final List<Boolean> rounds;
+	private final List<Colour> players;
+	private final int[] locations;
+	private final int[][] tickets;
+
+	RemoteView(Graph<Integer, Transport> graph, int round, Colour current, List<Boolean> rounds,
+			List<Colour> players, int[] locations, int[][] tickets) {
+		this.graph = graph;
+		this.round = round;
+		this.current = current;
+		this.rounds = Collections.unmodifiableList(rounds);
+		this.players = Collections.unmodifiableList(players);
+		this.locations = locations;
+		this.tickets = tickets;
+	}
+
+	@Override
+	public List<Colour> getPlayers() {
+		return players;
+	}
+
+	@Override
+	public Set<Colour> getWinningPlayers() {
+		return Collections.emptySet();
+	}
+
+	@Override
+	public Optional<Integer> getPlayerLocation(Colour colour) {
+		return players.contains(colour) ? Optional.of(locations[colour.ordinal()])
+				: Optional.empty();
+	}
+
+	@Override
+	public Optional<Integer> getPlayerTickets(Colour colour, Ticket ticket) {
+		requireNonNull(ticket);
+		return players.contains(colour) ? Optional.of(tickets[colour.ordinal()][ticket.ordinal()])
+				: Optional.empty();
+	}
+
+	@Override
+	public boolean isGameOver() {
+		return false;
+	}
+
+	@Override
+	public Colour getCurrentPlayer() {
+		return current;
+	}
+
+	@Override
+	public int getCurrentRound() {
+		return round;
+	}
+
+	@Override
+	public List<Boolean> getRounds() {
+		return rounds;
+	}
+
+	@Override
+	public Graph<Integer, Transport> getGraph() {
+		return graph;
+	}
+
+}
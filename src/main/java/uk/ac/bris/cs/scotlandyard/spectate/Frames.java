@@ -0,0 +1,88 @@
+package uk.ac.bris.cs.scotlandyard.spectate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.MoveVisitor;
+import uk.ac.bris.cs.scotlandyard.model.PassMove;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+/**
+ * Server-Sent Events frames with JSON payloads. Only enum names, numbers
+ * and booleans are written, so nothing needs escaping.
+ */
+final class Frames {
+
+	private static final Colour[] COLOURS = Colour.values();
+	private static final Ticket[] TICKETS = Ticket.values();
+
+	private Frames() {}
+
+	static byte[] event(long id, String event, String data) {
+		return ("id: " + id + "\nevent: " + event + "\ndata: " + data + "\n\n")
+				.getBytes(StandardCharsets.UTF_8);
+	}
+
+	static void player(StringBuilder json, int colour, int location, int[] tickets) {
+		json.append("{\"colour\":\"").append(COLOURS[colour]).append("\",\"location\":")
+				.append(location).append(",\"tickets\":{");
+		for (int t = 0; t < TICKETS.length; t++) {
+			if (t > 0) json.append(',');
+			json.append('"').append(TICKETS[t]).append("\":").append(tickets[t]);
+		}
+		json.append("}}");
+	}
+
+	static void colours(StringBuilder json, Collection<Colour> colours) {
+		json.append('[');
+		boolean first = true;
+		for (Colour colour : colours) {
+			if (!first) json.append(',');
+			json.append('"').append(colour).append('"');
+			first = false;
+		}
+		json.append(']');
+	}
+
+	static void rounds(StringBuilder json, List<Boolean> rounds) {
+		json.append('[');
+		for (int i = 0; i < rounds.size(); i++) {
+			if (i > 0) json.append(',');
+			json.append(rounds.get(i));
+		}
+		json.append(']');
+	}
+
+	static void move(StringBuilder json, Move move) {
+		move.visit(new MoveVisitor() {
+			@Override
+			public void visit(PassMove move) {
+				json.append("{\"type\":\"pass\",\"colour\":\"").append(move.colour())
+						.append("\"}");
+			}
+
+			@Override
+			public void visit(TicketMove move) {
+				json.append("{\"type\":\"ticket\",\"colour\":\"").append(move.colour())
+						.append("\",\"ticket\":\"").append(move.ticket())
+						.append("\",\"destination\":").append(move.destination()).append('}');
+			}
+
+			@Override
+			public void visit(DoubleMove move) {
+				json.append("{\"type\":\"double\",\"colour\":\"").append(move.colour())
+						.append("\",\"first\":");
+				visit(move.firstMove());
+				json.append(",\"second\":");
+				visit(move.secondMove());
+				json.append('}');
+			}
+		});
+	}
+
+}
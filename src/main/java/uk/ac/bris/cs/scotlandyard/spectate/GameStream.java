@@ -0,0 +1,192 @@
+package uk.ac.bris.cs.scotlandyard.spectate;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+
+/**
+ * The events of one game as Server-Sent Events, published by a
+ * {@link SpectatorServer}. A new watcher first gets a {@code state} event
+ * with everything a {@code ImmutableScotlandYardView} holds apart from the
+ * graph, then one event per change:
+ * <ul>
+ * <li>{@code move} with the move as spectators saw it</li>
+ * <li>{@code round} when a round starts</li>
+ * <li>{@code over} with the winning players, after which the stream ends</li>
+ * </ul>
+ * Every change carries the round, current player and only the players whose
+ * location or tickets changed since the event before. Each event is encoded
+ * once and the same bytes are queued for every watcher; the game thread
+ * never waits for a watcher's connection. Event ids count up from 0, a
+ * watcher that falls too far behind gets a new {@code state} event.
+ */
+public final class GameStream implements Spectator {
+
+	private static final Colour[] COLOURS = Colour.values();
+	private static final Ticket[] TICKETS = Ticket.values();
+
+	private final List<Colour> players;
+	private final List<Boolean> rounds;
+	private final List<Watcher> watchers = new CopyOnWriteArrayList<>();
+	private final Watcher.Resync resync = this::state;
+
+	// written by the game thread under the lock
+	private final int[] locations = new int[COLOURS.length];
+	private final int[][] tickets = new int[COLOURS.length][TICKETS.length];
+	private final int[] scratch = new int[TICKETS.length];
+	private int round;
+	private Colour current;
+	private Set<Colour> winning = Collections.emptySet();
+	private boolean over;
+	private long id;
+	private byte[] state;
+
+	/**
+	 * Creates a stream starting from the current state of the view. Read on
+	 * the game's thread, or before the game starts.
+	 *
+	 * @param view the game; not null
+	 */
+	public GameStream(ScotlandYardView view) {
+		requireNonNull(view);
+		players = Collections.unmodifiableList(new ArrayList<>(view.getPlayers()));
+		rounds = Collections.unmodifiableList(new ArrayList<>(view.getRounds()));
+		update(view, new StringBuilder(), true);
+	}
+
+	/**
+	 * @return the number of watchers connected
+	 */
+	public int watchers() {
+		return watchers.size();
+	}
+
+	/**
+	 * @return whether the game is over
+	 */
+	public synchronized boolean isOver() {
+		return over;
+	}
+
+	@Override
+	public void onMoveMade(ScotlandYardView view, Move move) {
+		StringBuilder json = new StringBuilder(256).append("{\"move\":");
+		Frames.move(json, move);
+		json.append(',');
+		publish(view, "move", json, false);
+	}
+
+	@Override
+	public void onRoundStarted(ScotlandYardView view, int round) {
+		publish(view, "round", new StringBuilder(128).append('{'), false);
+	}
+
+	@Override
+	public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
+		Set<Colour> copy = EnumSet.noneOf(Colour.class);
+		copy.addAll(winningPlayers);
+		StringBuilder json = new StringBuilder(128).append("{\"winning\":");
+		Frames.colours(json, copy);
+		json.append(',');
+		synchronized (this) {
+			winning = Collections.unmodifiableSet(copy);
+		}
+		publish(view, "over", json, true);
+	}
+
+	@Override
+	public void onRotationComplete(ScotlandYardView view) {
+		// a game can end with a rotation instead of onGameOver
+		if (view.isGameOver() && !isOver()) onGameOver(view, view.getWinningPlayers());
+	}
+
+	// encodes one frame and hands it to every watcher
+	private void publish(ScotlandYardView view, String event, StringBuilder json, boolean end) {
+		byte[] frame;
+		synchronized (this) {
+			if (over) return;
+			json.append("\"changed\":[");
+			update(view, json, false);
+			json.append("],\"round\":").append(round).append(",\"current\":\"").append(current)
+					.append("\"}");
+			over = end;
+			frame = Frames.event(++id, event, json.toString());
+			for (Watcher watcher : watchers) watcher.offer(frame, resync, end);
+		}
+	}
+
+	// copies the view, writing the players that changed to the json
+	private void update(ScotlandYardView view, StringBuilder json, boolean all) {
+		boolean first = true;
+		for (Colour colour : players) {
+			int c = colour.ordinal();
+			int location = view.getPlayerLocation(colour).orElse(-1);
+			for (int t = 0; t < TICKETS.length; t++)
+				scratch[t] = view.getPlayerTickets(colour, TICKETS[t]).orElse(0);
+			if (!all && location == locations[c] && Arrays.equals(scratch, tickets[c]))
+				continue;
+			locations[c] = location;
+			System.arraycopy(scratch, 0, tickets[c], 0, TICKETS.length);
+			if (!first) json.append(',');
+			Frames.player(json, c, location, tickets[c]);
+			first = false;
+		}
+		round = view.getCurrentRound();
+		current = view.getCurrentPlayer();
+		state = null;
+	}
+
+	// must hold the lock
+	private byte[] state() {
+		if (state != null) return state;
+		StringBuilder json = new StringBuilder(512).append("{\"players\":[");
+		for (int i = 0; i < players.size(); i++) {
+			if (i > 0) json.append(',');
+			int c = players.get(i).ordinal();
+			Frames.player(json, c, locations[c], tickets[c]);
+		}
+		json.append("],\"rounds\":");
+		Frames.rounds(json, rounds);
+		json.append(",\"round\":").append(round).append(",\"current\":\"").append(current)
+				.append("\",\"over\":").append(over).append(",\"winning\":");
+		Frames.colours(json, winning);
+		json.append('}');
+		state = Frames.event(id, "state", json.toString());
+		return state;
+	}
+
+	/**
+	 * @return the stream's id of the latest event, and so of the state a new
+	 *         watcher starts from
+	 */
+	public synchronized long lastEventId() {
+		return id;
+	}
+
+	// a watcher gets the latest state, then every event after it
+	synchronized void subscribe(Watcher watcher) {
+		watcher.offer(state(), resync, over);
+		if (!over) watchers.add(watcher);
+	}
+
+	void unsubscribe(Watcher watcher) {
+		watchers.remove(watcher);
+	}
+
+	void closeAll() {
+		watchers.forEach(Watcher::close);
+	}
+
+}
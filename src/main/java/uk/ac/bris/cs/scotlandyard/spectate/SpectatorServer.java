@@ -0,0 +1,187 @@
+package uk.ac.bris.cs.scotlandyard.spectate;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Streams games to watchers over HTTP with Server-Sent Events, using the
+ * server built into the JDK:
+ * <ul>
+ * <li>{@code GET /games} lists the ids of published games as JSON</li>
+ * <li>{@code GET /games/<id>} streams the events of a game, see
+ * {@link GameStream}</li>
+ * </ul>
+ * Handlers only subscribe the watcher and return; frames are written by a
+ * small shared pool, so a watcher costs a queue rather than a thread. A
+ * watcher that does not take a frame within the write timeout is
+ * disconnected, so clients that stop reading cannot hold up the others.
+ */
+public final class SpectatorServer implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger(SpectatorServer.class);
+
+	private static final String GAMES = "/games";
+	private static final Pattern ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+	private static final int WRITERS = 2;
+	private static final Duration WRITE_TIMEOUT = Duration.ofSeconds(10);
+
+	private final HttpServer server;
+	private final ExecutorService handlers;
+	private final ExecutorService writers;
+	private final ScheduledExecutorService timer;
+	private final Duration writeTimeout;
+	private final Map<String, GameStream> streams = new ConcurrentHashMap<>();
+
+	/**
+	 * Starts a server
+	 *
+	 * @param address the address to listen on; not null
+	 * @throws IOException if the address cannot be bound
+	 */
+	public SpectatorServer(InetSocketAddress address) throws IOException {
+		this(address, WRITE_TIMEOUT);
+	}
+
+	/**
+	 * @param address the address to listen on; not null
+	 * @param writeTimeout how long a watcher may take to accept a frame; not
+	 *        null
+	 * @throws IOException if the address cannot be bound
+	 */
+	SpectatorServer(InetSocketAddress address, Duration writeTimeout) throws IOException {
+		requireNonNull(address);
+		this.writeTimeout = requireNonNull(writeTimeout);
+		server = HttpServer.create(address, 0);
+		handlers = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setDaemon(true)
+				.setNameFormat("spectator-http-%d").build());
+		writers = Executors.newFixedThreadPool(WRITERS, new ThreadFactoryBuilder()
+				.setDaemon(true).setNameFormat("spectator-writer-%d").build());
+		timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+				.setDaemon(true).setNameFormat("spectator-timeout").build());
+		server.setExecutor(handlers);
+		server.createContext(GAMES, this::handle);
+		server.start();
+	}
+
+	/**
+	 * @return a server listening on a free port of the loopback address
+	 * @throws IOException if no port can be bound
+	 */
+	public static SpectatorServer loopback() throws IOException {
+		return new SpectatorServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+	}
+
+	/**
+	 * @return the address the server listens on
+	 */
+	public InetSocketAddress address() {
+		return server.getAddress();
+	}
+
+	/**
+	 * Makes a stream available at {@code /games/<id>}
+	 *
+	 * @param id letters, digits, {@code _} or {@code -}, at most 64
+	 * @param stream the stream; not null
+	 * @throws IllegalArgumentException if the id is malformed or taken
+	 */
+	public void publish(String id, GameStream stream) {
+		requireNonNull(stream);
+		if (!ID.matcher(requireNonNull(id)).matches())
+			throw new IllegalArgumentException("Invalid id " + id);
+		if (streams.putIfAbsent(id, stream) != null)
+			throw new IllegalArgumentException("Id " + id + " is taken");
+	}
+
+	/**
+	 * Removes a stream and disconnects its watchers
+	 *
+	 * @param id the id it was published with
+	 * @return whether there was a stream with the id
+	 */
+	public boolean unpublish(String id) {
+		GameStream stream = streams.remove(id);
+		if (stream == null) return false;
+		stream.closeAll();
+		return true;
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				respond(exchange, 405, "text/plain", "Only GET is supported");
+				return;
+			}
+			String path = exchange.getRequestURI().getPath();
+			if (path.equals(GAMES) || path.equals(GAMES + "/")) {
+				StringBuilder json = new StringBuilder("[");
+				for (String id : new TreeSet<>(streams.keySet())) {
+					if (json.length() > 1) json.append(',');
+					json.append('"').append(id).append('"');
+				}
+				respond(exchange, 200, "application/json", json.append(']').toString());
+				return;
+			}
+			GameStream stream = path.startsWith(GAMES + "/")
+					? streams.get(path.substring(GAMES.length() + 1)) : null;
+			if (stream == null) {
+				respond(exchange, 404, "text/plain", "No such game");
+				return;
+			}
+			exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+			exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream body = exchange.getResponseBody();
+			// the exchange stays open after returning, the writers own it now
+			stream.subscribe(new Watcher(body, writers, timer, writeTimeout,
+					stream::unsubscribe));
+		} catch (IOException | RuntimeException e) {
+			logger.debug("Handling {} failed", exchange.getRequestURI(), e);
+			exchange.close();
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int status, String type, String body)
+			throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", type + "; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Disconnects every watcher and stops the server
+	 */
+	@Override
+	public void close() {
+		streams.values().forEach(GameStream::closeAll);
+		streams.clear();
+		server.stop(0);
+		handlers.shutdownNow();
+		writers.shutdownNow();
+		timer.shutdownNow();
+	}
+
+}
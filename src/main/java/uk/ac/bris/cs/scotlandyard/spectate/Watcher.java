@@ -0,0 +1,168 @@
+package uk.ac.bris.cs.scotlandyard.spectate;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * One client watching a stream. Frames are queued by the game thread and
+ * written by a shared writer pool, one drain per watcher at a time. A
+ * watcher that falls more than {@link #QUEUE_LIMIT} frames behind skips
+ * what it has not read yet and gets the latest full state instead.
+ * <br>
+ * Writes block, so a client that stops reading would hold a writer once the
+ * socket buffers are full. A write that takes longer than the timeout is
+ * interrupted, which closes the connection under it, and the watcher is
+ * closed. Closing the stream itself is a write too and happens on the
+ * writers.
+ */
+final class Watcher {
+
+	static final int QUEUE_LIMIT = 256;
+
+	private final OutputStream out;
+	private final Executor writers;
+	private final ScheduledExecutorService timer;
+	private final Duration timeout;
+	private final Consumer<Watcher> onClose;
+	private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+	private boolean draining;
+	private boolean last;
+	private boolean closed;
+	// the thread in a write and the number of that write, for the timer
+	private Thread writer;
+	private long writes;
+	private boolean stalled;
+
+	Watcher(OutputStream out, Executor writers, ScheduledExecutorService timer,
+			Duration timeout, Consumer<Watcher> onClose) {
+		this.out = out;
+		this.writers = writers;
+		this.timer = timer;
+		this.timeout = timeout;
+		this.onClose = onClose;
+	}
+
+	/**
+	 * Queues a frame, never waits for the client
+	 *
+	 * @param frame the frame
+	 * @param resync the full state to send instead if the watcher is too far
+	 *        behind
+	 * @param end whether to close the stream after this frame
+	 */
+	void offer(byte[] frame, Resync resync, boolean end) {
+		boolean schedule;
+		synchronized (this) {
+			if (closed || last) return;
+			if (queue.size() >= QUEUE_LIMIT) {
+				queue.clear();
+				queue.add(resync.frame());
+			} else {
+				queue.add(frame);
+			}
+			last = end;
+			schedule = !draining;
+			draining = true;
+		}
+		if (schedule) writers.execute(this::drain);
+	}
+
+	private void drain() {
+		while (true) {
+			byte[] frame;
+			boolean end;
+			synchronized (this) {
+				frame = closed ? null : queue.poll();
+				if (frame == null && !closed) {
+					draining = false;
+					return;
+				}
+				end = closed || last && queue.isEmpty();
+			}
+			if (frame != null && !write(() -> {
+				out.write(frame);
+				out.flush();
+			})) end = true;
+			if (end) {
+				write(out::close);
+				synchronized (this) {
+					closed = true;
+					queue.clear();
+					draining = false;
+				}
+				onClose.accept(this);
+				return;
+			}
+		}
+	}
+
+	// runs a write, false if it failed or ran past the timeout
+	private boolean write(Write write) {
+		long id;
+		synchronized (this) {
+			writer = Thread.currentThread();
+			id = ++writes;
+		}
+		Future<?> deadline = timer.schedule(() -> stall(id), timeout.toNanos(), NANOSECONDS);
+		boolean written;
+		try {
+			write.run();
+			written = true;
+		} catch (IOException e) {
+			written = false;
+		}
+		deadline.cancel(false);
+		synchronized (this) {
+			writer = null;
+			if (stalled) {
+				// the interrupt was for this watcher, not the writer's next one
+				Thread.interrupted();
+				written = false;
+			}
+		}
+		return written;
+	}
+
+	private synchronized void stall(long id) {
+		if (writer == null || writes != id) return;
+		stalled = true;
+		// the connection's channel closes and the write throws
+		writer.interrupt();
+	}
+
+	/**
+	 * Drops what is queued and closes the stream on a writer, returns
+	 * straight away
+	 */
+	void close() {
+		boolean schedule;
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+			queue.clear();
+			schedule = !draining;
+			draining = true;
+		}
+		if (schedule) writers.execute(this::drain);
+	}
+
+	/**
+	 * The full state of a stream, encoded when first needed
+	 */
+	interface Resync {
+		byte[] frame();
+	}
+
+	private interface Write {
+		void run() throws IOException;
+	}
+
+}
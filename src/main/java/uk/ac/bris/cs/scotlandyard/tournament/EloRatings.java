@@ -0,0 +1,100 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+
+/**
+ * Elo performance ratings: every AI is rated so that its expected score
+ * against the opponents it actually met matches the score it got, solved
+ * iteratively and centred on {@link #MEAN}. Unlike incremental Elo the result
+ * does not depend on the order games finished in.
+ * <br>
+ * The interval is the Wilson score interval of the AI's score mapped to
+ * ratings, it is unbounded on the side of a perfect score. Perfect scores
+ * are treated as half a game short of perfect so that the ratings
+ * themselves stay finite.
+ */
+final class EloRatings {
+
+	static final double MEAN = 1500;
+	private static final int ITERATIONS = 100;
+	private static final double Z = 1.96;
+
+	private EloRatings() {}
+
+	static Map<AI, Rating> rate(List<AI> players, List<GameResult> results) {
+		Map<AI, Double> ratings = new HashMap<>();
+		players.forEach(ai -> ratings.put(ai, MEAN));
+		Map<AI, Map<AI, Integer>> opponents = new HashMap<>();
+		Map<AI, Integer> wins = new HashMap<>();
+		for (GameResult result : results) {
+			if (result.fixture.mirror() || !result.winner().isPresent()) continue;
+			AI winner = result.winner().get(), loser = result.loser().get();
+			opponents.computeIfAbsent(winner, a -> new HashMap<>()).merge(loser, 1, Integer::sum);
+			opponents.computeIfAbsent(loser, a -> new HashMap<>()).merge(winner, 1, Integer::sum);
+			wins.merge(winner, 1, Integer::sum);
+		}
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			Map<AI, Double> next = new HashMap<>();
+			for (AI ai : players) {
+				Map<AI, Integer> met = opponents.get(ai);
+				if (met == null) {
+					next.put(ai, MEAN);
+					continue;
+				}
+				int games = met.values().stream().mapToInt(Integer::intValue).sum();
+				double opponentMean = met.entrySet().stream()
+						.mapToDouble(e -> ratings.get(e.getKey()) * e.getValue()).sum() / games;
+				next.put(ai, opponentMean + difference(score(wins.getOrDefault(ai, 0), games)));
+			}
+			// damped, plain iteration oscillates between two solutions
+			next.replaceAll((ai, rating) -> (rating + ratings.get(ai)) / 2);
+			double mean = next.values().stream().mapToDouble(Double::doubleValue).average()
+					.orElse(MEAN);
+			next.replaceAll((ai, rating) -> rating - mean + MEAN);
+			ratings.putAll(next);
+		}
+
+		Map<AI, Rating> rated = new HashMap<>();
+		for (AI ai : players) {
+			Map<AI, Integer> met = opponents.get(ai);
+			double rating = ratings.get(ai);
+			if (met == null) {
+				rated.put(ai, new Rating(rating, Double.NEGATIVE_INFINITY,
+						Double.POSITIVE_INFINITY));
+				continue;
+			}
+			int games = met.values().stream().mapToInt(Integer::intValue).sum();
+			int won = wins.getOrDefault(ai, 0);
+			// Wilson score interval, unlike the normal approximation it does
+			// not collapse for scores of 0 or 1
+			double p = (double) won / games;
+			double z2 = Z * Z / games;
+			double centre = (p + z2 / 2) / (1 + z2);
+			double spread = Z * Math.sqrt(p * (1 - p) / games + z2 / (4 * games)) / (1 + z2);
+			double base = rating - difference(score(won, games));
+			rated.put(ai, new Rating(rating,
+					base + difference(centre - spread),
+					base + difference(centre + spread)));
+		}
+		return rated;
+	}
+
+	private static double score(int wins, int games) {
+		double margin = 0.5 / games;
+		return Math.max(margin, Math.min(1 - margin, (double) wins / games));
+	}
+
+	// rating difference at which the expected score is the given one,
+	// infinite for scores of 0 and 1
+	private static double difference(double score) {
+		if (score <= 0) return Double.NEGATIVE_INFINITY;
+		if (score >= 1) return Double.POSITIVE_INFINITY;
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+}
@@ -0,0 +1,35 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import static java.util.Objects.requireNonNull;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+
+/**
+ * A game to be played: who plays Mr X, who plays the detectives and where
+ * everyone starts
+ */
+final class Fixture {
+
+	final int round;
+	final AI mrX;
+	final AI detectives;
+	final int seed;
+
+	Fixture(int round, AI mrX, AI detectives, int seed) {
+		this.round = round;
+		this.mrX = requireNonNull(mrX);
+		this.detectives = requireNonNull(detectives);
+		this.seed = seed;
+	}
+
+	boolean mirror() {
+		return mrX.equals(detectives);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("round %d: %s (Mr X) vs %s (detectives), seed %d",
+				round, mrX.getName(), detectives.getName(), seed);
+	}
+
+}
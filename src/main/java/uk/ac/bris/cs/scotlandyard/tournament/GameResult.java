@@ -0,0 +1,66 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+
+/**
+ * How a {@link Fixture} went
+ */
+final class GameResult {
+
+	enum Outcome {
+		MRX_WON, DETECTIVES_WON, ERROR
+	}
+
+	final Fixture fixture;
+	final Outcome outcome;
+	final int rounds;
+	final Duration duration;
+	// the player whose move timed out, decides the outcome if present
+	final Optional<Colour> timedOut;
+	final Optional<String> error;
+
+	GameResult(Fixture fixture, Outcome outcome, int rounds, Duration duration,
+			Optional<Colour> timedOut, Optional<String> error) {
+		this.fixture = requireNonNull(fixture);
+		this.outcome = requireNonNull(outcome);
+		this.rounds = rounds;
+		this.duration = requireNonNull(duration);
+		this.timedOut = requireNonNull(timedOut);
+		this.error = requireNonNull(error);
+	}
+
+	/**
+	 * @return the AI that won, empty if the game did not finish
+	 */
+	Optional<AI> winner() {
+		switch (outcome) {
+		case MRX_WON:
+			return Optional.of(fixture.mrX);
+		case DETECTIVES_WON:
+			return Optional.of(fixture.detectives);
+		default:
+			return Optional.empty();
+		}
+	}
+
+	/**
+	 * @return the AI that lost, empty if the game did not finish
+	 */
+	Optional<AI> loser() {
+		switch (outcome) {
+		case MRX_WON:
+			return Optional.of(fixture.detectives);
+		case DETECTIVES_WON:
+			return Optional.of(fixture.mrX);
+		default:
+			return Optional.empty();
+		}
+	}
+
+}
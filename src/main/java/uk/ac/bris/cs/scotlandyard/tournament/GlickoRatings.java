@@ -0,0 +1,78 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+
+/**
+ * Glicko-1 ratings, each tournament round being one rating period. The
+ * interval is the rating plus or minus twice (1.96 times) the rating
+ * deviation. Deviations do not grow between periods as the AIs do not change
+ * during a tournament.
+ */
+final class GlickoRatings {
+
+	static final double INITIAL_RATING = 1500;
+	static final double INITIAL_DEVIATION = 350;
+	private static final double MIN_DEVIATION = 30;
+	private static final double Q = Math.log(10) / 400;
+	private static final double Z = 1.96;
+
+	private GlickoRatings() {}
+
+	static Map<AI, Rating> rate(List<AI> players, List<GameResult> results) {
+		Map<AI, double[]> ratings = new HashMap<>();
+		players.forEach(ai -> ratings.put(ai, new double[] { INITIAL_RATING, INITIAL_DEVIATION }));
+
+		Map<Integer, List<GameResult>> periods = new TreeMap<>();
+		for (GameResult result : results) {
+			if (result.fixture.mirror() || !result.winner().isPresent()) continue;
+			periods.computeIfAbsent(result.fixture.round, r -> new ArrayList<>()).add(result);
+		}
+
+		for (List<GameResult> period : periods.values()) {
+			// everyone is updated against the ratings from before the period
+			Map<AI, double[]> before = new HashMap<>();
+			ratings.forEach((ai, rating) -> before.put(ai, rating.clone()));
+			Map<AI, double[]> sums = new HashMap<>();
+			for (GameResult result : period) {
+				AI winner = result.winner().get(), loser = result.loser().get();
+				accumulate(sums.computeIfAbsent(winner, a -> new double[2]), before.get(winner),
+						before.get(loser), 1);
+				accumulate(sums.computeIfAbsent(loser, a -> new double[2]), before.get(loser),
+						before.get(winner), 0);
+			}
+			sums.forEach((ai, sum) -> ratings.put(ai, update(before.get(ai), sum)));
+		}
+
+		Map<AI, Rating> rated = new HashMap<>();
+		ratings.forEach((ai, rating) -> rated.put(ai,
+				new Rating(rating[0], rating[0] - Z * rating[1], rating[0] + Z * rating[1])));
+		return rated;
+	}
+
+	// sum[0] is the sum of g^2 E (1 - E), sum[1] the sum of g (s - E)
+	static void accumulate(double[] sum, double[] rating, double[] opponent, double score) {
+		double g = g(opponent[1]);
+		double expected = 1 / (1 + Math.pow(10, -g * (rating[0] - opponent[0]) / 400));
+		sum[0] += g * g * expected * (1 - expected);
+		sum[1] += g * (score - expected);
+	}
+
+	// the rating and deviation after a period with the accumulated sums
+	static double[] update(double[] rating, double[] sum) {
+		double variance = 1 / (Q * Q * sum[0]);
+		double precision = 1 / (rating[1] * rating[1]) + 1 / variance;
+		return new double[] { rating[0] + Q / precision * sum[1],
+				Math.max(MIN_DEVIATION, Math.sqrt(1 / precision)) };
+	}
+
+	private static double g(double deviation) {
+		return 1 / Math.sqrt(1 + 3 * Q * Q * deviation * deviation / (Math.PI * Math.PI));
+	}
+
+}
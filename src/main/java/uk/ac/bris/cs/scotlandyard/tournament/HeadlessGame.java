@@ -0,0 +1,134 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import static java.util.stream.Collectors.toList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import uk.ac.bris.cs.scotlandyard.ai.AIExecutor;
+import uk.ac.bris.cs.scotlandyard.ai.AIPool;
+import uk.ac.bris.cs.scotlandyard.host.NoOpVisualiserSurface;
+import uk.ac.bris.cs.scotlandyard.host.SharedResources;
+import uk.ac.bris.cs.scotlandyard.host.TimedPlayers;
+import uk.ac.bris.cs.scotlandyard.host.TimedPlayers.Side;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.tournament.GameResult.Outcome;
+
+/**
+ * Plays one {@link Fixture} to the end without a UI. Like a local game, a
+ * player that does not move within the timeout loses the game for its side.
+ */
+final class HeadlessGame {
+
+	private static final ScheduledExecutorService watchdog = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+					.setDaemon(true).setNameFormat("tournament-watchdog").build());
+
+	private final SharedResources resources;
+	private final Fixture fixture;
+	private final int detectives;
+	private final Duration timeout;
+
+	private final CompletableFuture<GameResult> result = new CompletableFuture<>();
+	private final TimedPlayers players;
+	private final long start = System.nanoTime();
+	private ScotlandYardModel model;
+
+	HeadlessGame(SharedResources resources, Fixture fixture, int detectives,
+			Duration timeout) {
+		this.resources = resources;
+		this.fixture = fixture;
+		this.detectives = detectives;
+		this.timeout = timeout;
+		this.players = new TimedPlayers(timeout, watchdog, Runnable::run,
+				colour -> finish(colour.isMrX() ? Outcome.DETECTIVES_WON : Outcome.MRX_WON,
+						Optional.of(colour), Optional.empty()));
+	}
+
+	GameResult play() {
+		AIPool<Side> pool = new AIPool<>(new NoOpVisualiserSurface(),
+				e -> finish(Outcome.ERROR, Optional.empty(), Optional.of(e.toString())),
+				AIExecutor.shared());
+		try {
+			List<Colour> colours = Arrays.stream(Colour.values())
+					.filter(Colour::isDetective).limit(detectives).collect(toList());
+			pool.addToGroup(Side.MRX, Colour.BLACK, fixture.mrX);
+			colours.forEach(colour -> pool.addToGroup(Side.DETECTIVES, colour, fixture.detectives));
+
+			PlayerConfiguration mrX = new PlayerConfiguration.Builder(Colour.BLACK)
+					.using(players.player(Colour.BLACK))
+					.with(StandardGame.generateMrXTickets())
+					.at(StandardGame.generateMrXLocation(fixture.seed))
+					.build();
+			List<Integer> locations = StandardGame.generateDetectiveLocations(fixture.seed,
+					detectives);
+			List<PlayerConfiguration> others = new ArrayList<>();
+			for (int i = 0; i < colours.size(); i++) {
+				others.add(new PlayerConfiguration.Builder(colours.get(i))
+						.using(players.player(colours.get(i)))
+						.with(StandardGame.generateDetectiveTickets())
+						.at(locations.get(i))
+						.build());
+			}
+			model = new ScotlandYardModel(StandardGame.ROUNDS, resources.graph(), mrX,
+					others.get(0), others.stream().skip(1).toArray(PlayerConfiguration[]::new));
+
+			pool.initialise(resources, model, timeout);
+			players.play(Colour.BLACK, pool.createPlayer(Colour.BLACK)
+					.orElseThrow(AssertionError::new));
+			for (Colour colour : colours)
+				players.play(colour, pool.createPlayer(colour).orElseThrow(AssertionError::new));
+
+			model.registerSpectator(TimedPlayers.rotation(model, Runnable::run, this::finish));
+			model.startRotate();
+			// a game has at most one move per player per round, each one of
+			// them bounded by the watchdog
+			long limit = players.timeLimit().toMillis() * (StandardGame.ROUNDS.size() + 1)
+					* (detectives + 1);
+			return result.get(limit, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return error(e);
+		} catch (ExecutionException e) {
+			return error(e.getCause());
+		} catch (TimeoutException | RuntimeException e) {
+			return error(e);
+		} finally {
+			players.cancel();
+			pool.terminate();
+		}
+	}
+
+	private GameResult error(Throwable e) {
+		finish(Outcome.ERROR, Optional.empty(), Optional.of(e.toString()));
+		return result.join();
+	}
+
+	private void finish(Set<Colour> winningPlayers) {
+		finish(winningPlayers.contains(Colour.BLACK) ? Outcome.MRX_WON : Outcome.DETECTIVES_WON,
+				Optional.empty(), Optional.empty());
+	}
+
+	private void finish(Outcome outcome, Optional<Colour> timedOut, Optional<String> error) {
+		ScotlandYardModel model = this.model;
+		int rounds = model == null ? 0 : model.getCurrentRound();
+		result.complete(new GameResult(fixture, outcome, rounds,
+				Duration.ofNanos(System.nanoTime() - start), timedOut, error));
+	}
+
+}
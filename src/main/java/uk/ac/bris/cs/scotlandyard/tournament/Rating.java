@@ -0,0 +1,23 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+/**
+ * A rating with its 95% confidence interval
+ */
+final class Rating {
+
+	final double value;
+	final double low;
+	final double high;
+
+	Rating(double value, double low, double high) {
+		this.value = value;
+		this.low = low;
+		this.high = high;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%.0f [%.0f, %.0f]", value, low, high);
+	}
+
+}
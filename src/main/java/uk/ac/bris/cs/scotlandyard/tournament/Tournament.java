@@ -0,0 +1,363 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.host.SharedResources;
+import uk.ac.bris.cs.scotlandyard.tournament.GameResult.Outcome;
+
+/**
+ * Plays every {@link uk.ac.bris.cs.scotlandyard.ai.ManagedAI} against every
+ * other one without a UI and rates them, for evaluating AI changes without
+ * watching games by hand. Each pairing plays both sides from the same
+ * starting positions so neither AI gets the easier draw.
+ * <br>
+ * Run with
+ * {@code mvn exec:java -Dexec.mainClass=uk.ac.bris.cs.scotlandyard.tournament.Tournament -Dexec.args="--help"}
+ * for the options.
+ */
+public final class Tournament {
+
+	private static final Logger logger = LoggerFactory.getLogger(Tournament.class);
+
+	private static final String USAGE = String.join("\n",
+			"Usage: Tournament [options]",
+			"  --format round-robin|swiss  pairing format (round-robin)",
+			"  --games <n>                 round-robin: games per pairing, both sides alike (20)",
+			"                              swiss: games per pairing and round (2)",
+			"  --rounds <n>                swiss rounds (5)",
+			"  --ai <name,name,...>        AIs to enter (all discovered)",
+			"  --self                      also play every AI against itself, not rated",
+			"  --detectives <1-5>          detectives per game (5)",
+			"  --timeout <ms>              time per move (1000)",
+			"  --parallel <n>              games played at once (available processors)",
+			"  --seed <n>                  first seed for starting positions (0)",
+			"  --out <file>                write ratings as CSV",
+			"  --results <file>            write every game as CSV");
+
+	enum Format {
+		ROUND_ROBIN, SWISS
+	}
+
+	private Format format = Format.ROUND_ROBIN;
+	private int games = -1;
+	private int rounds = 5;
+	private List<String> names = new ArrayList<>();
+	private boolean self;
+	private int detectives = 5;
+	private Duration timeout = Duration.ofSeconds(1);
+	private int parallel = Runtime.getRuntime().availableProcessors();
+	private int seed;
+	private Path out;
+	private Path resultsOut;
+
+	public static void main(String[] args) throws Exception {
+		Tournament tournament = new Tournament();
+		try {
+			if (!tournament.parse(args)) {
+				System.out.println(USAGE);
+				return;
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(2);
+		}
+		System.exit(tournament.run() ? 0 : 1);
+	}
+
+	boolean parse(String[] args) {
+		for (int i = 0; i < args.length; i++) {
+			String option = args[i];
+			if (option.equals("--help")) return false;
+			if (option.equals("--self")) {
+				self = true;
+				continue;
+			}
+			if (i + 1 >= args.length) throw new IllegalArgumentException(option + " needs a value");
+			String value = args[++i];
+			try {
+				switch (option) {
+				case "--format":
+					format = Format.valueOf(value.toUpperCase().replace('-', '_'));
+					break;
+				case "--games":
+					games = positive(option, value);
+					break;
+				case "--rounds":
+					rounds = positive(option, value);
+					break;
+				case "--ai":
+					names = Arrays.stream(value.split(",")).map(String::trim)
+							.filter(s -> !s.isEmpty()).collect(toList());
+					break;
+				case "--detectives":
+					detectives = positive(option, value);
+					if (detectives > 5)
+						throw new IllegalArgumentException("At most 5 detectives");
+					break;
+				case "--timeout":
+					timeout = Duration.ofMillis(positive(option, value));
+					break;
+				case "--parallel":
+					parallel = positive(option, value);
+					break;
+				case "--seed":
+					seed = Integer.parseInt(value);
+					break;
+				case "--out":
+					out = Paths.get(value);
+					break;
+				case "--results":
+					resultsOut = Paths.get(value);
+					break;
+				default:
+					throw new IllegalArgumentException("Unknown option " + option);
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(option + " needs a number, got " + value);
+			}
+		}
+		if (games == -1) games = format == Format.ROUND_ROBIN ? 20 : 2;
+		return true;
+	}
+
+	private static int positive(String option, String value) {
+		int number = Integer.parseInt(value);
+		if (number <= 0) throw new IllegalArgumentException(option + " must be positive");
+		return number;
+	}
+
+	private boolean run() throws IOException, InterruptedException {
+		List<AI> ais = AI.discover();
+		if (!names.isEmpty()) {
+			Set<String> known = ais.stream().map(AI::getName).collect(toSet());
+			for (String name : names)
+				if (!known.contains(name)) {
+					System.err.println("No AI named " + name + ", found " + known);
+					return false;
+				}
+			ais = ais.stream().filter(ai -> names.contains(ai.getName())).collect(toList());
+		}
+		ais.sort(Comparator.comparing(AI::getName));
+		if (ais.size() < 2 && !self) {
+			System.err.println("Need at least two AIs for a tournament (or --self), found "
+					+ ais.stream().map(AI::getName).collect(toList()));
+			return false;
+		}
+		logger.info("{} tournament between {}, {} detectives, {}ms per move, {} games at once",
+				format, ais.stream().map(AI::getName).collect(toList()), detectives,
+				timeout.toMillis(), parallel);
+
+		SharedResources resources = new SharedResources();
+		ExecutorService executor = Executors.newFixedThreadPool(parallel,
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("tournament-game-%d")
+						.build());
+		long start = System.nanoTime();
+		List<GameResult> results = new ArrayList<>();
+		try {
+			if (format == Format.ROUND_ROBIN) {
+				results.addAll(play(executor, resources, roundRobin(ais)));
+			} else {
+				for (int round = 0; round < rounds; round++)
+					results.addAll(play(executor, resources, swissRound(ais, results, round)));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		logger.info("{} games played in {}s", results.size(),
+				Duration.ofNanos(System.nanoTime() - start).getSeconds());
+
+		report(ais, results);
+		return true;
+	}
+
+	private List<Fixture> roundRobin(List<AI> ais) {
+		List<Fixture> fixtures = new ArrayList<>();
+		// an odd number of games still plays both sides equally often
+		int rounds = (games + 1) / 2;
+		for (int round = 0; round < rounds; round++) {
+			for (int i = 0; i < ais.size(); i++) {
+				if (self) fixtures.add(new Fixture(round, ais.get(i), ais.get(i), seed + round));
+				for (int j = i + 1; j < ais.size(); j++) {
+					fixtures.add(new Fixture(round, ais.get(i), ais.get(j), seed + round));
+					fixtures.add(new Fixture(round, ais.get(j), ais.get(i), seed + round));
+				}
+			}
+		}
+		return fixtures;
+	}
+
+	/**
+	 * Pairs AIs with the same number of wins, avoiding rematches where
+	 * possible; with an odd number of AIs the last one sits the round out
+	 */
+	List<Fixture> swissRound(List<AI> ais, List<GameResult> results, int round) {
+		Map<AI, Integer> points = new HashMap<>();
+		Set<List<AI>> met = new HashSet<>();
+		for (GameResult result : results) {
+			result.winner().ifPresent(ai -> points.merge(ai, 1, Integer::sum));
+			met.add(pairing(result.fixture.mrX, result.fixture.detectives));
+		}
+		List<AI> standings = new ArrayList<>(ais);
+		standings.sort(Comparator.<AI> comparingInt(ai -> -points.getOrDefault(ai, 0))
+				.thenComparing(AI::getName));
+
+		List<Fixture> fixtures = new ArrayList<>();
+		while (standings.size() > 1) {
+			AI first = standings.remove(0);
+			AI second = standings.stream()
+					.filter(ai -> !met.contains(pairing(first, ai)))
+					.findFirst().orElse(standings.get(0));
+			standings.remove(second);
+			for (int game = 0; game < games; game++) {
+				int gameSeed = seed + round * games + game / 2;
+				fixtures.add(game % 2 == 0
+						? new Fixture(round, first, second, gameSeed)
+						: new Fixture(round, second, first, gameSeed));
+			}
+		}
+		if (!standings.isEmpty())
+			logger.info("Round {}: {} has a bye", round + 1, standings.get(0).getName());
+		if (self) {
+			for (AI ai : ais)
+				fixtures.add(new Fixture(round, ai, ai, seed + round * games));
+		}
+		return fixtures;
+	}
+
+	// the same whichever side each AI played
+	private static List<AI> pairing(AI a, AI b) {
+		return a.getName().compareTo(b.getName()) <= 0 ? Arrays.asList(a, b) : Arrays.asList(b, a);
+	}
+
+	private List<GameResult> play(ExecutorService executor, SharedResources resources,
+			List<Fixture> fixtures) throws InterruptedException {
+		CompletionService<GameResult> completion = new ExecutorCompletionService<>(executor);
+		Map<Future<GameResult>, Integer> order = new HashMap<>();
+		for (int i = 0; i < fixtures.size(); i++) {
+			Fixture fixture = fixtures.get(i);
+			order.put(completion.submit(
+					() -> new HeadlessGame(resources, fixture, detectives, timeout).play()), i);
+		}
+		GameResult[] results = new GameResult[fixtures.size()];
+		int step = Math.max(1, fixtures.size() / 10);
+		for (int done = 1; done <= fixtures.size(); done++) {
+			Future<GameResult> future = completion.take();
+			try {
+				GameResult result = future.get();
+				results[order.get(future)] = result;
+				if (result.outcome == Outcome.ERROR)
+					logger.warn("{} failed: {}", result.fixture, result.error.orElse("?"));
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+			if (done % step == 0 || done == fixtures.size())
+				logger.info("{}/{} games done", done, fixtures.size());
+		}
+		return Arrays.asList(results);
+	}
+
+	private void report(List<AI> ais, List<GameResult> results) throws IOException {
+		Map<AI, Rating> elo = EloRatings.rate(ais, results);
+		Map<AI, Rating> glicko = GlickoRatings.rate(ais, results);
+		Map<AI, int[]> stats = new LinkedHashMap<>();
+		// mrX games, mrX wins, detective games, detective wins, timeouts, errors
+		ais.forEach(ai -> stats.put(ai, new int[6]));
+		for (GameResult result : results) {
+			int[] mrX = stats.get(result.fixture.mrX);
+			int[] detectives = stats.get(result.fixture.detectives);
+			if (result.outcome == Outcome.ERROR) {
+				mrX[5]++;
+				if (!result.fixture.mirror()) detectives[5]++;
+				continue;
+			}
+			mrX[0]++;
+			detectives[2]++;
+			if (result.outcome == Outcome.MRX_WON) mrX[1]++;
+			else detectives[3]++;
+			result.timedOut.ifPresent(colour -> (colour.isMrX() ? mrX : detectives)[4]++);
+		}
+
+		List<AI> ranked = new ArrayList<>(ais);
+		ranked.sort(Comparator.comparingDouble(ai -> -glicko.get(ai).value));
+		System.out.printf("%-20s %6s %14s %14s %8s %6s %20s %20s%n", "AI", "games", "Mr X wins",
+				"det. wins", "timeouts", "errors", "Elo [95% CI]", "Glicko [95% CI]");
+		for (AI ai : ranked) {
+			int[] s = stats.get(ai);
+			System.out.printf("%-20s %6d %14s %14s %8d %6d %20s %20s%n", ai.getName(),
+					s[0] + s[2], fraction(s[1], s[0]), fraction(s[3], s[2]), s[4], s[5],
+					elo.get(ai), glicko.get(ai));
+		}
+
+		if (out != null) {
+			try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(out,
+					StandardCharsets.UTF_8))) {
+				writer.println("ai,games,mrx_games,mrx_wins,detective_games,detective_wins,"
+						+ "timeouts,errors,elo,elo_low,elo_high,glicko,glicko_low,glicko_high");
+				for (AI ai : ranked) {
+					int[] s = stats.get(ai);
+					Rating e = elo.get(ai), g = glicko.get(ai);
+					writer.printf("%s,%d,%d,%d,%d,%d,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+							csv(ai.getName()), s[0] + s[2], s[0], s[1], s[2], s[3], s[4], s[5],
+							e.value, e.low, e.high, g.value, g.low, g.high);
+				}
+			}
+			logger.info("Ratings written to {}", out);
+		}
+		if (resultsOut != null) {
+			try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(resultsOut,
+					StandardCharsets.UTF_8))) {
+				writer.println("round,seed,mrx,detectives,outcome,rounds,millis,timed_out,error");
+				for (GameResult result : results) {
+					writer.printf("%d,%d,%s,%s,%s,%d,%d,%s,%s%n", result.fixture.round,
+							result.fixture.seed, csv(result.fixture.mrX.getName()),
+							csv(result.fixture.detectives.getName()), result.outcome,
+							result.rounds, result.duration.toMillis(),
+							result.timedOut.map(Enum::name).orElse(""),
+							csv(result.error.orElse("")));
+				}
+			}
+			logger.info("Games written to {}", resultsOut);
+		}
+	}
+
+	private static String fraction(int wins, int games) {
+		return games == 0 ? "-" : String.format("%d/%d (%.0f%%)", wins, games, 100.0 * wins / games);
+	}
+
+	private static String csv(String value) {
+		if (!value.contains(",") && !value.contains("\"") && !value.contains("\n")) return value;
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+}
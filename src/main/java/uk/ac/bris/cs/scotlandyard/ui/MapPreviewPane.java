@@ -2,46 +2,78 @@ package uk.ac.bris.cs.scotlandyard.ui;
 
 import java.util.Collection;
 import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javafx.animation.TranslateTransition;
+import javafx.application.Platform;
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
 import javafx.scene.effect.BlendMode;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.util.Duration;
+import uk.ac.bris.cs.fxkit.Viewports;
 import uk.ac.bris.cs.fxkit.interpolator.DecelerateInterpolator;
+import uk.ac.bris.cs.fxkit.tile.TiledImageView;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
-import uk.ac.bris.cs.scotlandyard.ResourceManager.ImageResource;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 
 /**
- * Lightweight map with annotation, preview and circling capabilities
+ * Lightweight map with annotation, preview and circling capabilities <br>
+ * Highlights outside of the visible part of the map are hidden so that their
+ * effects are not rendered.
  */
 public class MapPreviewPane extends Pane {
 
+	// how far a highlight's glow reaches beyond its node
+	private static final double HIGHLIGHT_REACH = 100;
+
 	private final Pane annotations = new Pane();
 	private final Pane mask = new Pane();
 	private final ResourceManager manager;
+	private final Map<Integer, Node> highlights = new LinkedHashMap<>();
 
 	public MapPreviewPane(ResourceManager manager) {
 		this.manager = manager;
-		ImageView mapView = new ImageView();
+		TiledImageView mapView = new TiledImageView();
 		Pane shadow = new Pane();
 		getChildren().addAll(mapView, shadow, annotations);
-		Image image = manager.getImage(ImageResource.MAP);
-		mapView.setImage(image);
 		shadow.setStyle("-fx-background-color: rgba(0,0, 0, 0.5)");
-		setMinSize(image.getWidth(), image.getHeight());
-//		resize(image.getWidth(), image.getHeight());
-		shadow.setPrefSize(image.getWidth(), image.getHeight());
-		annotations.setPrefSize(image.getWidth(), image.getHeight());
+		manager.mapTiles().thenAcceptAsync(tiles -> {
+			mapView.setPyramid(tiles);
+			setMinSize(tiles.width(), tiles.height());
+//			resize(tiles.width(), tiles.height());
+			shadow.setPrefSize(tiles.width(), tiles.height());
+			annotations.setPrefSize(tiles.width(), tiles.height());
+		}, Platform::runLater);
 		mask.setBlendMode(BlendMode.OVERLAY);
 		shadow.getChildren().add(mask);
+		Viewports.watch(this, o -> requestLayout());
+	}
+
+	@Override
+	protected void layoutChildren() {
+		super.layoutChildren();
+		cullHighlights();
+	}
+
+	private void cullHighlights() {
+		if (highlights.isEmpty()) return;
+		Bounds visible = Viewports.visibleBounds(this);
+		highlights.values().forEach(n -> n.setVisible(false));
+		if (visible == null) return;
+		manager.getNodeIndex().within(new BoundingBox(
+				visible.getMinX() - HIGHLIGHT_REACH,
+				visible.getMinY() - HIGHLIGHT_REACH,
+				visible.getWidth() + HIGHLIGHT_REACH * 2,
+				visible.getHeight() + HIGHLIGHT_REACH * 2), node -> {
+			Node highlight = highlights.get(node);
+			if (highlight != null) highlight.setVisible(true);
+		});
 	}
 
 	public void reset() {
@@ -96,6 +128,8 @@ public class MapPreviewPane extends Pane {
 
 	private void clearHighlights() {
 		mask.setVisible(false);
+		mask.getChildren().clear();
+		highlights.clear();
 	}
 
 	public void highlight(Collection<Integer> locations) {
@@ -121,6 +155,7 @@ public class MapPreviewPane extends Pane {
 		}
 
 		mask.getChildren().clear();
+		highlights.clear();
 		for (Integer location : locations) {
 			Point2D point = manager.coordinateAtNode(location);
 			Circle circle = new Circle(35);
@@ -130,9 +165,11 @@ public class MapPreviewPane extends Pane {
 			circle.setOpacity(0.8);
 			circle.setStyle("-fx-effect: dropshadow(gaussian, white, 50, 0.5, 0, 0)");
 			mask.getChildren().add(circle);
+			highlights.put(location, circle);
 		}
 
 		mask.setVisible(true);
+		cullHighlights();
 
 	}
 }
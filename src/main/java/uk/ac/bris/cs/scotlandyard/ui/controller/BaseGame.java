@@ -25,6 +25,7 @@ import javafx.scene.shape.Rectangle;
 import javafx.stage.Stage;
 import uk.ac.bris.cs.fxkit.BindFXML;
 import uk.ac.bris.cs.fxkit.Controller;
+import uk.ac.bris.cs.fxkit.UpdateCoalescer;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.ResourceManager.ImageResource;
 import uk.ac.bris.cs.scotlandyard.ai.AIPool.VisualiserSurface;
@@ -76,6 +77,9 @@ public abstract class BaseGame implements Controller {
 
 	final ResourceManager resourceManager;
 	final BoardProperty config;
+	// all controllers of a window share one so that their updates land in
+	// the same batch
+	final UpdateCoalescer updates = new UpdateCoalescer();
 
 	// create all controllers
 	final Board board;
@@ -92,10 +96,10 @@ public abstract class BaseGame implements Controller {
 
 		// initialise all controllers
 		travelLog = new TravelLog(resourceManager, config);
-		ticketsCounter = new TicketsCounter(resourceManager, config);
-		notifications = new Notifications(resourceManager, config);
-		status = new Status(resourceManager, config);
-		board = new Board(resourceManager, notifications, config);
+		ticketsCounter = new TicketsCounter(resourceManager, config, updates);
+		notifications = new Notifications(resourceManager, config, updates);
+		status = new Status(resourceManager, config, updates);
+		board = new Board(resourceManager, notifications, config, updates);
 
 		Rectangle clip = new Rectangle();
 		clip.widthProperty().bind(gamePane.widthProperty());
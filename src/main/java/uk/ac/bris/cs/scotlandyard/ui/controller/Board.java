@@ -4,6 +4,7 @@ import net.kurobako.gesturefx.GesturePane;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -17,8 +18,6 @@ import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.geometry.Point2D;
 import javafx.scene.Parent;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
@@ -30,9 +29,10 @@ import javafx.scene.shape.PathElement;
 import javafx.util.Duration;
 import uk.ac.bris.cs.fxkit.BindFXML;
 import uk.ac.bris.cs.fxkit.Controller;
+import uk.ac.bris.cs.fxkit.UpdateCoalescer;
 import uk.ac.bris.cs.fxkit.interpolator.DecelerateInterpolator;
+import uk.ac.bris.cs.fxkit.tile.TiledImageView;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
-import uk.ac.bris.cs.scotlandyard.ResourceManager.ImageResource;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
 import uk.ac.bris.cs.scotlandyard.model.Move;
@@ -56,9 +56,12 @@ import static java.util.Objects.requireNonNull;
 public final class Board implements Controller, GameControl, Player {
 
 	private static final Duration DURATION = Duration.millis(400);
+	private static final int PREFILLED_HINTS = 16;
+	// clicks on the map this close to a hinted node count as clicking the hint
+	private static final double HINT_PICK_RADIUS = 60;
 
 	@FXML private Pane root;
-	@FXML private ImageView mapView;
+	@FXML private TiledImageView mapView;
 	@FXML private Pane historyPane;
 	@FXML private Pane visualiserPane;
 	@FXML private Pane cuePane;
@@ -69,17 +72,21 @@ public final class Board implements Controller, GameControl, Player {
 	private final BoardProperty property;
 	private final GesturePane gesturePane;
 	private final ResourceManager manager;
+	private final UpdateCoalescer updates;
 
 	private final Map<Colour, Counter> counters = new HashMap<>();
 	private final Map<Colour, BoardPlayer> players = new HashMap<>();
 	private final Map<Integer, MoveHint> hints = new HashMap<>();
+	private final MoveHintPool hintPool;
 	private final Map<Colour, Path> paths = new HashMap<>();
 
 	private ModelConfiguration configuration;
 
-	Board(ResourceManager manager, Notifications notifications, BoardProperty property) {
+	Board(ResourceManager manager, Notifications notifications, BoardProperty property,
+			UpdateCoalescer updates) {
 		Controller.bind(this);
 		this.manager = requireNonNull(manager);
+		this.updates = requireNonNull(updates);
 		this.notifications = requireNonNull(notifications);
 		this.property = requireNonNull(property);
 
@@ -87,10 +94,22 @@ public final class Board implements Controller, GameControl, Player {
 		gesturePane.setMinScale(Double.NEGATIVE_INFINITY);
 		gesturePane.scrollModeProperty().bind(property.scrollModeProperty());
 		historyPane.visibleProperty().bind(property.historyProperty());
-		Image image = manager.getImage(ImageResource.MAP);
-		mapView.setImage(image);
-		lockSize(image.getWidth(), image.getHeight(), root, visualiserPane, historyPane);
-		Platform.runLater(() -> gesturePane.zoomTo(0, Point2D.ZERO));
+		hintPool = new MoveHintPool(manager, this);
+		mapView.setOnMouseClicked(e -> {
+			if (hints.isEmpty() || !e.isStillSincePress()) return;
+			OptionalInt node = manager.getNodeIndex()
+					.nearest(new Point2D(e.getX(), e.getY()), HINT_PICK_RADIUS);
+			MoveHint hint = node.isPresent() ? hints.get(node.getAsInt()) : null;
+			if (hint != null) hint.pick();
+		});
+		// inflate a typical turn's worth of hints once the window is up
+		Platform.runLater(() -> hintPool.prefill(PREFILLED_HINTS));
+		// the map tiles may still be generating, the rest of the board can show already
+		manager.mapTiles().thenAcceptAsync(tiles -> {
+			mapView.setPyramid(tiles);
+			lockSize(tiles.width(), tiles.height(), root, visualiserPane, historyPane);
+			Platform.runLater(() -> gesturePane.zoomTo(0, Point2D.ZERO));
+		}, Platform::runLater);
 	}
 
 	private static void lockSize(double width, double height, Region... regions) {
@@ -158,9 +177,7 @@ public final class Board implements Controller, GameControl, Player {
 
 	private void drawMoveHints(Set<Move> moves, Consumer<Move> moveCallback) {
 		clearMoveHints();
-		Function<Integer, MoveHint> mapping = location -> new MoveHint(manager,
-				this,
-				location,
+		Function<Integer, MoveHint> mapping = location -> hintPool.acquire(location,
 				moveCallback);
 		// attach tickets to hint
 		for (Move move : moves) {
@@ -182,7 +199,7 @@ public final class Board implements Controller, GameControl, Player {
 	}
 
 	private void clearMoveHints() {
-		hints.values().forEach(MoveHint::discard);
+		hints.values().forEach(hintPool::release);
 		hints.clear();
 		hintPane.getChildren().clear();
 	}
@@ -300,7 +317,7 @@ public final class Board implements Controller, GameControl, Player {
 	                     int location,
 	                     Set<Move> moves,
 	                     Consumer<Move> callback) {
-		Platform.runLater(() -> {
+		updates.submit(() -> {
 			Colour colour = resolveColour(moves);
 			BoardPlayer player = players.get(colour);
 			Counter counter = counters.get(colour);
@@ -348,6 +365,11 @@ public final class Board implements Controller, GameControl, Player {
 			return notifications;
 		}
 
+		@Override
+		public UpdateCoalescer updates() {
+			return updates;
+		}
+
 		@Override
 		public ModelConfiguration configuration() {
 			return configuration;
@@ -376,6 +398,8 @@ public final class Board implements Controller, GameControl, Player {
 
 		Notifications notifications();
 
+		UpdateCoalescer updates();
+
 		ModelConfiguration configuration();
 
 		void showMoveHints(Set<Move> moves, Consumer<Move> callback);
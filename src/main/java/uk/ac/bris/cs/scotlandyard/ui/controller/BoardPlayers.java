@@ -6,7 +6,6 @@ import java.util.Set;
 import java.util.function.Consumer;
 
 import io.atlassian.fugue.Option;
-import javafx.application.Platform;
 import javafx.util.Duration;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.Move;
@@ -135,7 +134,7 @@ public class BoardPlayers {
 							});
 			notifications.show(WAIT_AI, timed);
 			player.makeMove(view, location, moves, move -> {
-				Platform.runLater(() -> {
+				board.updates().submit(() -> {
 					notifications.dismiss(WAIT_AI);
 					callback.accept(move);
 				});
@@ -2,10 +2,8 @@ package uk.ac.bris.cs.scotlandyard.ui.controller;
 
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static java.util.stream.Collectors.toList;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
@@ -71,11 +69,11 @@ public final class FindNode implements Controller {
 			search.setStyle("-fx-background-color: " + (!failed.isEmpty() ? "#bc6a00" :
 					"#00aa48"));
 			if (!highlights.isEmpty()) {
-				gesturePane.animate(Duration.millis(300))
+				manager.getNodeIndex().fit(highlights).ifPresent(bounds -> gesturePane
+						.animate(Duration.millis(300))
 						.interpolateWith(DecelerateInterpolator.DEFAULT)
-						.centreOn(findCentre(highlights.stream()
-								.map(manager::coordinateAtNode)
-								.collect(toList())));
+						.centreOn(new Point2D(bounds.getMinX(), bounds.getMinY())
+								.midpoint(bounds.getMaxX(), bounds.getMaxY())));
 //				gesturePane.translateTo(
 //						findCentre(highlights.stream()
 //								.map(manager::coordinateAtNode)
@@ -88,24 +86,6 @@ public final class FindNode implements Controller {
 	}
 
 
-	// TODO isn't this just some sort of fold?
-	private static Point2D findCentre(Collection<Point2D> points) {
-		double minX = Integer.MAX_VALUE;
-		double maxX = Integer.MIN_VALUE;
-		double minY = Integer.MAX_VALUE;
-		double maxY = Integer.MIN_VALUE;
-		for (Point2D item : points) {
-			double x = item.getX();
-			double y = item.getY();
-			maxX = Math.max(x, maxX);
-			minX = Math.min(x, minX);
-			maxY = Math.max(y, maxY);
-			minY = Math.min(y, minY);
-		}
-		return new Point2D(minX, minY).midpoint(maxX, maxY);
-	}
-
-
 	private static Optional<Integer> maybeInteger(String string) {
 		try {
 			return of(Integer.valueOf(string));
@@ -9,8 +9,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.Scene;
@@ -24,7 +28,9 @@ import javafx.scene.control.TextArea;
 import javafx.stage.Stage;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.ResourceManager.ImageResource;
+import uk.ac.bris.cs.scotlandyard.ai.AI;
 import uk.ac.bris.cs.scotlandyard.ai.AIPool;
+import uk.ac.bris.cs.scotlandyard.ai.DecisionLatencies;
 import uk.ac.bris.cs.scotlandyard.harness.CodeGenRecorder;
 import uk.ac.bris.cs.scotlandyard.harness.CodeGenRecorder.CodeGen;
 import uk.ac.bris.cs.scotlandyard.harness.GameModelSequencePUMLCodeGen;
@@ -52,13 +58,15 @@ import static uk.ac.bris.cs.scotlandyard.ui.Utils.handleFatalException;
 
 public final class LocalGame extends BaseGame implements Spectator {
 
+	private static final Logger logger = LoggerFactory.getLogger(LocalGame.class);
+
 	private final boolean showCapturedTest;
 
 	public static void newGame(ResourceManager manager, Stage stage, boolean captureTest) {
 		BaseGame controller = new LocalGame(manager, stage, captureTest);
 		stage.setTitle("ScotlandYard" + (captureTest ? "(test capture mode)" : ""));
 		stage.setScene(new Scene(controller.root()));
-		stage.getIcons().add(manager.getImage(ImageResource.ICON));
+		manager.image(ImageResource.ICON).thenAcceptAsync(stage.getIcons()::add, Platform::runLater);
 		stage.show();
 	}
 
@@ -109,9 +117,11 @@ public final class LocalGame extends BaseGame implements Spectator {
 		private final CodeGenRecorder recorder = new CodeGenRecorder(ImmutableList.of(
 				new TestHarnessPlayOutTestCodeGen(),
 				new GameModelSequencePUMLCodeGen()));
+		private final DecisionLatencies latencies;
 
 		Game(ModelProperty setup) throws Exception {
 			this.setup = setup;
+			this.latencies = new DecisionLatencies(setup.timeoutProperty().get());
 
 			List<PlayerProperty> joining = setup.players();
 
@@ -129,6 +139,7 @@ public final class LocalGame extends BaseGame implements Spectator {
 							.with(p.ticketsAsMap())
 							.using(board)
 							.build())
+					.map(pc -> latencies.observePlayer(pc, label(joining, pc.colour)))
 					.map(pc -> recorder.observePlayer(pc))
 					.collect(Collectors.toList());
 
@@ -158,7 +169,7 @@ public final class LocalGame extends BaseGame implements Spectator {
 					status,
 					this);
 
-			pool.initialise(resourceManager, model);
+			pool.initialise(resourceManager, model, setup.timeoutProperty().get());
 			// Add all players to board
 			for (PlayerProperty property : joining) {
 				board.setBoardPlayer(property.colour(),
@@ -173,11 +184,21 @@ public final class LocalGame extends BaseGame implements Spectator {
 			}
 
 			model.registerSpectator(recorder.createSpectator());
+			status.showLatencies(latencies);
 			controls.forEach(model::registerSpectator);
 			controls.forEach(l -> l.onGameAttach(model, setup));
 			model.startRotate();
 		}
 
+		private String label(List<PlayerProperty> joining, Colour colour) {
+			return joining.stream()
+					.filter(p -> p.colour() == colour)
+					.findFirst()
+					.flatMap(PlayerProperty::ai)
+					.map(AI::getName)
+					.orElse("Human");
+		}
+
 		void terminate() {
 			controls.forEach(model::unregisterSpectator);
 			controls.forEach(GameControl::onGameDetached);
@@ -191,7 +212,14 @@ public final class LocalGame extends BaseGame implements Spectator {
 
 		@Override
 		public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
-			Platform.runLater(() -> {
+			latencies.summaries().forEach(line -> logger.info("Decision time {}", line));
+			CompletableFuture.supplyAsync(() -> latencies.export(
+					DecisionLatencies.defaultExportDirectory()))
+					.whenComplete((file, e) -> {
+						if (e != null) logger.warn("Cannot export decision times", e);
+						else logger.info("Decision times exported to {}", file);
+					});
+			updates.submit(() -> {
 				board.lock();
 				notifications.dismissAll();
 				Notification gameOver = new NotificationBuilder(
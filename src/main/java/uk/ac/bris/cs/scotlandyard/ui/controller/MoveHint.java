@@ -49,13 +49,18 @@ final class MoveHint implements Controller {
 
 	@FXML private Pane root;
 	@FXML private Circle piece;
-	private boolean discarded = false;
-
-	MoveHint(ResourceManager manager, Board board, int target, Consumer<Move> moveConsumer) {
+	private Consumer<Move> moveConsumer;
+	// bumped every time the hint is recycled so stale menus do nothing
+	private int generation;
+
+	/**
+	 * Creates a hint that is not shown anywhere yet, see
+	 * {@link #reset(int, Consumer)}
+	 */
+	MoveHint(ResourceManager manager, Board board) {
 		Controller.bind(this);
 		this.manager = manager;
 		this.board = board;
-		this.node.set(target);
 
 		EasyBind.subscribe(highlight, v -> {
 			ObservableList<String> styles = piece.getStyleClass();
@@ -63,7 +68,7 @@ final class MoveHint implements Controller {
 			function.apply(HIGHLIGHTED);
 		});
 
-		if (moveConsumer != null) setupMoveOptions(moveConsumer);
+		piece.setOnMouseClicked(e -> pick());
 
 		piece.setOnMouseEntered(e -> {
 			Utils.scaleTo(piece, 1.25);
@@ -72,40 +77,61 @@ final class MoveHint implements Controller {
 		piece.setOnMouseExited(e -> {
 			Utils.scaleTo(piece, 1);
 		});
+	}
 
-		// Platform.runLater(() -> {
-		Point2D location = board.coordinateAtNode(node.get());
+	/**
+	 * Prepares the hint for a new target, forgetting all moves
+	 *
+	 * @param target the node to show the hint at
+	 * @param moveConsumer receives the move picked from this hint, null if
+	 *        moves cannot be picked
+	 */
+	void reset(int target, Consumer<Move> moveConsumer) {
+		generation++;
+		this.node.set(target);
+		this.moveConsumer = moveConsumer;
+		moves.clear();
+		highlight.set(false);
+		piece.setScaleX(1);
+		piece.setScaleY(1);
+		Point2D location = board.coordinateAtNode(target);
 		piece.setTranslateX(location.getX());
 		piece.setTranslateY(location.getY());
-		// });
 	}
 
-	private void setupMoveOptions(Consumer<Move> moveConsumer) {
-		piece.setOnMouseClicked(e -> {
-			final ContextMenu contextMenu = new ContextMenu();
-
-			for (Move move : moves) {
-				MenuItem item = new MenuItem();
-				Node graphic = createOption(move);
-				item.setGraphic(graphic);
-
-				EasyBind.subscribe(graphic.hoverProperty(), hover -> {
-					if (discarded) return;
-					move.visit(new TicketVisitor() {
-						@Override
-						public void visit(TicketMove move) {
-							board.hintAt(move.destination()).highlight.set(hover);
-						}
-					});
+	/**
+	 * Shows the moves of this hint to pick from, as if the hint was clicked
+	 */
+	void pick() {
+		if (moveConsumer != null) showMoveOptions(moveConsumer);
+	}
+
+	private void showMoveOptions(Consumer<Move> moveConsumer) {
+		final ContextMenu contextMenu = new ContextMenu();
+		final int shownFor = generation;
+
+		for (Move move : moves) {
+			MenuItem item = new MenuItem();
+			Node graphic = createOption(move);
+			item.setGraphic(graphic);
+
+			EasyBind.subscribe(graphic.hoverProperty(), hover -> {
+				if (shownFor != generation) return;
+				move.visit(new TicketVisitor() {
+					@Override
+					public void visit(TicketMove move) {
+						MoveHint hint = board.hintAt(move.destination());
+						if (hint != null) hint.highlight.set(hover);
+					}
 				});
-				item.setOnAction(a -> moveConsumer.accept(move));
-				contextMenu.getItems().add(item);
-				contextMenu.setOpacity(0.8);
+			});
+			item.setOnAction(a -> moveConsumer.accept(move));
+			contextMenu.getItems().add(item);
+			contextMenu.setOpacity(0.8);
 
-			}
-			Point2D p = piece.localToScreen(piece.getCenterX(), piece.getCenterY());
-			contextMenu.show(piece, p.getX(), p.getY());
-		});
+		}
+		Point2D p = piece.localToScreen(piece.getCenterX(), piece.getCenterY());
+		contextMenu.show(piece, p.getX(), p.getY());
 	}
 
 	private Node createOption(Move move) {
@@ -129,7 +155,10 @@ final class MoveHint implements Controller {
 
 	// @Override
 	public void discard() {
-		this.discarded = true;
+		generation++;
+		moveConsumer = null;
+		moves.clear();
+		highlight.set(false);
 	}
 
 	void addMove(Move move) {
@@ -0,0 +1,59 @@
+package uk.ac.bris.cs.scotlandyard.ui.controller;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.scotlandyard.ResourceManager;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+
+/**
+ * Keeps inflated {@link MoveHint}s around so that showing hints does not
+ * load FXML every turn; the pool grows to the largest number of hints shown
+ * at once and never shrinks. Must only be used on the FX thread.
+ */
+final class MoveHintPool {
+
+	private final ResourceManager manager;
+	private final Board board;
+	private final Deque<MoveHint> free = new ArrayDeque<>();
+
+	MoveHintPool(ResourceManager manager, Board board) {
+		this.manager = requireNonNull(manager);
+		this.board = requireNonNull(board);
+	}
+
+	/**
+	 * Inflates hints ahead of time until at least {@code count} are free
+	 *
+	 * @param count number of hints
+	 */
+	void prefill(int count) {
+		while (free.size() < count) free.push(new MoveHint(manager, board));
+	}
+
+	/**
+	 * @param target the node to show the hint at
+	 * @param moveConsumer receives the move picked, null if moves cannot be
+	 *        picked
+	 * @return a reset hint; never null
+	 */
+	MoveHint acquire(int target, Consumer<Move> moveConsumer) {
+		MoveHint hint = free.isEmpty() ? new MoveHint(manager, board) : free.pop();
+		hint.reset(target, moveConsumer);
+		return hint;
+	}
+
+	/**
+	 * Returns a hint to the pool, the hint must not be used afterwards
+	 *
+	 * @param hint the hint; not null
+	 */
+	void release(MoveHint hint) {
+		hint.discard();
+		free.push(hint);
+	}
+
+}
@@ -9,7 +9,6 @@ import com.google.common.collect.Sets;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
-import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -24,6 +23,7 @@ import javafx.scene.layout.VBox;
 import javafx.util.Duration;
 import uk.ac.bris.cs.fxkit.BindFXML;
 import uk.ac.bris.cs.fxkit.Controller;
+import uk.ac.bris.cs.fxkit.UpdateCoalescer;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.ui.GameControl;
 import uk.ac.bris.cs.scotlandyard.ui.controller.Notifications.NotificationBuilder.Notification;
@@ -38,13 +38,16 @@ public final class Notifications implements Controller, GameControl {
 	@FXML private VBox root;
 
 	private final Map<String, Notification> notifications = new HashMap<>();
+	private final UpdateCoalescer updates;
 
-	Notifications(ResourceManager resourceManager, BoardProperty config) {
+	Notifications(ResourceManager resourceManager, BoardProperty config,
+			UpdateCoalescer updates) {
 		Controller.bind(this);
+		this.updates = updates;
 	}
 
 	void show(String key, Notification notification) {
-		Platform.runLater(() -> {
+		updates.submit(() -> {
 			notifications.compute(key, (k, last) -> {
 				if (last != null) last.dismiss();
 				return notification;
@@ -57,7 +60,7 @@ public final class Notifications implements Controller, GameControl {
 	}
 
 	void dismiss(String... keys) {
-		Platform.runLater(() -> {
+		updates.submit(() -> {
 			Set<String> set = Sets.newHashSet(keys);
 			root.getChildren().removeIf(p -> set.contains(p.getId()));
 			for (String key : keys) {
@@ -68,7 +71,7 @@ public final class Notifications implements Controller, GameControl {
 	}
 
 	void dismissAll() {
-		Platform.runLater(() -> {
+		updates.submit(() -> {
 			root.getChildren().clear();
 			notifications.values().forEach(Notification::dismiss);
 			notifications.clear();
@@ -35,7 +35,7 @@ public final class StartScreen implements Controller {
 		this.config = config;
 		Controller.bind(this);
 
-		ArrayList<AI> ais = new ArrayList<>(AI.scanClasspath());
+		ArrayList<AI> ais = new ArrayList<>(AI.discover());
 		// add null for no ai(user select)
 		ais.add(0, null);
 
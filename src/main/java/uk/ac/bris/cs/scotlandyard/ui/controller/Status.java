@@ -8,9 +8,12 @@ import javafx.scene.Parent;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.control.ToolBar;
+import javafx.scene.control.Tooltip;
 import uk.ac.bris.cs.fxkit.BindFXML;
 import uk.ac.bris.cs.fxkit.Controller;
+import uk.ac.bris.cs.fxkit.UpdateCoalescer;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
+import uk.ac.bris.cs.scotlandyard.ai.DecisionLatencies;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.Move;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
@@ -29,13 +32,19 @@ public final class Status implements Controller, GameControl {
 	@FXML private Label player;
 	@FXML private Label time;
 	@FXML private Label status;
+	@FXML private Label latency;
 	@FXML private Slider volume;
 
 	private final ResourceManager manager;
+	private final UpdateCoalescer updates;
+	// written by the game, read when the coalesced view update is applied
+	private volatile DecisionLatencies latencies;
+	private volatile Colour lastMoved;
 
-	Status(ResourceManager manager, BoardProperty config) {
+	Status(ResourceManager manager, BoardProperty config, UpdateCoalescer updates) {
 		Controller.bind(this);
 		this.manager = manager;
+		this.updates = updates;
 	}
 
 	@Override
@@ -43,6 +52,24 @@ public final class Status implements Controller, GameControl {
 		bindView(view);
 	}
 
+	@Override
+	public void onGameDetached() {
+		latencies = null;
+		lastMoved = null;
+		updates.submit(this, () -> {
+			latency.setText("N/A");
+			latency.setTooltip(null);
+		});
+	}
+
+	/**
+	 * Shows the decision latencies of the given game, the most recent mover
+	 * in the bar and everyone in its tooltip.
+	 */
+	void showLatencies(DecisionLatencies latencies) {
+		this.latencies = latencies;
+	}
+
 	@Override
 	public void onRoundStarted(ScotlandYardView view, int round) {
 		bindView(view);
@@ -50,19 +77,37 @@ public final class Status implements Controller, GameControl {
 
 	@Override
 	public void onMoveMade(ScotlandYardView view, Move move) {
+		lastMoved = move.colour();
 		bindView(view);
 	}
 
+	// only the latest state is worth showing, keyed on this to skip the rest
 	private void bindView(ScotlandYardView view) {
+		updates.submit(this, () -> showView(view));
+	}
+
+	private void showView(ScotlandYardView view) {
 		int round = view.getCurrentRound();
 		this.round.setText(round == 0 ? "N/A" : round + " of " + view.getRounds().size());
 		this.player.setText(view.getCurrentPlayer().toString());
 		this.status.setText(String.format("Waiting move(%s)", view.getCurrentPlayer()));
+		showLatencies();
+	}
+
+	private void showLatencies() {
+		DecisionLatencies latencies = this.latencies;
+		Colour lastMoved = this.lastMoved;
+		if (latencies == null) return;
+		latency.setText(lastMoved == null ? "N/A" : latencies.summary(lastMoved));
+		latency.setTooltip(new Tooltip(String.join("\n", latencies.summaries())));
 	}
 
 	@Override
 	public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
-		status.setText("Game completed, winning player:" + view.getWinningPlayers());
+		updates.submit(this, () -> {
+			showView(view);
+			status.setText("Game completed, winning player:" + view.getWinningPlayers());
+		});
 	}
 
 	@Override
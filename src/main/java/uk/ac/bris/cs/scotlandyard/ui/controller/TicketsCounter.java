@@ -20,6 +20,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import uk.ac.bris.cs.fxkit.BindFXML;
 import uk.ac.bris.cs.fxkit.Controller;
+import uk.ac.bris.cs.fxkit.UpdateCoalescer;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.Move;
@@ -42,8 +43,11 @@ public final class TicketsCounter implements Controller, GameControl {
 	private final ResourceManager manager;
 	private final HashMap<Colour, PlayerView> controllers = new HashMap<>();
 
-	TicketsCounter(ResourceManager manager, BoardProperty config) {
+	private final UpdateCoalescer updates;
+
+	TicketsCounter(ResourceManager manager, BoardProperty config, UpdateCoalescer updates) {
 		this.manager = manager;
+		this.updates = updates;
 		Controller.bind(this);
 		root.managedProperty().bind(root.visibleProperty());
 	}
@@ -57,8 +61,9 @@ public final class TicketsCounter implements Controller, GameControl {
 						VBox.setVgrow(v.root(), Priority.ALWAYS);
 						playerContainer.getChildren().add(v.root());
 						return v;
-					}).update(view);
+					});
 		});
+		update(view);
 	}
 
 	@Override
@@ -69,7 +74,13 @@ public final class TicketsCounter implements Controller, GameControl {
 
 	@Override
 	public void onMoveMade(ScotlandYardView view, Move move) {
-		controllers.values().forEach(c -> c.update(view));
+		update(view);
+	}
+
+	// counts only ever need to show the latest state, keyed on this to skip
+	// the rest
+	private void update(ScotlandYardView view) {
+		updates.submit(this, () -> controllers.values().forEach(c -> c.update(view)));
 	}
 
 	@Override
@@ -0,0 +1,153 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.Random;
+import java.util.Set;
+
+import javafx.geometry.BoundingBox;
+import javafx.geometry.Bounds;
+import javafx.geometry.Point2D;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link NodeIndex} against going through every node
+ */
+public class NodeIndexTest {
+
+	// clusters with gaps between them, some nodes on top of each other
+	private static NodeIndex randomIndex(Random random, int size) {
+		int[] nodes = new int[size];
+		double[] xs = new double[size];
+		double[] ys = new double[size];
+		for (int i = 0; i < size; i++) {
+			nodes[i] = 1 + i * 3;
+			int cluster = random.nextInt(4);
+			xs[i] = cluster * 500 + random.nextInt(200) + random.nextDouble();
+			ys[i] = (cluster % 2) * 800 + random.nextInt(100);
+			if (i > 0 && random.nextInt(10) == 0) {
+				xs[i] = xs[i - 1];
+				ys[i] = ys[i - 1];
+			}
+		}
+		return new NodeIndex(nodes, xs, ys);
+	}
+
+	private static List<Integer> nodes(int size) {
+		List<Integer> nodes = new ArrayList<>();
+		for (int i = 0; i < size; i++) nodes.add(1 + i * 3);
+		return nodes;
+	}
+
+	private static double distance(NodeIndex index, int node, Point2D point) {
+		return index.coordinate(node).distance(point);
+	}
+
+	private static void assertNearest(NodeIndex index, List<Integer> nodes, Point2D point,
+			double maxDistance) {
+		double best = Double.POSITIVE_INFINITY;
+		for (int node : nodes) best = Math.min(best, distance(index, node, point));
+		OptionalInt nearest = index.nearest(point, maxDistance);
+		if (best > maxDistance) {
+			assertThat(nearest.isPresent()).as("%s within %s", point, maxDistance).isFalse();
+		} else {
+			assertThat(nearest.isPresent()).as("%s within %s", point, maxDistance).isTrue();
+			// ties may go either way
+			assertThat(distance(index, nearest.getAsInt(), point)).as("%s", point)
+					.isEqualTo(best);
+		}
+	}
+
+	private static Set<Integer> within(NodeIndex index, Bounds bounds) {
+		Set<Integer> found = new HashSet<>();
+		List<Integer> visited = new ArrayList<>();
+		index.within(bounds, node -> {
+			visited.add(node);
+			found.add(node);
+		});
+		assertThat(visited).as("visited once").hasSameSizeAs(found);
+		return found;
+	}
+
+	@Test
+	public void testNearestAgreesWithEveryNode() {
+		Random random = new Random(1);
+		for (int size : new int[] { 1, 2, 7, 100, 1000 }) {
+			NodeIndex index = randomIndex(random, size);
+			List<Integer> nodes = nodes(size);
+			for (int i = 0; i < 500; i++) {
+				// inside, around and far outside the nodes
+				Point2D point = new Point2D(random.nextDouble() * 3000 - 700,
+						random.nextDouble() * 2000 - 500);
+				assertNearest(index, nodes, point, Double.POSITIVE_INFINITY);
+				assertNearest(index, nodes, point, random.nextDouble() * 150);
+			}
+			for (int node : nodes) {
+				assertNearest(index, nodes, index.coordinate(node), 0);
+				assertNearest(index, nodes, index.coordinate(node), Double.POSITIVE_INFINITY);
+			}
+		}
+	}
+
+	@Test
+	public void testWithinAgreesWithEveryNode() {
+		Random random = new Random(2);
+		for (int size : new int[] { 1, 7, 100, 1000 }) {
+			NodeIndex index = randomIndex(random, size);
+			List<Integer> nodes = nodes(size);
+			for (int i = 0; i < 500; i++) {
+				double x = random.nextDouble() * 3000 - 700;
+				double y = random.nextDouble() * 2000 - 500;
+				Bounds bounds = new BoundingBox(x, y, random.nextDouble() * 600 * (i % 3),
+						random.nextDouble() * 600 * (i % 4));
+				Set<Integer> expected = new HashSet<>();
+				for (int node : nodes) {
+					Point2D point = index.coordinate(node);
+					if (point.getX() >= bounds.getMinX() && point.getX() <= bounds.getMaxX()
+							&& point.getY() >= bounds.getMinY()
+							&& point.getY() <= bounds.getMaxY())
+						expected.add(node);
+				}
+				assertThat(within(index, bounds)).as("%s", bounds).isEqualTo(expected);
+			}
+			assertThat(within(index, index.bounds())).containsOnlyElementsOf(nodes)
+					.hasSize(size);
+		}
+	}
+
+	@Test
+	public void testFitIsTheSmallestRectangleAroundTheNodes() {
+		NodeIndex index = new NodeIndex(new int[] { 1, 2, 3, 4 },
+				new double[] { 10, 40, 25, 5 }, new double[] { 20, 10, 50, 30 });
+		assertThat(index.fit(Arrays.asList(1, 2, 3)))
+				.contains(new BoundingBox(10, 10, 30, 40));
+		assertThat(index.fit(Arrays.asList(3, 42))).contains(new BoundingBox(25, 50, 0, 0));
+		assertThat(index.fit(Arrays.asList(42))).isEmpty();
+		assertThat(index.bounds()).isEqualTo(new BoundingBox(5, 10, 35, 40));
+		assertThat(index.coordinate(4)).isEqualTo(new Point2D(5, 30));
+		assertThat(index.coordinate(42)).isNull();
+	}
+
+	@Test
+	public void testEmptyIndexHasNoNodes() {
+		NodeIndex index = new NodeIndex(new int[0], new double[0], new double[0]);
+		assertThat(index.size()).isZero();
+		assertThat(index.nearest(new Point2D(1, 1)).isPresent()).isFalse();
+		assertThat(within(index, new BoundingBox(-10, -10, 20, 20))).isEmpty();
+		assertThat(index.fit(Arrays.asList(1, 2))).isEmpty();
+	}
+
+	@Test
+	public void testDuplicateNodesAreRejected() {
+		assertThatThrownBy(() -> new NodeIndex(new int[] { 1, 2, 1 }, new double[3],
+				new double[3])).isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,95 @@
+package uk.ac.bris.cs.scotlandyard.ai.book;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link OpeningBook}
+ */
+public class OpeningBookTest {
+
+	private static final int[] DETECTIVES = StandardGame.DETECTIVE_LOCATIONS.stream()
+			.mapToInt(Integer::intValue).sorted().toArray();
+
+	// every strictly increasing choice of positions, in lexicographic order
+	private static void choose(int[] positions, int i, int from, List<int[]> sets) {
+		if (i == positions.length) {
+			sets.add(positions.clone());
+			return;
+		}
+		for (int p = from; p < DETECTIVES.length; p++) {
+			positions[i] = p;
+			choose(positions, i + 1, p + 1, sets);
+		}
+	}
+
+	private static List<int[]> sets(int d) {
+		List<int[]> sets = new ArrayList<>();
+		choose(new int[d], 0, 0, sets);
+		return sets;
+	}
+
+	@Test
+	public void testUnrankInvertsRankOverEverySet() {
+		for (int d = 1; d <= OpeningBook.MAX_DETECTIVES; d++) {
+			List<int[]> sets = sets(d);
+			assertThat(sets).hasSize(OpeningBook.sets(d));
+			boolean[] ranked = new boolean[sets.size()];
+			for (int[] positions : sets) {
+				int rank = OpeningBook.rank(positions);
+				assertThat(rank).as("%s", Arrays.toString(positions))
+						.isBetween(0, sets.size() - 1);
+				assertThat(ranked[rank]).as("rank %d taken twice", rank).isFalse();
+				ranked[rank] = true;
+
+				int[] unranked = new int[d];
+				int[] locations = OpeningBook.unrank(rank, unranked);
+				assertThat(unranked).isEqualTo(positions);
+				for (int i = 0; i < d; i++)
+					assertThat(locations[i]).isEqualTo(DETECTIVES[positions[i]]);
+			}
+		}
+	}
+
+	@Test
+	public void testQueriesFindTheSetInAnyOrder() throws IOException {
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		OpeningBook book = OpeningBook.create(graph, 3, 1);
+		for (int d = 1; d <= 3; d++)
+			for (int set = 0; set < OpeningBook.sets(d); set++) {
+				book.putDetectives(d, set, new int[d], d * 1000 + set);
+				for (int x = 0; x < OpeningBook.mrXLocations(); x++)
+					book.putMrX(d, set, x, 0, -(d * 1000 + set));
+			}
+		Random random = new Random(1);
+		int mrX = StandardGame.MRX_LOCATIONS.get(0);
+		for (int d = 1; d <= 3; d++) {
+			for (int set = 0; set < OpeningBook.sets(d); set++) {
+				List<Integer> locations = new ArrayList<>();
+				for (int location : OpeningBook.unrank(set, new int[d])) locations.add(location);
+				Collections.shuffle(locations, random);
+				assertThat(book.value(locations)).isEqualTo(d * 1000 + set);
+				assertThat(book.mrXValue(mrX, locations)).isEqualTo(-(d * 1000 + set));
+			}
+		}
+		// not a set of distinct start locations the book has
+		assertThat(book.value(Arrays.asList(DETECTIVES[0], DETECTIVES[0]))).isNaN();
+		assertThat(book.value(Arrays.asList(DETECTIVES[0], 2))).isNaN();
+		assertThat(book.value(Arrays.asList(DETECTIVES[0], DETECTIVES[1], DETECTIVES[2],
+				DETECTIVES[3]))).isNaN();
+		assertThat(book.value(Collections.emptyList())).isNaN();
+		assertThat(book.mrXValue(2, Arrays.asList(DETECTIVES[0]))).isNaN();
+	}
+
+}
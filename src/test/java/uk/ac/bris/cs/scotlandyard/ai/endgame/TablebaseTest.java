@@ -0,0 +1,236 @@
+package uk.ac.bris.cs.scotlandyard.ai.endgame;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.DETECTIVES_WIN;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX_WINS;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.UNDECIDED;
+
+/**
+ * Tests for {@link Tablebase} and {@link RetrogradeSolver}, checked against
+ * an exhaustive minimax over {@link GameState}, which has every rule the
+ * table leaves out
+ */
+public class TablebaseTest {
+
+	private static final int MAX_ROUNDS = 24;
+	private static final int POSITIONS = 1500;
+
+	private static final int TAXI = Ticket.TAXI.ordinal();
+	private static final int BUS = Ticket.BUS.ordinal();
+	private static final int UNDERGROUND = Ticket.UNDERGROUND.ordinal();
+	private static final int DOUBLE = Ticket.DOUBLE.ordinal();
+	private static final int SECRET = Ticket.SECRET.ordinal();
+
+	private static CompactGraph graph;
+	private static Tablebase single;
+	private static Tablebase pair;
+
+	private final Map<Long, Integer> solved = new HashMap<>();
+
+	@BeforeClass
+	public static void solveTables() throws Exception {
+		graph = CompactGraph.of(StandardGame.standardGraph());
+		single = solve(1, 4);
+		pair = solve(2, 2);
+	}
+
+	private static Tablebase solve(int detectives, int rounds) throws Exception {
+		Tablebase table = new Tablebase(graph, detectives, rounds);
+		new RetrogradeSolver(table).solve(ForkJoinPool.commonPool(), remaining -> {});
+		return table;
+	}
+
+	// the result with perfect play, stopping at the first winning move
+	private int minimax(GameState state) {
+		int winner = state.winner();
+		if (winner != UNDECIDED) return winner;
+		Integer known = solved.get(state.hash());
+		if (known != null) return known;
+		int win = state.current() == MRX ? MRX_WINS : DETECTIVES_WIN;
+		MoveList moves = new MoveList();
+		state.generateMoves(moves);
+		int result = win == MRX_WINS ? DETECTIVES_WIN : MRX_WINS;
+		for (int i = 0; i < moves.size() && result != win; i++) {
+			state.play(moves.get(i));
+			if (minimax(state) == win) result = win;
+			state.undo();
+		}
+		solved.put(state.hash(), result);
+		return result;
+	}
+
+	private int solve(GameState state) {
+		solved.clear();
+		return minimax(state);
+	}
+
+	// a random position in the table with distinct locations, the tickets
+	// left to the given function
+	private static GameState position(Tablebase table, Random random,
+			Consumer<GameState> tickets) {
+		List<Colour> colours = Arrays.asList(Colour.values()).subList(0,
+				table.detectives() + 1);
+		GameState state = new GameState(graph, colours, Collections.nCopies(MAX_ROUNDS, false));
+		state.setRound(MAX_ROUNDS - random.nextInt(table.rounds() + 1));
+		state.setCurrent(random.nextInt(colours.size()));
+		for (int p = 0; p < colours.size(); p++) {
+			int location;
+			do location = random.nextInt(graph.size());
+			while (occupied(state, p, location));
+			state.setLocation(p, location);
+		}
+		tickets.accept(state);
+		return state;
+	}
+
+	// whether one of the first players is on the node
+	private static boolean occupied(GameState state, int players, int node) {
+		for (int p = 0; p < players; p++) if (state.location(p) == node) return true;
+		return false;
+	}
+
+	private static int remaining(GameState state) {
+		return state.maxRounds() - state.round();
+	}
+
+	// enough tickets for the detectives, Mr.X's tickets last exactly
+	private static void enoughTickets(GameState state) {
+		for (int ticket : new int[] { TAXI, BUS, UNDERGROUND }) {
+			state.setTickets(MRX, ticket, remaining(state));
+			for (int p = 1; p < state.players(); p++)
+				state.setTickets(p, ticket, remaining(state) + 1);
+		}
+	}
+
+	// checks every answer of the table, returns how often it gave each
+	private int[] check(Tablebase table, long seed, Consumer<GameState> tickets) {
+		Random random = new Random(seed);
+		int[] answered = new int[3];
+		for (int i = 0; i < POSITIONS; i++) {
+			GameState state = position(table, random, tickets);
+			int probed = table.probe(state);
+			answered[probed]++;
+			if (probed != UNDECIDED) assertThat(solve(state)).as("%s", state).isEqualTo(probed);
+		}
+		return answered;
+	}
+
+	@Test
+	public void testProbeAgreesWithMinimaxWithRandomTickets() {
+		for (Tablebase table : Arrays.asList(single, pair)) {
+			int[] answered = check(table, 1, state -> {
+				Random random = new Random(state.hash());
+				int limit = remaining(state) + 3;
+				for (int ticket = 0; ticket < GameState.TICKETS; ticket++)
+					state.setTickets(MRX, ticket, random.nextInt(limit));
+				for (int p = 1; p < state.players(); p++)
+					for (int ticket : new int[] { TAXI, BUS, UNDERGROUND })
+						state.setTickets(p, ticket, random.nextInt(limit));
+			});
+			assertThat(answered[MRX_WINS]).isPositive();
+			assertThat(answered[DETECTIVES_WIN]).isPositive();
+		}
+	}
+
+	@Test
+	public void testProbeAgreesWithMinimaxWhenDoubleMovesUseEveryTicket() {
+		// a double move takes two rounds, so tickets for every remaining
+		// round are enough even if Mr.X uses all of his double moves
+		for (Tablebase table : Arrays.asList(single, pair)) {
+			int[] answered = check(table, 2, state -> {
+				enoughTickets(state);
+				state.setTickets(MRX, DOUBLE, Tablebase.MAX_DOUBLES);
+			});
+			assertThat(answered[MRX_WINS]).isPositive();
+			assertThat(answered[DETECTIVES_WIN]).isPositive();
+		}
+	}
+
+	@Test
+	public void testProbeDoesNotAnswerWhenMrXMayRunOutOfTickets() {
+		Random random = new Random(3);
+		for (int i = 0; i < POSITIONS; i++) {
+			GameState state = position(single, random, s -> {
+				enoughTickets(s);
+				s.setTickets(MRX, BUS, Math.max(0, remaining(s) - 1));
+				s.setTickets(MRX, DOUBLE, Tablebase.MAX_DOUBLES);
+			});
+			if (remaining(state) > 0 && state.current() == MRX)
+				assertThat(single.probe(state)).isNotEqualTo(MRX_WINS);
+		}
+	}
+
+	@Test
+	public void testProbeDoesNotAnswerWhenMrXMayEscapeByFerry() {
+		Random random = new Random(4);
+		int escapes = 0;
+		for (int node = 0; node < graph.size(); node++) {
+			boolean ferry = false;
+			for (int i = 0; i < graph.degree(node); i++)
+				ferry |= graph.transport(node, i) == Transport.FERRY.ordinal();
+			if (!ferry) continue;
+			for (int i = 0; i < POSITIONS; i++) {
+				GameState state = position(pair, random, s -> {
+					enoughTickets(s);
+					s.setTickets(MRX, DOUBLE, Tablebase.MAX_DOUBLES);
+				});
+				if (occupied(state, state.players(), node)) continue;
+				// Mr.X at the ferry with the detectives closing in
+				state.setLocation(MRX, node);
+				for (int p = 1; p < state.players(); p++) {
+					int next = graph.neighbour(node, random.nextInt(graph.degree(node)));
+					if (!occupied(state, state.players(), next)) state.setLocation(p, next);
+				}
+				boolean cornered = pair.probe(state) == DETECTIVES_WIN;
+				state.setTickets(MRX, SECRET, 1);
+				int probed = pair.probe(state);
+				if (probed != UNDECIDED) assertThat(solve(state)).as("%s", state).isEqualTo(probed);
+				if (cornered && solve(state) == MRX_WINS) escapes++;
+			}
+		}
+		assertThat(escapes).isPositive();
+	}
+
+	@Test
+	public void testWinningMoveKeepsTheWin() {
+		Random random = new Random(5);
+		MoveList moves = new MoveList();
+		int found = 0;
+		for (int i = 0; i < POSITIONS; i++) {
+			GameState state = position(single, random, s -> {
+				enoughTickets(s);
+				s.setTickets(MRX, DOUBLE, 1);
+			});
+			state.generateMoves(moves);
+			long move = single.winningMove(state, moves);
+			if (move == -1) continue;
+			found++;
+			int win = state.current() == MRX ? MRX_WINS : DETECTIVES_WIN;
+			state.play(move);
+			assertThat(solve(state)).as("%s", state).isEqualTo(win);
+		}
+		assertThat(found).isPositive();
+	}
+
+}
@@ -0,0 +1,105 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.BitParallelBfs.ALL_TRANSPORTS;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.BitParallelBfs.transports;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.Distances.UNREACHABLE;
+import static uk.ac.bris.cs.scotlandyard.model.Transport.BUS;
+import static uk.ac.bris.cs.scotlandyard.model.Transport.FERRY;
+import static uk.ac.bris.cs.scotlandyard.model.Transport.TAXI;
+import static uk.ac.bris.cs.scotlandyard.model.Transport.UNDERGROUND;
+
+/**
+ * Tests for {@link BitParallelBfs} against one breadth first search per source
+ */
+public class BitParallelBfsTest {
+
+	private static int[] sources(Random random, CompactGraph graph, int count) {
+		int[] sources = new int[count];
+		for (int s = 0; s < count; s++) sources[s] = random.nextInt(graph.size());
+		return sources;
+	}
+
+	// runs the searches and checks every result against plain searches
+	private static void assertAgreesWithBfs(BitParallelBfs searches, CompactGraph graph,
+			int transports, int[] sources, int count, int maxDepth) {
+		int levels = searches.run(sources, count, maxDepth);
+		assertThat(searches.words()).isEqualTo((count + 63) / 64);
+		int[] fewest = new int[graph.size()];
+		Arrays.fill(fewest, UNREACHABLE);
+		int deepest = 0;
+		long[][] reachedBy = new long[graph.size()][searches.words()];
+		for (int s = 0; s < count; s++) {
+			int[] distance = TestGraphs.bfs(graph, sources[s], transports);
+			for (int node = 0; node < graph.size(); node++) {
+				boolean reached = distance[node] <= maxDepth;
+				assertThat(searches.reached(s, node)).as("search %d node %d", s, node)
+						.isEqualTo(reached);
+				if (!reached) continue;
+				reachedBy[node][s / 64] |= 1L << s;
+				fewest[node] = Math.min(fewest[node], distance[node]);
+				deepest = Math.max(deepest, distance[node]);
+			}
+		}
+		for (int node = 0; node < graph.size(); node++) {
+			assertThat(searches.depth(node)).as("node %d", node)
+					.isEqualTo(fewest[node] == UNREACHABLE ? -1 : fewest[node]);
+			for (int word = 0; word < searches.words(); word++)
+				assertThat(searches.reachedBy(node, word)).isEqualTo(reachedBy[node][word]);
+		}
+		assertThat(levels).isEqualTo(deepest);
+	}
+
+	@Test
+	public void testEverySearchAgreesWithBfsOnTheStandardGraph() throws IOException {
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		Random random = new Random(1);
+		for (int transports : new int[] { ALL_TRANSPORTS, transports(TAXI),
+				transports(BUS, UNDERGROUND), transports(TAXI, FERRY) }) {
+			BitParallelBfs searches = new BitParallelBfs(graph, transports);
+			// one word, a full word, several words; the buffers are reused
+			for (int count : new int[] { 1, 5, 64, 65, 150, 3 })
+				for (int maxDepth : new int[] { 0, 1, 3, 40 })
+					assertAgreesWithBfs(searches, graph, transports,
+							sources(random, graph, count), count, maxDepth);
+		}
+	}
+
+	@Test
+	public void testSearchesFromTheSameSourceAgree() throws IOException {
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		BitParallelBfs searches = new BitParallelBfs(graph, ALL_TRANSPORTS);
+		int[] sources = new int[70];
+		Arrays.fill(sources, 42);
+		assertAgreesWithBfs(searches, graph, ALL_TRANSPORTS, sources, sources.length, 5);
+	}
+
+	@Test
+	public void testSearchesStayInTheirComponents() {
+		CompactGraph graph = TestGraphs.random(new Random(2), 200, 1, 30, 90);
+		BitParallelBfs searches = new BitParallelBfs(graph, ALL_TRANSPORTS);
+		int[] sources = { 0, 200, 201, 231, 100 };
+		assertAgreesWithBfs(searches, graph, ALL_TRANSPORTS, sources, sources.length, 1000);
+	}
+
+	@Test
+	public void testLevelsPulledInParallelAgreeWithBfs() {
+		CompactGraph graph = TestGraphs.random(new Random(3), 30_000, 500);
+		Random random = new Random(4);
+		for (int transports : new int[] { ALL_TRANSPORTS, transports(TAXI, BUS) }) {
+			BitParallelBfs searches = new BitParallelBfs(graph, transports);
+			assertAgreesWithBfs(searches, graph, transports, sources(random, graph, 70), 70, 6);
+			assertAgreesWithBfs(searches, graph, transports, sources(random, graph, 10), 10,
+					1000);
+		}
+	}
+
+}
@@ -0,0 +1,292 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import uk.ac.bris.cs.gamekit.graph.Edge;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.PassMove;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.DETECTIVES_WIN;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.MRX_WINS;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.GameState.UNDECIDED;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.makeTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.GREEN;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.WHITE;
+
+/**
+ * Tests for {@link GameState}, played alongside {@link ScotlandYardModel}:
+ * before every move the state must offer the model's valid moves and agree
+ * on every location and ticket, after every rotation it must agree on the
+ * winner
+ */
+public class GameStateTest {
+
+	private static final Comparator<Move> ORDER = Comparator.comparing(Move::toString);
+
+	private interface Chooser {
+		Move choose(Colour colour, List<Move> moves);
+	}
+
+	// one game on both, moves are asked from the model's players
+	private static final class Alongside implements Spectator {
+
+		final CompactGraph graph;
+		final ScotlandYardModel model;
+		final GameState state;
+		final Chooser chooser;
+		// the moves the model offered, turn by turn
+		final List<Colour> turns = new ArrayList<>();
+		final List<Set<Move>> offered = new ArrayList<>();
+		Set<Colour> winners;
+
+		Alongside(List<Boolean> rounds, Graph<Integer, Transport> graph,
+				Map<Colour, Integer> locations, Map<Colour, Map<Ticket, Integer>> tickets,
+				Chooser chooser) {
+			this.graph = CompactGraph.of(graph);
+			this.chooser = chooser;
+			List<PlayerConfiguration> players = new ArrayList<>();
+			for (Colour colour : locations.keySet())
+				players.add(new PlayerConfiguration.Builder(colour).using(player(colour))
+						.with(tickets.get(colour)).at(locations.get(colour)).build());
+			model = new ScotlandYardModel(rounds, graph, players.get(0), players.get(1),
+					players.subList(2, players.size()).toArray(new PlayerConfiguration[0]));
+			state = new GameState(this.graph, model.getPlayers(), rounds);
+			for (int p = 0; p < state.players(); p++) {
+				Colour colour = state.colour(p);
+				state.setLocation(p, this.graph.indexOf(locations.get(colour)));
+				for (Ticket ticket : Ticket.values())
+					state.setTickets(p, ticket.ordinal(), tickets.get(colour).get(ticket));
+			}
+			model.registerSpectator(this);
+		}
+
+		Alongside play() {
+			assertThat(state.winner()).isEqualTo(expected());
+			if (model.isGameOver()) winners = model.getWinningPlayers();
+			else model.startRotate();
+			return this;
+		}
+
+		private Player player(Colour colour) {
+			return (view, location, moves, callback) -> {
+				assertThat(state.colour(state.current())).isEqualTo(colour);
+				if (colour.isMrX()) assertThat(graph.value(state.location(MRX))).isEqualTo(location);
+				assertSameState();
+				MoveList list = new MoveList();
+				state.generateMoves(list);
+				Set<Move> generated = new HashSet<>();
+				for (int i = 0; i < list.size(); i++)
+					generated.add(Moves.toMove(graph, colour, list.get(i)));
+				assertThat(generated).as("%s", state).isEqualTo(new HashSet<>(moves));
+				turns.add(colour);
+				offered.add(new HashSet<>(moves));
+				List<Move> sorted = new ArrayList<>(moves);
+				sorted.sort(ORDER);
+				Move move = chooser.choose(colour, sorted);
+				state.play(Moves.fromMove(graph, move));
+				callback.accept(move);
+			};
+		}
+
+		private void assertSameState() {
+			assertThat(state.round()).isEqualTo(model.getCurrentRound());
+			for (int p = 0; p < state.players(); p++) {
+				Colour colour = state.colour(p);
+				if (colour.isDetective())
+					assertThat(graph.value(state.location(p))).as("%s", colour)
+							.isEqualTo(model.getPlayerLocation(colour).orElse(-1));
+				for (Ticket ticket : Ticket.values())
+					assertThat(state.tickets(p, ticket.ordinal())).as("%s %s", colour, ticket)
+							.isEqualTo(model.getPlayerTickets(colour, ticket).orElse(-1));
+			}
+		}
+
+		private int expected() {
+			if (!model.isGameOver()) return UNDECIDED;
+			return model.getWinningPlayers().contains(BLACK) ? MRX_WINS : DETECTIVES_WIN;
+		}
+
+		@Override
+		public void onRotationComplete(ScotlandYardView view) {
+			assertSameState();
+			assertThat(state.winner()).as("%s", state).isEqualTo(expected());
+			if (model.isGameOver()) winners = model.getWinningPlayers();
+			else model.startRotate();
+		}
+
+		@Override
+		public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
+			// the model also announces a lost position halfway through a
+			// rotation, but plays on unless Mr.X was caught or is to move
+			boolean caught = false;
+			for (int p = 1; p < state.players(); p++)
+				caught |= state.location(p) == state.location(MRX);
+			if (!caught && state.current() != MRX) return;
+			assertThat(state.winner()).as("%s", state).isEqualTo(expected());
+			winners = winningPlayers;
+		}
+
+		Set<Move> offered(Colour colour, int turn) {
+			for (int i = 0, seen = 0; i < turns.size(); i++)
+				if (turns.get(i) == colour && seen++ == turn) return offered.get(i);
+			throw new AssertionError(colour + " had no turn " + turn);
+		}
+	}
+
+	private static Map<Ticket, Integer> tickets(int taxi, int bus, int underground, int x2,
+			int secret) {
+		return makeTickets(taxi, bus, underground, x2, secret);
+	}
+
+	// detectives stay put where they can, Mr.X makes single moves
+	private static Move first(Colour colour, List<Move> moves) {
+		for (Move move : moves) if (!(move instanceof DoubleMove)) return move;
+		return moves.get(0);
+	}
+
+	private static boolean hasDouble(Set<Move> moves) {
+		return moves.stream().anyMatch(move -> move instanceof DoubleMove);
+	}
+
+	private static boolean hasTicket(Set<Move> moves, Ticket ticket) {
+		return moves.stream().anyMatch(move -> move instanceof TicketMove
+				&& ((TicketMove) move).ticket() == ticket);
+	}
+
+	@Test
+	public void testDoubleMovesEndTwoRoundsBeforeTheLast() throws IOException {
+		Map<Colour, Integer> locations = new EnumMap<>(Colour.class);
+		locations.put(BLACK, 1);
+		locations.put(RED, 150);
+		Map<Colour, Map<Ticket, Integer>> tickets = new EnumMap<>(Colour.class);
+		tickets.put(BLACK, tickets(4, 4, 4, 2, 2));
+		tickets.put(RED, tickets(4, 4, 4, 0, 0));
+		Alongside game = new Alongside(rounds(false, true, false),
+				StandardGame.standardGraph(), locations, tickets, GameStateTest::first).play();
+		assertThat(game.winners).containsExactly(BLACK);
+		assertThat(hasDouble(game.offered(BLACK, 0))).isTrue();
+		assertThat(hasDouble(game.offered(BLACK, 1))).isTrue();
+		assertThat(hasDouble(game.offered(BLACK, 2))).isFalse();
+	}
+
+	@Test
+	public void testMrXGetsTheTicketsDetectivesUse() throws IOException {
+		// Mr.X at 1 has no taxi ticket until red uses one
+		Map<Colour, Integer> locations = new EnumMap<>(Colour.class);
+		locations.put(BLACK, 1);
+		locations.put(RED, 20);
+		Map<Colour, Map<Ticket, Integer>> tickets = new EnumMap<>(Colour.class);
+		tickets.put(BLACK, tickets(0, 2, 0, 0, 0));
+		tickets.put(RED, tickets(2, 0, 0, 0, 0));
+		Alongside game = new Alongside(rounds(false, false, false),
+				StandardGame.standardGraph(), locations, tickets, GameStateTest::first).play();
+		assertThat(hasTicket(game.offered(BLACK, 0), Ticket.TAXI)).isFalse();
+		assertThat(hasTicket(game.offered(BLACK, 1), Ticket.TAXI)).isTrue();
+	}
+
+	@Test
+	public void testDetectivesBlockEachOther() throws IOException {
+		// red at 8, first to move, is hemmed in by blue at 1, green at 19
+		// and white at 18
+		Map<Colour, Integer> locations = new LinkedHashMap<>();
+		locations.put(BLACK, 150);
+		locations.put(RED, 8);
+		locations.put(BLUE, 1);
+		locations.put(GREEN, 19);
+		locations.put(WHITE, 18);
+		Map<Colour, Map<Ticket, Integer>> tickets = new EnumMap<>(Colour.class);
+		tickets.put(BLACK, tickets(4, 4, 4, 0, 0));
+		for (Colour colour : new Colour[] { RED, BLUE, GREEN, WHITE })
+			tickets.put(colour, tickets(4, 4, 4, 0, 0));
+		Alongside game = new Alongside(rounds(false, false), StandardGame.standardGraph(),
+				locations, tickets, GameStateTest::first).play();
+		assertThat(game.offered(RED, 0)).containsExactly(new PassMove(RED));
+		assertThat(game.offered(BLUE, 0)).doesNotContain(new TicketMove(BLUE, Ticket.TAXI, 8));
+	}
+
+	@Test
+	public void testDetectivesThatCannotMoveLoseTheGame() throws IOException {
+		// red is hemmed in as above, the others have no tickets
+		Map<Colour, Integer> locations = new LinkedHashMap<>();
+		locations.put(BLACK, 150);
+		locations.put(RED, 8);
+		locations.put(BLUE, 1);
+		locations.put(GREEN, 19);
+		locations.put(WHITE, 18);
+		Map<Colour, Map<Ticket, Integer>> tickets = new EnumMap<>(Colour.class);
+		tickets.put(BLACK, tickets(4, 4, 4, 0, 0));
+		tickets.put(RED, tickets(4, 4, 4, 0, 0));
+		for (Colour colour : new Colour[] { BLUE, GREEN, WHITE })
+			tickets.put(colour, tickets(0, 0, 0, 0, 0));
+		Alongside game = new Alongside(rounds(false, false, false),
+				StandardGame.standardGraph(), locations, tickets, GameStateTest::first).play();
+		assertThat(game.winners).containsExactly(BLACK);
+	}
+
+	@Test
+	public void testRandomGamesAgreeWithTheModel() throws IOException {
+		Graph<Integer, Transport> graph = StandardGame.standardGraph();
+		List<Integer> nodes = new ArrayList<>();
+		graph.getNodes().forEach(node -> nodes.add(node.value()));
+		Colour[] detectives = { RED, BLUE, GREEN, WHITE, Colour.YELLOW };
+		Random random = new Random(42);
+		for (int game = 0; game < 300; game++) {
+			// players start close to each other so that they meet and block
+			List<Integer> near = new ArrayList<>(
+					Collections.singleton(nodes.get(random.nextInt(nodes.size()))));
+			for (int hop = 0; hop < 2; hop++)
+				for (int node : new ArrayList<>(near))
+					for (Edge<Integer, Transport> edge : graph.getEdgesFrom(graph.getNode(node)))
+						if (!near.contains(edge.destination().value()))
+							near.add(edge.destination().value());
+			Collections.shuffle(near, random);
+			int count = 1 + random.nextInt(Math.min(detectives.length, near.size() - 1));
+			Map<Colour, Integer> locations = new EnumMap<>(Colour.class);
+			Map<Colour, Map<Ticket, Integer>> tickets = new EnumMap<>(Colour.class);
+			locations.put(BLACK, near.get(0));
+			tickets.put(BLACK, tickets(random.nextInt(5), random.nextInt(4), random.nextInt(3),
+					random.nextInt(3), random.nextInt(3)));
+			for (int i = 0; i < count; i++) {
+				locations.put(detectives[i], near.get(i + 1));
+				tickets.put(detectives[i], tickets(random.nextInt(5), random.nextInt(4),
+						random.nextInt(3), 0, 0));
+			}
+			List<Boolean> rounds = new ArrayList<>();
+			for (int i = 1 + random.nextInt(8); i > 0; i--) rounds.add(random.nextBoolean());
+			Alongside alongside = new Alongside(rounds, graph, locations, tickets,
+					(colour, moves) -> moves.get(random.nextInt(moves.size()))).play();
+			assertThat(alongside.winners).as("game %d", game).isNotEmpty();
+		}
+	}
+
+}
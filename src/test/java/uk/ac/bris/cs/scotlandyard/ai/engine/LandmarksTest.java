@@ -0,0 +1,126 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.ai.engine.Distances.UNREACHABLE;
+
+/**
+ * Tests for {@link Landmarks} against plain breadth first search
+ */
+public class LandmarksTest {
+
+	private static int[] bfs(CompactGraph graph, int source) {
+		return TestGraphs.bfs(graph, source, BitParallelBfs.ALL_TRANSPORTS);
+	}
+
+	private static void assertAgreesWithBfs(Landmarks landmarks, int from, int[] distance) {
+		for (int to = 0; to < distance.length; to++) {
+			int bound = landmarks.lowerBound(from, to);
+			if (distance[to] == UNREACHABLE) {
+				assertThat(bound).as("%d -> %d", from, to).isEqualTo(UNREACHABLE);
+				assertThat(landmarks.exactDistance(from, to)).isEqualTo(UNREACHABLE);
+				assertThat(landmarks.path(from, to)).isEmpty();
+				continue;
+			}
+			assertThat(bound).as("%d -> %d", from, to).isBetween(0, distance[to]);
+			assertThat(landmarks.exactDistance(from, to)).as("%d -> %d", from, to)
+					.isEqualTo(distance[to]);
+		}
+	}
+
+	private static void assertIsPath(CompactGraph graph, int[] path) {
+		for (int i = 1; i < path.length; i++) {
+			boolean adjacent = false;
+			for (int e = 0; e < graph.degree(path[i - 1]); e++)
+				adjacent |= graph.neighbour(path[i - 1], e) == path[i];
+			assertThat(adjacent).as("%s", Arrays.toString(path)).isTrue();
+		}
+	}
+
+	@Test
+	public void testBoundsAndExactDistancesOfEveryPairOfTheStandardGraph()
+			throws IOException {
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		Landmarks landmarks = Landmarks.build(graph, Landmarks.DEFAULT_COUNT);
+		for (int from = 0; from < graph.size(); from++) {
+			int[] distance = bfs(graph, from);
+			assertAgreesWithBfs(landmarks, from, distance);
+			int[] path = landmarks.path(from, (from * 7 + 3) % graph.size());
+			assertThat(path).hasSize(distance[(from * 7 + 3) % graph.size()] + 1);
+			assertThat(path[0]).isEqualTo(from);
+			assertIsPath(graph, path);
+		}
+	}
+
+	@Test
+	public void testBoundsFromALandmarkAreExact() throws IOException {
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		Landmarks landmarks = Landmarks.build(graph, 4);
+		assertThat(landmarks.landmarks()).hasSize(4).doesNotHaveDuplicates();
+		for (int landmark : landmarks.landmarks()) {
+			int[] distance = bfs(graph, landmark);
+			for (int to = 0; to < graph.size(); to++)
+				assertThat(landmarks.lowerBound(landmark, to)).isEqualTo(distance[to]);
+		}
+	}
+
+	@Test
+	public void testEveryComponentGetsALandmark() {
+		CompactGraph graph = TestGraphs.random(new Random(1), 300, 40, 1, 120);
+		Landmarks landmarks = Landmarks.build(graph, 8);
+		int[] component = new int[graph.size()];
+		for (int landmark : landmarks.landmarks()) {
+			int[] distance = bfs(graph, landmark);
+			for (int node = 0; node < graph.size(); node++)
+				if (distance[node] != UNREACHABLE) component[node]++;
+		}
+		assertThat(component).doesNotContain(0);
+		for (int from = 0; from < graph.size(); from += 7)
+			assertAgreesWithBfs(landmarks, from, bfs(graph, from));
+	}
+
+	@Test
+	public void testFrontiersExpandedInParallelAgreeWithBfs() {
+		// the levels of a random tree this size are far wider than a chunk
+		CompactGraph graph = TestGraphs.random(new Random(2), 60_000, 5_000);
+		Landmarks landmarks = Landmarks.build(graph, 6);
+		for (int landmark : landmarks.landmarks()) {
+			int[] distance = bfs(graph, landmark);
+			for (int to = 0; to < graph.size(); to++)
+				assertThat(landmarks.lowerBound(landmark, to)).isEqualTo(distance[to]);
+		}
+		Random random = new Random(3);
+		for (int source = 0; source < 10; source++) {
+			int from = random.nextInt(graph.size());
+			int[] distance = bfs(graph, from);
+			for (int pair = 0; pair < 50; pair++) {
+				int to = random.nextInt(graph.size());
+				assertThat(landmarks.lowerBound(from, to)).isBetween(0, distance[to]);
+				assertThat(landmarks.exactDistance(from, to)).isEqualTo(distance[to]);
+			}
+		}
+	}
+
+	@Test
+	public void testReadLandmarksGiveTheSameBounds() throws IOException {
+		CompactGraph graph = TestGraphs.random(new Random(4), 500, 50);
+		Landmarks landmarks = Landmarks.build(graph, 5);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		landmarks.write(out);
+		Landmarks read = Landmarks.read(new ByteArrayInputStream(out.toByteArray()), graph);
+		assertThat(read.landmarks()).isEqualTo(landmarks.landmarks());
+		for (int from = 0; from < graph.size(); from += 11)
+			for (int to = 0; to < graph.size(); to++)
+				assertThat(read.lowerBound(from, to)).isEqualTo(landmarks.lowerBound(from, to));
+	}
+
+}
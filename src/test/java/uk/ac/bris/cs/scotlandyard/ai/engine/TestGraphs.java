@@ -0,0 +1,76 @@
+package uk.ac.bris.cs.scotlandyard.ai.engine;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import uk.ac.bris.cs.gamekit.graph.Edge;
+import uk.ac.bris.cs.gamekit.graph.Node;
+import uk.ac.bris.cs.gamekit.graph.UndirectedGraph;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+import static uk.ac.bris.cs.scotlandyard.ai.engine.Distances.UNREACHABLE;
+
+/**
+ * Graphs and a plain breadth first search to check the engine's searches
+ * against
+ */
+final class TestGraphs {
+
+	private TestGraphs() {}
+
+	/**
+	 * @param random the source of randomness; not null
+	 * @param components the number of nodes of each component
+	 * @return components of random trees with some extra edges of random
+	 *         transports, node values run from 1
+	 */
+	static CompactGraph random(Random random, int... components) {
+		UndirectedGraph<Integer, Transport> graph = new UndirectedGraph<>();
+		Transport[] transports = Transport.values();
+		int first = 1;
+		for (int size : components) {
+			for (int i = 0; i < size; i++) {
+				graph.addNode(new Node<>(first + i));
+				if (i > 0) graph.addEdge(new Edge<>(graph.getNode(first + i),
+						graph.getNode(first + random.nextInt(i)),
+						transports[random.nextInt(transports.length)]));
+			}
+			for (int i = 0; i < size / 2; i++) {
+				int a = first + random.nextInt(size);
+				int b = first + random.nextInt(size);
+				if (a != b) graph.addEdge(new Edge<>(graph.getNode(a), graph.getNode(b),
+						transports[random.nextInt(transports.length)]));
+			}
+			first += size;
+		}
+		return CompactGraph.of(graph);
+	}
+
+	/**
+	 * @param graph the graph; not null
+	 * @param source the node index to search from
+	 * @param transports bits of the transport ordinals to follow
+	 * @return the hop distances from the source, {@link Distances#UNREACHABLE}
+	 *         where it does not get to
+	 */
+	static int[] bfs(CompactGraph graph, int source, int transports) {
+		int[] distance = new int[graph.size()];
+		Arrays.fill(distance, UNREACHABLE);
+		distance[source] = 0;
+		ArrayDeque<Integer> queue = new ArrayDeque<>();
+		queue.add(source);
+		while (!queue.isEmpty()) {
+			int node = queue.poll();
+			for (int i = 0; i < graph.degree(node); i++) {
+				int neighbour = graph.neighbour(node, i);
+				if ((transports & 1 << graph.transport(node, i)) == 0
+						|| distance[neighbour] != UNREACHABLE) continue;
+				distance[neighbour] = distance[node] + 1;
+				queue.add(neighbour);
+			}
+		}
+		return distance;
+	}
+
+}
@@ -0,0 +1,80 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MrXTracker;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SearchThreads;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+
+/**
+ * Tests for {@link MonteCarloTreeSearch}
+ */
+public class MonteCarloTreeSearchTest {
+
+	private static ScotlandYardModel game(int mrX, int red, int blue) throws IOException {
+		return new ScotlandYardModel(rounds(false, true, false, false, false, false),
+				StandardGame.standardGraph(),
+				new PlayerConfiguration.Builder(BLACK).with(mrXTickets()).at(mrX)
+						.using((view, location, moves, callback) -> {}).build(),
+				new PlayerConfiguration.Builder(RED).with(detectiveTickets()).at(red)
+						.using((view, location, moves, callback) -> {}).build(),
+				new PlayerConfiguration.Builder(BLUE).with(detectiveTickets()).at(blue)
+						.using((view, location, moves, callback) -> {}).build());
+	}
+
+	@Test(timeout = 30_000)
+	public void testConcurrentSearchesAllPlayOutWhileThePoolIsBusy() throws Exception {
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		ForkJoinPool pool = SearchThreads.pool();
+		// every thread of the pool taken by the searches of other games
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<?>> busy = new ArrayList<>();
+		for (int i = 0; i < pool.getParallelism(); i++)
+			busy.add(pool.submit(() -> {
+				release.await();
+				return null;
+			}));
+		ExecutorService games = Executors.newFixedThreadPool(2);
+		try {
+			List<MonteCarloTreeSearch> searches = new ArrayList<>();
+			List<Future<Long>> moves = new ArrayList<>();
+			for (int mrX : new int[] { 45, 132 }) {
+				MonteCarloTreeSearch search = new MonteCarloTreeSearch(graph, null,
+						new MrXTracker(graph), true, SearchThreads.parallelism());
+				ScotlandYardModel game = game(mrX, 94, 13);
+				searches.add(search);
+				moves.add(games.submit(() -> search.search(pool, game, mrX,
+						Duration.ofMillis(300))));
+			}
+			for (Future<Long> move : moves) move.get();
+			for (MonteCarloTreeSearch search : searches)
+				assertThat(search.totalPlayouts()).isPositive();
+		} finally {
+			release.countDown();
+			games.shutdown();
+		}
+		for (Future<?> task : busy) task.get();
+	}
+
+}
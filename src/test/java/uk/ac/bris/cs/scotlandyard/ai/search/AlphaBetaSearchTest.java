@@ -0,0 +1,71 @@
+package uk.ac.bris.cs.scotlandyard.ai.search;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.GameState;
+import uk.ac.bris.cs.scotlandyard.ai.engine.MoveList;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SearchThreads;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+
+/**
+ * Tests for {@link AlphaBetaSearch}
+ */
+public class AlphaBetaSearchTest {
+
+	@Test(timeout = 30_000)
+	public void testSearchEndsByItsDeadlineWhileThePoolIsBusy() throws Exception {
+		CompactGraph graph = CompactGraph.of(StandardGame.standardGraph());
+		ScotlandYardModel game = new ScotlandYardModel(rounds(false, true, false, false),
+				StandardGame.standardGraph(),
+				new PlayerConfiguration.Builder(BLACK).with(mrXTickets()).at(45)
+						.using((view, location, moves, callback) -> {}).build(),
+				new PlayerConfiguration.Builder(RED).with(detectiveTickets()).at(94)
+						.using((view, location, moves, callback) -> {}).build());
+		GameState root = GameState.fromView(graph, game, 45);
+		AlphaBetaSearch search = new AlphaBetaSearch(graph, null, null,
+				SearchThreads.parallelism(), new TranspositionTable(16));
+		ForkJoinPool pool = SearchThreads.pool();
+		// every thread of the pool taken by the searches of other games
+		CountDownLatch release = new CountDownLatch(1);
+		List<Future<?>> busy = new ArrayList<>();
+		for (int i = 0; i < pool.getParallelism(); i++)
+			busy.add(pool.submit(() -> {
+				release.await();
+				return null;
+			}));
+		long move;
+		long elapsed;
+		try {
+			long start = System.nanoTime();
+			move = search.search(pool, root, Duration.ofMillis(300));
+			elapsed = System.nanoTime() - start;
+		} finally {
+			release.countDown();
+		}
+		for (Future<?> task : busy) task.get();
+		assertThat(elapsed).isLessThan(Duration.ofSeconds(5).toNanos());
+		MoveList moves = new MoveList();
+		root.generateMoves(moves);
+		List<Long> legal = new ArrayList<>();
+		for (int i = 0; i < moves.size(); i++) legal.add(moves.get(i));
+		assertThat(legal).contains(move);
+	}
+
+}
@@ -0,0 +1,41 @@
+package uk.ac.bris.cs.scotlandyard.ai.search;
+
+import org.junit.Test;
+
+import uk.ac.bris.cs.scotlandyard.ai.engine.CompactGraph;
+import uk.ac.bris.cs.scotlandyard.ai.engine.SharedGraphs;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TranspositionTable}
+ */
+public class TranspositionTableTest {
+
+	@Test
+	public void testGamesOfTheSameShapeShareATable() throws Exception {
+		CompactGraph graph = SharedGraphs.compact(StandardGame.standardGraph());
+		TranspositionTable table = TranspositionTable.shared(graph, 6, 24, 4);
+		assertThat(TranspositionTable.shared(graph, 6, 24, 4)).isSameAs(table);
+		assertThat(TranspositionTable.shared(graph, 4, 24, 4)).isNotSameAs(table);
+		assertThat(TranspositionTable.shared(graph, 6, 22, 4)).isNotSameAs(table);
+		CompactGraph other = CompactGraph.of(StandardGame.standardGraph());
+		assertThat(TranspositionTable.shared(other, 6, 24, 4)).isNotSameAs(table);
+	}
+
+	@Test
+	public void testStoredEntryIsFoundUnderItsHashOnly() {
+		TranspositionTable table = new TranspositionTable(4);
+		table.store(0x1234L, 42, -7, 5, TranspositionTable.LOWER);
+		long word = table.probe(0x1234L);
+		assertThat(TranspositionTable.score(word)).isEqualTo(-7);
+		assertThat(TranspositionTable.depth(word)).isEqualTo(5);
+		assertThat(TranspositionTable.bound(word)).isEqualTo(TranspositionTable.LOWER);
+		assertThat(table.move(0x1234L)).isEqualTo(42);
+		// same slot, other position
+		assertThat(table.probe(0x1234L + 16)).isZero();
+		assertThat(table.move(0x1234L + 16)).isEqualTo(-1);
+	}
+
+}
@@ -0,0 +1,80 @@
+package uk.ac.bris.cs.scotlandyard.auxiliary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.gamekit.graph.IntGraphView;
+import uk.ac.bris.cs.gamekit.graph.Node;
+import uk.ac.bris.cs.gamekit.graph.UndirectedGraph;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader.fromLines;
+
+/**
+ * Tests for the traversal methods of {@link Graph} and {@link IntGraphView}
+ */
+public class GraphTraversalTest {
+
+	private static ImmutableGraph<Integer, Transport> graph() {
+		return fromLines(asList("4 3", "1", "2", "3", "4",
+				"1 2 Taxi", "1 3 Bus", "3 4 Underground"));
+	}
+
+	@Test
+	public void testForEachNeighbourMatchesEdgesFrom() {
+		for (Graph<Integer, Transport> graph : asList(graph(), new UndirectedGraph<>(graph()))) {
+			List<String> neighbours = new ArrayList<>();
+			graph.forEachNeighbour(1, (value, transport) -> neighbours.add(value + " " + transport));
+			assertThat(neighbours).containsExactlyInAnyOrderElementsOf(
+					graph.getEdgesFrom(graph.getNode(1)).stream()
+							.map(e -> e.destination().value() + " " + e.data())
+							.collect(toList()));
+			assertThat(graph.degree(3)).isEqualTo(2);
+		}
+	}
+
+	@Test
+	public void testMissingNodeShouldThrow() {
+		assertThatThrownBy(() -> graph().forEachNeighbour(5, (v, d) -> {}))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> graph().degree(5))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testSpliteratorsSplitAndCoverEverything() {
+		ImmutableGraph<Integer, Transport> graph = graph();
+		Spliterator<Node<Integer>> nodes = graph.nodeSpliterator();
+		assertThat(nodes.hasCharacteristics(Spliterator.SIZED)).isTrue();
+		assertThat(nodes.trySplit()).isNotNull();
+		assertThat(graph.nodes(true).map(Node::value).collect(toList()))
+				.containsExactly(1, 2, 3, 4);
+		assertThat(graph.edges(true).count()).isEqualTo(graph.getEdges().size());
+	}
+
+	@Test
+	public void testIntViewFollowsNodeOrder() {
+		ImmutableGraph<Integer, Transport> graph = graph();
+		IntGraphView<Integer, Transport> view = graph.intView();
+		assertThat(view.size()).isEqualTo(4);
+		assertThat(view.indexOf(3)).isEqualTo(2);
+		assertThat(view.indexOf(5)).isEqualTo(-1);
+		assertThat(view.degree(view.indexOf(1))).isEqualTo(2);
+		List<String> neighbours = new ArrayList<>();
+		int three = view.indexOf(3);
+		for (int i = 0; i < view.degree(three); i++)
+			neighbours.add(view.node(view.neighbour(three, i)).value() + " " + view.data(three, i));
+		assertThat(neighbours).containsExactlyInAnyOrder("1 BUS", "4 UNDERGROUND");
+		assertThat(graph.intView()).isSameAs(view);
+	}
+
+}
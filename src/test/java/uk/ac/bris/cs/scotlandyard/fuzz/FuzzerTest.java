@@ -0,0 +1,76 @@
+package uk.ac.bris.cs.scotlandyard.fuzz;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGame;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGameFactory;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link Fuzzer}
+ */
+public class FuzzerTest {
+
+	// tells everyone the detectives have one taxi ticket more than they do
+	private static final class Miscounting implements ScotlandYardGameFactory {
+
+		@Override
+		public ScotlandYardGame createGame(List<Boolean> rounds, Graph<Integer, Transport> graph,
+				PlayerConfiguration mrX, PlayerConfiguration firstDetective,
+				PlayerConfiguration... restOfTheDetectives) {
+			return new ScotlandYardModel(rounds, graph, mrX, firstDetective,
+					restOfTheDetectives) {
+				@Override
+				public Optional<Integer> getPlayerTickets(Colour colour, Ticket ticket) {
+					Optional<Integer> tickets = super.getPlayerTickets(colour, ticket);
+					return colour.isDetective() && ticket == Ticket.TAXI
+							? tickets.map(count -> count + 1) : tickets;
+				}
+			};
+		}
+
+		@Override
+		public String toString() {
+			return "Miscounting";
+		}
+	}
+
+	@Test(timeout = 120_000)
+	public void testModelAgreesWithTheReferenceForFixedSeeds() throws Exception {
+		Fuzzer fuzzer = new Fuzzer();
+		assertThat(fuzzer.parse(new String[] { "--games", "300", "--seed", "38", "--threads",
+				"1", "--seconds", "100" })).isTrue();
+		assertThat(fuzzer.run()).isTrue();
+	}
+
+	@Test(timeout = 120_000)
+	public void testShrinkingKeepsAPlantedMismatchInASmallerScenario() {
+		List<ScotlandYardGameFactory> factories = Collections.singletonList(new Miscounting());
+		List<String> names = Arrays.asList("Miscounting");
+		Fuzzer fuzzer = new Fuzzer();
+		Scenario scenario = Scenario.random(38);
+		Mismatch mismatch = fuzzer.trial(scenario, factories, names);
+		assertThat(mismatch).isNotNull();
+
+		Fuzzer.Shrunk shrunk = fuzzer.shrink(scenario, mismatch, factories, names);
+		assertThat(shrunk.scenario.size()).isLessThan(scenario.size());
+		assertThat(shrunk.mismatch.kind).isEqualTo(mismatch.kind);
+		// the shrunk scenario reproduces on its own
+		Mismatch again = fuzzer.trial(shrunk.scenario, factories, names);
+		assertThat(again).isNotNull();
+		assertThat(again.kind).isEqualTo(mismatch.kind);
+	}
+
+}
@@ -39,7 +39,11 @@ final class Assertions {
 
 	}
 
-	static void disableSystemExit() {
+	// harnesses that currently forbid System.exit(), tests may run concurrently
+	private static int exitLocks = 0;
+
+	static synchronized void disableSystemExit() {
+		if (exitLocks++ > 0) return;
 		System.setSecurityManager(new SecurityManager() {
 			@Override public void checkPermission(Permission perm) {
 				if (perm.getName().startsWith("exitVM")) {
@@ -49,7 +53,8 @@ final class Assertions {
 		});
 	}
 
-	static void enableSystemExit() {
+	static synchronized void enableSystemExit() {
+		if (exitLocks == 0 || --exitLocks > 0) return;
 		System.setSecurityManager(null);
 	}
 
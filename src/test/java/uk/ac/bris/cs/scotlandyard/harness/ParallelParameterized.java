@@ -0,0 +1,88 @@
+package uk.ac.bris.cs.scotlandyard.harness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.runner.Runner;
+import org.junit.runners.Parameterized;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.RunnerScheduler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A {@link Parameterized} runner that runs every parameter (e.g. every model
+ * factory) at the same time, and the test methods of each one on a pool of
+ * {@link TestHarness#parallelism()} threads. JUnit creates a new test instance
+ * for every method, so tests that keep their {@link TestHarness} and game in
+ * instance fields are isolated from each other.
+ * <p>
+ * With a parallelism of 1 this behaves exactly like {@link Parameterized}.
+ */
+public class ParallelParameterized extends Parameterized {
+
+	// parameters only wait for their methods, so they get a thread each and
+	// can never starve the method pool
+	private static final ExecutorService parameters = Executors.newCachedThreadPool(
+			new ThreadFactoryBuilder().setDaemon(true).setNameFormat("test-parameter-%d").build());
+
+	private static ExecutorService methods;
+
+	public ParallelParameterized(Class<?> klass) throws Throwable {
+		super(klass);
+		int parallelism = TestHarness.parallelism();
+		if (parallelism <= 1) return;
+		setScheduler(new PoolScheduler(parameters));
+		ExecutorService methods = methods(parallelism);
+		for (Runner runner : getChildren()) {
+			if (runner instanceof ParentRunner)
+				((ParentRunner<?>) runner).setScheduler(new PoolScheduler(methods));
+		}
+	}
+
+	private static synchronized ExecutorService methods(int parallelism) {
+		if (methods == null) methods = Executors.newFixedThreadPool(parallelism,
+				new ThreadFactoryBuilder().setDaemon(true).setNameFormat("test-method-%d").build());
+		return methods;
+	}
+
+	private static final class PoolScheduler implements RunnerScheduler {
+
+		private final ExecutorService service;
+		private final List<Future<?>> children = new ArrayList<>();
+
+		PoolScheduler(ExecutorService service) {
+			this.service = service;
+		}
+
+		@Override
+		public synchronized void schedule(Runnable child) {
+			children.add(service.submit(child));
+		}
+
+		@Override
+		public void finished() {
+			List<Future<?>> scheduled;
+			synchronized (this) {
+				scheduled = new ArrayList<>(children);
+				children.clear();
+			}
+			// failures are reported to the notifier by the children themselves
+			for (Future<?> child : scheduled) {
+				try {
+					child.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (ExecutionException e) {
+					throw new RuntimeException(e.getCause());
+				}
+			}
+		}
+	}
+
+}
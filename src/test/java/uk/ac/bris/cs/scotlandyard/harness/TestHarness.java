@@ -75,7 +75,13 @@ import static uk.ac.bris.cs.scotlandyard.model.Ticket.UNDERGROUND;
  * To print interactions to System.out, pass the system property printInteractions=true<br>
  * To change the default number of runs of each test from 10, pass the system property captureN,
  * e.g. captureN=5<br>
+ * To change how many tests run at the same time under {@link ParallelParameterized} from the
+ * number of processors, pass the system property parallelism, e.g. parallelism=1<br>
  * For example: <code>-DprintInteractions=true</code>
+ * <p>
+ * Every harness drives its own game, so harnesses may be used from different threads at the
+ * same time. The captures of one interaction read the game under test and are always taken in
+ * sequence on the thread the game called back on.
  */
 public class TestHarness {
 
@@ -92,6 +98,7 @@ public class TestHarness {
 	private EndMode endMode = EndMode.IGNORE;
 	private List<Requirement<ScotlandYardGame>> finalReqs;
 	private Consumer<ScotlandYardGame> finalContinuation;
+	private boolean exitLocked;
 
 	private static boolean getBooleanFlag(String flagName) {
 		return Optional.ofNullable(System.getProperty(flagName))
@@ -115,6 +122,13 @@ public class TestHarness {
 				}).orElse(fallback);
 	}
 
+	/**
+	 * @return the number of tests {@link ParallelParameterized} runs at the same time
+	 */
+	static int parallelism() {
+		return Math.max(1, getIntFlag("parallelism", Runtime.getRuntime().availableProcessors()));
+	}
+
 	public TestHarness() {
 		this(getBooleanFlag("printInteractions"));
 	}
@@ -126,6 +140,7 @@ public class TestHarness {
 	}
 	public TestHarness(int captureN, boolean printInteractions) {
 		Assertions.disableSystemExit();
+		this.exitLocked = true;
 		this.captureN = captureN;
 		this.printInteractions = printInteractions;
 		this.callingClass = Arrays.stream(Thread.currentThread().getStackTrace())
@@ -171,7 +186,7 @@ public class TestHarness {
 		private TestAssert previousRound;
 		private Interaction<?>[] interactions;
 		private List<Requirement<ScotlandYardGame>> reqs = new ArrayList<>();
-		Consumer<ScotlandYardGame> continuation = game -> Assertions.enableSystemExit();
+		Consumer<ScotlandYardGame> continuation = game -> releaseExitLock();
 
 		private TestAssert(Interaction<?>... interactions) {
 			this(null, interactions);
@@ -246,6 +261,12 @@ public class TestHarness {
 	}
 
 	public void forceReleaseShutdownLock() {
+		releaseExitLock();
+	}
+
+	private synchronized void releaseExitLock() {
+		if (!exitLocked) return;
+		exitLocked = false;
 		Assertions.enableSystemExit();
 	}
 
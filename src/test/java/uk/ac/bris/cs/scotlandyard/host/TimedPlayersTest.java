@@ -0,0 +1,104 @@
+package uk.ac.bris.cs.scotlandyard.host;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.PassMove;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.noTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+
+/**
+ * Tests for {@link TimedPlayers}
+ */
+public class TimedPlayersTest {
+
+	// always takes the same move out of the valid ones
+	private static final Player FIRST = (view, location, moves, callback) -> callback
+			.accept(moves.stream().min(Comparator.comparing(Move::toString))
+					.orElseThrow(AssertionError::new));
+
+	// blue has no tickets and can only pass
+	private static PlayerConfiguration player(Colour colour, int location) {
+		return new PlayerConfiguration.Builder(colour).using(FIRST)
+				.with(colour.isMrX() ? mrXTickets()
+						: colour == BLUE ? noTickets() : detectiveTickets())
+				.at(location).build();
+	}
+
+	private static Set<Colour> play(ScotlandYardModel model) {
+		AtomicReference<Set<Colour>> winners = new AtomicReference<>();
+		model.registerSpectator(TimedPlayers.rotation(model, Runnable::run, winners::set));
+		model.startRotate();
+		return winners.get();
+	}
+
+	@Test
+	public void testGameEndingInAPassIsOver() throws Exception {
+		ScotlandYardModel model = new ScotlandYardModel(rounds(false, false),
+				StandardGame.standardGraph(), player(BLACK, 35), player(RED, 155),
+				player(BLUE, 174));
+		assertThat(play(model)).containsExactly(BLACK);
+		assertThat(model.getCurrentRound()).isEqualTo(2);
+	}
+
+	@Test
+	public void testGameEndingInAMoveIsOver() throws Exception {
+		ScotlandYardModel model = new ScotlandYardModel(rounds(false, false),
+				StandardGame.standardGraph(), player(BLACK, 35), player(BLUE, 174),
+				player(RED, 155));
+		assertThat(play(model)).containsExactly(BLACK);
+		assertThat(model.getCurrentRound()).isEqualTo(2);
+	}
+
+	@Test(timeout = 10_000)
+	public void testPlayerTooSlowForfeitsAndItsMoveIsIgnored() throws Exception {
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+		try {
+			CompletableFuture<Colour> forfeited = new CompletableFuture<>();
+			TimedPlayers players = new TimedPlayers(Duration.ofMillis(50), timer,
+					Runnable::run, forfeited::complete);
+			AtomicReference<Consumer<Move>> slow = new AtomicReference<>();
+			players.play(BLACK, FIRST);
+			players.play(RED, (view, location, moves, callback) -> slow.set(callback));
+			AtomicInteger made = new AtomicInteger();
+
+			players.player(BLACK).makeMove(null, 35, singleton(new PassMove(BLACK)),
+					move -> made.incrementAndGet());
+			assertThat(made.get()).isEqualTo(1);
+			long asked = System.nanoTime();
+			players.player(RED).makeMove(null, 155, singleton(new PassMove(RED)),
+					move -> made.incrementAndGet());
+			assertThat(forfeited.get()).isEqualTo(RED);
+			assertThat(System.nanoTime() - asked)
+					.isGreaterThanOrEqualTo(players.timeLimit().toNanos());
+			slow.get().accept(new PassMove(RED));
+			assertThat(made.get()).isEqualTo(1);
+		} finally {
+			timer.shutdownNow();
+		}
+	}
+
+}
@@ -243,4 +243,20 @@ public class ModelGameOverTest extends ParameterisedModelTestBase {
 				.thenAssert("All detectives are winners", g ->
 						assertThat(g.getWinningPlayers()).containsExactlyInAnyOrder(BLUE, RED));
 	}
+
+	@Test
+	public void testCaptureWinsForDetectivesInTheLastRoundWithEveryoneStuck() {
+		PlayerConfiguration mrX = harness.newPlayer(BLACK, 86);
+		PlayerConfiguration blue = harness.newPlayer(BLUE, 85, 1, 0, 0, 0, 0);
+
+		harness.play(createGame(rounds(false), mrX, blue))
+				.startRotationAndAssertTheseInteractionsOccurInOrder(
+						player(BLACK).makeMove().willPick(taxi(103)),
+						// the last round, and blue uses his last ticket to capture
+						player(BLUE).makeMove().willPick(taxi(103)))
+				.thenRequire(gameOver())
+				.thenAssert("Only the detectives are winners", g ->
+						assertThat(g.getWinningPlayers()).containsExactlyInAnyOrder(BLUE))
+				.thenIgnoreAnyFurtherInteractions();
+	}
 }
@@ -3,7 +3,6 @@ package uk.ac.bris.cs.scotlandyard.model;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.runner.RunWith;
-import org.junit.runners.Parameterized;
 import org.junit.runners.Parameterized.Parameter;
 import org.junit.runners.Parameterized.Parameters;
 
@@ -14,6 +13,7 @@ import java.nio.file.Paths;
 import java.util.List;
 
 import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.harness.ParallelParameterized;
 
 import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.DEFAULT_REVEAL;
 import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.doNothingBlue;
@@ -26,8 +26,11 @@ import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.ofRounds;
 
 /**
  * Base class for all tests. Contains various helper methods for convenience
+ * <p>
+ * Factories and the tests for each of them run concurrently, see
+ * {@link ParallelParameterized}; tests must not share mutable state.
  */
-@RunWith(Parameterized.class)
+@RunWith(ParallelParameterized.class)
 public abstract class ParameterisedModelTestBase implements ScotlandYardGameFactory {
 
 	/**
@@ -56,7 +59,7 @@ public abstract class ParameterisedModelTestBase implements ScotlandYardGameFact
 		}
 	}
 
-	private static Graph<Integer, Transport> defaultGraph;
+	private static volatile Graph<Integer, Transport> defaultGraph;
 	/**
 	 * Returns the default graph used in the actual game
 	 *
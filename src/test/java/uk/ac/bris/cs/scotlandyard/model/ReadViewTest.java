@@ -0,0 +1,173 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import uk.ac.bris.cs.scotlandyard.model.ReadView.Snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.taxi;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+
+/**
+ * Tests for {@link ReadView}
+ */
+public class ReadViewTest {
+
+	// one round: Mr.X goes 86 -> 103, blue 85 -> 68
+	private static ScotlandYardModel game() throws IOException {
+		return new ScotlandYardModel(rounds(true), StandardGame.standardGraph(),
+				new PlayerConfiguration.Builder(BLACK).with(mrXTickets()).at(86)
+						.using((view, location, moves, callback) -> callback.accept(taxi(BLACK, 103)))
+						.build(),
+				new PlayerConfiguration.Builder(BLUE).with(detectiveTickets()).at(85)
+						.using((view, location, moves, callback) -> callback.accept(taxi(BLUE, 68)))
+						.build());
+	}
+
+	private static ScotlandYardView snapshot(ScotlandYardModel game) {
+		ReadView published = game.readView().orElseThrow(AssertionError::new);
+		return published.read(published.newSnapshot()).asView(game);
+	}
+
+	@Test
+	public void testViewAnswersLikeTheModel() throws IOException {
+		ScotlandYardModel game = game();
+		for (ScotlandYardView view : new ScotlandYardView[] { snapshot(game), game }) {
+			assertThat(view.getPlayers()).containsExactly(BLACK, BLUE);
+			assertThat(view.getCurrentPlayer()).isEqualTo(BLACK);
+			assertThat(view.getCurrentRound()).isEqualTo(ScotlandYardView.NOT_STARTED);
+			assertThat(view.isGameOver()).isFalse();
+			assertThat(view.getWinningPlayers()).isEmpty();
+			assertThat(view.getPlayerLocation(BLACK)).contains(0);
+			assertThat(view.getPlayerLocation(BLUE)).contains(85);
+			assertThat(view.getPlayerTickets(BLUE, Ticket.TAXI)).contains(11);
+		}
+	}
+
+	@Test
+	public void testViewKeepsTheNullContractOfTheModel() throws IOException {
+		ScotlandYardModel game = game();
+		for (ScotlandYardView view : new ScotlandYardView[] { snapshot(game), game }) {
+			assertThat(view.getPlayerLocation(null)).isEmpty();
+			assertThat(view.getPlayerLocation(RED)).isEmpty();
+			assertThat(view.getPlayerTickets(null, Ticket.TAXI)).isEmpty();
+			assertThat(view.getPlayerTickets(RED, null)).isEmpty();
+			assertThatThrownBy(() -> view.getPlayerTickets(BLUE, null))
+					.isInstanceOf(NullPointerException.class);
+		}
+	}
+
+	@Test
+	public void testGameOverComesFromTheSnapshot() throws IOException {
+		ScotlandYardModel game = game();
+		ScotlandYardView before = snapshot(game);
+		game.startRotate();
+		assertThat(game.isGameOver()).isTrue();
+		ScotlandYardView after = snapshot(game);
+
+		// the game is over now, but it was not when the snapshot was read
+		assertThat(before.isGameOver()).isFalse();
+		assertThat(before.getWinningPlayers()).isEmpty();
+		assertThat(before.getPlayerLocation(BLUE)).contains(85);
+
+		assertThat(after.isGameOver()).isTrue();
+		assertThat(after.getWinningPlayers()).isEqualTo(game.getWinningPlayers())
+				.containsExactly(BLACK);
+		assertThat(after.getPlayerLocation(BLUE)).contains(68);
+		assertThat(after.getPlayerLocation(BLACK)).contains(103);
+	}
+
+	// every field of publication v is derived from v, so a snapshot mixing
+	// two publications shows
+	private static void publish(ReadView view, int v) {
+		Colour[] colours = Colour.values();
+		Ticket[] tickets = Ticket.values();
+		int[] locations = new int[colours.length];
+		int[][] counts = new int[colours.length][tickets.length];
+		boolean[] playing = new boolean[colours.length];
+		Set<Colour> winners = EnumSet.noneOf(Colour.class);
+		for (int c = 0; c < colours.length; c++) {
+			locations[c] = v + c;
+			for (int t = 0; t < tickets.length; t++) counts[c][t] = v * 7 + c * 5 + t;
+			playing[c] = true;
+			if ((v >>> c & 1) != 0) winners.add(colours[c]);
+		}
+		view.publish(v, v % colours.length, locations, counts, playing, winners);
+	}
+
+	private static void assertPublication(Snapshot snapshot, int v) {
+		Colour[] colours = Colour.values();
+		assertThat(snapshot.round()).isEqualTo(v);
+		assertThat(snapshot.currentPlayer()).isEqualTo(colours[v % colours.length]);
+		for (Colour colour : colours) {
+			int c = colour.ordinal();
+			assertThat(snapshot.location(colour)).isEqualTo(v + c);
+			for (Ticket ticket : Ticket.values())
+				assertThat(snapshot.tickets(colour, ticket))
+						.isEqualTo(v * 7 + c * 5 + ticket.ordinal());
+			assertThat(snapshot.winners().contains(colour)).isEqualTo((v >>> c & 1) != 0);
+		}
+	}
+
+	@Test(timeout = 120_000)
+	public void testReadsNeverSeeHalfAPublication() throws Exception {
+		ReadView view = new ReadView();
+		publish(view, 1);
+		int readers = 2;
+		int reads = 300_000;
+		AtomicBoolean done = new AtomicBoolean();
+		ExecutorService threads = Executors.newFixedThreadPool(readers + 1);
+		try {
+			Future<Integer> writer = threads.submit(() -> {
+				int v = 1;
+				while (!done.get()) publish(view, ++v);
+				return v;
+			});
+			List<Future<Integer>> read = new ArrayList<>();
+			for (int r = 0; r < readers; r++) {
+				read.add(threads.submit(() -> {
+					Snapshot snapshot = view.newSnapshot();
+					long last = 0;
+					int changes = 0;
+					for (int i = 0; i < reads; i++) {
+						view.read(snapshot);
+						// two increments per publication
+						long version = snapshot.version();
+						assertThat(version % 2).isZero();
+						assertThat(version).isGreaterThanOrEqualTo(last);
+						assertPublication(snapshot, (int) (version / 2));
+						if (version != last) changes++;
+						last = version;
+					}
+					return changes;
+				}));
+			}
+			int changes = 0;
+			for (Future<Integer> reader : read) changes += reader.get();
+			done.set(true);
+			int published = writer.get();
+			assertThat(changes).isGreaterThan(readers);
+			assertThat(view.read(view.newSnapshot()).version()).isEqualTo(2L * published);
+		} finally {
+			done.set(true);
+			threads.shutdownNow();
+		}
+	}
+
+}
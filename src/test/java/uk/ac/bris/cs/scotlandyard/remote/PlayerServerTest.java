@@ -0,0 +1,235 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.ac.bris.cs.scotlandyard.harness.ImmutableScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+
+/**
+ * Tests for {@link PlayerServer} over loopback
+ */
+public class PlayerServerTest {
+
+	// what a game asked for, to compare with what the client received
+	private static final class Asked {
+		final ScotlandYardView view;
+		final int location;
+		final Set<Move> moves;
+
+		Asked(ScotlandYardView view, int location, Set<Move> moves) {
+			this.view = ImmutableScotlandYardView.snapshot(view);
+			this.location = location;
+			this.moves = new HashSet<>(moves);
+		}
+	}
+
+	private static final Map<Long, Queue<Asked>> asked = new ConcurrentHashMap<>();
+
+	private static Player remembering(RemotePlayer player) {
+		Queue<Asked> queue = asked.computeIfAbsent(player.game(),
+				game -> new ConcurrentLinkedQueue<>());
+		return (view, location, moves, callback) -> {
+			queue.add(new Asked(view, location, moves));
+			player.makeMove(view, location, moves, callback);
+		};
+	}
+
+	// every player of the game asks the connection for its moves, rotations
+	// start as the last one completes
+	private static ScotlandYardModel game(RemoteConnection connection, long id, int mrX,
+			int red, int blue, CompletableFuture<Set<Colour>> over) throws Exception {
+		ScotlandYardModel game = new ScotlandYardModel(rounds(false, true, false, false),
+				StandardGame.standardGraph(),
+				new PlayerConfiguration.Builder(BLACK).with(mrXTickets()).at(mrX)
+						.using(remembering(connection.player(id))).build(),
+				new PlayerConfiguration.Builder(RED).with(detectiveTickets()).at(red)
+						.using(remembering(connection.player(id))).build(),
+				new PlayerConfiguration.Builder(BLUE).with(detectiveTickets()).at(blue)
+						.using(remembering(connection.player(id))).build());
+		game.registerSpectator(new Spectator() {
+			@Override
+			public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
+				over.complete(winningPlayers);
+			}
+
+			@Override
+			public void onRotationComplete(ScotlandYardView view) {
+				if (view.isGameOver()) over.complete(view.getWinningPlayers());
+				else game.startRotate();
+			}
+		});
+		return game;
+	}
+
+	private static void answer(MoveRequest request) throws Exception {
+		Asked expected = asked.get(request.game()).poll();
+		assertThat(expected).as("request %d", request.id()).isNotNull();
+		ProtocolTest.assertSameView(request.view(), expected.view);
+		assertThat(request.location()).isEqualTo(expected.location);
+		assertThat(request.moves()).isEqualTo(expected.moves);
+		List<Move> moves = new ArrayList<>(request.moves());
+		moves.sort((a, b) -> a.toString().compareTo(b.toString()));
+		request.reply(moves.get(0));
+	}
+
+	@Test(timeout = 60_000)
+	public void testPipelinedRequestsFromTwoGamesOnOneConnection() throws Exception {
+		CompletableFuture<Set<Colour>> first = new CompletableFuture<>();
+		CompletableFuture<Set<Colour>> second = new CompletableFuture<>();
+		CompletableFuture<Void> answering = new CompletableFuture<>();
+		AtomicInteger pipelined = new AtomicInteger();
+		try (PlayerServer server = PlayerServer.loopback();
+				PlayerClient client = PlayerClient.connect(server.address(),
+						StandardGame.standardGraph())) {
+			RemoteConnection connection = server.accept(Duration.ofSeconds(10));
+			BlockingQueue<MoveRequest> received = new LinkedBlockingQueue<>();
+			Thread reader = new Thread(() -> {
+				try {
+					while (true) received.add(client.next());
+				} catch (Exception e) {
+					// closed at the end of the test
+				}
+			});
+			reader.setDaemon(true);
+			reader.start();
+			// holds a request until the other game has asked too, then
+			// answers the later one first
+			Thread answerer = new Thread(() -> {
+				try {
+					while (!(first.isDone() && second.isDone())) {
+						MoveRequest request = received.poll(100, TimeUnit.MILLISECONDS);
+						if (request == null) continue;
+						MoveRequest other = received.poll(200, TimeUnit.MILLISECONDS);
+						if (other != null) {
+							assertThat(other.game()).isNotEqualTo(request.game());
+							assertThat(connection.outstanding()).isEqualTo(2);
+							pipelined.incrementAndGet();
+							answer(other);
+						}
+						answer(request);
+					}
+					answering.complete(null);
+				} catch (Throwable e) {
+					answering.completeExceptionally(e);
+				}
+			});
+			answerer.setDaemon(true);
+			answerer.start();
+
+			game(connection, 1, 45, 94, 13, first).startRotate();
+			game(connection, 2, 132, 29, 155, second).startRotate();
+			answering.get();
+			assertThat(first.get()).isNotEmpty();
+			assertThat(second.get()).isNotEmpty();
+			assertThat(pipelined.get()).isGreaterThan(2);
+			assertThat(connection.outstanding()).isZero();
+			for (Queue<Asked> queue : asked.values()) assertThat(queue).isEmpty();
+			assertThat(asked.keySet()).containsOnly(1L, 2L);
+		} finally {
+			asked.clear();
+		}
+	}
+
+	@Test(timeout = 60_000)
+	public void testIllegalMoveOnlyStopsItsOwnGame() throws Exception {
+		CompletableFuture<Set<Colour>> legal = new CompletableFuture<>();
+		CompletableFuture<Set<Colour>> illegal = new CompletableFuture<>();
+		CompletableFuture<Void> answering = new CompletableFuture<>();
+		try (PlayerServer server = PlayerServer.loopback();
+				PlayerClient client = PlayerClient.connect(server.address(),
+						StandardGame.standardGraph())) {
+			RemoteConnection connection = server.accept(Duration.ofSeconds(10));
+			BlockingQueue<MoveRequest> received = new LinkedBlockingQueue<>();
+			Thread reader = new Thread(() -> {
+				try {
+					while (true) received.add(client.next());
+				} catch (Exception e) {
+					// closed at the end of the test
+				}
+			});
+			reader.setDaemon(true);
+			reader.start();
+			AtomicInteger refused = new AtomicInteger();
+			Thread answerer = new Thread(() -> {
+				try {
+					while (!legal.isDone()) {
+						MoveRequest request = received.poll(100, TimeUnit.MILLISECONDS);
+						if (request == null) continue;
+						if (request.game() == 2) {
+							asked.get(2L).poll();
+							// node 0 is not on the map
+							request.reply(new TicketMove(request.view().getCurrentPlayer(),
+									TAXI, 0));
+							refused.incrementAndGet();
+						} else {
+							answer(request);
+						}
+					}
+					answering.complete(null);
+				} catch (Throwable e) {
+					answering.completeExceptionally(e);
+				}
+			});
+			answerer.setDaemon(true);
+			answerer.start();
+
+			game(connection, 2, 132, 29, 155, illegal).startRotate();
+			game(connection, 1, 45, 94, 13, legal).startRotate();
+			answering.get();
+			assertThat(legal.get()).isNotEmpty();
+			assertThat(illegal.isDone()).isFalse();
+			assertThat(refused.get()).isEqualTo(1);
+			assertThat(connection.isOpen()).isTrue();
+			assertThat(server.connections()).containsExactly(connection);
+			assertThat(connection.outstanding()).isZero();
+		} finally {
+			asked.clear();
+		}
+	}
+
+	@Test(timeout = 30_000)
+	public void testClosedConnectionsAreDropped() throws Exception {
+		try (PlayerServer server = PlayerServer.loopback()) {
+			PlayerClient client = PlayerClient.connect(server.address(),
+					StandardGame.standardGraph());
+			RemoteConnection connection = server.accept(Duration.ofSeconds(10));
+			assertThat(server.connections()).containsExactly(connection);
+			client.close();
+			while (connection.isOpen()) Thread.sleep(10);
+			assertThat(server.connections()).isEmpty();
+		}
+	}
+
+}
@@ -0,0 +1,167 @@
+package uk.ac.bris.cs.scotlandyard.remote;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.PassMove;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.YELLOW;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.BUS;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.UNDERGROUND;
+
+/**
+ * Tests for {@link Protocol}
+ */
+public class ProtocolTest {
+
+	private static final int[] DESTINATIONS = { 0, 1, 199, 0x8000, 0xFFFF };
+
+	static void assertSameView(ScotlandYardView actual, ScotlandYardView expected) {
+		assertThat(actual.getCurrentRound()).isEqualTo(expected.getCurrentRound());
+		assertThat(actual.getCurrentPlayer()).isEqualTo(expected.getCurrentPlayer());
+		assertThat(actual.getRounds()).isEqualTo(expected.getRounds());
+		assertThat(actual.getPlayers()).isEqualTo(expected.getPlayers());
+		for (Colour colour : Colour.values()) {
+			assertThat(actual.getPlayerLocation(colour)).as("%s", colour)
+					.isEqualTo(expected.getPlayerLocation(colour));
+			for (Ticket ticket : Ticket.values())
+				assertThat(actual.getPlayerTickets(colour, ticket)).as("%s %s", colour, ticket)
+						.isEqualTo(expected.getPlayerTickets(colour, ticket));
+		}
+	}
+
+	private static List<Move> everyMove(Colour colour) {
+		List<Move> moves = new ArrayList<>();
+		moves.add(new PassMove(colour));
+		for (Ticket first : Ticket.values()) {
+			for (int d = 0; d < DESTINATIONS.length; d++) {
+				moves.add(new TicketMove(colour, first, DESTINATIONS[d]));
+				for (Ticket second : Ticket.values())
+					moves.add(new DoubleMove(colour, first, DESTINATIONS[d], second,
+							DESTINATIONS[DESTINATIONS.length - 1 - d]));
+			}
+		}
+		return moves;
+	}
+
+	@Test
+	public void testEveryKindOfMoveRoundTrips() {
+		for (Colour colour : Colour.values())
+			for (Move move : everyMove(colour))
+				assertThat(Protocol.decode(Protocol.encode(move))).isEqualTo(move);
+	}
+
+	@Test
+	public void testMovesArePackedAsDocumented() {
+		assertThat(Protocol.encode(new PassMove(YELLOW))).isEqualTo(YELLOW.ordinal() << 2);
+		assertThat(Protocol.encode(new TicketMove(RED, BUS, 5)))
+				.isEqualTo(1 | RED.ordinal() << 2 | BUS.ordinal() << 6 | 5L << 9);
+		assertThat(Protocol.encode(new DoubleMove(BLACK, SECRET, 0xFFFF, UNDERGROUND, 7)))
+				.isEqualTo(2 | BLACK.ordinal() << 2 | SECRET.ordinal() << 6 | 0xFFFFL << 9
+						| (long) UNDERGROUND.ordinal() << 25 | 7L << 28);
+		// the second move starts right after the first one's 19 bits
+		long packed = Protocol.encode(new DoubleMove(BLUE, SECRET, 0xFFFF, SECRET, 0xFFFF));
+		assertThat(packed >>> 6 & (1 << 19) - 1).isEqualTo(packed >>> 25);
+		assertThat(packed >>> 44).isZero();
+	}
+
+	@Test
+	public void testMalformedMovesAreRejected() {
+		assertThatThrownBy(() -> Protocol.decode(3)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Protocol.decode(1 | 0xF << 2))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Protocol.decode(1 | 7 << 6))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Protocol.encode(new TicketMove(RED, TAXI, 0x10000)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Protocol.encode(new TicketMove(RED, TAXI, -1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private static RemoteView view(int round, Colour current, List<Boolean> rounds,
+			List<Colour> players, int... counts) throws IOException {
+		int[] locations = new int[Colour.values().length];
+		int[][] tickets = new int[Colour.values().length][Ticket.values().length];
+		for (Colour colour : players) {
+			locations[colour.ordinal()] = colour.isMrX() ? 0 : 100 + colour.ordinal();
+			for (int t = 0; t < Ticket.values().length; t++)
+				tickets[colour.ordinal()][t] = counts[(colour.ordinal() + t) % counts.length];
+		}
+		return new RemoteView(StandardGame.standardGraph(), round, current, rounds, players,
+				locations, tickets);
+	}
+
+	private static List<Boolean> rounds(int count, int... reveals) {
+		List<Boolean> rounds = new ArrayList<>();
+		for (int r = 0; r < count; r++) rounds.add(false);
+		for (int reveal : reveals) if (reveal < count) rounds.set(reveal, true);
+		return rounds;
+	}
+
+	@Test(timeout = 30_000)
+	public void testRequestsRoundTripOverLoopback() throws Exception {
+		List<ScotlandYardView> views = Arrays.asList(
+				view(0, BLACK, rounds(0), Arrays.asList(BLACK, RED), 0),
+				view(3, RED, rounds(1, 0), Arrays.asList(BLACK, RED), 4, 11, 2),
+				// the last reveal of each byte is its sign bit
+				view(8, BLUE, rounds(8, 2, 7), Arrays.asList(BLACK, RED, BLUE), 1, 0x7FFF),
+				view(22, BLACK, rounds(24, 2, 7, 12, 17, 23), Arrays.asList(Colour.values()),
+						0x8000, 0xFFFF, 9),
+				view(0xFFFF, YELLOW, rounds(17, 8, 15, 16), Arrays.asList(BLACK, YELLOW), 3));
+		Set<Move> moves = new LinkedHashSet<>(everyMove(RED));
+		try (PlayerServer server = PlayerServer.loopback();
+				PlayerClient client = PlayerClient.connect(server.address(),
+						StandardGame.standardGraph())) {
+			RemoteConnection connection = server.accept(Duration.ofSeconds(10));
+			for (int i = 0; i < views.size(); i++) {
+				connection.player(-i).makeMove(views.get(i), 100 + i, moves, move -> {});
+				MoveRequest request = client.next();
+				assertThat(request.game()).isEqualTo(-i);
+				assertThat(request.location()).isEqualTo(100 + i);
+				assertThat(request.moves()).containsExactlyElementsOf(moves);
+				assertSameView(request.view(), views.get(i));
+			}
+			assertThat(connection.outstanding()).isEqualTo(views.size());
+		}
+	}
+
+	@Test
+	public void testRequestsThatDoNotFitAreRejected() throws IOException {
+		List<Colour> players = Arrays.asList(BLACK, RED);
+		long[] none = new long[0];
+		assertThatThrownBy(() -> Protocol.request(1, 1,
+				view(0, BLACK, rounds(2), players, 0x10000), 1, none))
+						.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Protocol.request(1, 1,
+				view(0x10000, BLACK, rounds(2), players, 1), 1, none))
+						.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Protocol.request(1, 1,
+				view(0, BLACK, rounds(2), players, -1), 1, none))
+						.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> Protocol.request(1, 1,
+				view(0, BLACK, rounds(2), players, 1), 1, new long[0x10000]))
+						.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,104 @@
+package uk.ac.bris.cs.scotlandyard.spectate;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.doNothingMrX;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.doNothingRed;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+
+/**
+ * Tests for {@link SpectatorServer} over loopback
+ */
+public class SpectatorServerTest {
+
+	private static final Duration WRITE_TIMEOUT = Duration.ofMillis(500);
+
+	// asks for the game and never reads, the socket buffers fill up
+	private static Socket stalled(InetSocketAddress address) throws IOException {
+		Socket socket = new Socket();
+		socket.setReceiveBufferSize(1024);
+		socket.connect(address);
+		request(socket);
+		return socket;
+	}
+
+	private static void request(Socket socket) throws IOException {
+		socket.getOutputStream().write(("GET /games/game HTTP/1.1\r\nHost: localhost\r\n\r\n")
+				.getBytes(StandardCharsets.US_ASCII));
+		socket.getOutputStream().flush();
+	}
+
+	// reads every event and completes with the last one once the stream ends
+	private static CompletableFuture<String> watch(Socket socket) {
+		CompletableFuture<String> last = new CompletableFuture<>();
+		Thread thread = new Thread(() -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+					socket.getInputStream(), StandardCharsets.UTF_8))) {
+				String event = null;
+				String line;
+				while ((line = reader.readLine()) != null) {
+					if (line.startsWith("event: ")) event = line.substring(7);
+					if ("0".equals(line) && "over".equals(event)) break; // last chunk
+				}
+				last.complete(event);
+			} catch (IOException e) {
+				last.completeExceptionally(e);
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		return last;
+	}
+
+	@Test(timeout = 60_000)
+	public void testStalledWatchersAreDisconnectedWhileOthersKeepWatching()
+			throws Exception {
+		ScotlandYardModel game = new ScotlandYardModel(rounds(false),
+				StandardGame.standardGraph(), doNothingMrX(), doNothingRed());
+		GameStream stream = new GameStream(game);
+		List<Socket> sockets = new ArrayList<>();
+		try (SpectatorServer server = new SpectatorServer(
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), WRITE_TIMEOUT)) {
+			server.publish("game", stream);
+			// more stalled watchers than writers, blocking writes would hold them all
+			for (int i = 0; i < 3; i++) sockets.add(stalled(server.address()));
+			Socket live = new Socket(server.address().getAddress(), server.address().getPort());
+			sockets.add(live);
+			request(live);
+			CompletableFuture<String> watched = watch(live);
+			while (stream.watchers() < 4) Thread.sleep(10);
+
+			// events until the stalled watchers are found out
+			while (stream.watchers() > 1) {
+				stream.onRoundStarted(game, 0);
+				Thread.yield();
+			}
+			stream.onGameOver(game, Collections.singleton(BLACK));
+			assertThat(watched.get()).isEqualTo("over");
+			// the last chunk is out before the stream closes, the timeout
+			// fails the test if the watcher is never removed
+			while (stream.watchers() > 0) Thread.sleep(10);
+		} finally {
+			for (Socket socket : sockets) socket.close();
+		}
+	}
+
+}
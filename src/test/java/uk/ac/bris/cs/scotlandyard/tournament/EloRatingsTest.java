@@ -0,0 +1,71 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static uk.ac.bris.cs.scotlandyard.tournament.Results.ai;
+
+/**
+ * Tests for {@link EloRatings}
+ */
+public class EloRatingsTest {
+
+	private final AI a = ai("a"), b = ai("b"), c = ai("c");
+
+	// rating difference with the given expected score
+	private static double elo(double score) {
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	@Test
+	public void testEqualRecordsRateEveryoneTheMean() {
+		Map<AI, Rating> ratings = EloRatings.rate(Arrays.asList(a, b, c),
+				new Results().won(0, a, b, 2).won(0, b, c, 2).won(0, c, a, 2).list());
+		for (Rating rating : ratings.values())
+			assertThat(rating.value).isCloseTo(EloRatings.MEAN, within(1e-6));
+	}
+
+	@Test
+	public void testScoreMatchesRatingDifference() {
+		Map<AI, Rating> ratings = EloRatings.rate(Arrays.asList(a, b),
+				new Results().won(0, a, b, 3).won(0, b, a, 1).list());
+		assertThat(ratings.get(a).value - ratings.get(b).value).isCloseTo(elo(0.75), within(0.01));
+		assertThat(ratings.get(a).value + ratings.get(b).value)
+				.isCloseTo(2 * EloRatings.MEAN, within(1e-6));
+	}
+
+	@Test
+	public void testIntervalIsTheWilsonInterval() {
+		Map<AI, Rating> ratings = EloRatings.rate(Arrays.asList(a, b),
+				new Results().won(0, a, b, 8).won(0, b, a, 2).list());
+		// the 95% Wilson interval of 8 out of 10 is [0.4902, 0.9433]
+		Rating rating = ratings.get(a);
+		assertThat(rating.low - rating.value).isCloseTo(elo(0.4902) - elo(0.8), within(0.1));
+		assertThat(rating.high - rating.value).isCloseTo(elo(0.9433) - elo(0.8), within(0.1));
+	}
+
+	@Test
+	public void testPerfectScoreStaysFinite() {
+		Map<AI, Rating> ratings = EloRatings.rate(Arrays.asList(a, b),
+				new Results().won(0, a, b, 4).list());
+		assertThat(ratings.get(a).value).isGreaterThan(ratings.get(b).value)
+				.isLessThan(Double.POSITIVE_INFINITY);
+		assertThat(ratings.get(a).high).isEqualTo(Double.POSITIVE_INFINITY);
+		assertThat(ratings.get(b).low).isEqualTo(Double.NEGATIVE_INFINITY);
+	}
+
+	@Test
+	public void testUnplayedAIsKeepTheMean() {
+		Map<AI, Rating> ratings = EloRatings.rate(Arrays.asList(a, b, c),
+				new Results().won(0, a, b, 1).won(0, b, a, 1).list());
+		assertThat(ratings.get(c).value).isEqualTo(EloRatings.MEAN);
+		assertThat(ratings.get(c).low).isEqualTo(Double.NEGATIVE_INFINITY);
+	}
+
+}
@@ -0,0 +1,57 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static uk.ac.bris.cs.scotlandyard.tournament.Results.ai;
+
+/**
+ * Tests for {@link GlickoRatings}
+ */
+public class GlickoRatingsTest {
+
+	private final AI a = ai("a"), b = ai("b");
+
+	@Test
+	public void testWorkedExampleFromGlickman() {
+		// "The Glicko system", Mark E. Glickman: a 1500 (200) player beats a
+		// 1400 (30) player, loses to a 1550 (100) and a 1700 (300) player
+		double[] rating = { 1500, 200 };
+		double[] sum = new double[2];
+		GlickoRatings.accumulate(sum, rating, new double[] { 1400, 30 }, 1);
+		GlickoRatings.accumulate(sum, rating, new double[] { 1550, 100 }, 0);
+		GlickoRatings.accumulate(sum, rating, new double[] { 1700, 300 }, 0);
+		double[] updated = GlickoRatings.update(rating, sum);
+		assertThat(updated[0]).isCloseTo(1464, within(0.5));
+		assertThat(updated[1]).isCloseTo(151.4, within(0.5));
+	}
+
+	@Test
+	public void testEqualRecordsKeepTheInitialRating() {
+		Map<AI, Rating> ratings = GlickoRatings.rate(Arrays.asList(a, b),
+				new Results().won(0, a, b, 2).won(0, b, a, 2).won(1, a, b, 1).won(1, b, a, 1)
+						.list());
+		for (Rating rating : ratings.values()) {
+			assertThat(rating.value).isCloseTo(GlickoRatings.INITIAL_RATING, within(1e-6));
+			// every period played makes the rating more certain
+			assertThat(rating.high - rating.value)
+					.isLessThan(1.96 * GlickoRatings.INITIAL_DEVIATION);
+		}
+	}
+
+	@Test
+	public void testWinnerGainsWhatLoserLoses() {
+		Map<AI, Rating> ratings = GlickoRatings.rate(Arrays.asList(a, b),
+				new Results().won(0, a, b, 3).list());
+		assertThat(ratings.get(a).value).isGreaterThan(GlickoRatings.INITIAL_RATING);
+		assertThat(ratings.get(a).value + ratings.get(b).value)
+				.isCloseTo(2 * GlickoRatings.INITIAL_RATING, within(1e-6));
+	}
+
+}
@@ -0,0 +1,48 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI.VisualiserType;
+import uk.ac.bris.cs.scotlandyard.ai.PlayerFactory;
+import uk.ac.bris.cs.scotlandyard.tournament.GameResult.Outcome;
+
+/**
+ * Made up AIs and game results for the rating tests
+ */
+class Results {
+
+	private final List<GameResult> results = new ArrayList<>();
+
+	static AI ai(String name) {
+		return AI.fromName(name, VisualiserType.NONE, PlayerFactory.class);
+	}
+
+	/**
+	 * Adds games between two AIs, alternating sides
+	 *
+	 * @param round the tournament round
+	 * @param winner the AI that won
+	 * @param loser the AI that lost
+	 * @param games how many games
+	 * @return this
+	 */
+	Results won(int round, AI winner, AI loser, int games) {
+		for (int i = 0; i < games; i++) {
+			boolean mrX = results.size() % 2 == 0;
+			Fixture fixture = mrX ? new Fixture(round, winner, loser, i)
+					: new Fixture(round, loser, winner, i);
+			results.add(new GameResult(fixture, mrX ? Outcome.MRX_WON : Outcome.DETECTIVES_WON,
+					24, Duration.ZERO, Optional.empty(), Optional.empty()));
+		}
+		return this;
+	}
+
+	List<GameResult> list() {
+		return results;
+	}
+
+}
@@ -0,0 +1,36 @@
+package uk.ac.bris.cs.scotlandyard.tournament;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.tournament.Results.ai;
+
+/**
+ * Tests for the pairings of {@link Tournament}
+ */
+public class TournamentTest {
+
+	private final AI a = ai("a"), b = ai("b"), c = ai("c"), d = ai("d");
+
+	@Test
+	public void testSwissRoundAvoidsRematchesFromEitherSide() {
+		Tournament tournament = new Tournament();
+		assertThat(tournament.parse(new String[] { "--format", "swiss", "--games", "1" }))
+				.isTrue();
+		// a beat b playing the detectives, everyone but d has a win
+		List<GameResult> results = new Results().won(0, c, d, 1).won(0, a, b, 1)
+				.won(0, b, d, 1).list();
+		assertThat(results.get(1).fixture.mrX).isEqualTo(b);
+		List<Fixture> fixtures = tournament.swissRound(Arrays.asList(a, b, c, d), results, 1);
+		assertThat(fixtures).hasSize(2);
+		for (Fixture fixture : fixtures)
+			assertThat(Arrays.asList(fixture.mrX.getName(), fixture.detectives.getName()))
+					.containsAnyOf("c", "d");
+	}
+
+}